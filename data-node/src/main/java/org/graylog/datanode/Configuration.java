@@ -173,6 +173,11 @@ public class Configuration {
     @Parameter(value = "indexer_jwt_auth_token_expiration_duration")
     Duration indexerJwtAuthTokenExpirationDuration = Duration.seconds(180);
 
+    @Documentation("Maximum time a cluster config payload is served from the node-local cache. The data node doesn't " +
+            "rely on cluster config caching, so it is disabled by default. Set to 0 to disable the cache.")
+    @Parameter(value = "cluster_config_cache_ttl")
+    private Duration clusterConfigCacheTtl = Duration.seconds(0);
+
     @Documentation("The auto-generated node ID will be stored in this file and read after restarts. It is a good idea " +
             "to use an absolute file path here if you are starting Graylog DataNode from init scripts or similar.")
     @Parameter(value = "node_id_file", validators = NodeIdFileValidator.class)
@@ -33,6 +33,7 @@ import org.graylog.shaded.opensearch2.org.opensearch.action.admin.indices.refres
 import org.graylog.shaded.opensearch2.org.opensearch.action.admin.indices.settings.get.GetSettingsRequest;
 import org.graylog.shaded.opensearch2.org.opensearch.action.admin.indices.settings.get.GetSettingsResponse;
 import org.graylog.shaded.opensearch2.org.opensearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.graylog.shaded.opensearch2.org.opensearch.action.search.MultiSearchResponse;
 import org.graylog.shaded.opensearch2.org.opensearch.action.search.SearchRequest;
 import org.graylog.shaded.opensearch2.org.opensearch.action.search.SearchResponse;
 import org.graylog.shaded.opensearch2.org.opensearch.action.search.SearchType;
@@ -510,6 +511,38 @@ public class IndicesAdapterOS2 implements IndicesAdapter {
 
     @Override
     public IndexRangeStats indexRangeStatsOfIndex(String index) {
+        final SearchRequest request = indexRangeStatsRequest(index);
+        final SearchResponse result = client.execute((c, requestOptions) -> c.search(request, requestOptions),
+                "Couldn't build index range of index " + index);
+
+        return indexRangeStatsFromResponse(index, result);
+    }
+
+    @Override
+    public Map<String, IndexRangeStats> indexRangeStatsOfIndices(Collection<String> indices) {
+        final List<String> indexNames = List.copyOf(indices);
+        final List<MultiSearchResponse.Item> items = client.msearch(indexNames.stream().map(this::indexRangeStatsRequest).toList(),
+                "Couldn't build index ranges of indices " + indexNames);
+
+        final Map<String, IndexRangeStats> result = new HashMap<>(indexNames.size());
+        for (int i = 0; i < indexNames.size(); i++) {
+            final String index = indexNames.get(i);
+            final SearchResponse response = items.get(i).getResponse();
+            // Partial results would lead to wrong index ranges, the caller has to retry these indices
+            if (response == null || response.getFailedShards() > 0) {
+                LOG.debug("Couldn't build index range of index <{}> in multi search request", index);
+                continue;
+            }
+            try {
+                result.put(index, indexRangeStatsFromResponse(index, response));
+            } catch (IndexNotFoundException e) {
+                LOG.debug(e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    private SearchRequest indexRangeStatsRequest(String index) {
         final FilterAggregationBuilder builder = AggregationBuilders.filter("agg", QueryBuilders.existsQuery(Message.FIELD_TIMESTAMP))
                 .subAggregation(AggregationBuilders.min("ts_min").field(Message.FIELD_TIMESTAMP))
                 .subAggregation(AggregationBuilders.max("ts_max").field(Message.FIELD_TIMESTAMP))
@@ -518,15 +551,14 @@ public class IndicesAdapterOS2 implements IndicesAdapter {
                 .aggregation(builder)
                 .size(0);
 
-        final SearchRequest request = new SearchRequest()
+        return new SearchRequest()
                 .source(query)
                 .indices(index)
                 .searchType(SearchType.DFS_QUERY_THEN_FETCH)
                 .indicesOptions(IndicesOptions.lenientExpandOpen());
+    }
 
-        final SearchResponse result = client.execute((c, requestOptions) -> c.search(request, requestOptions),
-                "Couldn't build index range of index " + index);
-
+    private IndexRangeStats indexRangeStatsFromResponse(String index, SearchResponse result) {
         if (result.getTotalShards() == 0 || result.getAggregations() == null) {
             throw new IndexNotFoundException("Couldn't build index range of index " + index + " because it doesn't exist.");
         }
@@ -19,6 +19,7 @@ package org.graylog.storage.opensearch2.views.export;
 import com.google.common.collect.Streams;
 import jakarta.inject.Inject;
 import org.graylog.plugins.views.search.export.ExportMessagesCommand;
+import org.graylog.plugins.views.search.searchtypes.Sort;
 import org.graylog.shaded.opensearch2.org.opensearch.action.search.SearchRequest;
 import org.graylog.shaded.opensearch2.org.opensearch.action.search.SearchResponse;
 import org.graylog.shaded.opensearch2.org.opensearch.search.SearchHit;
@@ -47,21 +48,21 @@ public class SearchAfter implements RequestStrategy {
     @Override
     public List<SearchHit> nextChunk(SearchRequest search, ExportMessagesCommand command) {
 
-        SearchResponse result = search(search);
+        SearchResponse result = search(search, command.sortOrder());
         List<SearchHit> hits = Streams.stream(result.getHits()).collect(Collectors.toList());
         searchAfterValues = lastHitSortFrom(hits);
         return hits;
     }
 
-    private SearchResponse search(SearchRequest search) {
-        configureSort(search.source());
+    private SearchResponse search(SearchRequest search, Sort.Order sortOrder) {
+        configureSort(search.source(), sortOrder == Sort.Order.DESC ? SortOrder.DESC : SortOrder.ASC);
 
         return client.search(search, "Failed to execute Search After request");
     }
 
-    private void configureSort(SearchSourceBuilder source) {
-        source.sort(SortBuilders.fieldSort("timestamp").order(SortOrder.ASC));
-        source.sort(SortBuilders.fieldSort(DEFAULT_TIEBREAKER_FIELD).order(SortOrder.ASC).unmappedType("keyword"));
+    private void configureSort(SearchSourceBuilder source, SortOrder order) {
+        source.sort(SortBuilders.fieldSort("timestamp").order(order));
+        source.sort(SortBuilders.fieldSort(DEFAULT_TIEBREAKER_FIELD).order(order).unmappedType("keyword"));
     }
 
     private Object[] lastHitSortFrom(List<SearchHit> hits) {
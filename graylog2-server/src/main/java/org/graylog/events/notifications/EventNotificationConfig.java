@@ -47,6 +47,15 @@ public interface EventNotificationConfig extends ContentPackable<EventNotificati
     @JsonIgnore
     JobTriggerData toJobTriggerData(EventDto dto);
 
+    /**
+     * Whether the notification renders the {@code digest_events} of its trigger data. Only notifications returning
+     * {@code true} get their events grouped when the event definition configures a digest window.
+     */
+    @JsonIgnore
+    default boolean supportsDigest() {
+        return false;
+    }
+
     @JsonIgnore
     ValidationResult validate();
 
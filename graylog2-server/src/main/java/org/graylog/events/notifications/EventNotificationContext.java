@@ -18,11 +18,13 @@ package org.graylog.events.notifications;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
 import org.graylog.events.event.EventDto;
 import org.graylog.events.processor.EventDefinitionDto;
 import org.graylog.scheduler.JobTriggerDto;
 
 import javax.annotation.Nullable;
+import java.util.List;
 import java.util.Optional;
 
 @AutoValue
@@ -37,6 +39,12 @@ public abstract class EventNotificationContext {
 
     public abstract Optional<JobTriggerDto> jobTrigger();
 
+    /**
+     * All events of a digest notification, including {@link #event()}. Empty if the notification has been
+     * triggered by a single event.
+     */
+    public abstract ImmutableList<EventDto> digestEvents();
+
     public static Builder builder() {
         return Builder.create();
     }
@@ -47,7 +55,7 @@ public abstract class EventNotificationContext {
     public static abstract class Builder {
         @JsonCreator
         public static Builder create() {
-            return new AutoValue_EventNotificationContext.Builder();
+            return new AutoValue_EventNotificationContext.Builder().digestEvents(ImmutableList.of());
         }
 
         public abstract Builder notificationId(String notificationId);
@@ -60,6 +68,8 @@ public abstract class EventNotificationContext {
 
         public abstract Builder jobTrigger(JobTriggerDto jobTrigger);
 
+        public abstract Builder digestEvents(List<EventDto> digestEvents);
+
         public abstract EventNotificationContext build();
     }
 }
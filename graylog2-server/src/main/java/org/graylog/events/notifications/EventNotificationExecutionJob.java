@@ -17,6 +17,7 @@
 package org.graylog.events.notifications;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
@@ -42,6 +43,7 @@ import jakarta.inject.Inject;
 
 import jakarta.validation.constraints.NotBlank;
 
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
@@ -123,6 +125,7 @@ public class EventNotificationExecutionJob implements Job {
                 .event(eventDto)
                 .eventDefinition(optionalEventDefinition.get())
                 .jobTrigger(trigger)
+                .digestEvents(data.digestEvents())
                 .build();
 
         updateTriggerStatus(eventDto, gracePeriodInMS);
@@ -213,11 +216,20 @@ public class EventNotificationExecutionJob implements Job {
     @JsonTypeName(EventNotificationExecutionJob.TYPE_NAME)
     @JsonDeserialize(builder = Data.Builder.class)
     public static abstract class Data implements JobTriggerData {
-        private static final String FIELD_EVENT_DTO = "event_dto";
+        static final String FIELD_EVENT_DTO = "event_dto";
+        static final String FIELD_DIGEST_EVENTS = "digest_events";
 
         @JsonProperty(FIELD_EVENT_DTO)
         public abstract EventDto eventDto();
 
+        /**
+         * All events of a digest notification, including {@link #eventDto()}. Empty for notifications of a single
+         * event.
+         */
+        @JsonProperty(FIELD_DIGEST_EVENTS)
+        @JsonInclude(JsonInclude.Include.NON_EMPTY)
+        public abstract List<EventDto> digestEvents();
+
         public static Builder builder() {
             return Builder.create();
         }
@@ -229,12 +241,16 @@ public class EventNotificationExecutionJob implements Job {
             @JsonCreator
             public static Builder create() {
                 return new AutoValue_EventNotificationExecutionJob_Data.Builder()
-                        .type(TYPE_NAME);
+                        .type(TYPE_NAME)
+                        .digestEvents(List.of());
             }
 
             @JsonProperty(FIELD_EVENT_DTO)
             public abstract Builder eventDto(EventDto dto);
 
+            @JsonProperty(FIELD_DIGEST_EVENTS)
+            public abstract Builder digestEvents(List<EventDto> digestEvents);
+
             abstract Data autoBuild();
 
             public Data build() {
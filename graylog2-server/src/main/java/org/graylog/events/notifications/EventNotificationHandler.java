@@ -20,19 +20,24 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.google.auto.value.AutoValue;
+import com.google.common.collect.Lists;
 import org.graylog.events.contentpack.entities.EventNotificationHandlerConfigEntity;
 import org.graylog.events.event.Event;
+import org.graylog.events.event.EventDto;
 import org.graylog.events.event.EventWithContext;
 import org.graylog.events.processor.EventDefinition;
 import org.graylog.scheduler.DBJobDefinitionService;
 import org.graylog.scheduler.DBJobTriggerService;
 import org.graylog.scheduler.JobDefinitionDto;
+import org.graylog.scheduler.JobTriggerData;
 import org.graylog.scheduler.JobTriggerDto;
+import org.graylog.scheduler.clock.JobSchedulerClock;
 import org.graylog.scheduler.schedule.OnceJobSchedule;
 import org.graylog2.contentpacks.ContentPackable;
 import org.graylog2.contentpacks.EntityDescriptorIds;
 import org.graylog2.contentpacks.model.ModelTypes;
 import org.graylog2.contentpacks.model.entities.references.ValueReference;
+import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,29 +45,46 @@ import javax.annotation.Nullable;
 
 import jakarta.inject.Inject;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.exists;
+
 public class EventNotificationHandler {
     private static final Logger LOG = LoggerFactory.getLogger(EventNotificationHandler.class);
 
+    // Keeps digest triggers well below the MongoDB document size limit
+    static final int MAX_DIGEST_EVENTS = 100;
+    private static final String FIELD_DIGEST_EVENT_DEFINITION_ID = JobTriggerDto.FIELD_DATA + "." +
+            EventNotificationExecutionJob.Data.FIELD_EVENT_DTO + "." + EventDto.FIELD_EVENT_DEFINITION_ID;
+    private static final String FIELD_DIGEST_EVENTS = JobTriggerDto.FIELD_DATA + "." +
+            EventNotificationExecutionJob.Data.FIELD_DIGEST_EVENTS;
+
     private final DBJobDefinitionService jobDefinitionService;
     private final DBJobTriggerService jobTriggerService;
     private final DBNotificationService notificationService;
     private final NotificationGracePeriodService notificationGracePeriodService;
+    private final JobSchedulerClock clock;
 
     @Inject
     public EventNotificationHandler(DBJobDefinitionService jobDefinitionService,
                                     DBJobTriggerService jobTriggerService,
                                     DBNotificationService notificationService,
-                                    NotificationGracePeriodService notificationGracePeriodService) {
+                                    NotificationGracePeriodService notificationGracePeriodService,
+                                    JobSchedulerClock clock) {
         this.jobDefinitionService = jobDefinitionService;
         this.jobTriggerService = jobTriggerService;
         this.notificationService = notificationService;
         this.notificationGracePeriodService = notificationGracePeriodService;
+        this.clock = clock;
     }
 
     public void handleEvents(EventDefinition definition, List<EventWithContext> eventsWithContext) {
+        final long digestWindowMs = definition.notificationSettings().digestWindowMs();
+
         for (Config config : definition.notifications()) {
             final Optional<JobDefinitionDto> jobDefinition =
                     jobDefinitionService.getByConfigField(Config.FIELD_NOTIFICATION_ID, config.notificationId());
@@ -80,25 +102,94 @@ public class EventNotificationHandler {
             final EventNotificationConfig notificationConfig = notificationDto.get().config();
             // TODO: The job trigger data needs information about the events and how to re-run the query to create the backlog
 
+            final List<EventDto> events = new ArrayList<>(eventsWithContext.size());
             for (EventWithContext eventWithContext : eventsWithContext) {
                 final Event event = eventWithContext.event();
-                if (notificationGracePeriodService.inGracePeriod(definition, config.notificationId(), event)) {
-                    continue;
+                if (!notificationGracePeriodService.inGracePeriod(definition, config.notificationId(), event)) {
+                    events.add(event.toDto());
+                }
+            }
+            if (events.isEmpty()) {
+                continue;
+            }
+
+            try {
+                if (digestWindowMs > 0 && notificationConfig.supportsDigest()) {
+                    scheduleDigest(definition, config.notificationId(), jobDefinition.get(), events, digestWindowMs);
+                } else {
+                    if (digestWindowMs > 0) {
+                        LOG.debug("Notification <{}> of type <{}> doesn't support digests, sending {} events individually",
+                                config.notificationId(), notificationConfig.type(), events.size());
+                    }
+                    scheduleTriggers(config.notificationId(), jobDefinition.get(), notificationConfig, events);
                 }
-                try {
-                    final JobTriggerDto trigger = jobTriggerService.create(JobTriggerDto.builder()
-                            .jobDefinitionType(EventNotificationExecutionJob.TYPE_NAME)
-                            .jobDefinitionId(jobDefinition.get().id())
-                            .schedule(OnceJobSchedule.create())
-                            .data(notificationConfig.toJobTriggerData(event.toDto()))
-                            .build());
-                    LOG.debug("Scheduled job <{}> for notification <{}> - event <{}/{}>", trigger.id(), config.notificationId(), event.getId(), event.getMessage());
-                    // TODO: The trigger ID needs to be added to the "triggered_tasks" list of the event
-                } catch (Exception e) {
-                    LOG.error("Couldn't create job trigger for notification <{}> and event: {}", config.notificationId(), event, e);
+                // TODO: The trigger ID needs to be added to the "triggered_tasks" list of the event
+            } catch (Exception e) {
+                LOG.error("Couldn't create job triggers for notification <{}> and {} events", config.notificationId(), events.size(), e);
+            }
+        }
+    }
+
+    private void scheduleTriggers(String notificationId,
+                                  JobDefinitionDto jobDefinition,
+                                  EventNotificationConfig notificationConfig,
+                                  List<EventDto> events) {
+        final List<JobTriggerDto> triggers = events.stream()
+                .map(event -> newTrigger(jobDefinition, notificationConfig.toJobTriggerData(event)).build())
+                .toList();
+
+        final List<JobTriggerDto> created = jobTriggerService.createAll(triggers);
+        if (LOG.isDebugEnabled()) {
+            for (int i = 0; i < created.size(); i++) {
+                LOG.debug("Scheduled job <{}> for notification <{}> - event <{}/{}>", created.get(i).id(), notificationId, events.get(i).id(), events.get(i).message());
+            }
+        }
+    }
+
+    private void scheduleDigest(EventDefinition definition,
+                                String notificationId,
+                                JobDefinitionDto jobDefinition,
+                                List<EventDto> events,
+                                long digestWindowMs) {
+        List<EventDto> remaining = events;
+
+        // Add the events to the digest of an earlier run if its time window hasn't been closed yet
+        final Optional<JobTriggerDto> pendingTrigger = jobTriggerService.getPendingTrigger(jobDefinition.id(),
+                and(eq(FIELD_DIGEST_EVENT_DEFINITION_ID, definition.id()), exists(FIELD_DIGEST_EVENTS)));
+        if (pendingTrigger.isPresent() && pendingTrigger.get().data().orElse(null) instanceof EventNotificationExecutionJob.Data data) {
+            final int count = Math.min(MAX_DIGEST_EVENTS - data.digestEvents().size(), remaining.size());
+            if (count > 0) {
+                final List<EventDto> digestEvents = new ArrayList<>(data.digestEvents());
+                digestEvents.addAll(remaining.subList(0, count));
+                if (jobTriggerService.updatePendingTriggerData(pendingTrigger.get(), data.toBuilder().digestEvents(digestEvents).build())) {
+                    LOG.debug("Added {} events to digest job <{}> for notification <{}>", count, pendingTrigger.get().id(), notificationId);
+                    remaining = remaining.subList(count, remaining.size());
                 }
             }
         }
+
+        final DateTime nextTime = clock.nowUTC().plus(digestWindowMs);
+        final List<JobTriggerDto> triggers = Lists.partition(remaining, MAX_DIGEST_EVENTS).stream()
+                .map(digestEvents -> newTrigger(jobDefinition, EventNotificationExecutionJob.Data.builder()
+                        .eventDto(digestEvents.get(0))
+                        .digestEvents(digestEvents)
+                        .build())
+                        .nextTime(nextTime)
+                        .build())
+                .toList();
+
+        for (JobTriggerDto trigger : jobTriggerService.createAll(triggers)) {
+            LOG.debug("Scheduled digest job <{}> for notification <{}> - {} events", trigger.id(), notificationId,
+                    ((EventNotificationExecutionJob.Data) trigger.data().orElseThrow()).digestEvents().size());
+        }
+    }
+
+    private JobTriggerDto.Builder newTrigger(JobDefinitionDto jobDefinition, JobTriggerData data) {
+        return JobTriggerDto.builderWithClock(clock)
+                .jobDefinitionType(EventNotificationExecutionJob.TYPE_NAME)
+                .jobDefinitionId(jobDefinition.id())
+                .schedule(OnceJobSchedule.create())
+                .data(data);
     }
 
     @AutoValue
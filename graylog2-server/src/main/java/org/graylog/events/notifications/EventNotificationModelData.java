@@ -16,6 +16,7 @@
  */
 package org.graylog.events.notifications;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.auto.value.AutoValue;
 import com.google.common.collect.ImmutableList;
@@ -41,6 +42,7 @@ public abstract class EventNotificationModelData {
     public static final String FIELD_JOB_TRIGGER_ID = "job_trigger_id";
     public static final String FIELD_EVENT = "event";
     public static final String FIELD_BACKLOG = "backlog";
+    public static final String FIELD_DIGEST_EVENTS = "digest_events";
 
     @JsonProperty(FIELD_EVENT_DEFINITION_ID)
     public abstract String eventDefinitionId();
@@ -66,8 +68,12 @@ public abstract class EventNotificationModelData {
     @JsonProperty(FIELD_BACKLOG)
     public abstract ImmutableList<MessageSummary> backlog();
 
+    @JsonProperty(FIELD_DIGEST_EVENTS)
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public abstract ImmutableList<EventDto> digestEvents();
+
     public static Builder builder() {
-        return new AutoValue_EventNotificationModelData.Builder();
+        return new AutoValue_EventNotificationModelData.Builder().digestEvents(ImmutableList.of());
     }
 
     public abstract Builder toBuilder();
@@ -90,6 +96,8 @@ public abstract class EventNotificationModelData {
 
         public abstract Builder backlog(List<MessageSummary> backlog);
 
+        public abstract Builder digestEvents(List<EventDto> digestEvents);
+
         public abstract EventNotificationModelData build();
     }
 
@@ -106,6 +114,7 @@ public abstract class EventNotificationModelData {
                 .jobTriggerId(jobTriggerDto.map(JobTriggerDto::id).orElse(UNKNOWN))
                 .event(ctx.event())
                 .backlog(backlog)
+                .digestEvents(ctx.digestEvents())
                 .build();
     }
 }
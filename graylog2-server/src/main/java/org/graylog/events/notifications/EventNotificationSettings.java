@@ -26,6 +26,7 @@ import com.google.auto.value.AutoValue;
 public abstract class EventNotificationSettings {
     public static final String FIELD_GRACE_PERIOD_MS = "grace_period_ms";
     public static final String FIELD_BACKLOG_SIZE = "backlog_size";
+    public static final String FIELD_DIGEST_WINDOW_MS = "digest_window_ms";
 
     @JsonProperty(FIELD_GRACE_PERIOD_MS)
     public abstract long gracePeriodMs();
@@ -33,6 +34,14 @@ public abstract class EventNotificationSettings {
     @JsonProperty(FIELD_BACKLOG_SIZE)
     public abstract long backlogSize();
 
+    /**
+     * If greater than zero, all events of the event definition which occur within this time window are sent in a
+     * single notification per configured notification. Notifications which don't
+     * {@link EventNotificationConfig#supportsDigest() support digests} keep sending one notification per event.
+     */
+    @JsonProperty(FIELD_DIGEST_WINDOW_MS)
+    public abstract long digestWindowMs();
+
     public static EventNotificationSettings withGracePeriod(long gracePeriodMs) {
         return builder().gracePeriodMs(gracePeriodMs).build();
     }
@@ -47,7 +56,7 @@ public abstract class EventNotificationSettings {
     public static abstract class Builder {
         @JsonCreator
         public static Builder create() {
-            return new AutoValue_EventNotificationSettings.Builder().backlogSize(0L);
+            return new AutoValue_EventNotificationSettings.Builder().backlogSize(0L).digestWindowMs(0L);
         }
 
         @JsonProperty(FIELD_GRACE_PERIOD_MS)
@@ -56,6 +65,9 @@ public abstract class EventNotificationSettings {
         @JsonProperty(FIELD_BACKLOG_SIZE)
         public abstract Builder backlogSize(long backlogSize);
 
+        @JsonProperty(FIELD_DIGEST_WINDOW_MS)
+        public abstract Builder digestWindowMs(long digestWindowMs);
+
         public abstract EventNotificationSettings build();
     }
 }
\ No newline at end of file
@@ -83,6 +83,10 @@ public class NotificationTestData {
                                               return 0;
                                           }
                                           @Override
+                                          public long digestWindowMs() {
+                                              return 0;
+                                          }
+                                          @Override
                                           public Builder toBuilder() {
                                               return null;
                                           }
@@ -68,6 +68,13 @@ public abstract class EmailEventNotificationConfig implements EventNotificationC
             "Fields:\n" +
             "${foreach event.fields field}  ${field.key}: ${field.value}\n" +
             "${end}\n" +
+            "${if digest_events}\n" +
+            "--- [Digest] -------------------------------------\n" +
+            "Events accounting for this notification:\n" +
+            "${foreach digest_events digest_event}\n" +
+            "${digest_event.timestamp}  ${digest_event.message}\n" +
+            "${end}\n" +
+            "${end}\n" +
             "${if backlog}\n" +
             "--- [Backlog] ------------------------------------\n" +
             "Last messages accounting for this alert:\n" +
@@ -159,6 +166,12 @@ public abstract class EmailEventNotificationConfig implements EventNotificationC
         return EventNotificationExecutionJob.Data.builder().eventDto(dto).build();
     }
 
+    @Override
+    @JsonIgnore
+    public boolean supportsDigest() {
+        return true;
+    }
+
     public static Builder builder() {
         return Builder.create();
     }
@@ -111,6 +111,12 @@ public abstract class HTTPEventNotificationConfigV2 implements EventNotification
         return EventNotificationExecutionJob.Data.builder().eventDto(dto).build();
     }
 
+    @Override
+    @JsonIgnore
+    public boolean supportsDigest() {
+        return true;
+    }
+
     public static Builder builder() {
         return Builder.create();
     }
@@ -77,6 +77,7 @@ import static org.graylog.events.event.EventDto.FIELD_STREAMS;
 import static org.graylog.events.event.EventDto.FIELD_TIMERANGE_END;
 import static org.graylog.events.event.EventDto.FIELD_TIMERANGE_START;
 import static org.graylog.events.notifications.EventNotificationModelData.FIELD_BACKLOG;
+import static org.graylog.events.notifications.EventNotificationModelData.FIELD_DIGEST_EVENTS;
 import static org.graylog.events.notifications.EventNotificationModelData.FIELD_EVENT_DEFINITION_DESCRIPTION;
 import static org.graylog.events.notifications.EventNotificationModelData.FIELD_EVENT_DEFINITION_ID;
 import static org.graylog.events.notifications.EventNotificationModelData.FIELD_EVENT_DEFINITION_TITLE;
@@ -275,7 +276,8 @@ public class HTTPEventNotificationV2 extends HTTPNotification implements EventNo
                 urlEncodedKeyValue(EVENT + FIELD_KEY, eventMap.get(FIELD_KEY)) +
                 urlEncodedKeyValue(EVENT + FIELD_PRIORITY, eventMap.get(FIELD_PRIORITY)) +
                 urlEncodedKeyValue(EVENT + FIELD_FIELDS, eventMap.get(FIELD_FIELDS)) +
-                urlEncodedKeyValue(FIELD_BACKLOG, modelMap.get(FIELD_BACKLOG))
+                urlEncodedKeyValue(FIELD_BACKLOG, modelMap.get(FIELD_BACKLOG)) +
+                (modelMap.containsKey(FIELD_DIGEST_EVENTS) ? urlEncodedKeyValue(FIELD_DIGEST_EVENTS, modelMap.get(FIELD_DIGEST_EVENTS)) : "")
         );
     }
 
@@ -104,6 +104,7 @@ public class KinesisShardProcessorFactory implements ShardRecordProcessorFactory
             }
 
             for (KinesisClientRecord record : processRecordsInput.records()) {
+                transport.acquireCredits(1);
                 try {
                     // Create a read-only view of the data and use a safe method to convert it to a byte array
                     // as documented in KinesisClientRecord#getData(). (using ByteBuffer#array() can fail)
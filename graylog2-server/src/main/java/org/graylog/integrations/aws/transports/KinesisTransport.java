@@ -29,6 +29,7 @@ import org.graylog.integrations.aws.inputs.AWSInput;
 import org.graylog.integrations.aws.resources.requests.AWSRequest;
 import org.graylog.integrations.aws.resources.requests.AWSRequestImpl;
 import org.graylog.integrations.aws.service.AWSService;
+import org.graylog2.inputs.transports.IngestRateLimiter;
 import org.graylog2.plugin.InputFailureRecorder;
 import org.graylog2.plugin.LocalMetricRegistry;
 import org.graylog2.plugin.configuration.Configuration;
@@ -88,8 +89,9 @@ public class KinesisTransport extends ThrottleableTransport2 {
                             final NodeId nodeId,
                             LocalMetricRegistry localRegistry,
                             ObjectMapper objectMapper,
-                            AWSClientBuilderUtil awsClientBuilderUtil) {
-        super(serverEventBus, configuration);
+                            AWSClientBuilderUtil awsClientBuilderUtil,
+                            IngestRateLimiter ingestRateLimiter) {
+        super(serverEventBus, configuration, ingestRateLimiter);
         this.configuration = configuration;
         this.nodeId = nodeId;
         this.localRegistry = localRegistry;
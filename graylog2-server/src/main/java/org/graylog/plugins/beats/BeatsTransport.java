@@ -20,6 +20,7 @@ import com.google.inject.assistedinject.Assisted;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.EventLoopGroup;
 import org.graylog2.configuration.TLSProtocolsConfiguration;
+import org.graylog2.inputs.transports.IngestRateLimiter;
 import org.graylog2.inputs.transports.NettyTransportConfiguration;
 import org.graylog2.inputs.transports.netty.EventLoopGroupFactory;
 import org.graylog2.plugin.LocalMetricRegistry;
@@ -46,8 +47,9 @@ public class BeatsTransport extends AbstractTcpTransport {
                           NettyTransportConfiguration nettyTransportConfiguration,
                           ThroughputCounter throughputCounter,
                           LocalMetricRegistry localRegistry,
-                          TLSProtocolsConfiguration tlsConfiguration) {
-        super(configuration, throughputCounter, localRegistry, eventLoopGroup, eventLoopGroupFactory, nettyTransportConfiguration, tlsConfiguration);
+                          TLSProtocolsConfiguration tlsConfiguration,
+                          IngestRateLimiter ingestRateLimiter) {
+        super(configuration, throughputCounter, localRegistry, eventLoopGroup, eventLoopGroupFactory, nettyTransportConfiguration, tlsConfiguration, ingestRateLimiter);
     }
 
     @Override
@@ -47,13 +47,12 @@ import org.graylog2.plugin.Message;
 import org.graylog2.plugin.MessageCollection;
 import org.graylog2.plugin.Messages;
 import org.graylog2.plugin.messageprocessors.MessageProcessor;
-import org.graylog2.plugin.streams.Stream;
+import org.graylog2.plugin.streams.StreamOrdinals;
 import org.graylog2.plugin.utilities.ratelimitedlog.RateLimitedLogFactory;
 import org.graylog2.shared.buffers.processors.ProcessBufferProcessor;
 import org.graylog2.shared.messageq.MessageQueueAcknowledger;
 import org.graylog2.shared.metrics.MetricUtils;
 import org.graylog2.shared.utilities.ExceptionUtils;
-import org.jooq.lambda.tuple.Tuple2;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,16 +63,17 @@ import jakarta.inject.Named;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
-import java.util.stream.Collectors;
 
 import static com.codahale.metrics.MetricRegistry.name;
-import static org.jooq.lambda.tuple.Tuple.tuple;
 
 public class PipelineInterpreter implements MessageProcessor {
     private static final RateLimitedLog log = getRateLimitedLog(PipelineInterpreter.class);
@@ -127,8 +127,8 @@ public class PipelineInterpreter implements MessageProcessor {
      */
     public Messages process(Messages messages, InterpreterListener interpreterListener, State state) {
         interpreterListener.startProcessing();
-        // message id + stream id
-        final Set<Tuple2<String, String>> processingBlacklist = Sets.newHashSet();
+        // message id -> ordinals of the already processed streams
+        final Map<String, BitSet> processingBlacklist = new HashMap<>();
 
         final List<Message> toProcess = Lists.newArrayList(messages);
         final List<Message> fullyProcessed = Lists.newArrayListWithExpectedSize(toProcess.size());
@@ -141,15 +141,15 @@ public class PipelineInterpreter implements MessageProcessor {
             for (Message message : currentSet) {
                 final String msgId = message.getId();
 
-                // this makes a copy of the list, which is mutated later in updateStreamBlacklist
-                // it serves as a worklist, to keep track of which <msg, stream> tuples need to be re-run again
-                final Set<String> initialStreamIds = message.getStreams().stream().map(Stream::getId).collect(Collectors.toSet());
+                // this is a copy of the stream membership bitmap, it serves as a worklist to keep track of which
+                // <msg, stream> combinations need to be re-run again
+                final BitSet initialStreams = message.getStreamOrdinals();
 
                 final ImmutableSet<Pipeline> pipelinesToRun = selectPipelines(interpreterListener,
                         processingBlacklist,
                         message,
-                        initialStreamIds,
-                        state.getStreamPipelineConnections());
+                        initialStreams,
+                        state);
 
                 toProcess.addAll(processForResolvedPipelines(message, msgId, pipelinesToRun, interpreterListener, state));
 
@@ -158,7 +158,7 @@ public class PipelineInterpreter implements MessageProcessor {
                 // its pipeline connections, too
                 boolean addedStreams = updateStreamBlacklist(processingBlacklist,
                         message,
-                        initialStreamIds);
+                        initialStreams);
                 potentiallyDropFilteredMessage(message);
 
                 // go to 1 and iterate over all messages again until no more streams are being assigned
@@ -189,39 +189,47 @@ public class PipelineInterpreter implements MessageProcessor {
 
     // given the initial streams the message was on before the processing and its current state, update the set of
     // <msgid, stream> that should not be run again (which prevents re-running pipelines over and over again)
-    private boolean updateStreamBlacklist(Set<Tuple2<String, String>> processingBlacklist,
+    private boolean updateStreamBlacklist(Map<String, BitSet> processingBlacklist,
                                           Message message,
-                                          Set<String> initialStreamIds) {
-        boolean addedStreams = false;
-        for (Stream stream : message.getStreams()) {
-            if (!initialStreamIds.remove(stream.getId())) {
-                addedStreams = true;
-            } else {
-                // only add pre-existing streams to blacklist, this has the effect of only adding already processed streams,
-                // not newly added ones.
-                processingBlacklist.add(tuple(message.getId(), stream.getId()));
-            }
+                                          BitSet initialStreams) {
+        final BitSet currentStreams = message.getStreamOrdinals();
+        // only add pre-existing streams to blacklist, this has the effect of only adding already processed streams,
+        // not newly added ones.
+        final BitSet processedStreams = (BitSet) currentStreams.clone();
+        processedStreams.and(initialStreams);
+        if (!processedStreams.isEmpty()) {
+            processingBlacklist.computeIfAbsent(message.getId(), id -> new BitSet()).or(processedStreams);
         }
-        return addedStreams;
+        currentStreams.andNot(initialStreams);
+        return !currentStreams.isEmpty();
     }
 
     // determine which pipelines should be executed give the stream-pipeline connections and the current message
-    // the initialStreamIds are not mutated, but are being passed for efficiency, as they are used later in #process()
+    // the initialStreams are not mutated, but are being passed for efficiency, as they are used later in #process()
     private ImmutableSet<Pipeline> selectPipelines(InterpreterListener interpreterListener,
-                                                   Set<Tuple2<String, String>> processingBlacklist,
+                                                   Map<String, BitSet> processingBlacklist,
                                                    Message message,
-                                                   Set<String> initialStreamIds,
-                                                   ImmutableSetMultimap<String, Pipeline> streamConnection) {
+                                                   BitSet initialStreams,
+                                                   State state) {
         final String msgId = message.getId();
 
-        // if a message-stream combination has already been processed (is in the set), skip that execution
-        final Set<String> streamsIds = initialStreamIds.stream()
-                .filter(streamId -> !processingBlacklist.contains(tuple(msgId, streamId)))
-                .filter(streamConnection::containsKey)
-                .collect(Collectors.toSet());
-        final ImmutableSet<Pipeline> pipelinesToRun = streamsIds.stream()
-                .flatMap(streamId -> streamConnection.get(streamId).stream())
-                .collect(ImmutableSet.toImmutableSet());
+        // if a message-stream combination has already been processed (is in the blacklist), skip that execution
+        final BitSet streams = (BitSet) initialStreams.clone();
+        streams.and(state.connectedStreamOrdinals());
+        final BitSet blacklist = processingBlacklist.get(msgId);
+        if (blacklist != null) {
+            streams.andNot(blacklist);
+        }
+
+        final ImmutableSetMultimap<String, Pipeline> streamConnection = state.getStreamPipelineConnections();
+        final Set<String> streamsIds = new HashSet<>(streams.cardinality());
+        final ImmutableSet.Builder<Pipeline> pipelines = ImmutableSet.builder();
+        for (int ordinal = streams.nextSetBit(0); ordinal >= 0; ordinal = streams.nextSetBit(ordinal + 1)) {
+            final String streamId = StreamOrdinals.streamId(ordinal);
+            streamsIds.add(streamId);
+            pipelines.addAll(streamConnection.get(streamId));
+        }
+        final ImmutableSet<Pipeline> pipelinesToRun = pipelines.build();
         interpreterListener.processStreams(message, pipelinesToRun, streamsIds);
         log.debug("[{}] running pipelines {} for streams {}", msgId, pipelinesToRun, streamsIds);
         return pipelinesToRun;
@@ -483,6 +491,8 @@ public class PipelineInterpreter implements MessageProcessor {
 
         private final ImmutableMap<String, Pipeline> currentPipelines;
         private final ImmutableSetMultimap<String, Pipeline> streamPipelineConnections;
+        // ordinals of all streams with pipeline connections, must not be modified
+        private volatile ConnectedStreamOrdinals connectedStreamOrdinals;
         private final LoadingCache<Set<Pipeline>, StageIterator.Configuration> cache;
         private final boolean cachedIterators;
         private final RuleMetricsConfigDto ruleMetricsConfig;
@@ -496,6 +506,7 @@ public class PipelineInterpreter implements MessageProcessor {
                      @Named("cached_stageiterators") boolean cachedIterators) {
             this.currentPipelines = currentPipelines;
             this.streamPipelineConnections = streamPipelineConnections;
+            this.connectedStreamOrdinals = connectedStreamOrdinals(streamPipelineConnections);
             this.cachedIterators = cachedIterators;
             this.ruleMetricsConfig = ruleMetricsConfig;
 
@@ -526,6 +537,26 @@ public class PipelineInterpreter implements MessageProcessor {
             return streamPipelineConnections;
         }
 
+        BitSet connectedStreamOrdinals() {
+            ConnectedStreamOrdinals current = connectedStreamOrdinals;
+            if (current.epoch() != StreamOrdinals.epoch()) {
+                // ordinals have been released and might be re-used for other streams
+                current = connectedStreamOrdinals(streamPipelineConnections);
+                connectedStreamOrdinals = current;
+            }
+            return current.ordinals();
+        }
+
+        private static ConnectedStreamOrdinals connectedStreamOrdinals(ImmutableSetMultimap<String, Pipeline> streamPipelineConnections) {
+            final int epoch = StreamOrdinals.epoch();
+            final BitSet ordinals = new BitSet();
+            streamPipelineConnections.keySet().forEach(streamId -> ordinals.set(StreamOrdinals.ordinal(streamId)));
+            return new ConnectedStreamOrdinals(epoch, ordinals);
+        }
+
+        private record ConnectedStreamOrdinals(int epoch, BitSet ordinals) {
+        }
+
         public boolean enableRuleMetrics() {
             return ruleMetricsConfig.metricsEnabled();
         }
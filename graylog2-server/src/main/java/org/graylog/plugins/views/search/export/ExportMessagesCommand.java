@@ -20,6 +20,7 @@ import com.google.auto.value.AutoValue;
 import com.google.common.collect.ImmutableSet;
 import org.graylog.plugins.views.search.elasticsearch.ElasticsearchQueryString;
 import org.graylog.plugins.views.search.searchfilters.model.UsedSearchFilter;
+import org.graylog.plugins.views.search.searchtypes.Sort;
 import org.graylog2.database.filtering.AttributeFilter;
 import org.graylog2.decorators.Decorator;
 import org.graylog2.plugin.indexer.searches.timeranges.AbsoluteRange;
@@ -79,6 +80,11 @@ public abstract class ExportMessagesCommand {
 
     public abstract DateTimeZone timeZone();
 
+    /**
+     * Order of the exported messages by their timestamp.
+     */
+    public abstract Sort.Order sortOrder();
+
     public static ExportMessagesCommand withDefaults() {
         return builder().build();
     }
@@ -119,6 +125,8 @@ public abstract class ExportMessagesCommand {
 
         public abstract Builder timeZone(DateTimeZone timeZone);
 
+        public abstract Builder sortOrder(Sort.Order sortOrder);
+
         abstract ExportMessagesCommand autoBuild();
 
         public ExportMessagesCommand build() {
@@ -135,7 +143,8 @@ public abstract class ExportMessagesCommand {
                     .fieldsInOrder(DEFAULT_FIELDS)
                     .decorators(Collections.emptyList())
                     .chunkSize(DEFAULT_CHUNK_SIZE)
-                    .timeZone(DEFAULT_TIME_ZONE);
+                    .timeZone(DEFAULT_TIME_ZONE)
+                    .sortOrder(Sort.Order.ASC);
         }
     }
 }
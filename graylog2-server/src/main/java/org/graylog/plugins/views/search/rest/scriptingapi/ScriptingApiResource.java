@@ -17,6 +17,7 @@
 package org.graylog.plugins.views.search.rest.scriptingapi;
 
 import com.google.common.eventbus.EventBus;
+import com.google.common.primitives.Ints;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -28,14 +29,23 @@ import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.apache.shiro.authz.annotation.RequiresAuthentication;
 import org.graylog.plugins.views.search.Search;
+import org.graylog.plugins.views.search.SearchExecutionGuard;
 import org.graylog.plugins.views.search.SearchJob;
 import org.graylog.plugins.views.search.engine.SearchExecutor;
 import org.graylog.plugins.views.search.events.SearchJobExecutionEvent;
+import org.graylog.plugins.views.search.export.AuditContext;
+import org.graylog.plugins.views.search.export.AuditingMessagesExporter;
+import org.graylog.plugins.views.search.export.CommandFactory;
+import org.graylog.plugins.views.search.export.ExportMessagesCommand;
+import org.graylog.plugins.views.search.export.MessagesExporter;
+import org.graylog.plugins.views.search.export.ResultFormat;
 import org.graylog.plugins.views.search.permissions.SearchUser;
 import org.graylog.plugins.views.search.rest.ExecutionState;
 import org.graylog.plugins.views.search.rest.scriptingapi.mapping.AggregationTabularResponseCreator;
@@ -48,12 +58,17 @@ import org.graylog.plugins.views.search.rest.scriptingapi.request.MessagesReques
 import org.graylog.plugins.views.search.rest.scriptingapi.response.TabularResponse;
 import org.graylog.plugins.views.search.searchtypes.pivot.SortSpec;
 import org.graylog2.audit.jersey.NoAuditEvent;
+import org.graylog2.plugin.Message;
 import org.graylog2.plugin.rest.PluginRestResource;
+import org.graylog2.rest.MoreMediaTypes;
+import org.graylog2.shared.rest.bulkheads.RestBulkhead;
+import org.graylog2.shared.rest.bulkheads.RestBulkheadGroup;
 import org.graylog2.shared.rest.resources.RestResource;
 import org.graylog2.shared.utilities.StringUtils;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -64,6 +79,7 @@ import static org.graylog2.shared.utilities.StringUtils.splitByComma;
 @Path("/search")
 @Consumes({MediaType.APPLICATION_JSON})
 @RequiresAuthentication
+@RestBulkhead(RestBulkheadGroup.SEARCH)
 public class ScriptingApiResource extends RestResource implements PluginRestResource {
 
     private final SearchExecutor searchExecutor;
@@ -72,6 +88,9 @@ public class ScriptingApiResource extends RestResource implements PluginRestReso
     private final AggregationTabularResponseCreator aggregationTabularResponseCreator;
     private final MessagesTabularResponseCreator messagesTabularResponseCreator;
     private final QueryParamsToFullRequestSpecificationMapper queryParamsToFullRequestSpecificationMapper;
+    private final SearchExecutionGuard executionGuard;
+    private final CommandFactory commandFactory;
+    private final MessagesExporter messagesExporter;
 
     @Inject
     public ScriptingApiResource(final SearchExecutor searchExecutor,
@@ -79,13 +98,19 @@ public class ScriptingApiResource extends RestResource implements PluginRestReso
                                 final SearchRequestSpecToSearchMapper searchCreator,
                                 final AggregationTabularResponseCreator aggregationTabularResponseCreator,
                                 final MessagesTabularResponseCreator messagesTabularResponseCreator,
-                                final QueryParamsToFullRequestSpecificationMapper queryParamsToFullRequestSpecificationMapper) {
+                                final QueryParamsToFullRequestSpecificationMapper queryParamsToFullRequestSpecificationMapper,
+                                final SearchExecutionGuard executionGuard,
+                                final CommandFactory commandFactory,
+                                final MessagesExporter messagesExporter) {
         this.searchExecutor = searchExecutor;
         this.serverEventBus = serverEventBus;
         this.searchCreator = searchCreator;
         this.aggregationTabularResponseCreator = aggregationTabularResponseCreator;
         this.messagesTabularResponseCreator = messagesTabularResponseCreator;
         this.queryParamsToFullRequestSpecificationMapper = queryParamsToFullRequestSpecificationMapper;
+        this.executionGuard = executionGuard;
+        this.commandFactory = commandFactory;
+        this.messagesExporter = messagesExporter;
     }
 
     @POST
@@ -113,6 +138,43 @@ public class ScriptingApiResource extends RestResource implements PluginRestReso
         }
     }
 
+    @POST
+    @ApiOperation(value = "Stream messages specified by `queryRequestSpec` as columnar batches",
+                  notes = "Returns newline delimited JSON: the schema first, followed by one batch of columns per retrieved page. " +
+                          "The batches are JSON, not the Apache Arrow IPC format. Messages can only be sorted by `timestamp`.",
+                  nickname = "streamMessagesByQueryRequestSpec")
+    @Path("messages/stream")
+    @Produces(MoreMediaTypes.APPLICATION_NDJSON)
+    @NoAuditEvent("Has custom audit events")
+    @RestBulkhead(RestBulkheadGroup.EXPORT)
+    public StreamingOutput streamQuery(@ApiParam(name = "queryRequestSpec") @Valid MessagesRequestSpec messagesRequestSpec,
+                                       @Context SearchUser searchUser) {
+        // The export backend pages through the messages by their timestamp, other sort fields would require
+        // loading the whole result set first
+        if (!Message.FIELD_TIMESTAMP.equals(messagesRequestSpec.sort())) {
+            throw new BadRequestException("Streamed messages can only be sorted by " + Message.FIELD_TIMESTAMP);
+        }
+        try {
+            final Search search = searchCreator.mapToSearch(messagesRequestSpec, searchUser);
+            executionGuard.check(search, searchUser::canReadStream);
+
+            // Skipped messages are dropped while streaming, so they count towards the export limit
+            final ResultFormat resultFormat = ResultFormat.builder()
+                    .fieldsInOrder(new LinkedHashSet<>(messagesRequestSpec.fieldNames()))
+                    .limit(Ints.saturatedCast((long) messagesRequestSpec.from() + messagesRequestSpec.size()))
+                    .timeZone(searchUser.timeZone().orElse(DateTimeZone.UTC))
+                    .build();
+            final ExportMessagesCommand command = commandFactory.buildWithSearchOnly(search, resultFormat).toBuilder()
+                    .sortOrder(messagesRequestSpec.sortOrder().toSortOrder())
+                    .build();
+            final MessagesExporter exporter = new AuditingMessagesExporter(new AuditContext(searchUser.username(), null, null), serverEventBus, messagesExporter);
+
+            return outputStream -> messagesTabularResponseCreator.writeColumnar(messagesRequestSpec, command, exporter, searchUser, outputStream);
+        } catch (IllegalArgumentException | ValidationException ex) {
+            throw new BadRequestException(ex.getMessage(), ex);
+        }
+    }
+
     @GET
     @ApiOperation(value = "Execute query specified by query parameters", nickname = "messagesByQueryParameters")
     @Path("messages")
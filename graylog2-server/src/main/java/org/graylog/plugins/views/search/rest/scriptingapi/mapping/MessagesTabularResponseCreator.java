@@ -16,10 +16,14 @@
  */
 package org.graylog.plugins.views.search.rest.scriptingapi.mapping;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.shiro.subject.Subject;
 import org.graylog.plugins.views.search.QueryResult;
 import org.graylog.plugins.views.search.SearchJob;
 import org.graylog.plugins.views.search.SearchType;
+import org.graylog.plugins.views.search.export.ExportMessagesCommand;
+import org.graylog.plugins.views.search.export.MessagesExporter;
+import org.graylog.plugins.views.search.export.SimpleMessage;
 import org.graylog.plugins.views.search.permissions.SearchUser;
 import org.graylog.plugins.views.search.rest.MappedFieldTypeDTO;
 import org.graylog.plugins.views.search.rest.SearchJobDTO;
@@ -30,6 +34,7 @@ import org.graylog.plugins.views.search.rest.scriptingapi.response.ResponseSchem
 import org.graylog.plugins.views.search.rest.scriptingapi.response.TabularResponse;
 import org.graylog.plugins.views.search.rest.scriptingapi.response.decorators.CachingDecorator;
 import org.graylog.plugins.views.search.rest.scriptingapi.response.decorators.FieldDecorator;
+import org.graylog.plugins.views.search.rest.scriptingapi.response.writers.ColumnarResponseWriter;
 import org.graylog.plugins.views.search.searchtypes.MessageList;
 import org.graylog2.indexer.fieldtypes.MappedFieldTypesService;
 import org.graylog2.rest.models.messages.responses.ResultMessageSummary;
@@ -39,22 +44,32 @@ import org.slf4j.LoggerFactory;
 
 import jakarta.inject.Inject;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class MessagesTabularResponseCreator implements TabularResponseCreator {
 
     private static final Logger LOG = LoggerFactory.getLogger(MessagesTabularResponseCreator.class);
+    static final String STREAMING_FAILED_MESSAGE = "Failed to retrieve messages, see the server log for details.";
 
     private final MappedFieldTypesService mappedFieldTypesService;
     private final Set<FieldDecorator> decorators;
+    private final ObjectMapper objectMapper;
 
     @Inject
-    public MessagesTabularResponseCreator(final MappedFieldTypesService mappedFieldTypesService, Set<FieldDecorator> decorators) {
+    public MessagesTabularResponseCreator(final MappedFieldTypesService mappedFieldTypesService,
+                                          final Set<FieldDecorator> decorators,
+                                          final ObjectMapper objectMapper) {
         this.mappedFieldTypesService = mappedFieldTypesService;
         this.decorators = decorators;
+        this.objectMapper = objectMapper;
     }
 
     public TabularResponse mapToResponse(final MessagesRequestSpec messagesRequestSpec,
@@ -75,6 +90,64 @@ public class MessagesTabularResponseCreator implements TabularResponseCreator {
         throw new QueryFailedException("Scripting API failed to obtain messages for input : " + messagesRequestSpec);
     }
 
+    /**
+     * Runs the export command and writes the messages as columnar batches to the given stream, one batch per exported
+     * chunk. Only the current chunk is kept in memory. The first {@link MessagesRequestSpec#from()} exported messages
+     * are skipped, so the command's limit has to include them.
+     *
+     * @see ColumnarResponseWriter
+     */
+    public void writeColumnar(final MessagesRequestSpec messagesRequestSpec,
+                              final ExportMessagesCommand command,
+                              final MessagesExporter exporter,
+                              final SearchUser searchUser,
+                              final OutputStream outputStream) throws IOException {
+        final List<RequestedField> fields = messagesRequestSpec.requestedFields();
+        final Set<FieldDecorator> cachedDecorators = this.decorators.stream().map(CachingDecorator::new).collect(Collectors.toSet());
+
+        final AtomicInteger remainingToSkip = new AtomicInteger(messagesRequestSpec.from());
+
+        try (final ColumnarResponseWriter writer = new ColumnarResponseWriter(objectMapper, outputStream, getSchema(messagesRequestSpec, searchUser))) {
+            writer.writeHeader(new Metadata(command.timeRange()));
+            try {
+                exporter.export(command, chunk -> {
+                    final int skip = Math.min(remainingToSkip.get(), chunk.size());
+                    remainingToSkip.addAndGet(-skip);
+                    final List<SimpleMessage> messages = chunk.messages().stream().skip(skip).toList();
+                    try {
+                        writer.writeBatch(getColumns(fields, messages, cachedDecorators, searchUser));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                // The client went away, there is nobody left to report the error to
+                throw e.getCause();
+            } catch (Exception e) {
+                // Backend errors may contain index names or query internals, so the details are only logged
+                LOG.error("Scripting API failed to stream messages for input : " + messagesRequestSpec, e);
+                writer.writeError(STREAMING_FAILED_MESSAGE);
+            }
+        }
+    }
+
+    private List<List<Object>> getColumns(final List<RequestedField> fields,
+                                          final List<SimpleMessage> messages,
+                                          final Set<FieldDecorator> cachedDecorators,
+                                          final SearchUser searchUser) {
+        final List<List<Object>> columns = new ArrayList<>(fields.size());
+        for (RequestedField field : fields) {
+            final List<Object> column = new ArrayList<>(messages.size());
+            for (SimpleMessage message : messages) {
+                column.add(Optional.ofNullable(message.valueFor(field.name()))
+                        .map(value -> decorate(cachedDecorators, field, value, searchUser))
+                        .orElse(null));
+            }
+            columns.add(column);
+        }
+        return columns;
+    }
+
     private TabularResponse mapToResponse(final MessagesRequestSpec searchRequestSpec,
                                           final MessageList.Result messageListResult,
                                           final SearchUser searchUser) {
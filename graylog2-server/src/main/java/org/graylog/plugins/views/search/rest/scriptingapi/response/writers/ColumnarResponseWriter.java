@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog.plugins.views.search.rest.scriptingapi.response.writers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.graylog.plugins.views.search.rest.scriptingapi.response.Metadata;
+import org.graylog.plugins.views.search.rest.scriptingapi.response.ResponseEntryDataType;
+import org.graylog.plugins.views.search.rest.scriptingapi.response.ResponseSchemaEntry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes a tabular response as newline delimited JSON in columnar batches, so that results can be streamed to the
+ * client while they are retrieved.
+ * <p>
+ * The first line contains the schema and the metadata of the response. Every following line contains one batch of
+ * rows, with one array of values per schema entry:
+ * <pre>
+ * {"schema":[...],"metadata":{...}}
+ * {"rows":2,"columns":[["a","b"],[1,2]]}
+ * </pre>
+ * Values are converted to the JSON type matching the data type of their column, missing or unconvertible values are
+ * written as {@code null}. If retrieving the messages fails after the response has been started, a last line with an
+ * {@code error} field is written.
+ * <p>
+ * This is a JSON format and not the Apache Arrow IPC stream format, Arrow isn't a dependency of the server. The batches
+ * map one to one to Arrow record batches though, so clients can build them column by column without transposing rows.
+ */
+public class ColumnarResponseWriter implements Closeable {
+
+    private final JsonGenerator generator;
+    private final List<ResponseSchemaEntry> schema;
+
+    public ColumnarResponseWriter(ObjectMapper objectMapper, OutputStream outputStream, List<ResponseSchemaEntry> schema) throws IOException {
+        this.generator = objectMapper.createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                // Lines are terminated explicitly
+                .setRootValueSeparator(null);
+        this.schema = schema;
+    }
+
+    public void writeHeader(Metadata metadata) throws IOException {
+        generator.writeStartObject();
+        generator.writeObjectField("schema", schema);
+        generator.writeObjectField("metadata", metadata);
+        generator.writeEndObject();
+        endLine();
+    }
+
+    /**
+     * @param columns one list of values per schema entry, all lists have to contain the same number of values
+     */
+    public void writeBatch(List<List<Object>> columns) throws IOException {
+        if (columns.size() != schema.size()) {
+            throw new IllegalArgumentException("Expected " + schema.size() + " columns, got " + columns.size());
+        }
+        final int rows = columns.isEmpty() ? 0 : columns.get(0).size();
+        if (rows == 0) {
+            return;
+        }
+
+        generator.writeStartObject();
+        generator.writeNumberField("rows", rows);
+        generator.writeArrayFieldStart("columns");
+        for (int i = 0; i < columns.size(); i++) {
+            final ResponseEntryDataType dataType = schema.get(i).dataType();
+            generator.writeStartArray();
+            for (Object value : columns.get(i)) {
+                generator.writeObject(convert(dataType, value));
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        endLine();
+    }
+
+    public void writeError(String message) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("error", message);
+        generator.writeEndObject();
+        endLine();
+    }
+
+    private void endLine() throws IOException {
+        generator.writeRaw('\n');
+        generator.flush();
+    }
+
+    static Object convert(ResponseEntryDataType dataType, Object value) {
+        if (value == null || value instanceof Collection<?>) {
+            return value;
+        }
+        return switch (dataType) {
+            case NUMERIC -> toNumber(value);
+            case BOOLEAN -> toBoolean(value);
+            default -> value instanceof Number || value instanceof Boolean ? value : String.valueOf(value);
+        };
+    }
+
+    private static Number toNumber(Object value) {
+        if (value instanceof Number number) {
+            return number;
+        }
+        final String string = String.valueOf(value);
+        try {
+            return Long.parseLong(string);
+        } catch (NumberFormatException e) {
+            try {
+                return Double.parseDouble(string);
+            } catch (NumberFormatException e2) {
+                return null;
+            }
+        }
+    }
+
+    private static Boolean toBoolean(Object value) {
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        final String string = String.valueOf(value);
+        if ("true".equalsIgnoreCase(string)) {
+            return true;
+        } else if ("false".equalsIgnoreCase(string)) {
+            return false;
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
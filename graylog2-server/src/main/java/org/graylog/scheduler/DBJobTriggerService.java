@@ -29,6 +29,7 @@ import com.mongodb.client.model.ReturnDocument;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import one.util.streamex.StreamEx;
+import org.bson.BsonValue;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
@@ -259,6 +260,81 @@ public class DBJobTriggerService {
         return trigger.toBuilder().id(id).build();
     }
 
+    /**
+     * Creates new records for all given triggers with a single bulk insert. The given {@link JobTriggerDto} objects
+     * <b>must not</b> have an ID to make sure new records are created.
+     *
+     * @param triggers the new trigger objects (without an ID set)
+     * @return the newly created trigger objects, in the same order as the given triggers
+     * @throws IllegalArgumentException if any of the passed triggers has an ID set
+     */
+    public List<JobTriggerDto> createAll(List<JobTriggerDto> triggers) {
+        requireNonNull(triggers, "triggers cannot be null");
+        if (triggers.isEmpty()) {
+            return List.of();
+        }
+        if (triggers.stream().anyMatch(trigger -> trigger.id() != null)) {
+            throw new IllegalArgumentException("New triggers must not have an ID");
+        }
+
+        final Map<Integer, BsonValue> insertedIds = collection.insertMany(triggers).getInsertedIds();
+        final List<JobTriggerDto> created = new ArrayList<>(triggers.size());
+        for (int i = 0; i < triggers.size(); i++) {
+            final String id = insertedIds.get(i).asObjectId().getValue().toHexString();
+            created.add(triggers.get(i).toBuilder().id(id).build());
+        }
+        return created;
+    }
+
+    /**
+     * Returns the pending trigger with the latest next time for the given job definition which matches the given
+     * query. Pending triggers are runnable, not locked and not due yet.
+     *
+     * @param jobDefinitionId the job definition ID
+     * @param query           additional query, e.g. on the trigger data
+     * @return the pending trigger if one exists, an empty {@link Optional} otherwise
+     */
+    public Optional<JobTriggerDto> getPendingTrigger(String jobDefinitionId, Bson query) {
+        if (isNullOrEmpty(jobDefinitionId)) {
+            throw new IllegalArgumentException("jobDefinitionId cannot be null or empty");
+        }
+        final var filter = and(
+                eq(FIELD_JOB_DEFINITION_ID, jobDefinitionId),
+                eq(FIELD_LOCK_OWNER, null),
+                eq(FIELD_STATUS, JobTriggerStatus.RUNNABLE),
+                gt(FIELD_NEXT_TIME, clock.nowUTC()),
+                query
+        );
+        return Optional.ofNullable(collection.find(filter).sort(descending(FIELD_NEXT_TIME)).first());
+    }
+
+    /**
+     * Replaces the data of a pending trigger. The update is only applied if the trigger hasn't been locked or
+     * modified since it has been loaded, so concurrent updates don't overwrite each other.
+     *
+     * @param trigger the pending trigger as loaded from the database
+     * @param data    the new trigger data
+     * @return true when the update was successful, false otherwise
+     * @throws IllegalArgumentException if the passed trigger doesn't have an ID set
+     */
+    public boolean updatePendingTriggerData(JobTriggerDto trigger, JobTriggerData data) {
+        requireNonNull(trigger, "trigger cannot be null");
+        if (isNullOrEmpty(trigger.id())) {
+            throw new IllegalArgumentException("Trigger must have an ID");
+        }
+        final var filter = and(
+                idEq(trigger.id()),
+                eq(FIELD_LOCK_OWNER, null),
+                eq(FIELD_STATUS, JobTriggerStatus.RUNNABLE),
+                eq(FIELD_UPDATED_AT, trigger.updatedAt())
+        );
+        final var update = combine(
+                set(FIELD_DATA, data),
+                set(FIELD_UPDATED_AT, clock.nowUTC())
+        );
+        return collection.updateOne(filter, update).getModifiedCount() > 0;
+    }
+
     /**
      * Updates the given trigger record in the database. This method takes care of not overwriting any locks and
      * state data with the update.
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog.security.permissions;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.authz.permission.WildcardPermission;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Precomputed lookup structure for a set of {@link Permission permissions}.
+ * <p>
+ * Checking a permission against a plain permission collection calls {@link Permission#implies(Permission)} on every
+ * entry, which gets expensive for principals with thousands of grants. The index keeps wildcard permissions without
+ * any wildcard or sub-parts (e.g. {@code streams:read:<id>}) in a hash set and resolves them with one lookup per
+ * permission part. Permissions with wildcards are grouped by their domain, so only the candidates of the checked domain
+ * have to be evaluated. {@link GRNPermission}s are matched by equality.
+ */
+public class PermissionIndex {
+    private static final String WILDCARD_TOKEN = "*";
+    private static final String PART_DIVIDER_TOKEN = ":";
+    private static final Splitter PART_SPLITTER = Splitter.on(PART_DIVIDER_TOKEN);
+    private static final Splitter SUBPART_SPLITTER = Splitter.on(",");
+
+    private final ImmutableSet<String> simplePermissions;
+    private final ImmutableListMultimap<String, WildcardPermission> wildcardPermissionsByDomain;
+    private final ImmutableList<WildcardPermission> anyDomainWildcardPermissions;
+    private final ImmutableList<WildcardPermission> allWildcardPermissions;
+    private final ImmutableSet<GRNPermission> grnPermissions;
+    private final ImmutableList<Permission> otherPermissions;
+
+    private PermissionIndex(ImmutableSet<String> simplePermissions,
+                            ImmutableListMultimap<String, WildcardPermission> wildcardPermissionsByDomain,
+                            ImmutableList<WildcardPermission> anyDomainWildcardPermissions,
+                            ImmutableList<WildcardPermission> allWildcardPermissions,
+                            ImmutableSet<GRNPermission> grnPermissions,
+                            ImmutableList<Permission> otherPermissions) {
+        this.simplePermissions = simplePermissions;
+        this.wildcardPermissionsByDomain = wildcardPermissionsByDomain;
+        this.anyDomainWildcardPermissions = anyDomainWildcardPermissions;
+        this.allWildcardPermissions = allWildcardPermissions;
+        this.grnPermissions = grnPermissions;
+        this.otherPermissions = otherPermissions;
+    }
+
+    public static PermissionIndex of(Collection<? extends Permission> permissions) {
+        final ImmutableSet.Builder<String> simplePermissions = ImmutableSet.builder();
+        final ImmutableListMultimap.Builder<String, WildcardPermission> wildcardPermissionsByDomain = ImmutableListMultimap.builder();
+        final ImmutableList.Builder<WildcardPermission> anyDomainWildcardPermissions = ImmutableList.builder();
+        final ImmutableList.Builder<WildcardPermission> allWildcardPermissions = ImmutableList.builder();
+        final ImmutableSet.Builder<GRNPermission> grnPermissions = ImmutableSet.builder();
+        final ImmutableList.Builder<Permission> otherPermissions = ImmutableList.builder();
+
+        for (Permission permission : permissions) {
+            if (permission instanceof GRNPermission grnPermission) {
+                grnPermissions.add(grnPermission);
+            } else if (permission instanceof WildcardPermission wildcardPermission) {
+                allWildcardPermissions.add(wildcardPermission);
+                final List<List<String>> parts = parts(wildcardPermission);
+                if (isSimple(parts)) {
+                    simplePermissions.add(wildcardPermission.toString());
+                } else if (isSimplePart(parts.get(0))) {
+                    wildcardPermissionsByDomain.put(parts.get(0).get(0), wildcardPermission);
+                } else {
+                    anyDomainWildcardPermissions.add(wildcardPermission);
+                }
+            } else {
+                otherPermissions.add(permission);
+            }
+        }
+
+        return new PermissionIndex(simplePermissions.build(), wildcardPermissionsByDomain.build(),
+                anyDomainWildcardPermissions.build(), allWildcardPermissions.build(), grnPermissions.build(),
+                otherPermissions.build());
+    }
+
+    /**
+     * Returns {@code true} if any of the indexed permissions implies the given permission. The result is the same as
+     * calling {@link Permission#implies(Permission)} on every indexed permission.
+     */
+    public boolean implies(Permission permission) {
+        if (permission instanceof GRNPermission) {
+            // WildcardPermission never implies a GRNPermission
+            return grnPermissions.contains(permission) || impliedByAny(otherPermissions, permission);
+        }
+        if (permission instanceof WildcardPermission wildcardPermission) {
+            final List<List<String>> parts = parts(wildcardPermission);
+            if (!isSimple(parts)) {
+                // Checking a permission with wildcards or sub-parts is unusual, fall back to the full scan.
+                return impliedByAny(allWildcardPermissions, permission) || impliedByAny(otherPermissions, permission);
+            }
+            return impliedBySimplePermission(parts)
+                    || impliedByAny(wildcardPermissionsByDomain.get(parts.get(0).get(0)), permission)
+                    || impliedByAny(anyDomainWildcardPermissions, permission)
+                    || impliedByAny(otherPermissions, permission);
+        }
+        return impliedByAny(allWildcardPermissions, permission)
+                || impliedByAny(grnPermissions, permission)
+                || impliedByAny(otherPermissions, permission);
+    }
+
+    public int size() {
+        return allWildcardPermissions.size() + grnPermissions.size() + otherPermissions.size();
+    }
+
+    // A permission without wildcards and sub-parts implies another one if its parts are a prefix of the other's parts.
+    private boolean impliedBySimplePermission(List<List<String>> parts) {
+        final StringBuilder prefix = new StringBuilder();
+        for (List<String> part : parts) {
+            if (!prefix.isEmpty()) {
+                prefix.append(PART_DIVIDER_TOKEN);
+            }
+            prefix.append(part.get(0));
+            if (simplePermissions.contains(prefix.toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean impliedByAny(Collection<? extends Permission> candidates, Permission permission) {
+        for (Permission candidate : candidates) {
+            if (candidate.implies(permission)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<List<String>> parts(WildcardPermission permission) {
+        // WildcardPermission#getParts() is protected, but toString() renders the normalized parts.
+        return PART_SPLITTER.splitToStream(permission.toString())
+                .map(SUBPART_SPLITTER::splitToList)
+                .toList();
+    }
+
+    private static boolean isSimple(List<List<String>> parts) {
+        return parts.stream().allMatch(PermissionIndex::isSimplePart);
+    }
+
+    private static boolean isSimplePart(List<String> part) {
+        return part.size() == 1 && !part.get(0).equals(WILDCARD_TOKEN);
+    }
+}
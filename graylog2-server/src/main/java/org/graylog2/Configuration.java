@@ -90,6 +90,15 @@ public class Configuration extends CaConfiguration {
     @Parameter(value = "output_flush_interval", required = true, validators = PositiveIntegerValidator.class)
     private int outputFlushInterval = 1;
 
+    @Parameter(value = "output_buffer_shards", required = true, validators = PositiveIntegerValidator.class)
+    private int outputBufferShards = 1;
+
+    @Parameter(value = "output_adaptive_batch_size")
+    private boolean outputAdaptiveBatchSize = false;
+
+    @Parameter(value = "output_adaptive_batch_target_latency", validators = PositiveDurationValidator.class)
+    private Duration outputAdaptiveBatchTargetLatency = Duration.seconds(2L);
+
     @Parameter(value = "outputbuffer_processors", required = true, validators = PositiveIntegerValidator.class)
     private int outputBufferProcessors = defaultNumberOfOutputBufferProcessors();
 
@@ -182,6 +191,40 @@ public class Configuration extends CaConfiguration {
     @Parameter(value = "index_ranges_cleanup_interval", validators = PositiveDurationValidator.class)
     private Duration indexRangesCleanupInterval = Duration.hours(1L);
 
+    @Parameter(value = "index_ranges_rebuild_concurrency", validators = PositiveIntegerValidator.class)
+    private int indexRangesRebuildConcurrency = 0;
+
+    @Parameter(value = "input_shared_worker_threads", validators = PositiveIntegerValidator.class)
+    private int inputSharedWorkerThreads = 0;
+
+    @Parameter(value = "input_rate_control")
+    private boolean inputRateControl = false;
+
+    @Parameter(value = "rdns_servers")
+    private String rdnsServers = "";
+
+    @Parameter(value = "rdns_query_timeout", validators = PositiveDurationValidator.class)
+    private Duration rdnsQueryTimeout = Duration.seconds(2L);
+
+    @Parameter(value = "rdns_cache_size", validators = PositiveIntegerValidator.class)
+    private int rdnsCacheSize = 10_000;
+
+    @Parameter(value = "rdns_cache_max_ttl", validators = PositiveDurationValidator.class)
+    private Duration rdnsCacheMaxTtl = Duration.hours(1L);
+
+    @Parameter(value = "rdns_negative_cache_ttl", validators = PositiveDurationValidator.class)
+    private Duration rdnsNegativeCacheTtl = Duration.minutes(1L);
+
+    @Parameter(value = "rdns_max_wait")
+    private Duration rdnsMaxWait = Duration.milliseconds(0L);
+
+    /**
+     * Maximum time a deserialized cluster config payload is served from the node-local cache. Changes made on
+     * other nodes usually invalidate the cache earlier through cluster events. Set to 0 to disable the cache.
+     */
+    @Parameter(value = "cluster_config_cache_ttl")
+    private Duration clusterConfigCacheTtl = Duration.seconds(30L);
+
     @Parameter(value = "trusted_proxies", converter = IPSubnetConverter.class)
     private Set<IpSubnet> trustedProxies = Collections.emptySet();
 
@@ -332,6 +375,18 @@ public class Configuration extends CaConfiguration {
         return outputFlushInterval;
     }
 
+    public int getOutputBufferShards() {
+        return outputBufferShards;
+    }
+
+    public boolean isOutputAdaptiveBatchSize() {
+        return outputAdaptiveBatchSize;
+    }
+
+    public Duration getOutputAdaptiveBatchTargetLatency() {
+        return outputAdaptiveBatchTargetLatency;
+    }
+
     public int getOutputBufferProcessors() {
         return outputBufferProcessors;
     }
@@ -462,10 +517,50 @@ public class Configuration extends CaConfiguration {
         return contentPacksAutoInstall;
     }
 
+    public Duration getClusterConfigCacheTtl() {
+        return clusterConfigCacheTtl;
+    }
+
     public Duration getIndexRangesCleanupInterval() {
         return indexRangesCleanupInterval;
     }
 
+    public int getIndexRangesRebuildConcurrency() {
+        return indexRangesRebuildConcurrency;
+    }
+
+    public int getInputSharedWorkerThreads() {
+        return inputSharedWorkerThreads;
+    }
+
+    public boolean isInputRateControl() {
+        return inputRateControl;
+    }
+
+    public String getRdnsServers() {
+        return rdnsServers;
+    }
+
+    public Duration getRdnsQueryTimeout() {
+        return rdnsQueryTimeout;
+    }
+
+    public int getRdnsCacheSize() {
+        return rdnsCacheSize;
+    }
+
+    public Duration getRdnsCacheMaxTtl() {
+        return rdnsCacheMaxTtl;
+    }
+
+    public Duration getRdnsNegativeCacheTtl() {
+        return rdnsNegativeCacheTtl;
+    }
+
+    public Duration getRdnsMaxWait() {
+        return rdnsMaxWait;
+    }
+
     public Set<IpSubnet> getTrustedProxies() {
         return trustedProxies;
     }
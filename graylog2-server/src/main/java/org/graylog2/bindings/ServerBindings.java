@@ -83,6 +83,7 @@ import org.graylog2.shared.buffers.processors.ProcessBufferProcessor;
 import org.graylog2.shared.inputs.PersistedInputs;
 import org.graylog2.shared.messageq.MessageQueueModule;
 import org.graylog2.shared.metrics.jersey2.MetricsDynamicBinding;
+import org.graylog2.shared.rest.bulkheads.RestBulkheadFeature;
 import org.graylog2.shared.rest.resources.csp.CSPDynamicFeature;
 import org.graylog2.shared.rest.resources.csp.CSPEventListener;
 import org.graylog2.shared.rest.resources.csp.CSPService;
@@ -227,6 +228,7 @@ public class ServerBindings extends Graylog2Module {
         dynamicFeatures.addBinding().toInstance(RestrictToLeaderFeature.class);
         dynamicFeatures.addBinding().toInstance(SupportedSearchVersionDynamicFeature.class);
         dynamicFeatures.addBinding().toInstance(CSPDynamicFeature.class);
+        dynamicFeatures.addBinding().toInstance(RestBulkheadFeature.class);
     }
 
     private void bindExceptionMappers() {
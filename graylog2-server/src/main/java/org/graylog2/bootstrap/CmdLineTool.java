@@ -143,6 +143,7 @@ public abstract class CmdLineTool implements CliCommand {
     protected Injector bootstrapConfigInjector;
     protected FeatureFlags featureFlags;
     protected PluginLoader pluginLoader;
+    protected final StartupTimings startupTimings = new StartupTimings();
 
     protected CmdLineTool(Configuration configuration) {
         this(null, configuration);
@@ -317,7 +318,7 @@ public abstract class CmdLineTool implements CliCommand {
 
         bootstrapConfigInjector = setupBootstrapConfigInjector();
 
-        final Set<Plugin> plugins = loadPlugins();
+        final Set<Plugin> plugins = startupTimings.time("plugin_loading", this::loadPlugins);
 
         installPluginConfig(plugins);
         processConfiguration(jadConfig);
@@ -337,12 +338,12 @@ public abstract class CmdLineTool implements CliCommand {
 
         beforeInjectorCreation(plugins);
 
-        injector = setupInjector(
+        injector = startupTimings.time("injector_creation", () -> setupInjector(
                 new IsDevelopmentBindings(),
                 new NamedConfigParametersOverrideModule(jadConfig.getConfigurationBeans()),
                 new PluginBindings(plugins),
                 binder -> binder.bind(MetricRegistry.class).toInstance(metricRegistry)
-        );
+        ));
 
         if (injector == null) {
             LOG.error("Injector could not be created, exiting! (Please include the previous error messages in bug " +
@@ -551,6 +552,7 @@ public abstract class CmdLineTool implements CliCommand {
             builder.addAll(Arrays.asList(modules));
             builder.add(binder -> {
                 binder.bind(ChainingClassLoader.class).toInstance(chainingClassLoader);
+                binder.bind(StartupTimings.class).toInstance(startupTimings);
                 featureFlagsBinding(binder);
                 binder.bind(String.class).annotatedWith(Names.named("BootstrapCommand")).toInstance(commandName);
             });
@@ -17,6 +17,7 @@
 package org.graylog2.bootstrap;
 
 import com.github.rvesse.airline.annotations.Option;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.util.concurrent.MoreExecutors;
@@ -149,7 +150,7 @@ public abstract class ServerBootstrap extends CmdLineTool {
 
     @Override
     protected void beforeInjectorCreation(Set<Plugin> plugins) {
-        runPreFlightChecks(plugins);
+        startupTimings.time("preflight_checks", () -> runPreFlightChecks(plugins));
     }
 
     private void runPreFlightChecks(Set<Plugin> plugins) {
@@ -250,7 +251,7 @@ public abstract class ServerBootstrap extends CmdLineTool {
     private void runPreflightMigrations(Injector preflightInjector) {
         try {
             if (configuration.isLeader() && configuration.runMigrations()) {
-                runMigrations(preflightInjector, MigrationType.PREFLIGHT);
+                startupTimings.time("preflight_migrations", () -> runMigrations(preflightInjector, MigrationType.PREFLIGHT));
             }
         } catch (Exception e) {
             LOG.error("Exception while running migrations", e);
@@ -332,7 +333,7 @@ public abstract class ServerBootstrap extends CmdLineTool {
 
         try {
             if (configuration.isLeader() && configuration.runMigrations()) {
-                runMigrations(injector, MigrationType.STANDARD);
+                startupTimings.time("migrations", () -> runMigrations(injector, MigrationType.STANDARD));
             }
         } catch (Exception e) {
             LOG.error("Exception while running migrations", e);
@@ -373,8 +374,10 @@ public abstract class ServerBootstrap extends CmdLineTool {
         final ServiceManagerListener serviceManagerListener = injector.getInstance(ServiceManagerListener.class);
         serviceManager.addListener(serviceManagerListener, MoreExecutors.directExecutor());
         try {
-            leaderElectionService.startAsync().awaitRunning();
-            serviceManager.startAsync().awaitHealthy();
+            startupTimings.time("service_startup", () -> {
+                leaderElectionService.startAsync().awaitRunning();
+                serviceManager.startAsync().awaitHealthy();
+            });
         } catch (Exception e) {
             try {
                 serviceManager.stopAsync().awaitStopped(configuration.getShutdownTimeout(), TimeUnit.MILLISECONDS);
@@ -386,6 +389,7 @@ public abstract class ServerBootstrap extends CmdLineTool {
             System.exit(-1);
         }
         LOG.info("Services started, startup times in ms: {}", serviceManager.startupTimes());
+        LOG.info("Startup phases took: {}", startupTimings);
 
         activityWriter.write(new Activity("Started up.", Main.class));
         LOG.info("Graylog {} up and running.", commandName);
@@ -408,6 +412,7 @@ public abstract class ServerBootstrap extends CmdLineTool {
 
         ImmutableSortedSet.copyOf(migrations).stream().filter(m -> m.migrationType() == migrationType).forEach(m -> {
             LOG.debug("Running migration <{}>", m.getClass().getCanonicalName());
+            final Stopwatch stopwatch = Stopwatch.createStarted();
             try {
                 m.upgrade();
             } catch (Exception e) {
@@ -416,6 +421,8 @@ public abstract class ServerBootstrap extends CmdLineTool {
                 } else {
                     throw e;
                 }
+            } finally {
+                startupTimings.recordMigration(m.getClass().getSimpleName(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
             }
         });
     }
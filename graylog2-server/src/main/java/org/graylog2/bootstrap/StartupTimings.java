@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.bootstrap;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Collects the duration of the individual startup phases of a node, e.g. injector creation, migrations and service
+ * startup. The report is logged once the node is up and can be retrieved via the REST API.
+ */
+public class StartupTimings {
+    private static final int SLOWEST_MIGRATIONS_LIMIT = 10;
+
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private final Map<String, Long> migrations = new LinkedHashMap<>();
+
+    public void time(String phase, Runnable runnable) {
+        time(phase, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    public <T> T time(String phase, Supplier<T> supplier) {
+        final Stopwatch stopwatch = Stopwatch.createStarted();
+        try {
+            return supplier.get();
+        } finally {
+            recordPhase(phase, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    public synchronized void recordPhase(String phase, long durationMs) {
+        // Phases can run more than once, e.g. migrations of different types
+        phases.merge(phase, durationMs, Long::sum);
+    }
+
+    public synchronized void recordMigration(String migration, long durationMs) {
+        migrations.merge(migration, durationMs, Long::sum);
+    }
+
+    /**
+     * @return the phase durations in milliseconds, in the order the phases have been started
+     */
+    public synchronized Map<String, Long> phases() {
+        return ImmutableMap.copyOf(phases);
+    }
+
+    /**
+     * @return the durations of the slowest migrations in milliseconds, slowest first
+     */
+    public synchronized Map<String, Long> slowestMigrations() {
+        return migrations.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(SLOWEST_MIGRATIONS_LIMIT)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    public synchronized long totalMs() {
+        return phases.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "total=" + totalMs() + "ms, phases=" + phases + ", slowest migrations=" + slowestMigrations();
+    }
+}
@@ -16,20 +16,27 @@
  */
 package org.graylog2.cluster;
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.joschi.jadconfig.util.Duration;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
 import com.mongodb.DBCollection;
 import com.mongodb.WriteConcern;
 import org.graylog2.bindings.providers.MongoJackObjectMapperProvider;
 import org.graylog2.database.MongoConnection;
 import org.graylog2.events.ClusterEventBus;
+import org.graylog2.metrics.CacheStatsSet;
 import org.graylog2.plugin.cluster.ClusterConfigService;
 import org.graylog2.plugin.system.NodeId;
 import org.graylog2.security.RestrictedChainingClassLoader;
 import org.graylog2.security.SafeClasses;
 import org.graylog2.security.UnsafeClassLoadingAttemptException;
+import org.graylog2.shared.metrics.MetricUtils;
 import org.graylog2.shared.plugins.ChainingClassLoader;
 import org.graylog2.shared.utilities.AutoValueUtils;
 import org.joda.time.DateTime;
@@ -43,30 +50,69 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Named;
 
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static com.codahale.metrics.MetricRegistry.name;
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+/**
+ * MongoDB backed {@link ClusterConfigService}.
+ * <p>
+ * Deserialized payloads are kept in a node-local read-through cache. Entries are invalidated locally on
+ * {@link #write(String, Object)} and {@link #remove(Class)} and on every other node through the
+ * {@link ClusterConfigChangedEvent} which is published on the {@link ClusterEventBus}. Because cluster events are
+ * delivered asynchronously, the cache TTL ({@code cluster_config_cache_ttl}) bounds how long another node might
+ * still serve a stale payload. Cached payloads are shared between callers and must not be modified.
+ * <p>
+ * Every invalidation increments the generation of the key. Payloads which have been loaded while the generation
+ * changed are returned to the caller but not cached, so a read racing a write can't put the old payload back.
+ */
 public class ClusterConfigServiceImpl implements ClusterConfigService {
     @VisibleForTesting
     static final String COLLECTION_NAME = "cluster_config";
+    private static final long CACHE_MAX_SIZE = 1000L;
     private static final Logger LOG = LoggerFactory.getLogger(ClusterConfigServiceImpl.class);
     private final JacksonDBCollection<ClusterConfig, String> dbCollection;
     private final NodeId nodeId;
     private final ObjectMapper objectMapper;
     private final RestrictedChainingClassLoader chainingClassLoader;
     private final EventBus clusterEventBus;
+    private final Cache<CacheKey, Optional<Object>> payloadCache;
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final boolean cacheEnabled;
 
     @Inject
+    public ClusterConfigServiceImpl(final MongoJackObjectMapperProvider mapperProvider,
+                                    final MongoConnection mongoConnection,
+                                    final NodeId nodeId,
+                                    final RestrictedChainingClassLoader chainingClassLoader,
+                                    final ClusterEventBus clusterEventBus,
+                                    final EventBus serverEventBus,
+                                    final MetricRegistry metricRegistry,
+                                    @Named("cluster_config_cache_ttl") final Duration cacheTtl) {
+        this(JacksonDBCollection.wrap(prepareCollection(mongoConnection), ClusterConfig.class, String.class, mapperProvider.get()),
+                nodeId, mapperProvider.get(), chainingClassLoader, clusterEventBus, cacheTtl);
+        serverEventBus.register(this);
+        MetricUtils.safelyRegisterAll(metricRegistry, new CacheStatsSet(name(ClusterConfigService.class, "cache"), payloadCache));
+    }
+
+    /**
+     * Creates an instance without payload caching. Every read goes to the database.
+     */
     public ClusterConfigServiceImpl(final MongoJackObjectMapperProvider mapperProvider,
                                     final MongoConnection mongoConnection,
                                     final NodeId nodeId,
                                     final RestrictedChainingClassLoader chainingClassLoader,
                                     final ClusterEventBus clusterEventBus) {
         this(JacksonDBCollection.wrap(prepareCollection(mongoConnection), ClusterConfig.class, String.class, mapperProvider.get()),
-                nodeId, mapperProvider.get(), chainingClassLoader, clusterEventBus);
+                nodeId, mapperProvider.get(), chainingClassLoader, clusterEventBus, Duration.seconds(0L));
     }
 
     @Deprecated
@@ -76,19 +122,27 @@ public class ClusterConfigServiceImpl implements ClusterConfigService {
                                     final ChainingClassLoader chainingClassLoader,
                                     final ClusterEventBus clusterEventBus) {
         this(JacksonDBCollection.wrap(prepareCollection(mongoConnection), ClusterConfig.class, String.class, mapperProvider.get()),
-                nodeId, mapperProvider.get(), new RestrictedChainingClassLoader(chainingClassLoader, SafeClasses.allGraylogInternal()), clusterEventBus);
+                nodeId, mapperProvider.get(), new RestrictedChainingClassLoader(chainingClassLoader, SafeClasses.allGraylogInternal()), clusterEventBus,
+                Duration.seconds(0L));
     }
 
     private ClusterConfigServiceImpl(final JacksonDBCollection<ClusterConfig, String> dbCollection,
                                      final NodeId nodeId,
                                      final ObjectMapper objectMapper,
                                      final RestrictedChainingClassLoader chainingClassLoader,
-                                     final EventBus clusterEventBus) {
+                                     final EventBus clusterEventBus,
+                                     final Duration cacheTtl) {
         this.nodeId = checkNotNull(nodeId);
         this.dbCollection = checkNotNull(dbCollection);
         this.objectMapper = checkNotNull(objectMapper);
         this.chainingClassLoader = chainingClassLoader;
         this.clusterEventBus = checkNotNull(clusterEventBus);
+        this.cacheEnabled = checkNotNull(cacheTtl).getQuantity() > 0;
+        this.payloadCache = CacheBuilder.newBuilder()
+                .recordStats()
+                .expireAfterWrite(cacheEnabled ? cacheTtl.getQuantity() : 1L, cacheTtl.getUnit())
+                .maximumSize(cacheEnabled ? CACHE_MAX_SIZE : 0L)
+                .build();
     }
 
     @VisibleForTesting
@@ -112,6 +166,36 @@ public class ClusterConfigServiceImpl implements ClusterConfigService {
 
     @Override
     public <T> T get(String key, Class<T> type) {
+        if (!cacheEnabled) {
+            return load(key, type);
+        }
+
+        final CacheKey cacheKey = new CacheKey(key, type);
+        final Optional<Object> cached = payloadCache.getIfPresent(cacheKey);
+        if (cached != null) {
+            return type.cast(cached.orElse(null));
+        }
+
+        final AtomicLong generation = generation(key);
+        final long loadedGeneration = generation.get();
+        final T payload = load(key, type);
+        // Missing configurations are cached as well, many callers fall back to a default value on every call.
+        final Optional<Object> loaded = Optional.ofNullable(payload);
+        if (generation.get() == loadedGeneration) {
+            payloadCache.put(cacheKey, loaded);
+            // An invalidation between the check and the put might have missed the entry, so drop it ourselves
+            if (generation.get() != loadedGeneration) {
+                payloadCache.asMap().remove(cacheKey, loaded);
+            }
+        }
+        return payload;
+    }
+
+    private AtomicLong generation(String key) {
+        return generations.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    private <T> T load(String key, Class<T> type) {
         ClusterConfig config = findClusterConfig(key);
 
         if (config == null) {
@@ -167,6 +251,7 @@ public class ClusterConfigServiceImpl implements ClusterConfigService {
         ClusterConfig clusterConfig = ClusterConfig.create(key, payload, nodeId.getNodeId());
 
         dbCollection.update(DBQuery.is("type", key), clusterConfig, true, false, WriteConcern.JOURNALED);
+        invalidate(key);
 
         ClusterConfigChangedEvent event = ClusterConfigChangedEvent.create(
                 DateTime.now(DateTimeZone.UTC), nodeId.getNodeId(), key);
@@ -177,9 +262,28 @@ public class ClusterConfigServiceImpl implements ClusterConfigService {
     public <T> int remove(Class<T> type) {
         final String canonicalName = type.getCanonicalName();
         final WriteResult<ClusterConfig, String> result = dbCollection.remove(DBQuery.is("type", canonicalName));
+        invalidate(canonicalName);
+
+        if (result.getN() > 0) {
+            clusterEventBus.post(ClusterConfigChangedEvent.create(
+                    DateTime.now(DateTimeZone.UTC), nodeId.getNodeId(), canonicalName));
+        }
         return result.getN();
     }
 
+    @Subscribe
+    public void handleClusterConfigChanged(ClusterConfigChangedEvent event) {
+        LOG.debug("Invalidating cached cluster config (type: {}) after change on node <{}>", event.type(), event.nodeId());
+        invalidate(event.type());
+    }
+
+    private void invalidate(String key) {
+        // Increment first, loads which are still running must not cache what they read before the change
+        generation(key).incrementAndGet();
+        // A key can be cached for more than one payload class, so drop every entry for it.
+        payloadCache.asMap().keySet().removeIf(cacheKey -> cacheKey.key().equals(key));
+    }
+
     @Override
     public Set<Class<?>> list() {
         final ImmutableSet.Builder<Class<?>> classes = ImmutableSet.builder();
@@ -200,4 +304,6 @@ public class ClusterConfigServiceImpl implements ClusterConfigService {
 
         return classes.build();
     }
+
+    private record CacheKey(String key, Class<?> type) {}
 }
@@ -90,6 +90,12 @@ public class ElasticsearchConfiguration {
     @Parameter(value = "index_field_type_periodical_full_refresh_interval", validators = {PositiveDurationValidator.class})
     private Duration indexFieldTypePeriodicalFullRefreshInterval = Duration.minutes(5);
 
+    @Parameter(value = "index_field_type_catalog_max_age", validators = {PositiveDurationValidator.class})
+    private Duration indexFieldTypeCatalogMaxAge = Duration.hours(1);
+
+    @Parameter(value = "index_field_type_discovery_fallback_interval", validators = {PositiveDurationValidator.class})
+    private Duration indexFieldTypeDiscoveryFallbackInterval = Duration.minutes(1);
+
     @Parameter(value = "retention_strategy", required = true)
     private String retentionStrategy = DeletionRetentionStrategy.NAME;
 
@@ -219,6 +225,14 @@ public class ElasticsearchConfiguration {
         return indexFieldTypePeriodicalFullRefreshInterval;
     }
 
+    public Duration getIndexFieldTypeCatalogMaxAge() {
+        return indexFieldTypeCatalogMaxAge;
+    }
+
+    public Duration getIndexFieldTypeDiscoveryFallbackInterval() {
+        return indexFieldTypeDiscoveryFallbackInterval;
+    }
+
     public String getRotationStrategy() {
         return rotationStrategy;
     }
@@ -20,6 +20,7 @@ import com.github.joschi.jadconfig.Parameter;
 import com.github.joschi.jadconfig.ParameterException;
 import com.github.joschi.jadconfig.ValidationException;
 import com.github.joschi.jadconfig.ValidatorMethod;
+import com.github.joschi.jadconfig.util.Duration;
 import com.github.joschi.jadconfig.validators.PositiveIntegerValidator;
 import com.github.joschi.jadconfig.validators.URIAbsoluteValidator;
 import com.google.common.annotations.VisibleForTesting;
@@ -68,6 +69,21 @@ public class HttpConfiguration {
     @Parameter(value = "http_selector_runners_count", required = true, validator = PositiveIntegerValidator.class)
     private int httpSelectorRunnersCount = 1;
 
+    @Parameter(value = "http_bulkhead_search_max_concurrent")
+    private int httpBulkheadSearchMaxConcurrent = 0;
+
+    @Parameter(value = "http_bulkhead_cluster_proxy_max_concurrent")
+    private int httpBulkheadClusterProxyMaxConcurrent = 0;
+
+    @Parameter(value = "http_bulkhead_export_max_concurrent")
+    private int httpBulkheadExportMaxConcurrent = 0;
+
+    @Parameter(value = "http_bulkhead_system_max_concurrent")
+    private int httpBulkheadSystemMaxConcurrent = 0;
+
+    @Parameter(value = "http_bulkhead_max_wait", required = true)
+    private Duration httpBulkheadMaxWait = Duration.seconds(1);
+
     @Parameter(value = "http_enable_tls")
     private boolean httpEnableTls = false;
 
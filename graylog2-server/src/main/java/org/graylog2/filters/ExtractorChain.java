@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.filters;
+
+import com.google.common.collect.ImmutableList;
+import org.graylog2.plugin.inputs.Extractor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The immutable, ordered extractors of an input.
+ * <p>
+ * Extractors with the same source field and condition share a condition slot. The condition of a slot is only
+ * evaluated once per message, unless a previous extractor replaced the value of the source field (e.g. by cutting
+ * the extracted value). Conditions are the bulk of the extractor overhead for inputs with many extractors on the same
+ * field, because most of these extractors don't match.
+ */
+final class ExtractorChain {
+    static final ExtractorChain EMPTY = new ExtractorChain(ImmutableList.of(), Map.of());
+
+    private final List<Extractor> extractors;
+    // Keyed by identity, extractors implement neither equals() nor hashCode()
+    private final Map<Extractor, Integer> conditionSlots;
+    private final int slotCount;
+
+    private ExtractorChain(List<Extractor> extractors, Map<Extractor, Integer> conditionSlots) {
+        this.extractors = extractors;
+        this.conditionSlots = conditionSlots;
+        this.slotCount = (int) conditionSlots.values().stream().distinct().count();
+    }
+
+    static ExtractorChain of(Collection<Extractor> extractors) {
+        final List<Extractor> sortedExtractors = extractors.stream()
+                .sorted(Comparator.comparingLong(Extractor::getOrder))
+                .collect(ImmutableList.toImmutableList());
+
+        final Map<Condition, List<Extractor>> byCondition = new HashMap<>();
+        for (Extractor extractor : sortedExtractors) {
+            if (!Extractor.ConditionType.NONE.equals(extractor.getConditionType())) {
+                final Condition condition = new Condition(extractor.getSourceField(), extractor.getConditionType(), extractor.getConditionValue());
+                byCondition.computeIfAbsent(condition, c -> new ArrayList<>()).add(extractor);
+            }
+        }
+
+        // Only conditions which are used by more than one extractor get a slot
+        final IdentityHashMap<Extractor, Integer> conditionSlots = new IdentityHashMap<>();
+        int slot = 0;
+        for (List<Extractor> sharing : byCondition.values()) {
+            if (sharing.size() > 1) {
+                for (Extractor extractor : sharing) {
+                    conditionSlots.put(extractor, slot);
+                }
+                slot++;
+            }
+        }
+
+        return new ExtractorChain(sortedExtractors, conditionSlots);
+    }
+
+    List<Extractor> extractors() {
+        return extractors;
+    }
+
+    /**
+     * Returns a condition evaluator for a single message. The returned evaluator is not thread-safe.
+     */
+    Extractor.ConditionEvaluator conditionEvaluator() {
+        if (slotCount == 0) {
+            return Extractor::conditionMatches;
+        }
+        return new SharedConditions();
+    }
+
+    private record Condition(String sourceField, Extractor.ConditionType type, String value) {}
+
+    private final class SharedConditions implements Extractor.ConditionEvaluator {
+        private final String[] values = new String[slotCount];
+        private final boolean[] results = new boolean[slotCount];
+
+        @Override
+        @SuppressWarnings("ReferenceEquality")
+        public boolean matches(Extractor extractor, String value) {
+            final Integer slot = conditionSlots.get(extractor);
+            if (slot == null) {
+                return extractor.conditionMatches(value);
+            }
+            // Comparing the identity is enough, extractors which change the source field always set a new instance
+            if (values[slot] != value) {
+                results[slot] = extractor.conditionMatches(value);
+                values[slot] = value;
+            }
+            return results[slot];
+        }
+    }
+}
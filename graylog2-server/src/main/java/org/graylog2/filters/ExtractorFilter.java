@@ -16,7 +16,6 @@
  */
 package org.graylog2.filters;
 
-import com.google.common.collect.ImmutableList;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import org.graylog.failure.ProcessingFailureCause;
@@ -40,19 +39,16 @@ import org.slf4j.LoggerFactory;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.stream.Collectors;
 
 public class ExtractorFilter implements MessageFilter {
     private static final Logger LOG = LoggerFactory.getLogger(ExtractorFilter.class);
     private static final String NAME = "Extractor";
 
-    private final ConcurrentMap<String, List<Extractor>> extractors = new ConcurrentHashMap<>();
+    // Chains are immutable and replaced as a whole when the extractors of an input change
+    private final ConcurrentMap<String, ExtractorChain> extractors = new ConcurrentHashMap<>();
 
     private final InputService inputService;
     private final ScheduledExecutorService scheduler;
@@ -74,9 +70,11 @@ public class ExtractorFilter implements MessageFilter {
             return false;
         }
 
-        for (final Extractor extractor : extractors.getOrDefault(msg.getSourceInputId(), Collections.emptyList())) {
+        final ExtractorChain chain = extractors.getOrDefault(msg.getSourceInputId(), ExtractorChain.EMPTY);
+        final Extractor.ConditionEvaluator conditionEvaluator = chain.conditionEvaluator();
+        for (final Extractor extractor : chain.extractors()) {
             try {
-                extractor.runExtractor(msg);
+                extractor.runExtractor(msg, conditionEvaluator);
             } catch (Exception e) {
                 extractor.incrementExceptions();
                 final String error = "Could not apply extractor <" + extractor.getTitle() + "(" + extractor.getId() + ")>";
@@ -156,11 +154,7 @@ public class ExtractorFilter implements MessageFilter {
 
         try {
             final Input input = inputService.find(inputId);
-            final List<Extractor> sortedExtractors = inputService.getExtractors(input).stream()
-                    .sorted(Comparator.comparingLong(Extractor::getOrder))
-                    .collect(Collectors.toList());
-
-            extractors.put(inputId, ImmutableList.copyOf(sortedExtractors));
+            extractors.put(inputId, ExtractorChain.of(inputService.getExtractors(input)));
         } catch (NotFoundException e) {
             LOG.warn("Unable to load input <{}>: {}", inputId, e.getMessage());
         }
@@ -0,0 +1,290 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.grok;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts literal substrings which must be contained in every string matched by a regular expression.
+ * <p>
+ * The analysis is conservative: constructs which aren't understood (inline flags, quoting, back references, etc.)
+ * make the whole expression unsupported and no literals are returned. Literals are only collected from parts of the
+ * expression which are not optional and not part of a nested alternation.
+ */
+final class GrokLiterals {
+    private static final int MIN_LITERAL_LENGTH = 2;
+    private static final Pattern BOUNDS = Pattern.compile("(\\d{1,9})(,\\d{0,9})?");
+
+    private enum Quantifier {
+        NONE,
+        OPTIONAL,
+        REPEATED
+    }
+
+    private final String regex;
+    private int pos = 0;
+
+    private GrokLiterals(String regex) {
+        this.regex = regex;
+    }
+
+    /**
+     * Returns the required literals of every top-level alternative of the given regular expression. A string can
+     * only match if it contains all literals of at least one alternative. An empty list is returned if the expression
+     * is not supported or an alternative without literals exists, in which case every string may match.
+     */
+    static List<List<String>> requiredLiterals(String regex) {
+        try {
+            final GrokLiterals parser = new GrokLiterals(regex);
+            final List<List<String>> alternatives = parser.parseAlternatives();
+            if (parser.pos != regex.length() || alternatives.stream().anyMatch(List::isEmpty)) {
+                return List.of();
+            }
+            return alternatives;
+        } catch (UnsupportedRegexException e) {
+            return List.of();
+        }
+    }
+
+    private List<List<String>> parseAlternatives() {
+        final List<List<String>> alternatives = new ArrayList<>();
+        alternatives.add(parseSequence());
+        while (pos < regex.length() && regex.charAt(pos) == '|') {
+            pos++;
+            alternatives.add(parseSequence());
+        }
+        return alternatives;
+    }
+
+    /**
+     * Parses a sequence up to the next {@code |} or {@code )} on the current level.
+     */
+    private List<String> parseSequence() {
+        final List<String> literals = new ArrayList<>();
+        final StringBuilder run = new StringBuilder();
+
+        while (pos < regex.length()) {
+            final char c = regex.charAt(pos);
+            if (c == '|' || c == ')') {
+                break;
+            }
+            switch (c) {
+                case '\\' -> {
+                    final Character literal = parseEscape();
+                    if (literal == null) {
+                        flush(run, literals);
+                        skipQuantifier();
+                    } else {
+                        appendLiteral(run, literals, literal);
+                    }
+                }
+                case '[' -> {
+                    skipCharacterClass();
+                    flush(run, literals);
+                    skipQuantifier();
+                }
+                case '(' -> {
+                    flush(run, literals);
+                    final List<String> groupLiterals = parseGroup();
+                    if (skipQuantifier() != Quantifier.OPTIONAL) {
+                        literals.addAll(groupLiterals);
+                    }
+                }
+                case '.', '^', '$' -> {
+                    pos++;
+                    flush(run, literals);
+                    skipQuantifier();
+                }
+                case '*', '+', '?', '{' -> throw new UnsupportedRegexException();
+                default -> {
+                    pos++;
+                    appendLiteral(run, literals, c);
+                }
+            }
+        }
+        flush(run, literals);
+
+        return literals.stream()
+                .sorted(Comparator.comparingInt(String::length).reversed())
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Appends a literal character to the current run, taking a following quantifier into account.
+     */
+    private void appendLiteral(StringBuilder run, List<String> literals, char literal) {
+        run.append(literal);
+        switch (skipQuantifier()) {
+            case NONE -> {
+            }
+            case OPTIONAL -> {
+                run.setLength(run.length() - 1);
+                if (Character.isLowSurrogate(literal) && run.length() > 0 && Character.isHighSurrogate(run.charAt(run.length() - 1))) {
+                    // The quantifier applies to the whole code point
+                    run.setLength(run.length() - 1);
+                }
+                flush(run, literals);
+            }
+            // The character may be repeated, so it isn't necessarily followed by the next literal character
+            case REPEATED -> flush(run, literals);
+        }
+    }
+
+    /**
+     * Skips a quantifier (including lazy and possessive modifiers) at the current position.
+     */
+    private Quantifier skipQuantifier() {
+        if (pos >= regex.length()) {
+            return Quantifier.NONE;
+        }
+        final Quantifier quantifier;
+        final char c = regex.charAt(pos);
+        if (c == '?' || c == '*') {
+            quantifier = Quantifier.OPTIONAL;
+            pos++;
+        } else if (c == '+') {
+            quantifier = Quantifier.REPEATED;
+            pos++;
+        } else if (c == '{') {
+            final int end = regex.indexOf('}', pos);
+            if (end < 0) {
+                throw new UnsupportedRegexException();
+            }
+            final Matcher bounds = BOUNDS.matcher(regex.substring(pos + 1, end));
+            if (!bounds.matches()) {
+                throw new UnsupportedRegexException();
+            }
+            quantifier = Integer.parseInt(bounds.group(1)) == 0 ? Quantifier.OPTIONAL : Quantifier.REPEATED;
+            pos = end + 1;
+        } else {
+            return Quantifier.NONE;
+        }
+        if (pos < regex.length() && (regex.charAt(pos) == '?' || regex.charAt(pos) == '+')) {
+            pos++;
+        }
+        return quantifier;
+    }
+
+    /**
+     * Parses an escape sequence.
+     *
+     * @return the escaped literal character or {@code null} for predefined character classes and boundaries
+     */
+    private Character parseEscape() {
+        if (pos + 1 >= regex.length()) {
+            throw new UnsupportedRegexException();
+        }
+        final char c = regex.charAt(pos + 1);
+        pos += 2;
+        if (!Character.isLetterOrDigit(c)) {
+            return c;
+        }
+        if ("dDsSwWhHvVbBAGZzR".indexOf(c) >= 0) {
+            return null;
+        }
+        throw new UnsupportedRegexException();
+    }
+
+    private void skipCharacterClass() {
+        int depth = 0;
+        boolean first = true;
+        while (pos < regex.length()) {
+            final char c = regex.charAt(pos);
+            if (c == '\\') {
+                pos += 2;
+                first = false;
+                continue;
+            }
+            pos++;
+            if (c == '[') {
+                depth++;
+                first = true;
+                continue;
+            }
+            if (c == '^' && first) {
+                continue;
+            }
+            if (c == ']' && !first) {
+                depth--;
+                if (depth == 0) {
+                    return;
+                }
+            }
+            first = false;
+        }
+        throw new UnsupportedRegexException();
+    }
+
+    /**
+     * Parses a group and returns its required literals. Lookarounds and groups containing alternatives don't have
+     * any required literals.
+     */
+    private List<String> parseGroup() {
+        pos++; // (
+        boolean lookaround = false;
+        if (regex.startsWith("?", pos)) {
+            if (regex.startsWith("?:", pos) || regex.startsWith("?>", pos)) {
+                pos += 2;
+            } else if (regex.startsWith("?=", pos) || regex.startsWith("?!", pos)) {
+                pos += 2;
+                lookaround = true;
+            } else if (regex.startsWith("?<=", pos) || regex.startsWith("?<!", pos)) {
+                pos += 3;
+                lookaround = true;
+            } else if (regex.startsWith("?<", pos)) {
+                final int end = regex.indexOf('>', pos);
+                if (end < 0) {
+                    throw new UnsupportedRegexException();
+                }
+                pos = end + 1;
+            } else {
+                // Inline flags might change the meaning of literals, e.g. case-insensitive matching
+                throw new UnsupportedRegexException();
+            }
+        }
+
+        final List<List<String>> alternatives = parseAlternatives();
+        if (pos >= regex.length() || regex.charAt(pos) != ')') {
+            throw new UnsupportedRegexException();
+        }
+        pos++;
+
+        if (lookaround || alternatives.size() > 1) {
+            return List.of();
+        }
+        return alternatives.get(0);
+    }
+
+    private static void flush(StringBuilder run, List<String> literals) {
+        if (run.length() >= MIN_LITERAL_LENGTH) {
+            literals.add(run.toString());
+        }
+        run.setLength(0);
+    }
+
+    private static class UnsupportedRegexException extends RuntimeException {
+        UnsupportedRegexException() {
+            super(null, null, false, false);
+        }
+    }
+}
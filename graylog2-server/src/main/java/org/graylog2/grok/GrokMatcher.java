@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.grok;
+
+import io.krakens.grok.api.Grok;
+import io.krakens.grok.api.Match;
+
+import java.util.List;
+
+/**
+ * Matches values against a compiled {@link Grok} pattern.
+ * <p>
+ * Before running the regular expression, the matcher checks whether the value contains the literal substrings which
+ * are required by the expanded pattern. Values which can't match are rejected with a plain substring search instead
+ * of paying for the backtracking of the regular expression. If the pattern consists of several top-level
+ * alternatives (e.g. {@code %{PATTERN_A}|%{PATTERN_B}}), a value is rejected only if it can't match any of them.
+ */
+public class GrokMatcher {
+    private final Grok grok;
+    private final List<List<String>> requiredLiterals;
+
+    private GrokMatcher(Grok grok, List<List<String>> requiredLiterals) {
+        this.grok = grok;
+        this.requiredLiterals = requiredLiterals;
+    }
+
+    public static GrokMatcher create(Grok grok) {
+        return new GrokMatcher(grok, GrokLiterals.requiredLiterals(grok.getNamedRegex()));
+    }
+
+    public Grok grok() {
+        return grok;
+    }
+
+    /**
+     * Returns {@code false} if the given value can't match the pattern.
+     */
+    public boolean mayMatch(String value) {
+        if (requiredLiterals.isEmpty()) {
+            return true;
+        }
+        for (List<String> alternative : requiredLiterals) {
+            if (containsAll(value, alternative)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Match match(String value) {
+        if (!mayMatch(value)) {
+            return Match.EMPTY;
+        }
+        return grok.match(value);
+    }
+
+    List<List<String>> requiredLiterals() {
+        return requiredLiterals;
+    }
+
+    private static boolean containsAll(String value, List<String> literals) {
+        for (String literal : literals) {
+            if (!value.contains(literal)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -48,8 +48,8 @@ public class GrokPatternRegistry {
     private final GrokPatternService grokPatternService;
 
     private final AtomicReference<Set<GrokPattern>> patterns = new AtomicReference<>(Collections.emptySet());
-    private final LoadingCache<String, Grok> grokCache;
-    private final LoadingCache<String, Grok> grokCacheNamedOnly;
+    private final LoadingCache<String, GrokMatcher> grokCache;
+    private final LoadingCache<String, GrokMatcher> grokCacheNamedOnly;
 
     @Inject
     public GrokPatternRegistry(EventBus serverEventBus,
@@ -92,6 +92,14 @@ public class GrokPatternRegistry {
     }
 
     public Grok cachedGrokForPattern(String pattern, boolean namedCapturesOnly) {
+        return cachedGrokMatcherForPattern(pattern, namedCapturesOnly).grok();
+    }
+
+    /**
+     * Returns a matcher for the given pattern which rejects values that can't match before running the regular
+     * expression.
+     */
+    public GrokMatcher cachedGrokMatcherForPattern(String pattern, boolean namedCapturesOnly) {
         try {
             if (namedCapturesOnly) {
                 return grokCacheNamedOnly.get(pattern);
@@ -116,7 +124,7 @@ public class GrokPatternRegistry {
         return patterns.get();
     }
 
-    private class GrokReloader extends CacheLoader<String, Grok> {
+    private class GrokReloader extends CacheLoader<String, GrokMatcher> {
         private final boolean namedCapturesOnly;
 
         GrokReloader(boolean namedCapturesOnly) {
@@ -124,12 +132,12 @@ public class GrokPatternRegistry {
         }
 
         @Override
-        public Grok load(@Nonnull String pattern) throws Exception {
+        public GrokMatcher load(@Nonnull String pattern) throws Exception {
             final GrokCompiler grokCompiler = GrokCompiler.newInstance();
             for (GrokPattern grokPattern : patterns()) {
                 grokCompiler.register(grokPattern.name(), grokPattern.pattern());
             }
-            return grokCompiler.compile(pattern, namedCapturesOnly);
+            return GrokMatcher.create(grokCompiler.compile(pattern, namedCapturesOnly));
         }
     }
 }
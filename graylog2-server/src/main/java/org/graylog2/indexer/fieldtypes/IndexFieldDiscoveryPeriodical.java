@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.indexer.fieldtypes;
+
+import jakarta.inject.Inject;
+import org.graylog2.events.ClusterEventBus;
+import org.graylog2.indexer.fieldtypes.events.IndexFieldsDiscoveredEvent;
+import org.graylog2.plugin.periodical.Periodical;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+
+/**
+ * {@link Periodical} that notifies the leader node about indices which received new fields on this node, so that
+ * {@link IndexFieldTypePollerPeriodical} can update their field types right away.
+ */
+public class IndexFieldDiscoveryPeriodical extends Periodical {
+    private static final Logger LOG = LoggerFactory.getLogger(IndexFieldDiscoveryPeriodical.class);
+
+    private final IndexFieldNameTracker tracker;
+    private final ClusterEventBus clusterEventBus;
+
+    @Inject
+    public IndexFieldDiscoveryPeriodical(IndexFieldNameTracker tracker, ClusterEventBus clusterEventBus) {
+        this.tracker = tracker;
+        this.clusterEventBus = clusterEventBus;
+    }
+
+    @Override
+    public void doRun() {
+        final Set<String> indices = tracker.drainPendingIndices();
+        if (!indices.isEmpty()) {
+            LOG.debug("Discovered new fields in indices {}", indices);
+            clusterEventBus.post(IndexFieldsDiscoveredEvent.create(indices));
+        }
+    }
+
+    @Override
+    public boolean runsForever() {
+        return false;
+    }
+
+    @Override
+    public boolean stopOnGracefulShutdown() {
+        return true;
+    }
+
+    @Override
+    public boolean leaderOnly() {
+        return false;
+    }
+
+    @Override
+    public boolean startOnThisNode() {
+        return tracker.isEnabled();
+    }
+
+    @Override
+    public boolean isDaemon() {
+        return true;
+    }
+
+    @Override
+    public int getInitialDelaySeconds() {
+        return 0;
+    }
+
+    @Override
+    public int getPeriodSeconds() {
+        return 1;
+    }
+
+    @Override
+    protected Logger getLogger() {
+        return LOG;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.indexer.fieldtypes;
+
+import com.github.joschi.jadconfig.util.Duration;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.graylog2.indexer.messages.ImmutableMessage;
+import org.graylog2.indexer.messages.Indexable;
+import org.graylog2.indexer.messages.IndexingSuccess;
+import org.graylog2.plugin.Message;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of the field names which have been written into each index by this node.
+ * <p>
+ * Indices which received fields that haven't been seen in them before are collected until they are published by
+ * {@link IndexFieldDiscoveryPeriodical}, so that the leader node only has to poll the mappings of indices which
+ * actually changed.
+ */
+@Singleton
+public class IndexFieldNameTracker {
+    // Protects against unbounded growth for messages with dynamic field names. Once the limit has been reached,
+    // new fields of the index are only picked up by the regular field type polling.
+    private static final int MAX_FIELDS_PER_INDEX = 10_000;
+
+    private final boolean enabled;
+    private final Cache<String, Set<String>> fieldNamesByIndex;
+    private final Set<String> pendingIndices = ConcurrentHashMap.newKeySet();
+
+    @Inject
+    public IndexFieldNameTracker(@Named("index_field_type_discovery_fallback_interval") Duration fallbackInterval) {
+        this.enabled = fallbackInterval.toMilliseconds() > 0;
+        // Only the active write indices receive messages, so rotated indices expire eventually
+        this.fieldNamesByIndex = CacheBuilder.newBuilder()
+                .expireAfterAccess(1, TimeUnit.HOURS)
+                .build();
+    }
+
+    public static IndexFieldNameTracker disabled() {
+        return new IndexFieldNameTracker(Duration.seconds(0));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void track(Collection<IndexingSuccess> successes) {
+        if (!enabled) {
+            return;
+        }
+        for (IndexingSuccess success : successes) {
+            track(success.index(), success.message());
+        }
+    }
+
+    private void track(String index, Indexable message) {
+        final Collection<String> fieldNames;
+        if (message instanceof Message m) {
+            fieldNames = m.getFieldNames();
+        } else if (message instanceof ImmutableMessage m) {
+            fieldNames = m.getFields().keySet();
+        } else {
+            // Other documents, e.g. events, have a fixed schema
+            return;
+        }
+
+        final Set<String> knownFieldNames = knownFieldNames(index);
+        for (String fieldName : fieldNames) {
+            if (!knownFieldNames.contains(fieldName)
+                    && knownFieldNames.size() < MAX_FIELDS_PER_INDEX
+                    && knownFieldNames.add(fieldName)) {
+                pendingIndices.add(index);
+            }
+        }
+    }
+
+    private Set<String> knownFieldNames(String index) {
+        try {
+            return fieldNamesByIndex.get(index, ConcurrentHashMap::newKeySet);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the indices which received new fields since the last call and resets them.
+     */
+    public Set<String> drainPendingIndices() {
+        final Set<String> drained = new HashSet<>();
+        for (String index : pendingIndices) {
+            if (pendingIndices.remove(index)) {
+                drained.add(index);
+            }
+        }
+        return drained;
+    }
+}
@@ -24,7 +24,9 @@ import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import org.graylog2.indexer.IndexSet;
 import org.graylog2.indexer.MongoIndexSet;
+import org.graylog2.cluster.leader.LeaderElectionService;
 import org.graylog2.indexer.cluster.Cluster;
+import org.graylog2.indexer.fieldtypes.events.IndexFieldsDiscoveredEvent;
 import org.graylog2.indexer.indexset.IndexSetConfig;
 import org.graylog2.indexer.indexset.IndexSetService;
 import org.graylog2.indexer.indexset.events.IndexSetCreatedEvent;
@@ -39,14 +41,18 @@ import org.joda.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+
 import java.time.Instant;
 import java.util.Collection;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -63,12 +69,15 @@ public class IndexFieldTypePollerPeriodical extends Periodical {
     private final Cluster cluster;
     private final ServerStatus serverStatus;
     private final com.github.joschi.jadconfig.util.Duration fullRefreshInterval;
+    private final com.github.joschi.jadconfig.util.Duration discoveryFallbackInterval;
+    private final LeaderElectionService leaderElectionService;
     private final ScheduledExecutorService scheduler;
 
     private volatile Set<IndexSetConfig> allIndexSetConfigs;
     private volatile Instant lastFullRefresh = Instant.MIN;
     private final ConcurrentHashMap<String, Instant> lastPoll = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, Boolean> pollInProgress = new ConcurrentHashMap<>();
+    private final Set<String> discoveredIndices = ConcurrentHashMap.newKeySet();
 
     @Inject
     public IndexFieldTypePollerPeriodical(final IndexFieldTypePoller poller,
@@ -81,6 +90,8 @@ public class IndexFieldTypePollerPeriodical extends Periodical {
                                           final EventBus eventBus,
                                           final ServerStatus serverStatus,
                                           @Named("index_field_type_periodical_full_refresh_interval") final com.github.joschi.jadconfig.util.Duration fullRefreshInterval,
+                                          @Named("index_field_type_discovery_fallback_interval") final com.github.joschi.jadconfig.util.Duration discoveryFallbackInterval,
+                                          final LeaderElectionService leaderElectionService,
                                           @Named("daemonScheduler") final ScheduledExecutorService scheduler) {
         this.poller = poller;
         this.dbService = dbService;
@@ -90,6 +101,8 @@ public class IndexFieldTypePollerPeriodical extends Periodical {
         this.cluster = cluster;
         this.serverStatus = serverStatus;
         this.fullRefreshInterval = fullRefreshInterval;
+        this.discoveryFallbackInterval = discoveryFallbackInterval;
+        this.leaderElectionService = leaderElectionService;
         this.scheduler = scheduler;
 
         eventBus.register(this);
@@ -136,6 +149,7 @@ public class IndexFieldTypePollerPeriodical extends Periodical {
                 lastFullRefresh = Instant.now();
             }
         } else {
+            pollDiscoveredIndices(allConfigs);
             poll(allConfigs);
         }
     }
@@ -150,12 +164,15 @@ public class IndexFieldTypePollerPeriodical extends Periodical {
 
             try {
                 final Set<IndexFieldTypesDTO> existingIndexTypes = ImmutableSet.copyOf(dbService.findForIndexSet(indexSetId));
+                final Map<String, IndexFieldTypesDTO> existingByIndexName = existingIndexTypes.stream()
+                        .collect(Collectors.toMap(IndexFieldTypesDTO::indexName, Function.identity(), (a, b) -> a));
 
                 final IndexSet indexSet = mongoIndexSetFactory.create(indexSetConfig);
 
                 // We check that we have the field types for all existing indices
                 LOG.debug("Refreshing index field types for index set <{}/{}>", indexSetTitle, indexSetId);
-                poller.poll(indexSet, existingIndexTypes).forEach(dbService::upsert);
+                poller.poll(indexSet, existingIndexTypes)
+                        .forEach(types -> upsert(types, existingByIndexName.get(types.indexName())));
 
                 // Cleanup orphaned field type entries that haven't been removed by the event handler
                 dbService.findForIndexSet(indexSetId).stream()
@@ -173,8 +190,7 @@ public class IndexFieldTypePollerPeriodical extends Periodical {
                 .filter(IndexSetConfig::isWritable)
                 .forEach(config -> {
                     final Instant previousPoll = lastPoll.getOrDefault(config.id(), Instant.MIN);
-                    final Instant nextPoll = previousPoll.plusSeconds(
-                            config.fieldTypeRefreshInterval().getStandardSeconds());
+                    final Instant nextPoll = previousPoll.plusSeconds(pollIntervalSeconds(config));
                     if (!Instant.now().isBefore(nextPoll)) {
                         LOG.debug("Index set <{}> needs update, current polls in progress: {}", config.title(), this.pollInProgress);
                         this.poll(config);
@@ -182,6 +198,50 @@ public class IndexFieldTypePollerPeriodical extends Periodical {
                 });
     }
 
+    private long pollIntervalSeconds(IndexSetConfig config) {
+        final long refreshIntervalSeconds = config.fieldTypeRefreshInterval().getStandardSeconds();
+        // New fields are discovered on the ingest path, polling is only a safety net then
+        return Math.max(refreshIntervalSeconds, discoveryFallbackInterval.toSeconds());
+    }
+
+    private void pollDiscoveredIndices(Collection<IndexSetConfig> indexSetConfigs) {
+        if (discoveredIndices.isEmpty()) {
+            return;
+        }
+        final Set<String> indices = ImmutableSet.copyOf(discoveredIndices);
+        discoveredIndices.removeAll(indices);
+
+        indexSetConfigs.stream()
+                .filter(config -> !config.fieldTypeRefreshInterval().equals(Duration.ZERO))
+                .forEach(config -> {
+                    final IndexSet indexSet = mongoIndexSetFactory.create(config);
+                    indices.stream()
+                            .filter(indexSet::isManagedIndex)
+                            .forEach(indexName -> poll(config, indexName));
+                });
+    }
+
+    private void poll(IndexSetConfig config, String indexName) {
+        final String indexSetId = config.id();
+        scheduler.submit(() -> {
+            if (this.pollInProgress.putIfAbsent(indexSetId, Boolean.TRUE) != null) {
+                // Try again with the next run
+                discoveredIndices.add(indexName);
+                return;
+            }
+            try {
+                LOG.debug("Updating index field types for index <{}> with new fields in index set <{}/{}>",
+                        indexName, config.title(), indexSetId);
+                poller.pollIndex(indexName, indexSetId).ifPresent(this::upsert);
+            } catch (Exception e) {
+                LOG.error("Couldn't update field types for index <{}> in index set <{}/{}>", indexName, config.title(), indexSetId, e);
+            } finally {
+                this.pollInProgress.remove(indexSetId);
+                lastPoll.put(indexSetId, Instant.now());
+            }
+        });
+    }
+
     private void poll(IndexSetConfig indexSetConfig) {
         final String indexSetTitle = indexSetConfig.title();
         final String indexSetId = indexSetConfig.id();
@@ -202,7 +262,7 @@ public class IndexFieldTypePollerPeriodical extends Periodical {
                 if (activeWriteIndex != null) {
                     LOG.debug("Updating index field types for active write index <{}> in index set <{}/{}>",
                             activeWriteIndex, indexSetTitle, indexSetId);
-                    poller.pollIndex(activeWriteIndex, indexSetId).ifPresent(dbService::upsert);
+                    poller.pollIndex(activeWriteIndex, indexSetId).ifPresent(this::upsert);
                 } else {
                     LOG.warn("Active write index for index set \"{}\" ({}) doesn't exist yet",
                             indexSetTitle, indexSetId);
@@ -220,6 +280,22 @@ public class IndexFieldTypePollerPeriodical extends Periodical {
         });
     }
 
+    private void upsert(IndexFieldTypesDTO indexFieldTypes) {
+        upsert(indexFieldTypes, dbService.findOneByIndexName(indexFieldTypes.indexName()));
+    }
+
+    /**
+     * Stores the field types unless they are equal to the existing ones. Every write makes the field type catalogs of
+     * all nodes reload the index, so unchanged field types are skipped.
+     */
+    private void upsert(IndexFieldTypesDTO indexFieldTypes, @Nullable IndexFieldTypesDTO existing) {
+        if (existing == null
+                || !existing.indexSetId().equals(indexFieldTypes.indexSetId())
+                || !existing.fields().equals(indexFieldTypes.fields())) {
+            dbService.upsert(indexFieldTypes);
+        }
+    }
+
     private boolean needsFullRefresh() {
         if (fullRefreshInterval.toSeconds() == 0) {
             return false;
@@ -265,6 +341,20 @@ public class IndexFieldTypePollerPeriodical extends Periodical {
         allIndexSetConfigs = null;
     }
 
+    /**
+     * Updates the field types of indices which received new fields on any node.
+     *
+     * @param event field discovery event
+     */
+    @SuppressWarnings("unused")
+    @Subscribe
+    public void handleIndexFieldsDiscovered(final IndexFieldsDiscoveredEvent event) {
+        // Only the leader node polls the field types
+        if (leaderElectionService.isLeader()) {
+            discoveredIndices.addAll(event.indices());
+        }
+    }
+
     /**
      * Removes the index field type data for the deleted index.
      *
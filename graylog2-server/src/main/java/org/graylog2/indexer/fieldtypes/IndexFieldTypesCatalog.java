@@ -0,0 +1,358 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.indexer.fieldtypes;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.github.joschi.jadconfig.util.Duration;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.graylog2.indexer.fieldtypes.events.IndexFieldTypesUpdatedEvent;
+import org.graylog2.shared.metrics.MetricUtils;
+import org.graylog2.streams.events.StreamDeletedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Node-local catalog of the index field types stored by {@link IndexFieldTypesService}.
+ * <p>
+ * Every index and every stream gets an ordinal. For every distinct field type (name, physical type and properties)
+ * the catalog keeps a bitmap of the indices containing the field and, per stream, a bitmap of the indices in which
+ * the field contains documents of that stream. Field type lookups for a set of indices and streams are answered with
+ * bitmap intersections instead of loading and filtering all {@link IndexFieldTypesDTO documents} of the index sets.
+ * <p>
+ * {@link IndexFieldTypesService} posts an {@link IndexFieldTypesUpdatedEvent} for every change it stores, and the
+ * catalogs of all nodes reload only the affected indices. The ordinal of a stream is released once the stream has
+ * been deleted. A full reload from the database only happens on first use and, as a safety net for missed cluster
+ * events, once the catalog is older than {@code index_field_type_catalog_max_age}.
+ */
+@Singleton
+public class IndexFieldTypesCatalog {
+    private static final Logger LOG = LoggerFactory.getLogger(IndexFieldTypesCatalog.class);
+
+    private final IndexFieldTypesService indexFieldTypesService;
+    private final long maxAgeNanos;
+    private final Timer reloadTimer;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile boolean loaded = false;
+    private volatile long lastReload = 0;
+
+    // Guarded by "lock"
+    private final Map<String, Integer> indexOrdinals = new HashMap<>();
+    private final List<String> indexSetIdsByOrdinal = new ArrayList<>();
+    private final BitSet freeIndexOrdinals = new BitSet();
+    private final Map<String, Integer> streamOrdinals = new HashMap<>();
+    private final BitSet freeStreamOrdinals = new BitSet();
+    private int streamOrdinalCount = 0;
+    private final Map<FieldTypeDTO, FieldEntry> fields = new HashMap<>();
+
+    @Inject
+    public IndexFieldTypesCatalog(IndexFieldTypesService indexFieldTypesService,
+                                  @Named("index_field_type_catalog_max_age") Duration maxAge,
+                                  MetricRegistry metricRegistry,
+                                  EventBus eventBus) {
+        this.indexFieldTypesService = indexFieldTypesService;
+        this.maxAgeNanos = maxAge.toNanoseconds();
+        this.reloadTimer = metricRegistry.timer(name(IndexFieldTypesCatalog.class, "reload"));
+        MetricUtils.safelyRegister(metricRegistry, name(IndexFieldTypesCatalog.class, "indices"), (Gauge<Integer>) this::indexCount);
+        MetricUtils.safelyRegister(metricRegistry, name(IndexFieldTypesCatalog.class, "fieldTypes"), (Gauge<Integer>) this::fieldTypeCount);
+        if (isEnabled()) {
+            eventBus.register(this);
+        }
+    }
+
+    /**
+     * Creates a catalog which doesn't cache anything. Callers are expected to query the database instead.
+     */
+    public static IndexFieldTypesCatalog disabled(IndexFieldTypesService indexFieldTypesService) {
+        return new IndexFieldTypesCatalog(indexFieldTypesService, Duration.seconds(0), new MetricRegistry(), new EventBus());
+    }
+
+    public boolean isEnabled() {
+        return maxAgeNanos > 0;
+    }
+
+    /**
+     * Returns the field types of the given indices. The returned field types don't contain any stream information.
+     *
+     * @param indexSetIds only indices of these index sets are taken into account
+     * @param indexNames  the indices to look up
+     * @param streamIds   only return field types containing data of these streams, or {@code null} to skip the
+     *                    stream filter
+     */
+    public Set<FieldTypeDTO> fieldTypes(Collection<String> indexSetIds,
+                                        Collection<String> indexNames,
+                                        @Nullable Collection<String> streamIds) {
+        refreshIfStale();
+
+        lock.readLock().lock();
+        try {
+            final BitSet indices = new BitSet();
+            for (String indexName : indexNames) {
+                final Integer ordinal = indexOrdinals.get(indexName);
+                if (ordinal != null && indexSetIds.contains(indexSetIdsByOrdinal.get(ordinal))) {
+                    indices.set(ordinal);
+                }
+            }
+            if (indices.isEmpty()) {
+                return Set.of();
+            }
+
+            final int[] streams = streamIds == null ? null : streamIds.stream()
+                    .map(streamOrdinals::get)
+                    .filter(Objects::nonNull)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            if (streams != null && streams.length == 0) {
+                return Set.of();
+            }
+
+            final Set<FieldTypeDTO> result = new HashSet<>();
+            for (FieldEntry entry : fields.values()) {
+                if (entry.matches(indices, streams)) {
+                    result.add(entry.fieldType);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Subscribe
+    public void handleIndexFieldTypesUpdated(IndexFieldTypesUpdatedEvent event) {
+        // Serialized with full reloads, so a reload which read the database before the change can't undo it
+        reloadLock.lock();
+        try {
+            if (!loaded) {
+                // The first use loads everything anyway
+                return;
+            }
+            final Collection<IndexFieldTypesDTO> updated = indexFieldTypesService.findByIndexNames(event.indices());
+            final Set<String> removed = new HashSet<>(event.indices());
+
+            lock.writeLock().lock();
+            try {
+                for (IndexFieldTypesDTO indexFieldTypes : updated) {
+                    removed.remove(indexFieldTypes.indexName());
+                    put(indexFieldTypes);
+                }
+                removed.forEach(this::remove);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            LOG.debug("Updated field types of {} and removed {} indices in catalog", updated.size(), removed.size());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    @Subscribe
+    public void handleStreamDeleted(StreamDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            final Integer ordinal = streamOrdinals.remove(event.streamId());
+            if (ordinal != null) {
+                fields.values().forEach(entry -> entry.indicesByStream.remove(ordinal));
+                freeStreamOrdinals.set(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void refreshIfStale() {
+        if (loaded && System.nanoTime() - lastReload < maxAgeNanos) {
+            return;
+        }
+        if (!loaded) {
+            // Nothing to serve yet, wait for the reload of another thread
+            reloadLock.lock();
+        } else if (!reloadLock.tryLock()) {
+            // Another thread is already reloading, keep serving the current data in the meantime
+            return;
+        }
+        try {
+            if (!loaded || System.nanoTime() - lastReload >= maxAgeNanos) {
+                reload();
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void reload() {
+        try (Timer.Context ignored = reloadTimer.time()) {
+            final long startTime = System.nanoTime();
+            final Collection<IndexFieldTypesDTO> all = indexFieldTypesService.findAll();
+
+            lock.writeLock().lock();
+            try {
+                indexOrdinals.clear();
+                indexSetIdsByOrdinal.clear();
+                freeIndexOrdinals.clear();
+                streamOrdinals.clear();
+                freeStreamOrdinals.clear();
+                streamOrdinalCount = 0;
+                fields.clear();
+                all.forEach(this::put);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            lastReload = startTime;
+            loaded = true;
+            LOG.debug("Loaded field types of {} indices into catalog", all.size());
+        }
+    }
+
+    // Must be called while holding the write lock
+    private void put(IndexFieldTypesDTO indexFieldTypes) {
+        Integer ordinal = indexOrdinals.get(indexFieldTypes.indexName());
+        if (ordinal != null) {
+            clearIndex(ordinal);
+        } else {
+            ordinal = nextIndexOrdinal();
+            indexOrdinals.put(indexFieldTypes.indexName(), ordinal);
+        }
+        indexSetIdsByOrdinal.set(ordinal, indexFieldTypes.indexSetId());
+
+        for (FieldTypeDTO fieldType : indexFieldTypes.fields()) {
+            // The stream information is kept in the bitmaps, so all entries of a field type share the same key
+            final FieldTypeDTO key = fieldType.streams().isEmpty() ? fieldType : fieldType.toBuilder().streams(Set.of()).build();
+            final FieldEntry entry = fields.computeIfAbsent(key, FieldEntry::new);
+            entry.indices.set(ordinal);
+            for (String streamId : fieldType.streams()) {
+                final int streamOrdinal = streamOrdinals.computeIfAbsent(streamId, id -> nextStreamOrdinal());
+                entry.indicesByStream.computeIfAbsent(streamOrdinal, o -> new BitSet()).set(ordinal);
+            }
+        }
+    }
+
+    private int nextIndexOrdinal() {
+        final int free = freeIndexOrdinals.nextSetBit(0);
+        if (free >= 0) {
+            freeIndexOrdinals.clear(free);
+            return free;
+        }
+        indexSetIdsByOrdinal.add(null);
+        return indexSetIdsByOrdinal.size() - 1;
+    }
+
+    // Must be called while holding the write lock
+    private void remove(String indexName) {
+        final Integer ordinal = indexOrdinals.remove(indexName);
+        if (ordinal != null) {
+            clearIndex(ordinal);
+            indexSetIdsByOrdinal.set(ordinal, null);
+            freeIndexOrdinals.set(ordinal);
+        }
+    }
+
+    private int nextStreamOrdinal() {
+        final int free = freeStreamOrdinals.nextSetBit(0);
+        if (free >= 0) {
+            freeStreamOrdinals.clear(free);
+            return free;
+        }
+        return streamOrdinalCount++;
+    }
+
+    private void clearIndex(int ordinal) {
+        final Iterator<FieldEntry> iterator = fields.values().iterator();
+        while (iterator.hasNext()) {
+            final FieldEntry entry = iterator.next();
+            if (!entry.indices.get(ordinal)) {
+                continue;
+            }
+            entry.indices.clear(ordinal);
+            if (entry.indices.isEmpty()) {
+                iterator.remove();
+            } else {
+                entry.indicesByStream.values().removeIf(streamIndices -> {
+                    streamIndices.clear(ordinal);
+                    return streamIndices.isEmpty();
+                });
+            }
+        }
+    }
+
+    private int indexCount() {
+        lock.readLock().lock();
+        try {
+            return indexOrdinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int fieldTypeCount() {
+        lock.readLock().lock();
+        try {
+            return fields.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static final class FieldEntry {
+        private final FieldTypeDTO fieldType;
+        private final BitSet indices = new BitSet();
+        private final Map<Integer, BitSet> indicesByStream = new HashMap<>();
+
+        private FieldEntry(FieldTypeDTO fieldType) {
+            this.fieldType = fieldType;
+        }
+
+        private boolean matches(BitSet queriedIndices, @Nullable int[] streams) {
+            if (!indices.intersects(queriedIndices)) {
+                return false;
+            }
+            if (streams == null) {
+                return true;
+            }
+            for (int stream : streams) {
+                final BitSet streamIndices = indicesByStream.get(stream);
+                if (streamIndices != null && streamIndices.intersects(queriedIndices)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
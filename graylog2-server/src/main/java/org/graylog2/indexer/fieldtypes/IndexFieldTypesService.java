@@ -28,6 +28,8 @@ import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.graylog2.bindings.providers.MongoJackObjectMapperProvider;
 import org.graylog2.database.MongoConnection;
+import org.graylog2.events.ClusterEventBus;
+import org.graylog2.indexer.fieldtypes.events.IndexFieldTypesUpdatedEvent;
 import org.mongojack.DBQuery;
 import org.mongojack.JacksonDBCollection;
 import org.mongojack.WriteResult;
@@ -38,6 +40,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.mongodb.client.model.Filters.and;
 import static com.mongodb.client.model.Filters.eq;
@@ -53,17 +56,23 @@ import static org.graylog2.indexer.indexset.CustomFieldMappings.REVERSE_TYPES;
 
 /**
  * Manages the "index_field_types" MongoDB collection.
+ * <p>
+ * Every write posts an {@link IndexFieldTypesUpdatedEvent}, so the {@link IndexFieldTypesCatalog field type catalogs}
+ * of all nodes pick up the change.
  */
 public class IndexFieldTypesService {
     private static final String FIELDS_FIELD_NAMES = String.format(Locale.US, "%s.%s", FIELD_FIELDS, FIELD_NAME);
 
     private final JacksonDBCollection<IndexFieldTypesDTO, ObjectId> db;
     private final MongoCollection<Document> mongoCollection;
+    private final ClusterEventBus clusterEventBus;
 
 
     @Inject
     public IndexFieldTypesService(final MongoConnection mongoConnection,
-                                  final MongoJackObjectMapperProvider objectMapperProvider) {
+                                  final MongoJackObjectMapperProvider objectMapperProvider,
+                                  final ClusterEventBus clusterEventBus) {
+        this.clusterEventBus = clusterEventBus;
         this.mongoCollection = mongoConnection.getMongoDatabase().getCollection("index_field_types");
         this.db = JacksonDBCollection.wrap(mongoConnection.getDatabase().getCollection("index_field_types"),
                 IndexFieldTypesDTO.class,
@@ -127,6 +136,7 @@ public class IndexFieldTypesService {
 
     public IndexFieldTypesDTO save(IndexFieldTypesDTO dto) {
         final WriteResult<IndexFieldTypesDTO, ObjectId> save = db.save(dto);
+        postUpdatedEvent(dto.indexName());
         return save.getSavedObject();
     }
 
@@ -140,6 +150,7 @@ public class IndexFieldTypesService {
                 true,
                 false
         );
+        postUpdatedEvent(dto.indexName());
 
         final Object upsertedId = update.getUpsertedId();
         if (upsertedId instanceof ObjectId) {
@@ -152,13 +163,23 @@ public class IndexFieldTypesService {
 
     public void delete(String idOrIndexName) {
         try {
-            db.removeById(new ObjectId(idOrIndexName));
+            final IndexFieldTypesDTO existing = db.findOneById(new ObjectId(idOrIndexName));
+            if (existing != null) {
+                db.removeById(new ObjectId(idOrIndexName));
+                postUpdatedEvent(existing.indexName());
+            }
         } catch (IllegalArgumentException e) {
             // Not an ObjectId, try again with index_name
             db.remove(DBQuery.is(FIELD_INDEX_NAME, idOrIndexName));
+            postUpdatedEvent(idOrIndexName);
         }
     }
 
+    // Lets the field type catalogs of all nodes pick up the change, see IndexFieldTypesCatalog
+    private void postUpdatedEvent(String indexName) {
+        clusterEventBus.post(IndexFieldTypesUpdatedEvent.create(Set.of(indexName)));
+    }
+
     public Collection<IndexFieldTypesDTO> findForIndexSet(String indexSetId) {
         return findByQuery(DBQuery.is(FIELD_INDEX_SET_ID, indexSetId));
     }
@@ -46,7 +46,17 @@ public class MappedFieldTypesServiceImpl implements MappedFieldTypesService {
     private final IndexLookup indexLookup;
     private final boolean streamAwareFieldTypes;
     private final FieldUnitObtainer fieldUnitObtainer;
+    private final IndexFieldTypesCatalog catalog;
 
+    public MappedFieldTypesServiceImpl(final Configuration configuration,
+                                       final StreamService streamService,
+                                       final IndexFieldTypesService indexFieldTypesService,
+                                       final FieldTypeMapper fieldTypeMapper,
+                                       final IndexLookup indexLookup,
+                                       final FieldUnitObtainer fieldUnitObtainer) {
+        this(configuration, streamService, indexFieldTypesService, fieldTypeMapper, indexLookup, fieldUnitObtainer,
+                IndexFieldTypesCatalog.disabled(indexFieldTypesService));
+    }
 
     @Inject
     public MappedFieldTypesServiceImpl(final Configuration configuration,
@@ -54,19 +64,27 @@ public class MappedFieldTypesServiceImpl implements MappedFieldTypesService {
                                        final IndexFieldTypesService indexFieldTypesService,
                                        final FieldTypeMapper fieldTypeMapper,
                                        final IndexLookup indexLookup,
-                                       final FieldUnitObtainer fieldUnitObtainer) {
+                                       final FieldUnitObtainer fieldUnitObtainer,
+                                       final IndexFieldTypesCatalog catalog) {
         this.streamService = streamService;
         this.indexFieldTypesService = indexFieldTypesService;
         this.fieldTypeMapper = fieldTypeMapper;
         this.indexLookup = indexLookup;
         this.streamAwareFieldTypes = configuration.maintainsStreamAwareFieldTypes();
         this.fieldUnitObtainer = fieldUnitObtainer;
+        this.catalog = catalog;
     }
 
     @Override
     public Set<MappedFieldTypeDTO> fieldTypesByStreamIds(Collection<String> streamIds, TimeRange timeRange) {
         final Set<String> indexSets = streamService.indexSetIdsByIds(streamIds);
         final Set<String> indexNames = this.indexLookup.indexNamesForStreamsInTimeRange(ImmutableSet.copyOf(streamIds), timeRange);
+        if (catalog.isEnabled()) {
+            return mergeCompoundFieldTypes(catalog.fieldTypes(indexSets, indexNames, streamAwareFieldTypes ? streamIds : null)
+                    .stream()
+                    .map(this::mapPhysicalFieldType));
+        }
+
         final Set<FieldTypeDTO> fieldTypeDTOs = this.indexFieldTypesService.findForIndexSets(indexSets)
                 .stream()
                 .filter(fieldTypes -> indexNames.contains(fieldTypes.indexName()))
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.indexer.fieldtypes.events;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableSet;
+import org.graylog.autovalue.WithBeanGetter;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Cluster event which is posted when the stored field types of indices have changed or have been removed.
+ */
+@AutoValue
+@WithBeanGetter
+@JsonAutoDetect
+public abstract class IndexFieldTypesUpdatedEvent {
+    @JsonProperty("indices")
+    public abstract Set<String> indices();
+
+    @JsonCreator
+    public static IndexFieldTypesUpdatedEvent create(@JsonProperty("indices") Collection<String> indices) {
+        return new AutoValue_IndexFieldTypesUpdatedEvent(ImmutableSet.copyOf(indices));
+    }
+}
@@ -414,6 +414,10 @@ public class Indices {
         return indicesAdapter.indexRangeStatsOfIndex(index);
     }
 
+    public Map<String, IndexRangeStats> indexRangeStatsOfIndices(Collection<String> indices) {
+        return indicesAdapter.indexRangeStatsOfIndices(indices);
+    }
+
     /**
      * Returns ES UUID of the index; null if it does not exist
      */
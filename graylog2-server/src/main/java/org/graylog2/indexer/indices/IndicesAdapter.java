@@ -29,6 +29,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -125,6 +126,22 @@ public interface IndicesAdapter {
 
     IndexRangeStats indexRangeStatsOfIndex(String index);
 
+    /**
+     * Calculates the range stats of several indices at once. Indices whose stats couldn't be calculated, e.g. because
+     * they don't exist or not all of their shards are available, are missing from the result.
+     */
+    default Map<String, IndexRangeStats> indexRangeStatsOfIndices(Collection<String> indices) {
+        final Map<String, IndexRangeStats> result = new HashMap<>(indices.size());
+        for (String index : indices) {
+            try {
+                result.put(index, indexRangeStatsOfIndex(index));
+            } catch (Exception e) {
+                // Callers are expected to retry missing indices one by one
+            }
+        }
+        return result;
+    }
+
     HealthStatus waitForRecovery(String index);
     HealthStatus waitForRecovery(String index, int timeout);
 
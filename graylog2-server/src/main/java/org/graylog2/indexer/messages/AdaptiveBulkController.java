@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.indexer.messages;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.github.joschi.jadconfig.util.Duration;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.graylog2.indexer.ElasticsearchException;
+import org.graylog2.shared.metrics.MetricUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Adapts the size and the concurrency of bulk index requests to the observed behaviour of the indexer cluster.
+ * <p>
+ * The controller uses additive increase/multiplicative decrease (AIMD): every bulk request which completes within
+ * the target latency raises the chunk size and the concurrency limit a little, while slow requests, "Too many
+ * requests" (HTTP 429) and "Request entity too large" (HTTP 413) responses reduce them multiplicatively. The state
+ * is kept across batches, so a new batch starts with the last known good chunk size instead of the configured
+ * {@code output_batch_size}.
+ * <p>
+ * If adaptive batching is disabled, the controller doesn't limit chunk sizes or concurrency.
+ */
+@Singleton
+public class AdaptiveBulkController {
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveBulkController.class);
+
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+    private static final int MIN_CHUNK_SIZE = 10;
+    private static final double CHUNK_SIZE_INCREASE_RATIO = 0.1;
+    private static final double SLOW_REQUEST_DECREASE_FACTOR = 0.75;
+
+    private final boolean enabled;
+    private final long targetLatencyNanos;
+    private final Meter increases;
+    private final Meter decreases;
+    private final Meter rejections;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotAvailable = lock.newCondition();
+
+    // Guarded by "lock"
+    private int chunkSizeLimit = UNLIMITED;
+    private int concurrencyLimit = UNLIMITED;
+    private int maxRequestedChunkSize = 0;
+    private int inFlight = 0;
+    private int maxInFlight = 0;
+
+    @Inject
+    public AdaptiveBulkController(@Named("output_adaptive_batch_size") boolean enabled,
+                                  @Named("output_adaptive_batch_target_latency") Duration targetLatency,
+                                  MetricRegistry metricRegistry) {
+        this.enabled = enabled;
+        this.targetLatencyNanos = targetLatency.toNanoseconds();
+
+        this.increases = metricRegistry.meter(name(AdaptiveBulkController.class, "increases"));
+        this.decreases = metricRegistry.meter(name(AdaptiveBulkController.class, "decreases"));
+        this.rejections = metricRegistry.meter(name(AdaptiveBulkController.class, "rejections"));
+        MetricUtils.safelyRegister(metricRegistry, name(AdaptiveBulkController.class, "chunkSizeLimit"), (Gauge<Integer>) this::chunkSizeLimit);
+        MetricUtils.safelyRegister(metricRegistry, name(AdaptiveBulkController.class, "concurrencyLimit"), (Gauge<Integer>) this::concurrencyLimit);
+        MetricUtils.safelyRegister(metricRegistry, name(AdaptiveBulkController.class, "inFlight"), (Gauge<Integer>) this::inFlight);
+    }
+
+    /**
+     * Creates a controller which doesn't limit bulk requests.
+     */
+    public static AdaptiveBulkController disabled() {
+        return new AdaptiveBulkController(false, Duration.seconds(0), new MetricRegistry());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the chunk size to use for a batch of the given size.
+     */
+    public int chunkSize(int requestedSize) {
+        if (!enabled) {
+            return requestedSize;
+        }
+        lock.lock();
+        try {
+            maxRequestedChunkSize = Math.max(maxRequestedChunkSize, requestedSize);
+            return Math.max(1, Math.min(requestedSize, chunkSizeLimit));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until another bulk request may be started. Every successful call must be followed by {@link #release()}.
+     */
+    public void acquire() {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (inFlight >= concurrencyLimit) {
+                slotAvailable.await();
+            }
+            inFlight++;
+            maxInFlight = Math.max(maxInFlight, inFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ElasticsearchException("Interrupted while waiting to start bulk request", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            inFlight--;
+            slotAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a successful bulk request.
+     *
+     * @param chunkSize      the number of documents per bulk request
+     * @param latencyNanos   the average latency of a single bulk request
+     */
+    public void onSuccess(int chunkSize, long latencyNanos) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (latencyNanos > targetLatencyNanos) {
+                decrease((int) (chunkSize * SLOW_REQUEST_DECREASE_FACTOR), false);
+                return;
+            }
+            if (chunkSizeLimit != UNLIMITED) {
+                final int step = Math.max(1, (int) (chunkSizeLimit * CHUNK_SIZE_INCREASE_RATIO));
+                // Don't grow beyond the largest batch we have seen, this wouldn't make any difference.
+                chunkSizeLimit = chunkSizeLimit + step >= maxRequestedChunkSize ? UNLIMITED : chunkSizeLimit + step;
+                increases.mark();
+            }
+            if (concurrencyLimit != UNLIMITED) {
+                concurrencyLimit = concurrencyLimit >= maxInFlight ? UNLIMITED : concurrencyLimit + 1;
+                slotAvailable.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a rejected bulk request ("Too many requests").
+     */
+    public void onTooManyRequests(int chunkSize) {
+        if (!enabled) {
+            return;
+        }
+        rejections.mark();
+        lock.lock();
+        try {
+            decrease(chunkSize / 2, true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a bulk request which was too large for the indexer.
+     */
+    public void onEntityTooLarge(int chunkSize) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            decrease(chunkSize / 2, false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Must be called while holding the lock
+    private void decrease(int newChunkSize, boolean reduceConcurrency) {
+        chunkSizeLimit = Math.max(MIN_CHUNK_SIZE, Math.min(chunkSizeLimit, newChunkSize));
+        if (reduceConcurrency) {
+            // Include the current request, it hasn't been released yet.
+            concurrencyLimit = Math.max(1, Math.min(concurrencyLimit, inFlight) / 2);
+        }
+        decreases.mark();
+        LOG.debug("Reduced bulk chunk size limit to <{}> and concurrency limit to <{}>", chunkSizeLimit, concurrencyLimit);
+    }
+
+    public int chunkSizeLimit() {
+        lock.lock();
+        try {
+            return chunkSizeLimit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int concurrencyLimit() {
+        lock.lock();
+        try {
+            return concurrencyLimit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long targetLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(targetLatencyNanos);
+    }
+}
@@ -16,6 +16,7 @@
  */
 package org.graylog2.indexer.messages;
 
+import jakarta.inject.Inject;
 import org.graylog2.indexer.ElasticsearchException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,29 +26,48 @@ import java.util.List;
 
 public class ChunkedBulkIndexer {
     private static final Logger LOG = LoggerFactory.getLogger(ChunkedBulkIndexer.class);
+    private static final String REJECTED_EXECUTION_ERROR = "rejected_execution_exception";
+
+    private final AdaptiveBulkController controller;
 
     public interface BulkIndex {
         IndexingResults apply(Chunk chunk) throws ChunkedBulkIndexer.EntityTooLargeException, IOException;
     }
 
+    public ChunkedBulkIndexer() {
+        this(AdaptiveBulkController.disabled());
+    }
+
+    @Inject
+    public ChunkedBulkIndexer(AdaptiveBulkController controller) {
+        this.controller = controller;
+    }
+
     public IndexingResults index(List<IndexingRequest> messageList, BulkIndex bulkIndex) throws IOException {
         if (messageList.isEmpty()) {
             return IndexingResults.empty();
         }
 
-        int chunkSize = messageList.size();
+        int chunkSize = controller.chunkSize(messageList.size());
         int offset = 0;
         IndexingResults.Builder accumulatedResults = IndexingResults.Builder.create();
         for (; ; ) {
+            controller.acquire();
             try {
+                final long start = System.nanoTime();
                 var results = bulkIndex.apply(new Chunk(messageList, offset, chunkSize));
+                if (controller.isEnabled()) {
+                    recordCompletion(messageList.size() - offset, chunkSize, System.nanoTime() - start, results);
+                }
                 accumulatedResults.addResults(results);
                 return accumulatedResults.build();
             } catch (EntityTooLargeException e) {
                 if (e instanceof TooManyRequestsException) {
                     LOG.warn("Bulk index failed with 'Too many requests' error. Retrying by splitting up batch size <{}>.", chunkSize);
+                    controller.onTooManyRequests(chunkSize);
                 } else {
                     LOG.warn("Bulk index failed with 'Request Entity Too Large' error. Retrying by splitting up batch size <{}>.", chunkSize);
+                    controller.onEntityTooLarge(chunkSize);
                 }
                 if (chunkSize == messageList.size()) {
                     LOG.warn("Consider lowering the \"output_batch_size\" setting. Or resizing your Search cluster");
@@ -55,6 +75,8 @@ public class ChunkedBulkIndexer {
                 offset += e.indexedSuccessfully;
                 chunkSize /= 2;
                 accumulatedResults.addResults(e.previousResults);
+            } finally {
+                controller.release();
             }
             if (chunkSize == 0) {
                 throw new ElasticsearchException("Bulk index cannot split output batch any further.");
@@ -62,6 +84,19 @@ public class ChunkedBulkIndexer {
         }
     }
 
+    private void recordCompletion(int size, int chunkSize, long durationNanos, IndexingResults results) {
+        // Documents rejected because of full write queues on the indexer nodes are a back-pressure signal as well
+        final boolean rejected = results.errors().stream()
+                .anyMatch(error -> error.error().errorMessage() != null && error.error().errorMessage().contains(REJECTED_EXECUTION_ERROR));
+        if (rejected) {
+            controller.onTooManyRequests(chunkSize);
+        } else {
+            // The chunk is split into multiple bulk requests, record the average latency of a single request.
+            final int requests = Math.max(1, (size + chunkSize - 1) / chunkSize);
+            controller.onSuccess(chunkSize, durationNanos / requests);
+        }
+    }
+
     public static class Chunk {
         public final List<IndexingRequest> requests;
         public final int offset;
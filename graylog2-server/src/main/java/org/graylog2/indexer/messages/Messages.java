@@ -29,6 +29,7 @@ import com.google.common.collect.Sets;
 import org.graylog.failure.FailureSubmissionService;
 import org.graylog2.indexer.InvalidWriteTargetException;
 import org.graylog2.indexer.MasterNotDiscoveredException;
+import org.graylog2.indexer.fieldtypes.IndexFieldNameTracker;
 import org.graylog2.indexer.results.ResultMessage;
 import org.graylog2.shared.utilities.ExceptionUtils;
 import org.graylog2.system.processing.ProcessingStatusRecorder;
@@ -93,16 +94,26 @@ public class Messages {
     private final MessagesAdapter messagesAdapter;
     private final ProcessingStatusRecorder processingStatusRecorder;
     private final TrafficAccounting trafficAccounting;
+    private final IndexFieldNameTracker indexFieldNameTracker;
 
-    @Inject
     public Messages(TrafficAccounting trafficAccounting,
                     MessagesAdapter messagesAdapter,
                     ProcessingStatusRecorder processingStatusRecorder,
                     FailureSubmissionService failureSubmissionService) {
+        this(trafficAccounting, messagesAdapter, processingStatusRecorder, failureSubmissionService, IndexFieldNameTracker.disabled());
+    }
+
+    @Inject
+    public Messages(TrafficAccounting trafficAccounting,
+                    MessagesAdapter messagesAdapter,
+                    ProcessingStatusRecorder processingStatusRecorder,
+                    FailureSubmissionService failureSubmissionService,
+                    IndexFieldNameTracker indexFieldNameTracker) {
         this.trafficAccounting = trafficAccounting;
         this.messagesAdapter = messagesAdapter;
         this.processingStatusRecorder = processingStatusRecorder;
         this.failureSubmissionService = failureSubmissionService;
+        this.indexFieldNameTracker = indexFieldNameTracker;
     }
 
     public ResultMessage get(String messageId, String index) throws DocumentNotFoundException, IOException {
@@ -150,6 +161,7 @@ public class Messages {
 
         recordTimestamp(finalResults.successes());
         accountTotalMessageSizes(finalResults.successes(), isSystemTraffic);
+        indexFieldNameTracker.track(finalResults.successes());
 
         if (!finalResults.errors().isEmpty()) {
             failureSubmissionService.submitIndexingErrors(finalResults.errors());
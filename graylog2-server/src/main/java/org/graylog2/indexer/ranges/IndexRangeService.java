@@ -22,6 +22,8 @@ import org.graylog2.database.NotFoundException;
 import org.joda.time.DateTime;
 import org.mongojack.WriteResult;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.SortedSet;
 
 public interface IndexRangeService {
@@ -35,11 +37,22 @@ public interface IndexRangeService {
 
     WriteResult<MongoIndexRange, ObjectId> save(IndexRange indexRange);
 
+    /**
+     * Replaces the index ranges of all given indices with a single bulk write.
+     */
+    void saveAll(Collection<IndexRange> indexRanges);
+
     boolean renameIndex(String from, String to);
 
     boolean remove(String index);
 
     IndexRange calculateRange(String index);
 
+    /**
+     * Calculates the index ranges of several indices with a single request to the indexer. Indices whose range
+     * couldn't be calculated are missing from the result and should be calculated with {@link #calculateRange(String)}.
+     */
+    Map<String, IndexRange> calculateRanges(Collection<String> indices);
+
     IndexRange createUnknownRange(String index);
 }
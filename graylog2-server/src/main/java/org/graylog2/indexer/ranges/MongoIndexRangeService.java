@@ -51,7 +51,11 @@ import org.mongojack.WriteResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
 import java.util.concurrent.TimeUnit;
 
@@ -157,6 +161,22 @@ public class MongoIndexRangeService implements IndexRangeService {
         return MongoIndexRange.create(index, stats.min(), stats.max(), now, duration, stats.streamIds());
     }
 
+    @Override
+    public Map<String, IndexRange> calculateRanges(Collection<String> indexNames) {
+        final DateTime now = DateTime.now(DateTimeZone.UTC);
+        final Stopwatch sw = Stopwatch.createStarted();
+        final Map<String, IndexRangeStats> stats = indices.indexRangeStatsOfIndices(indexNames);
+        final long durationMs = sw.stop().elapsed(TimeUnit.MILLISECONDS);
+        // The indices have been calculated together, so every index gets its share of the request duration
+        final int duration = Ints.saturatedCast(durationMs / Math.max(1, indexNames.size()));
+
+        LOG.info("Calculated ranges of {} out of {} indices in [{}ms].", stats.size(), indexNames.size(), durationMs);
+        final Map<String, IndexRange> indexRanges = new HashMap<>(stats.size());
+        stats.forEach((index, indexStats) -> indexRanges.put(index,
+                MongoIndexRange.create(index, indexStats.min(), indexStats.max(), now, duration, indexStats.streamIds())));
+        return indexRanges;
+    }
+
     @Override
     public IndexRange createUnknownRange(String index) {
         final DateTime begin = new DateTime(0L, DateTimeZone.UTC);
@@ -172,6 +192,16 @@ public class MongoIndexRangeService implements IndexRangeService {
         return save;
     }
 
+    @Override
+    public void saveAll(Collection<IndexRange> indexRanges) {
+        if (indexRanges.isEmpty()) {
+            return;
+        }
+        final List<String> indexNames = indexRanges.stream().map(IndexRange::indexName).toList();
+        collection.remove(DBQuery.in(IndexRange.FIELD_INDEX_NAME, indexNames));
+        collection.insert(indexRanges.stream().map(MongoIndexRange::create).toList());
+    }
+
     @Override
     public boolean renameIndex(String from, String to) {
         return collection.updateMulti(
@@ -18,11 +18,16 @@ package org.graylog2.indexer.ranges;
 
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.MultimapBuilder;
 import com.google.inject.assistedinject.Assisted;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.assistedinject.AssistedInject;
+import jakarta.inject.Named;
 import org.graylog2.database.NotFoundException;
 import org.graylog2.indexer.IndexSet;
+import org.graylog2.indexer.cluster.Cluster;
+import org.graylog2.indexer.cluster.health.NodeRole;
 import org.graylog2.indexer.indices.TooManyAliasesException;
 import org.graylog2.shared.system.activities.Activity;
 import org.graylog2.shared.system.activities.ActivityWriter;
@@ -30,7 +35,15 @@ import org.graylog2.system.jobs.SystemJob;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -41,22 +54,45 @@ public class RebuildIndexRangesJob extends SystemJob {
 
     private static final Logger LOG = LoggerFactory.getLogger(RebuildIndexRangesJob.class);
     private static final int MAX_CONCURRENCY = 1;
+    // Number of indices whose ranges are calculated with a single multi search request
+    private static final int BATCH_SIZE = 20;
 
     private volatile boolean cancelRequested = false;
     private volatile int indicesToCalculate = 0;
+    private volatile long startedNanos = 0;
     private final AtomicInteger indicesCalculated = new AtomicInteger(0);
 
     protected final Set<IndexSet> indexSets;
     private final ActivityWriter activityWriter;
     protected final IndexRangeService indexRangeService;
+    @Nullable
+    private final Cluster cluster;
+    private final int concurrency;
 
     @AssistedInject
     public RebuildIndexRangesJob(@Assisted Set<IndexSet> indexSets,
                                  ActivityWriter activityWriter,
-                                 IndexRangeService indexRangeService) {
+                                 IndexRangeService indexRangeService,
+                                 Cluster cluster,
+                                 @Named("index_ranges_rebuild_concurrency") int concurrency) {
         this.indexSets = indexSets;
         this.activityWriter = activityWriter;
         this.indexRangeService = indexRangeService;
+        this.cluster = cluster;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Creates a job which calculates the index ranges one by one.
+     */
+    protected RebuildIndexRangesJob(Set<IndexSet> indexSets,
+                                    ActivityWriter activityWriter,
+                                    IndexRangeService indexRangeService) {
+        this.indexSets = indexSets;
+        this.activityWriter = activityWriter;
+        this.indexRangeService = indexRangeService;
+        this.cluster = null;
+        this.concurrency = 1;
     }
 
     @Override
@@ -79,6 +115,17 @@ public class RebuildIndexRangesJob extends SystemJob {
         return "Rebuilds index range information.";
     }
 
+    @Override
+    public String getInfo() {
+        final int calculated = indicesCalculated.get();
+        if (startedNanos == 0 || indicesToCalculate <= 0) {
+            return super.getInfo();
+        }
+        final double elapsedSeconds = Math.max(1, System.nanoTime() - startedNanos) / 1_000_000_000.0;
+        return String.format(Locale.ENGLISH, "Calculated %d of %d index ranges (%.1f indices/s).",
+                calculated, indicesToCalculate, calculated / elapsedSeconds);
+    }
+
     @Override
     public void execute() {
         info("Recalculating index ranges.");
@@ -99,6 +146,8 @@ public class RebuildIndexRangesJob extends SystemJob {
         indicesToCalculate = indexSets.values().size();
 
         Stopwatch sw = Stopwatch.createStarted();
+        startedNanos = System.nanoTime();
+        final List<String> indicesToRebuild = new ArrayList<>(indicesToCalculate);
         for (IndexSet indexSet : indexSets.keySet()) {
             LOG.info("Recalculating index ranges for index set {} ({}): {} indices affected.",
                     indexSet.getConfig().title(),
@@ -128,27 +177,100 @@ public class RebuildIndexRangesJob extends SystemJob {
                     indicesCalculated.incrementAndGet();
                     continue;
                 }
-                if (cancelRequested) {
-                    info("Stop requested. Not calculating next index range, not updating ranges.");
-                    sw.stop();
-                    return;
-                }
-
-                try {
-                    final IndexRange indexRange = indexRangeService.calculateRange(index);
-                    indexRangeService.save(indexRange);
-                    LOG.info("Created ranges for index {}: {}", index, indexRange);
-                } catch (Exception e) {
-                    LOG.info("Could not calculate range of index [" + index + "]. Skipping.", e);
-                } finally {
-                    indicesCalculated.incrementAndGet();
-                }
+                indicesToRebuild.add(index);
             }
         }
 
+        final int workers = workers();
+        final boolean completed = workers <= 1 ? calculateSequentially(indicesToRebuild) : calculateInParallel(indicesToRebuild, workers);
+        if (!completed) {
+            info("Stop requested. Not calculating next index range, not updating ranges.");
+            sw.stop();
+            return;
+        }
+
         info("Done calculating index ranges for " + indicesToCalculate + " indices. Took " + sw.stop().elapsed(TimeUnit.MILLISECONDS) + "ms.");
     }
 
+    private int workers() {
+        if (concurrency > 0 || cluster == null) {
+            return Math.max(1, concurrency);
+        }
+        try {
+            final long dataNodes = cluster.getDiskUsageStats().stream()
+                    .filter(node -> node.roles().stream().anyMatch(NodeRole::holdsData))
+                    .count();
+            return (int) Math.max(1, dataNodes);
+        } catch (Exception e) {
+            LOG.warn("Couldn't determine number of data nodes, calculating index ranges one by one.", e);
+            return 1;
+        }
+    }
+
+    private boolean calculateSequentially(List<String> indices) {
+        for (String index : indices) {
+            if (cancelRequested) {
+                return false;
+            }
+            calculateAndSave(index);
+        }
+        return true;
+    }
+
+    private boolean calculateInParallel(List<String> indices, int workers) {
+        LOG.info("Recalculating {} index ranges with {} workers.", indices.size(), workers);
+        final ExecutorService executor = Executors.newFixedThreadPool(workers,
+                new ThreadFactoryBuilder().setNameFormat("rebuild-index-ranges-%d").setDaemon(true).build());
+        try {
+            for (List<String> batch : Lists.partition(indices, BATCH_SIZE)) {
+                executor.execute(() -> calculateBatch(batch));
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                LOG.debug("Waiting for index range calculation: {}", getInfo());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelRequested = true;
+        } finally {
+            executor.shutdownNow();
+        }
+        return !cancelRequested;
+    }
+
+    private void calculateBatch(List<String> batch) {
+        if (cancelRequested) {
+            return;
+        }
+        final Map<String, IndexRange> indexRanges = new HashMap<>(batch.size());
+        try {
+            indexRanges.putAll(indexRangeService.calculateRanges(batch));
+            indexRangeService.saveAll(indexRanges.values());
+            indicesCalculated.addAndGet(indexRanges.size());
+        } catch (Exception e) {
+            LOG.info("Could not calculate ranges of indices {}. Calculating them one by one.", batch, e);
+            indexRanges.clear();
+        }
+        // Unavailable or partially available indices are retried one by one, this waits for their recovery
+        for (String index : batch) {
+            if (!indexRanges.containsKey(index) && !cancelRequested) {
+                calculateAndSave(index);
+            }
+        }
+    }
+
+    private void calculateAndSave(String index) {
+        try {
+            final IndexRange indexRange = indexRangeService.calculateRange(index);
+            indexRangeService.save(indexRange);
+            LOG.info("Created ranges for index {}: {}", index, indexRange);
+        } catch (Exception e) {
+            LOG.info("Could not calculate range of index [" + index + "]. Skipping.", e);
+        } finally {
+            indicesCalculated.incrementAndGet();
+        }
+    }
+
     protected void info(String what) {
         LOG.info(what);
         activityWriter.write(new Activity(what, RebuildIndexRangesJob.class));
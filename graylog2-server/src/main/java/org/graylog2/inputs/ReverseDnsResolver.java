@@ -0,0 +1,356 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.inputs;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.github.joschi.jadconfig.util.Duration;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Strings;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.net.InetAddresses;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.graylog2.lookup.adapters.dnslookup.DnsClient;
+import org.graylog2.lookup.adapters.dnslookup.PtrDnsAnswer;
+import org.graylog2.shared.SuppressForbidden;
+import org.graylog2.shared.metrics.MetricUtils;
+import org.graylog2.shared.utilities.ExceptionUtils;
+import org.graylog2.system.shutdown.GracefulShutdownHook;
+import org.graylog2.system.shutdown.GracefulShutdownService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.net.InetAddress;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Node-wide reverse DNS resolver for inputs.
+ * <p>
+ * Lookups are sent to the DNS servers with {@link DnsClient} on a small pool of lookup threads, so a slow DNS server
+ * doesn't block the threads which decode messages. Concurrent lookups of the same address share one DNS request.
+ * Results are cached according to the TTL of the PTR record, limited to {@code rdns_cache_max_ttl}, and failed or
+ * empty lookups are cached for {@code rdns_negative_cache_ttl}. If the PTR lookup fails or doesn't return a host name,
+ * the JVM name service is asked as well, so entries of {@code /etc/hosts} keep working. Expired entries are still served while they are being
+ * refreshed, and a host name is kept for another {@code rdns_negative_cache_ttl} if its refresh fails.
+ * <p>
+ * By default, callers wait until the lookup of an address which isn't cached yet completed. If {@code rdns_max_wait} is
+ * set, callers wait at most that long. If the lookup doesn't complete in time, {@link #lookup(InetAddress)} returns an
+ * empty result and the caller falls back to the IP address. The lookup keeps running, so later messages from the same
+ * address are annotated with its host name.
+ */
+@Singleton
+public class ReverseDnsResolver {
+    private static final Logger LOG = LoggerFactory.getLogger(ReverseDnsResolver.class);
+
+    private static final int LOOKUP_THREADS = 4;
+    private static final int MAX_PENDING_LOOKUPS = 1000;
+    private static final long MIN_TTL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Lookup lookup;
+    private final Executor executor;
+    private final Ticker ticker;
+    private final long maxTtlNanos;
+    private final long negativeTtlNanos;
+    private final long maxWaitNanos;
+    private final Cache<InetAddress, Entry> cache;
+    private final ConcurrentMap<InetAddress, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    private final Meter hits;
+    private final Meter misses;
+    private final Meter fallbacks;
+    private final Meter failures;
+    private final Meter rejections;
+    private final Timer lookupTime;
+
+    @Inject
+    public ReverseDnsResolver(@Named("rdns_servers") String dnsServers,
+                              @Named("rdns_query_timeout") Duration queryTimeout,
+                              @Named("rdns_cache_size") int cacheSize,
+                              @Named("rdns_cache_max_ttl") Duration maxTtl,
+                              @Named("rdns_negative_cache_ttl") Duration negativeTtl,
+                              @Named("rdns_max_wait") Duration maxWait,
+                              GracefulShutdownService gracefulShutdownService,
+                              MetricRegistry metricRegistry) {
+        this(new DnsClientLookup(dnsServers, queryTimeout.toMilliseconds(), gracefulShutdownService),
+                lookupExecutor(), Ticker.systemTicker(), cacheSize, maxTtl, negativeTtl, maxWait, metricRegistry);
+    }
+
+    @VisibleForTesting
+    ReverseDnsResolver(Lookup lookup,
+                       Executor executor,
+                       Ticker ticker,
+                       int cacheSize,
+                       Duration maxTtl,
+                       Duration negativeTtl,
+                       Duration maxWait,
+                       MetricRegistry metricRegistry) {
+        this.lookup = lookup;
+        this.executor = executor;
+        this.ticker = ticker;
+        this.maxTtlNanos = maxTtl.toNanoseconds();
+        this.negativeTtlNanos = negativeTtl.toNanoseconds();
+        this.maxWaitNanos = maxWait.toNanoseconds();
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+
+        this.hits = metricRegistry.meter(name(ReverseDnsResolver.class, "hits"));
+        this.misses = metricRegistry.meter(name(ReverseDnsResolver.class, "misses"));
+        this.fallbacks = metricRegistry.meter(name(ReverseDnsResolver.class, "fallbacks"));
+        this.failures = metricRegistry.meter(name(ReverseDnsResolver.class, "failures"));
+        this.rejections = metricRegistry.meter(name(ReverseDnsResolver.class, "rejections"));
+        this.lookupTime = metricRegistry.timer(name(ReverseDnsResolver.class, "lookupTime"));
+        MetricUtils.safelyRegister(metricRegistry, name(ReverseDnsResolver.class, "size"), (Gauge<Long>) cache::size);
+        MetricUtils.safelyRegister(metricRegistry, name(ReverseDnsResolver.class, "inFlight"), (Gauge<Integer>) inFlight::size);
+    }
+
+    private static Executor lookupExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(LOOKUP_THREADS, LOOKUP_THREADS,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(MAX_PENDING_LOOKUPS),
+                new ThreadFactoryBuilder().setNameFormat("rdns-lookup-%d").setDaemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Returns the host name of the given address.
+     *
+     * @return the host name, or an empty result if the address doesn't have a PTR record, the lookup failed, or the
+     * lookup didn't complete within {@code rdns_max_wait}
+     */
+    public Optional<String> lookup(InetAddress address) {
+        final Entry cached = cache.getIfPresent(address);
+        if (cached != null) {
+            if (cached.expiresAt - ticker.read() > 0) {
+                hits.mark();
+            } else {
+                // Serve the expired entry while it is being refreshed
+                misses.mark();
+                lookupAsync(address);
+            }
+            return Optional.ofNullable(cached.hostName);
+        }
+
+        misses.mark();
+        final CompletableFuture<Entry> future = lookupAsync(address);
+        final Entry entry = await(future);
+        if (entry == null) {
+            fallbacks.mark();
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entry.hostName);
+    }
+
+    /**
+     * Returns the host name of the given address or its textual representation if there is no host name.
+     */
+    public String lookupOrAddress(InetAddress address) {
+        return lookup(address).orElseGet(() -> InetAddresses.toAddrString(address));
+    }
+
+    @Nullable
+    private Entry await(CompletableFuture<Entry> future) {
+        if (future.isDone()) {
+            return future.getNow(null);
+        }
+        try {
+            // Without a maximum wait time, the DNS query timeout limits how long we block.
+            return maxWaitNanos <= 0 ? future.get() : future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            // Lookup failures are cached as negative entries, this shouldn't happen.
+            return null;
+        }
+    }
+
+    private CompletableFuture<Entry> lookupAsync(InetAddress address) {
+        final CompletableFuture<Entry> existing = inFlight.get(address);
+        if (existing != null) {
+            return existing;
+        }
+        final CompletableFuture<Entry> future = new CompletableFuture<>();
+        final CompletableFuture<Entry> concurrent = inFlight.putIfAbsent(address, future);
+        if (concurrent != null) {
+            return concurrent;
+        }
+        try {
+            executor.execute(() -> runLookup(address, future));
+        } catch (RejectedExecutionException e) {
+            // Too many pending lookups, the address will be looked up again with one of the next messages
+            rejections.mark();
+            inFlight.remove(address, future);
+            future.complete(null);
+        }
+        return future;
+    }
+
+    private void runLookup(InetAddress address, CompletableFuture<Entry> future) {
+        Entry entry;
+        try (Timer.Context ignored = lookupTime.time()) {
+            try {
+                final PtrDnsAnswer answer = lookup.reverseLookup(InetAddresses.toAddrString(address));
+                entry = toEntry(answer);
+                if (entry.hostName == null) {
+                    entry = nameServiceLookup(address, entry);
+                }
+            } catch (Exception e) {
+                failures.mark();
+                LOG.debug("Reverse DNS lookup of <{}> failed: {}", address, ExceptionUtils.getRootCauseOrMessage(e));
+                // Don't replace a known host name because of a transient failure, retry once the negative TTL expired.
+                final Entry previous = cache.getIfPresent(address);
+                entry = nameServiceLookup(address, new Entry(previous == null ? null : previous.hostName, ticker.read() + negativeTtlNanos));
+            }
+        }
+        // Cache the result before the lookup is removed from the in-flight requests, so that callers always find one of them.
+        cache.put(address, entry);
+        inFlight.remove(address, future);
+        future.complete(entry);
+    }
+
+    // Covers /etc/hosts and the other name services of the JVM, which the PTR lookup doesn't know about
+    private Entry nameServiceLookup(InetAddress address, Entry fallback) {
+        try {
+            final String hostName = lookup.nameServiceLookup(address);
+            if (!Strings.isNullOrEmpty(hostName)) {
+                return new Entry(hostName, ticker.read() + maxTtlNanos);
+            }
+        } catch (Exception e) {
+            LOG.debug("Name service lookup of <{}> failed: {}", address, ExceptionUtils.getRootCauseOrMessage(e));
+        }
+        return fallback;
+    }
+
+    private Entry toEntry(@Nullable PtrDnsAnswer answer) {
+        final String hostName = answer == null ? null : stripTrailingDot(answer.fullDomain());
+        if (Strings.isNullOrEmpty(hostName)) {
+            return new Entry(null, ticker.read() + negativeTtlNanos);
+        }
+        final long ttlNanos = Math.min(maxTtlNanos, Math.max(MIN_TTL_NANOS, TimeUnit.SECONDS.toNanos(answer.dnsTTL())));
+        return new Entry(hostName, ticker.read() + ttlNanos);
+    }
+
+    @Nullable
+    private static String stripTrailingDot(@Nullable String hostName) {
+        if (hostName != null && hostName.endsWith(".")) {
+            return hostName.substring(0, hostName.length() - 1);
+        }
+        return hostName;
+    }
+
+    @VisibleForTesting
+    interface Lookup {
+        @Nullable
+        PtrDnsAnswer reverseLookup(String ipAddress) throws Exception;
+
+        /**
+         * Looks up the host name with the name service of the JVM.
+         *
+         * @return the host name, or {@code null} if the address doesn't have one
+         */
+        @Nullable
+        String nameServiceLookup(InetAddress address) throws Exception;
+    }
+
+    private static class DnsClientLookup implements Lookup, GracefulShutdownHook {
+        private final String dnsServers;
+        private final long queryTimeoutMillis;
+        private final GracefulShutdownService gracefulShutdownService;
+        private volatile DnsClient dnsClient;
+
+        private DnsClientLookup(String dnsServers, long queryTimeoutMillis, GracefulShutdownService gracefulShutdownService) {
+            this.dnsServers = dnsServers;
+            this.queryTimeoutMillis = queryTimeoutMillis;
+            this.gracefulShutdownService = gracefulShutdownService;
+        }
+
+        @Override
+        public PtrDnsAnswer reverseLookup(String ipAddress) throws Exception {
+            return client().reverseLookup(ipAddress);
+        }
+
+        @Override
+        @SuppressForbidden("Deliberate invocation")
+        public String nameServiceLookup(InetAddress address) throws Exception {
+            // A new instance, so a host name which was passed in with the address isn't taken as lookup result
+            final InetAddress unresolved = InetAddress.getByAddress(address.getAddress());
+            final String hostName = unresolved.getHostName();
+            // The JVM returns the textual address if there is no host name
+            return hostName.equals(unresolved.getHostAddress()) ? null : hostName;
+        }
+
+        // The resolver pool is only started once an input actually needs it
+        private DnsClient client() {
+            DnsClient client = dnsClient;
+            if (client == null) {
+                synchronized (this) {
+                    client = dnsClient;
+                    if (client == null) {
+                        client = new DnsClient(queryTimeoutMillis);
+                        client.start(dnsServers);
+                        dnsClient = client;
+                        gracefulShutdownService.register(this);
+                    }
+                }
+            }
+            return client;
+        }
+
+        @Override
+        public synchronized void doGracefulShutdown() {
+            if (dnsClient != null) {
+                dnsClient.stop();
+                dnsClient = null;
+            }
+        }
+    }
+
+    private static final class Entry {
+        @Nullable
+        private final String hostName;
+        private final long expiresAt;
+
+        private Entry(@Nullable String hostName, long expiresAt) {
+            this.hostName = hostName;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
 import jakarta.inject.Inject;
 import org.apache.commons.lang3.StringUtils;
+import org.graylog2.inputs.ReverseDnsResolver;
 import org.graylog2.plugin.Message;
 import org.graylog2.plugin.MessageFactory;
 import org.graylog2.plugin.ResolvableInetSocketAddress;
@@ -40,6 +41,7 @@ import org.graylog2.plugin.inputs.codecs.AbstractCodec;
 import org.graylog2.plugin.inputs.codecs.CodecAggregator;
 import org.graylog2.plugin.inputs.transports.NettyTransport;
 import org.graylog2.plugin.journal.RawMessage;
+import org.graylog2.shared.SuppressForbidden;
 import org.graylog2.syslog4j.server.SyslogServerEventIF;
 import org.graylog2.syslog4j.server.impl.event.CiscoSyslogServerEvent;
 import org.graylog2.syslog4j.server.impl.event.FortiGateSyslogEvent;
@@ -54,7 +56,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -68,8 +70,6 @@ import static com.google.common.base.Strings.isNullOrEmpty;
 public class SyslogCodec extends AbstractCodec {
     private static final Logger LOG = LoggerFactory.getLogger(SyslogCodec.class);
     public static final Pattern STRUCTURED_SYSLOG_PATTERN = Pattern.compile("<\\d{1,3}>[0-9]\\d{0,2}\\s.*", Pattern.DOTALL);
-    private static final Pattern CISCO_WITH_SEQUENCE_NUMBERS_PATTERN = Pattern.compile("<\\d{1,3}>\\d*:\\s.*", Pattern.DOTALL);
-    private static final Pattern FORTIGATE_PATTERN = Pattern.compile("<\\d{1,3}>date=.*", Pattern.DOTALL);
 
     static final String CK_FORCE_RDNS = "force_rdns";
     static final String CK_ALLOW_OVERRIDE_DATE = "allow_override_date";
@@ -80,19 +80,33 @@ public class SyslogCodec extends AbstractCodec {
     private final Timer resolveTime;
     private final Timer decodeTime;
     private final MessageFactory messageFactory;
+    private final ReverseDnsResolver reverseDnsResolver;
+    @Nullable
+    private final DateTimeZone defaultTimeZone;
+    @Nullable
+    private final SyslogPayloadParser payloadParser;
 
     @AssistedInject
-    public SyslogCodec(@Assisted Configuration configuration, MetricRegistry metricRegistry, MessageFactory messageFactory) {
+    public SyslogCodec(@Assisted Configuration configuration,
+                       MetricRegistry metricRegistry,
+                       MessageFactory messageFactory,
+                       ReverseDnsResolver reverseDnsResolver) {
         super(configuration);
         this.resolveTime = metricRegistry.timer(name(SyslogCodec.class, "resolveTime"));
         this.decodeTime = metricRegistry.timer(name(SyslogCodec.class, "decodeTime"));
         this.messageFactory = messageFactory;
+        this.reverseDnsResolver = reverseDnsResolver;
+
+        final String timeZoneConfig = configuration.getString(CK_TIMEZONE);
+        final boolean isDefaultTimeZoneSet = StringUtils.isNotBlank(timeZoneConfig) && !DropdownField.NOT_CONFIGURED.equals(timeZoneConfig);
+        this.defaultTimeZone = isDefaultTimeZoneSet ? DateTimeZone.forID(timeZoneConfig) : null;
+        this.payloadParser = StandardCharsets.UTF_8.equals(charset) ? new SyslogPayloadParser(defaultTimeZone) : null;
     }
 
     @Nullable
     @Override
     public Message decode(@Nonnull RawMessage rawMessage) {
-        final String msg = new String(rawMessage.getPayload(), charset);
+        final byte[] payload = rawMessage.getPayload();
         try (Timer.Context ignored = this.decodeTime.time()) {
             final ResolvableInetSocketAddress address = rawMessage.getRemoteAddress();
             final InetSocketAddress remoteAddress;
@@ -101,10 +115,44 @@ public class SyslogCodec extends AbstractCodec {
             } else {
                 remoteAddress = address.getInetSocketAddress();
             }
-            return parse(msg, remoteAddress == null ? null : remoteAddress.getAddress(), rawMessage.getTimestamp());
+            final InetAddress remoteInetAddress = remoteAddress == null ? null : remoteAddress.getAddress();
+
+            // The payload parser only understands UTF-8 and strictly formatted messages, everything else goes through syslog4j.
+            if (payloadParser != null) {
+                final SyslogPayloadParser.ParsedMessage parsed = payloadParser.parse(payload);
+                if (parsed != null) {
+                    return createMessage(parsed, payload, remoteInetAddress);
+                }
+            }
+            return parse(new String(payload, charset), remoteInetAddress, rawMessage.getTimestamp());
         }
     }
 
+    @SuppressForbidden("Same time zone as the DateTime created from the syslog4j event date")
+    private Message createMessage(SyslogPayloadParser.ParsedMessage parsed, byte[] payload, InetAddress remoteAddress) {
+        final Message m = messageFactory.createMessage(parsed.message(), parseHost(parsed.host(), remoteAddress), new DateTime(parsed.timestamp()));
+        m.addField("facility", Tools.syslogFacilityToReadable(parsed.facility()));
+        m.addField("level", parsed.level());
+        m.addField("facility_num", parsed.facility());
+
+        if (configuration.getBoolean(CK_STORE_FULL_MESSAGE)) {
+            m.addField("full_message", new String(payload, charset));
+        }
+
+        if (parsed.structuredData() != null) {
+            final Map<String, Object> structuredData = new HashMap<>(extractFields(parsed.structuredData(), configuration.getBoolean(CK_EXPAND_STRUCTURED_DATA)));
+            if (!isNullOrEmpty(parsed.applicationName())) {
+                structuredData.put("application_name", parsed.applicationName());
+            }
+            if (!isNullOrEmpty(parsed.processId())) {
+                structuredData.put("process_id", parsed.processId());
+            }
+            m.addFields(structuredData);
+        }
+
+        return m;
+    }
+
     private Message parse(String msg, InetAddress remoteAddress, DateTime receivedTimestamp) {
         /*
          * ZOMG funny 80s neckbeard protocols. We are now deciding if to parse
@@ -128,19 +176,12 @@ public class SyslogCodec extends AbstractCodec {
          *  http://open.spotify.com/track/2ZtQKBB8wDTtPPqDZhy7xZ
          *
          */
-        String timeZoneConfig = configuration.getString(CK_TIMEZONE);
-        final SyslogServerEventIF e;
-        boolean isDefaultTimeZoneSet = StringUtils.isNotBlank(timeZoneConfig) && !DropdownField.NOT_CONFIGURED.equals(timeZoneConfig);
-        DateTimeZone defaultTimeZone = isDefaultTimeZoneSet ? DateTimeZone.forID(timeZoneConfig) : null;
-        if (STRUCTURED_SYSLOG_PATTERN.matcher(msg).matches()) {
-            e = new StructuredSyslogServerEvent(msg, remoteAddress, defaultTimeZone);
-        } else if (CISCO_WITH_SEQUENCE_NUMBERS_PATTERN.matcher(msg).matches()) {
-            e = new CiscoSyslogServerEvent(msg, remoteAddress, defaultTimeZone);
-        } else if (FORTIGATE_PATTERN.matcher(msg).matches()) {
-            e = new FortiGateSyslogEvent(msg.trim(), defaultTimeZone);
-        } else {
-            e = new SyslogServerEvent(msg, remoteAddress, defaultTimeZone);
-        }
+        final SyslogServerEventIF e = switch (SyslogFormat.detect(msg)) {
+            case STRUCTURED -> new StructuredSyslogServerEvent(msg, remoteAddress, defaultTimeZone);
+            case CISCO -> new CiscoSyslogServerEvent(msg, remoteAddress, defaultTimeZone);
+            case FORTIGATE -> new FortiGateSyslogEvent(msg.trim(), defaultTimeZone);
+            case UNSTRUCTURED -> new SyslogServerEvent(msg, remoteAddress, defaultTimeZone);
+        };
 
         // If the message is a structured one, we do not want the message ID and the structured data in the
         // message string. See: https://github.com/Graylog2/graylog2-server/issues/845#issuecomment-69499719
@@ -152,7 +193,7 @@ public class SyslogCodec extends AbstractCodec {
             syslogMessage = e.getMessage();
         }
 
-        final Message m = messageFactory.createMessage(syslogMessage, parseHost(e, remoteAddress), parseDate(e, receivedTimestamp));
+        final Message m = messageFactory.createMessage(syslogMessage, parseHost(e.getHost(), remoteAddress), parseDate(e, receivedTimestamp));
         m.addField("facility", Tools.syslogFacilityToReadable(e.getFacility()));
         m.addField("level", e.getLevel());
         m.addField("facility_num", e.getFacility());
@@ -201,16 +242,13 @@ public class SyslogCodec extends AbstractCodec {
         }
     }
 
-    private String parseHost(SyslogServerEventIF msg, InetAddress remoteAddress) {
+    private String parseHost(@Nullable String host, InetAddress remoteAddress) {
         if (remoteAddress != null && configuration.getBoolean(CK_FORCE_RDNS)) {
             try (Timer.Context ignored = this.resolveTime.time()) {
-                return Tools.rdnsLookup(remoteAddress);
-            } catch (UnknownHostException e) {
-                LOG.warn("Reverse DNS lookup failed. Falling back to parsed hostname.", e);
+                return reverseDnsResolver.lookupOrAddress(remoteAddress);
             }
         }
 
-        final String host = msg.getHost();
         return isNullOrEmpty(host) && remoteAddress != null ? InetAddresses.toAddrString(remoteAddress) : host;
     }
 
@@ -322,25 +360,29 @@ public class SyslogCodec extends AbstractCodec {
     @VisibleForTesting
     Map<String, Object> extractFields(final StructuredSyslogServerEvent msg, final boolean expand) {
         try {
-            final Map<String, Map<String, String>> raw = msg.getStructuredMessage().getStructuredData();
-
-            if (raw != null && !raw.isEmpty()) {
-                final Map<String, Object> fields = new HashMap<>();
-                for (Map.Entry<String, Map<String, String>> entry : raw.entrySet()) {
-                    if (expand) {
-                        fields.putAll(prefixElements(entry.getKey(), entry.getValue()));
-                    } else {
-                        fields.putAll(entry.getValue());
-                    }
-                }
-                return fields;
-            }
+            return extractFields(msg.getStructuredMessage().getStructuredData(), expand);
         } catch (Exception e) {
             LOG.debug("Could not extract structured syslog", e);
         }
         return Collections.emptyMap();
     }
 
+    private Map<String, Object> extractFields(@Nullable Map<String, Map<String, String>> raw, boolean expand) {
+        if (raw == null || raw.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, Object> fields = new HashMap<>();
+        for (Map.Entry<String, Map<String, String>> entry : raw.entrySet()) {
+            if (expand) {
+                fields.putAll(prefixElements(entry.getKey(), entry.getValue()));
+            } else {
+                fields.putAll(entry.getValue());
+            }
+        }
+        return fields;
+    }
+
     private Map<String, String> prefixElements(final String prefix, final Map<String, String> elements) {
         if (elements == null || elements.isEmpty()) {
             return Collections.emptyMap();
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.inputs.codecs;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The framing of a syslog message, detected from the first bytes of the message.
+ * <p>
+ * {@link #detect(CharSequence)} only looks at the PRI and the token following it, so the detection doesn't depend on
+ * the length of the message. The result is the same as matching the whole message against the regular expressions
+ * {@code <\d{1,3}>[0-9]\d{0,2}\s.*}, {@code <\d{1,3}>\d*:\s.*} and {@code <\d{1,3}>date=.*} in this order.
+ */
+enum SyslogFormat {
+    /**
+     * RFC 5424, a VERSION follows the PRI.
+     */
+    STRUCTURED,
+    /**
+     * Cisco devices with sequence numbers enabled.
+     */
+    CISCO,
+    /**
+     * FortiGate key-value messages.
+     */
+    FORTIGATE,
+    /**
+     * Classic BSD syslog (RFC 3164) and everything we don't recognize.
+     */
+    UNSTRUCTURED;
+
+    private static final int MAX_PRI_DIGITS = 3;
+    private static final int MAX_VERSION_DIGITS = 3;
+    private static final String FORTIGATE_PREFIX = "date=";
+
+    /**
+     * Detects the format of an encoded message. Only ASCII characters are relevant for the detection, so the result is
+     * the same as for the decoded message as long as the charset is ASCII-compatible.
+     */
+    static SyslogFormat detect(byte[] payload) {
+        return detect(new AsciiView(payload));
+    }
+
+    static SyslogFormat detect(CharSequence msg) {
+        final int length = msg.length();
+        if (length == 0 || msg.charAt(0) != '<') {
+            return UNSTRUCTURED;
+        }
+
+        final int priDigits = countDigits(msg, 1);
+        final int priEnd = 1 + priDigits;
+        if (priDigits == 0 || priDigits > MAX_PRI_DIGITS || priEnd >= length || msg.charAt(priEnd) != '>') {
+            return UNSTRUCTURED;
+        }
+
+        final int tokenStart = priEnd + 1;
+        final int tokenDigits = countDigits(msg, tokenStart);
+        final int tokenEnd = tokenStart + tokenDigits;
+        if (tokenEnd < length) {
+            final char next = msg.charAt(tokenEnd);
+            if (tokenDigits > 0 && tokenDigits <= MAX_VERSION_DIGITS && isWhitespace(next)) {
+                return STRUCTURED;
+            }
+            if (next == ':' && tokenEnd + 1 < length && isWhitespace(msg.charAt(tokenEnd + 1))) {
+                return CISCO;
+            }
+        }
+        if (tokenDigits == 0 && startsWith(msg, tokenStart, FORTIGATE_PREFIX)) {
+            return FORTIGATE;
+        }
+        return UNSTRUCTURED;
+    }
+
+    private static int countDigits(CharSequence msg, int start) {
+        int i = start;
+        while (i < msg.length() && msg.charAt(i) >= '0' && msg.charAt(i) <= '9') {
+            i++;
+        }
+        return i - start;
+    }
+
+    // Same characters as "\s" in java.util.regex without UNICODE_CHARACTER_CLASS
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    // Maps every byte to a char without decoding, non-ASCII bytes never match any of the characters we look for.
+    private static class AsciiView implements CharSequence {
+        private final byte[] bytes;
+
+        AsciiView(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int length() {
+            return bytes.length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    private static boolean startsWith(CharSequence msg, int offset, String prefix) {
+        if (msg.length() - offset < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (msg.charAt(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
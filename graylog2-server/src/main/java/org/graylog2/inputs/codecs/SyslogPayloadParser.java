@@ -0,0 +1,466 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.inputs.codecs;
+
+import org.graylog2.shared.SuppressForbidden;
+import org.joda.time.DateTimeZone;
+
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Parses RFC 5424 and RFC 3164 syslog messages in a single pass over the UTF-8 encoded payload.
+ * <p>
+ * This is the fast path of {@link SyslogCodec}. It only accepts messages which strictly follow the layout of the
+ * RFCs and produces exactly the values the syslog4j event classes would produce for them. Everything else (Cisco and
+ * FortiGate messages, NIL or unusual timestamps, malformed structured data, ...) makes {@link #parse(byte[])} return
+ * {@code null} and the codec falls back to syslog4j.
+ */
+class SyslogPayloadParser {
+    private static final String[] MONTHS = {"jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"};
+    private static final int MAX_OFFSET_HOURS = 18;
+    // syslog4j treats a structured message containing this SD-ID as an error.
+    private static final byte[] INVALID_SD_ELEMENT = "[0@0]".getBytes(StandardCharsets.US_ASCII);
+
+    @Nullable
+    private final TimeZone defaultTimeZone;
+
+    SyslogPayloadParser(@Nullable DateTimeZone defaultTimeZone) {
+        this.defaultTimeZone = defaultTimeZone == null ? null : defaultTimeZone.toTimeZone();
+    }
+
+    /**
+     * The values syslog4j would have extracted from a message.
+     *
+     * @param structuredData the structured data of an RFC 5424 message (possibly empty), {@code null} for RFC 3164
+     */
+    record ParsedMessage(int facility,
+                         int level,
+                         long timestamp,
+                         @Nullable String host,
+                         String message,
+                         @Nullable String applicationName,
+                         @Nullable String processId,
+                         @Nullable Map<String, Map<String, String>> structuredData) {
+    }
+
+    @Nullable
+    ParsedMessage parse(byte[] payload) {
+        return switch (SyslogFormat.detect(payload)) {
+            case STRUCTURED -> parseStructured(payload);
+            case UNSTRUCTURED -> parseUnstructured(payload);
+            case CISCO, FORTIGATE -> null;
+        };
+    }
+
+    @Nullable
+    private ParsedMessage parseStructured(byte[] p) {
+        final int priEnd = priorityEnd(p);
+        if (priEnd < 0) {
+            return null;
+        }
+        final int pri = parseDigits(p, 1, priEnd);
+
+        // SyslogFormat already made sure that a VERSION follows the PRI.
+        int pos = priEnd + 1;
+        while (isDigit(p[pos])) {
+            pos++;
+        }
+        if (p[pos] != ' ') {
+            return null;
+        }
+
+        final int timestampStart = pos + 1;
+        final int timestampEnd = tokenEnd(p, timestampStart);
+        if (timestampEnd < 0) {
+            return null;
+        }
+        final long timestamp = parseRfc3339(p, timestampStart, timestampEnd);
+        if (timestamp == Long.MIN_VALUE) {
+            return null;
+        }
+
+        final int hostEnd = tokenEnd(p, timestampEnd + 1);
+        if (hostEnd < 0) {
+            return null;
+        }
+        final int appNameEnd = tokenEnd(p, hostEnd + 1);
+        if (appNameEnd < 0) {
+            return null;
+        }
+        final int procIdEnd = tokenEnd(p, appNameEnd + 1);
+        if (procIdEnd < 0) {
+            return null;
+        }
+
+        final int restStart = procIdEnd + 1;
+        final int msgIdEnd = tokenEnd(p, restStart);
+        if (msgIdEnd < 0 || indexOf(p, (byte) '[', restStart, msgIdEnd) >= 0 || contains(p, restStart, INVALID_SD_ELEMENT)) {
+            return null;
+        }
+
+        final int sdStart = msgIdEnd + 1;
+        final boolean nilMsgId = msgIdEnd - restStart == 1 && p[restStart] == '-';
+        final Map<String, Map<String, String>> structuredData;
+        final String message;
+        if (sdStart < p.length && p[sdStart] == '-') {
+            if (nilMsgId) {
+                // "- - MSG"
+                if (sdStart + 1 >= p.length || p[sdStart + 1] != ' ') {
+                    return null;
+                }
+                message = messageOrRest(p, sdStart + 2, restStart);
+            } else {
+                // syslog4j doesn't split a MSGID from NIL structured data and uses the whole rest as the message.
+                if (sdStart + 1 < p.length && p[sdStart + 1] != ' ') {
+                    return null;
+                }
+                message = decode(p, restStart, p.length);
+            }
+            structuredData = Map.of();
+        } else if (sdStart < p.length && p[sdStart] == '[') {
+            structuredData = new HashMap<>();
+            final int sdEnd = parseStructuredData(p, sdStart, structuredData);
+            if (sdEnd < 0) {
+                return null;
+            }
+            if (sdEnd + 1 == p.length) {
+                message = decode(p, restStart, p.length);
+            } else if (p[sdEnd + 1] == ' ') {
+                message = messageOrRest(p, sdEnd + 2, restStart);
+            } else {
+                return null;
+            }
+        } else {
+            return null;
+        }
+
+        final int facility = pri >> 3;
+        return new ParsedMessage(facility,
+                pri - (facility << 3),
+                timestamp,
+                ascii(p, timestampEnd + 1, hostEnd),
+                message,
+                nilToNull(p, hostEnd + 1, appNameEnd),
+                nilToNull(p, appNameEnd + 1, procIdEnd),
+                structuredData);
+    }
+
+    /**
+     * Parses consecutive SD-ELEMENTs starting at {@code start} into {@code data}.
+     *
+     * @return the index of the closing bracket of the last element or -1 if the structured data isn't well-formed
+     */
+    private static int parseStructuredData(byte[] p, int start, Map<String, Map<String, String>> data) {
+        int end = -1;
+        int i = start;
+        while (i < p.length && p[i] == '[') {
+            final int idStart = i + 1;
+            i = nameEnd(p, idStart);
+            if (i == idStart || i >= p.length) {
+                return -1;
+            }
+            final String id = ascii(p, idStart, i);
+
+            final Map<String, String> params = new HashMap<>();
+            while (p[i] == ' ') {
+                final int nameStart = i + 1;
+                final int nameEnd = nameEnd(p, nameStart);
+                if (nameEnd == nameStart || nameEnd + 1 >= p.length || p[nameEnd] != '=' || p[nameEnd + 1] != '"') {
+                    return -1;
+                }
+                final int valueStart = nameEnd + 2;
+                int valueEnd = valueStart;
+                boolean escaped = false;
+                while (valueEnd < p.length && p[valueEnd] != '"') {
+                    if (p[valueEnd] == '\\') {
+                        escaped = true;
+                        valueEnd += 2;
+                    } else if (p[valueEnd] == ']') {
+                        return -1;
+                    } else {
+                        valueEnd++;
+                    }
+                }
+                if (valueEnd + 1 >= p.length) {
+                    return -1;
+                }
+                final String value = decode(p, valueStart, valueEnd);
+                params.put(ascii(p, nameStart, nameEnd), escaped ? value.replace("\\", "") : value);
+                i = valueEnd + 1;
+            }
+            if (p[i] != ']') {
+                return -1;
+            }
+            data.put(id, params);
+            end = i;
+            i++;
+        }
+        return end;
+    }
+
+    @Nullable
+    @SuppressForbidden("syslog4j uses the current year of the default time zone and locale")
+    private ParsedMessage parseUnstructured(byte[] p) {
+        final int priEnd = priorityEnd(p);
+        if (priEnd < 0) {
+            return null;
+        }
+        final int pri = parseDigits(p, 1, priEnd);
+
+        // "Mmm dd hh:mm:ss " or "Mmm d hh:mm:ss "
+        final int start = priEnd + 1;
+        final int dateLength = start + 5 < p.length && p[start + 5] == ' ' ? 15 : 16;
+        final int messageStart = start + dateLength;
+        // syslog4j only parses a date if the message is longer than 16 characters.
+        if (messageStart > p.length || countCharacters(p, messageStart, 17 - dateLength) < 17 - dateLength) {
+            return null;
+        }
+
+        final int month = parseMonth(p, start);
+        if (month < 0 || p[start + 3] != ' ') {
+            return null;
+        }
+        final int day;
+        final int timeStart;
+        if (dateLength == 15) {
+            day = isDigit(p[start + 4]) ? p[start + 4] - '0' : -1;
+            timeStart = start + 6;
+        } else {
+            // Days may be padded with a space or a zero.
+            if (p[start + 4] == ' ') {
+                day = isDigit(p[start + 5]) ? p[start + 5] - '0' : -1;
+            } else {
+                day = parseTwoDigits(p, start + 4);
+            }
+            timeStart = start + 7;
+        }
+        if (day < 1 || day > 31 || p[timeStart - 1] != ' ' || p[messageStart - 1] != ' ') {
+            return null;
+        }
+        final int hour = parseTwoDigits(p, timeStart);
+        final int minute = parseTwoDigits(p, timeStart + 3);
+        final int second = parseTwoDigits(p, timeStart + 6);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59
+                || p[timeStart + 2] != ':' || p[timeStart + 5] != ':') {
+            return null;
+        }
+
+        // Same calendar calculation as the SimpleDateFormat used by syslog4j, including the current year.
+        final int year = Calendar.getInstance().get(Calendar.YEAR);
+        final Calendar calendar = new GregorianCalendar(defaultTimeZone == null ? TimeZone.getDefault() : defaultTimeZone, Locale.ENGLISH);
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute, second);
+
+        final int hostEnd = indexOf(p, (byte) ' ', messageStart, p.length);
+        final String host = hostEnd < 0 ? null : decode(p, messageStart, hostEnd).trim();
+
+        final int facility = pri >> 3;
+        return new ParsedMessage(facility,
+                pri - (facility << 3),
+                calendar.getTimeInMillis(),
+                host,
+                decode(p, messageStart, p.length),
+                null,
+                null,
+                null);
+    }
+
+    /**
+     * Parses a RFC 3339 timestamp with an explicit offset, truncating fractions to milliseconds.
+     *
+     * @return the timestamp in milliseconds or {@link Long#MIN_VALUE} if it isn't a strict RFC 3339 timestamp
+     */
+    private static long parseRfc3339(byte[] p, int start, int end) {
+        // YYYY-MM-DDThh:mm:ss
+        if (end - start < 20 || p[start + 4] != '-' || p[start + 7] != '-' || p[start + 10] != 'T'
+                || p[start + 13] != ':' || p[start + 16] != ':') {
+            return Long.MIN_VALUE;
+        }
+        final int century = parseTwoDigits(p, start);
+        final int yearOfCentury = parseTwoDigits(p, start + 2);
+        final int year = century < 0 || yearOfCentury < 0 ? -1 : century * 100 + yearOfCentury;
+        final int month = parseTwoDigits(p, start + 5);
+        final int day = parseTwoDigits(p, start + 8);
+        final int hour = parseTwoDigits(p, start + 11);
+        final int minute = parseTwoDigits(p, start + 14);
+        final int second = parseTwoDigits(p, start + 17);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23
+                || minute < 0 || minute > 59 || second < 0 || second > 59
+                || day > YearMonth.of(year, month).lengthOfMonth()) {
+            return Long.MIN_VALUE;
+        }
+
+        int pos = start + 19;
+        int millis = 0;
+        if (p[pos] == '.') {
+            final int fractionStart = ++pos;
+            while (pos < end && isDigit(p[pos])) {
+                if (pos - fractionStart < 3) {
+                    millis = millis * 10 + p[pos] - '0';
+                }
+                pos++;
+            }
+            final int fractionDigits = pos - fractionStart;
+            if (fractionDigits == 0 || fractionDigits > 9) {
+                return Long.MIN_VALUE;
+            }
+            for (int i = fractionDigits; i < 3; i++) {
+                millis *= 10;
+            }
+        }
+
+        final int offsetSeconds;
+        if (pos + 1 == end && p[pos] == 'Z') {
+            offsetSeconds = 0;
+        } else if (pos + 6 == end && (p[pos] == '+' || p[pos] == '-') && p[pos + 3] == ':') {
+            final int offsetHours = parseTwoDigits(p, pos + 1);
+            final int offsetMinutes = parseTwoDigits(p, pos + 4);
+            if (offsetHours < 0 || offsetHours > MAX_OFFSET_HOURS || offsetMinutes < 0 || offsetMinutes > 59
+                    || (offsetHours == MAX_OFFSET_HOURS && offsetMinutes > 0)) {
+                return Long.MIN_VALUE;
+            }
+            offsetSeconds = (p[pos] == '-' ? -1 : 1) * (offsetHours * 3600 + offsetMinutes * 60);
+        } else {
+            return Long.MIN_VALUE;
+        }
+
+        final long epochSecond = LocalDateTime.of(year, month, day, hour, minute, second)
+                .toEpochSecond(ZoneOffset.ofTotalSeconds(offsetSeconds));
+        return epochSecond * 1000 + millis;
+    }
+
+    // Index of the '>' closing the PRI, SyslogFormat already made sure that it exists.
+    private static int priorityEnd(byte[] p) {
+        return indexOf(p, (byte) '>', 1, p.length);
+    }
+
+    private static int parseMonth(byte[] p, int start) {
+        if (start + 3 > p.length) {
+            return -1;
+        }
+        for (int month = 0; month < MONTHS.length; month++) {
+            final String name = MONTHS[month];
+            if (toLowerAscii(p[start]) == name.charAt(0)
+                    && toLowerAscii(p[start + 1]) == name.charAt(1)
+                    && toLowerAscii(p[start + 2]) == name.charAt(2)) {
+                return month;
+            }
+        }
+        return -1;
+    }
+
+    private static int toLowerAscii(byte b) {
+        return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b;
+    }
+
+    // End of a non-empty token of printable US-ASCII characters which is followed by a space, -1 otherwise.
+    private static int tokenEnd(byte[] p, int start) {
+        int i = start;
+        while (i < p.length && p[i] >= 33 && p[i] <= 126) {
+            i++;
+        }
+        return i > start && i < p.length && p[i] == ' ' ? i : -1;
+    }
+
+    // End of an SD-NAME, which is printable US-ASCII except '=', ' ', ']' and '"'. Brackets and backslashes are
+    // rejected as well because syslog4j treats them specially.
+    private static int nameEnd(byte[] p, int start) {
+        int i = start;
+        while (i < p.length && p[i] >= 33 && p[i] <= 126
+                && p[i] != '=' && p[i] != ']' && p[i] != '"' && p[i] != '[' && p[i] != '\\') {
+            i++;
+        }
+        return i;
+    }
+
+    // Counts characters (not bytes) after start, stopping after max characters.
+    private static int countCharacters(byte[] p, int start, int max) {
+        int count = 0;
+        for (int i = start; i < p.length && count < max; i++) {
+            // Continuation bytes of multi-byte UTF-8 sequences start with 0b10.
+            if ((p[i] & 0xC0) != 0x80) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String messageOrRest(byte[] p, int messageStart, int restStart) {
+        return messageStart < p.length ? decode(p, messageStart, p.length) : decode(p, restStart, p.length);
+    }
+
+    @Nullable
+    private static String nilToNull(byte[] p, int start, int end) {
+        return end - start == 1 && p[start] == '-' ? null : ascii(p, start, end);
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static int parseDigits(byte[] p, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + p[i] - '0';
+        }
+        return value;
+    }
+
+    private static int parseTwoDigits(byte[] p, int start) {
+        return isDigit(p[start]) && isDigit(p[start + 1]) ? (p[start] - '0') * 10 + p[start + 1] - '0' : -1;
+    }
+
+    private static int indexOf(byte[] p, byte b, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (p[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean contains(byte[] p, int start, byte[] needle) {
+        outer:
+        for (int i = start; i <= p.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (p[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static String ascii(byte[] p, int start, int end) {
+        return new String(p, start, end - start, StandardCharsets.US_ASCII);
+    }
+
+    private static String decode(byte[] p, int start, int end) {
+        return new String(p, start, end - start, StandardCharsets.UTF_8);
+    }
+}
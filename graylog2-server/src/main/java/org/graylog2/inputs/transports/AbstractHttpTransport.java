@@ -82,13 +82,26 @@ abstract public class AbstractHttpTransport extends AbstractTcpTransport {
                                  ThroughputCounter throughputCounter,
                                  LocalMetricRegistry localRegistry,
                                  TLSProtocolsConfiguration tlsConfiguration, String path) {
+        this(configuration, eventLoopGroup, eventLoopGroupFactory, nettyTransportConfiguration, throughputCounter,
+                localRegistry, tlsConfiguration, path, IngestRateLimiter.disabled());
+    }
+
+    public AbstractHttpTransport(Configuration configuration,
+                                 EventLoopGroup eventLoopGroup,
+                                 EventLoopGroupFactory eventLoopGroupFactory,
+                                 NettyTransportConfiguration nettyTransportConfiguration,
+                                 ThroughputCounter throughputCounter,
+                                 LocalMetricRegistry localRegistry,
+                                 TLSProtocolsConfiguration tlsConfiguration, String path,
+                                 IngestRateLimiter ingestRateLimiter) {
         super(configuration,
                 throughputCounter,
                 localRegistry,
                 eventLoopGroup,
                 eventLoopGroupFactory,
                 nettyTransportConfiguration,
-                tlsConfiguration);
+                tlsConfiguration,
+                ingestRateLimiter);
         this.enableBulkReceiving = configuration.getBoolean(CK_ENABLE_BULK_RECEIVING);
         this.enableCors = configuration.getBoolean(CK_ENABLE_CORS);
         this.maxChunkSize = parseMaxChunkSize(configuration);
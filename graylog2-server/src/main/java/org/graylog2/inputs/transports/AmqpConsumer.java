@@ -87,6 +87,7 @@ public class AmqpConsumer {
     private final AmqpTransport amqpTransport;
     private final EncryptedValueService encryptedValueService;
     private final Duration connectionRecoveryInterval;
+    private final InputWorkerPool inputWorkerPool;
 
     private final AtomicLong totalBytesRead = new AtomicLong(0);
     private final AtomicLong lastSecBytesRead = new AtomicLong(0);
@@ -103,7 +104,8 @@ public class AmqpConsumer {
                         InputFailureRecorder inputFailureRecorder,
                         AmqpTransport amqpTransport,
                         EncryptedValueService encryptedValueService,
-                        Duration connectionRecoveryInterval) {
+                        Duration connectionRecoveryInterval,
+                        InputWorkerPool inputWorkerPool) {
         this.hostname = configuration.getString(CK_HOSTNAME);
         this.port = configuration.getInt(CK_PORT);
         this.virtualHost = configuration.getString(CK_VHOST);
@@ -124,6 +126,7 @@ public class AmqpConsumer {
         this.amqpTransport = amqpTransport;
         this.encryptedValueService = encryptedValueService;
         this.connectionRecoveryInterval = connectionRecoveryInterval;
+        this.inputWorkerPool = inputWorkerPool;
     }
 
     public void run() throws IOException, TimeoutException {
@@ -153,6 +156,8 @@ public class AmqpConsumer {
                         if (amqpTransport.isThrottled()) {
                             amqpTransport.blockUntilUnthrottled();
                         }
+                        // Blocking the delivery keeps unacknowledged messages at the broker once the prefetch window is full
+                        amqpTransport.acquireCredits(1);
 
                         sourceInput.processRawMessage(rawMessage);
                         channel.basicAck(deliveryTag, false);
@@ -202,6 +207,10 @@ public class AmqpConsumer {
         // explicitly setting this, to ensure it is true even if the default changes.
         factory.setAutomaticRecoveryEnabled(true);
         factory.setNetworkRecoveryInterval(connectionRecoveryInterval.toMillis());
+        if (inputWorkerPool.isEnabled()) {
+            // Deliver messages on the shared input workers instead of a consumer thread pool per connection
+            factory.setSharedExecutor(inputWorkerPool.executor());
+        }
 
         if (tls) {
             try {
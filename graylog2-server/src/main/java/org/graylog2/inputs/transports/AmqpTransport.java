@@ -79,6 +79,7 @@ public class AmqpTransport extends ThrottleableTransport2 {
     private final EncryptedValueService encryptedValueService;
     private final ScheduledExecutorService scheduler;
     private final ScheduledExecutorService amqpScheduler;
+    private final InputWorkerPool inputWorkerPool;
 
     private AmqpConsumer consumer;
 
@@ -91,14 +92,17 @@ public class AmqpTransport extends ThrottleableTransport2 {
                          LocalMetricRegistry localRegistry,
                          EncryptedValueService encryptedValueService,
                          @Named("daemonScheduler") ScheduledExecutorService scheduler,
-                         @Named("AMQP Executor") ScheduledExecutorService amqpScheduler) {
-        super(eventBus, configuration);
+                         @Named("AMQP Executor") ScheduledExecutorService amqpScheduler,
+                         InputWorkerPool inputWorkerPool,
+                         IngestRateLimiter ingestRateLimiter) {
+        super(eventBus, configuration, ingestRateLimiter);
         this.configuration = configuration;
         this.eventBus = eventBus;
         this.localRegistry = localRegistry;
         this.encryptedValueService = encryptedValueService;
         this.scheduler = scheduler;
         this.amqpScheduler = amqpScheduler;
+        this.inputWorkerPool = inputWorkerPool;
 
         localRegistry.register("read_bytes_1sec", new Gauge<Long>() {
             @Override
@@ -172,7 +176,8 @@ public class AmqpTransport extends ThrottleableTransport2 {
                 inputFailureRecorder,
                 this,
                 encryptedValueService,
-                connectionRecoveryInterval()
+                connectionRecoveryInterval(),
+                inputWorkerPool
         );
         eventBus.register(this);
         runConsumer();
@@ -61,9 +61,11 @@ import java.net.URL;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -94,6 +96,8 @@ public class HttpPollTransport extends ThrottleableTransport2 {
     private final ScheduledExecutorService scheduler;
     private final OkHttpClient httpClient;
     private final EncryptedValueService encryptedValueService;
+    private final InputWorkerPool inputWorkerPool;
+    private final AtomicBoolean pollInProgress = new AtomicBoolean(false);
 
     private volatile boolean paused = true;
     private ScheduledFuture<?> scheduledFuture;
@@ -103,7 +107,8 @@ public class HttpPollTransport extends ThrottleableTransport2 {
                              EventBus serverEventBus,
                              ServerStatus serverStatus,
                              @Named("daemonScheduler") ScheduledExecutorService scheduler,
-                             OkHttpClient httpClient, EncryptedValueService encryptedValueService) {
+                             OkHttpClient httpClient, EncryptedValueService encryptedValueService,
+                             InputWorkerPool inputWorkerPool) {
         super(serverEventBus, configuration);
         this.configuration = configuration;
         this.serverEventBus = serverEventBus;
@@ -111,6 +116,7 @@ public class HttpPollTransport extends ThrottleableTransport2 {
         this.scheduler = scheduler;
         this.httpClient = httpClient;
         this.encryptedValueService = encryptedValueService;
+        this.inputWorkerPool = inputWorkerPool;
     }
 
     @VisibleForTesting
@@ -197,11 +203,35 @@ public class HttpPollTransport extends ThrottleableTransport2 {
             }
         };
 
-        scheduledFuture = scheduler.scheduleAtFixedRate(task, 0,
+        scheduledFuture = scheduler.scheduleAtFixedRate(inputWorkerPool.isEnabled() ? onInputWorker(task) : task, 0,
                 configuration.getInt(CK_INTERVAL),
                 TimeUnit.valueOf(configuration.getString(CK_TIMEUNIT)));
     }
 
+    /**
+     * Runs the blocking poll on the shared input workers instead of the scheduler threads. Like with
+     * {@link ScheduledExecutorService#scheduleAtFixedRate}, a poll is skipped while the previous one is still running.
+     */
+    private Runnable onInputWorker(Runnable task) {
+        return () -> {
+            if (!pollInProgress.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                inputWorkerPool.executor().execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        pollInProgress.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                pollInProgress.set(false);
+                LOG.warn("Couldn't schedule HTTP poll on input workers", e);
+            }
+        };
+    }
+
     private String getHeaderString() {
         final String standardHeaders = Objects.requireNonNullElse(configuration.getString(CK_HEADERS), "");
 
@@ -38,9 +38,10 @@ public class HttpTransport extends AbstractHttpTransport {
                          NettyTransportConfiguration nettyTransportConfiguration,
                          ThroughputCounter throughputCounter,
                          LocalMetricRegistry localRegistry,
-                         TLSProtocolsConfiguration tlsConfiguration) {
+                         TLSProtocolsConfiguration tlsConfiguration,
+                         IngestRateLimiter ingestRateLimiter) {
         super(configuration, eventLoopGroup, eventLoopGroupFactory, nettyTransportConfiguration, throughputCounter,
-                localRegistry, tlsConfiguration, PATH);
+                localRegistry, tlsConfiguration, PATH, ingestRateLimiter);
     }
 
     @FactoryClass
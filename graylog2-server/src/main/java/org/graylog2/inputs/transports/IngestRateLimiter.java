@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.inputs.transports;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.graylog2.plugin.ThrottleState;
+import org.graylog2.shared.metrics.MetricUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Node-wide credit-based flow control for input transports.
+ * <p>
+ * The limiter is a token bucket whose rate follows the load of the node. {@code ThrottleStateUpdaterThread} publishes
+ * the journal and process buffer state once per second. The fuller the journal and the process buffer are, the lower
+ * the rate relative to the rate at which messages are read from the journal: at low pressure the inputs may write up
+ * to {@value #MAX_RATE_FACTOR} times the journal read rate, at high pressure only {@value #MIN_RATE_FACTOR} times. The
+ * rate changes gradually, so the ingest rate settles at the throughput the node can sustain instead of switching
+ * between full speed and a full stop. The limiter doesn't restrict anything while the journal is empty or the
+ * pressure is low.
+ * <p>
+ * Transports draw one credit per message. Callers may overdraw the bucket and pay back the debt by pausing their
+ * reads, so a transport never has to drop data it already received.
+ * <p>
+ * The limiter is only active if {@code input_rate_control} is enabled. The {@code rate} metric is -1 while the rate is
+ * unlimited.
+ *
+ * @see org.graylog2.periodical.ThrottleStateUpdaterThread
+ */
+@Singleton
+public class IngestRateLimiter {
+    private static final Logger LOG = LoggerFactory.getLogger(IngestRateLimiter.class);
+
+    static final double LOW_PRESSURE = 0.3;
+    static final double HIGH_PRESSURE = 0.9;
+    static final double MAX_RATE_FACTOR = 1.5;
+    static final double MIN_RATE_FACTOR = 0.5;
+    static final double MIN_RATE = 10.0;
+    private static final double SMOOTHING = 0.3;
+    private static final double RAMP_UP_FACTOR = 1.25;
+    private static final double MAX_DEBT_SECONDS = 5.0;
+    private static final long MAX_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final boolean enabled;
+    private final int processBufferSize;
+    private final Ticker ticker;
+    private final Meter waits;
+
+    private volatile double pressure = 0;
+
+    // Guarded by "this"
+    private double rate = Double.POSITIVE_INFINITY;
+    private double credits = 0;
+    private long lastRefill;
+
+    @Inject
+    public IngestRateLimiter(@Named("input_rate_control") boolean enabled,
+                             @Named("ring_size") int processBufferSize,
+                             EventBus eventBus,
+                             MetricRegistry metricRegistry) {
+        this(enabled, processBufferSize, Ticker.systemTicker(), metricRegistry);
+        if (enabled) {
+            eventBus.register(this);
+        }
+    }
+
+    @VisibleForTesting
+    IngestRateLimiter(boolean enabled, int processBufferSize, Ticker ticker, MetricRegistry metricRegistry) {
+        this.enabled = enabled;
+        this.processBufferSize = processBufferSize;
+        this.ticker = ticker;
+        this.lastRefill = ticker.read();
+        this.waits = metricRegistry.meter(name(IngestRateLimiter.class, "waits"));
+        MetricUtils.safelyRegister(metricRegistry, name(IngestRateLimiter.class, "rate"), (Gauge<Double>) this::rateGaugeValue);
+        MetricUtils.safelyRegister(metricRegistry, name(IngestRateLimiter.class, "pressure"), (Gauge<Double>) () -> pressure);
+    }
+
+    /**
+     * Creates a limiter which never restricts transports.
+     */
+    public static IngestRateLimiter disabled() {
+        return new IngestRateLimiter(false, 0, Ticker.systemTicker(), new MetricRegistry());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the current rate limit in messages per second, or {@link Double#POSITIVE_INFINITY} if unlimited.
+     */
+    public synchronized double rate() {
+        return rate;
+    }
+
+    public double pressure() {
+        return pressure;
+    }
+
+    @Subscribe
+    public void updateThrottleState(ThrottleState state) {
+        if (!enabled) {
+            return;
+        }
+        final double journalUtilization = state.journalSizeLimit > 0 ? state.journalSize / (double) state.journalSizeLimit : 0;
+        final double processBufferUtilization = processBufferSize > 0 ? 1 - state.processBufferCapacity / (double) processBufferSize : 0;
+        pressure = clamp(Math.max(journalUtilization, processBufferUtilization), 0, 1);
+
+        synchronized (this) {
+            if (state.uncommittedJournalEntries == 0 || pressure < LOW_PRESSURE) {
+                rampUp(state);
+            } else {
+                final double position = (pressure - LOW_PRESSURE) / (HIGH_PRESSURE - LOW_PRESSURE);
+                final double factor = MAX_RATE_FACTOR - (MAX_RATE_FACTOR - MIN_RATE_FACTOR) * clamp(position, 0, 1);
+                final double target = Math.max(MIN_RATE, state.readEventsPerSec * factor);
+                setRate(Double.isInfinite(rate) ? target : rate + SMOOTHING * (target - rate));
+            }
+        }
+        LOG.debug("Ingest pressure {}, rate limit {} msg/s", pressure, rate());
+    }
+
+    // Must be called while holding the lock
+    private void rampUp(ThrottleState state) {
+        if (Double.isInfinite(rate)) {
+            return;
+        }
+        final double increased = rate * RAMP_UP_FACTOR;
+        // Lift the limit once it is well above the current load
+        setRate(increased > 2 * Math.max(MIN_RATE, state.appendEventsPerSec) ? Double.POSITIVE_INFINITY : increased);
+    }
+
+    // Must be called while holding the lock
+    private void setRate(double newRate) {
+        refill();
+        rate = newRate;
+        if (Double.isInfinite(newRate)) {
+            credits = 0;
+        } else {
+            credits = Math.min(credits, newRate);
+        }
+    }
+
+    // Must be called while holding the lock
+    private void refill() {
+        final long now = ticker.read();
+        final long elapsed = now - lastRefill;
+        lastRefill = now;
+        if (!Double.isInfinite(rate)) {
+            // At most one second worth of credits can be saved up
+            credits = Math.min(rate, credits + rate * elapsed / 1.0E9);
+        }
+    }
+
+    /**
+     * Draws credits for the given number of messages.
+     *
+     * @return the time in nanoseconds the caller should pause reading before the next message, 0 if it may continue
+     * right away
+     */
+    public long reserve(int messages) {
+        if (!enabled) {
+            return 0;
+        }
+        synchronized (this) {
+            if (Double.isInfinite(rate)) {
+                return 0;
+            }
+            refill();
+            credits = Math.max(credits - messages, -rate * MAX_DEBT_SECONDS);
+            if (credits >= 0) {
+                return 0;
+            }
+            waits.mark();
+            return Math.min(MAX_WAIT_NANOS, (long) (-credits / rate * 1.0E9));
+        }
+    }
+
+    /**
+     * Draws credits for the given number of messages and blocks the calling thread until the debt is paid back.
+     * Intended for transports which pull messages from an external system.
+     */
+    public void acquire(int messages) {
+        final long waitNanos = reserve(messages);
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private double rateGaugeValue() {
+        final double current = rate();
+        return Double.isInfinite(current) ? -1 : current;
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.inputs.transports;
+
+import com.codahale.metrics.InstrumentedExecutorService;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Node-wide worker pool for the blocking work of input transports, e.g. HTTP polls and AMQP deliveries.
+ * <p>
+ * The pool is only used if {@code input_shared_worker_threads} is set. Its threads are started on demand and stop
+ * after being idle for a minute, so the number of threads follows the amount of active work instead of the number of
+ * configured inputs. Messages are still handed to the input buffer by the worker threads, so a full input buffer
+ * blocks the workers just like the transport threads.
+ */
+@Singleton
+public class InputWorkerPool {
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    @Nullable
+    private final ExecutorService executor;
+
+    @Inject
+    public InputWorkerPool(@Named("input_shared_worker_threads") int threads, MetricRegistry metricRegistry) {
+        if (threads > 0) {
+            final ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads,
+                    KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    new ThreadFactoryBuilder().setNameFormat("input-worker-%d").setDaemon(true).build());
+            threadPool.allowCoreThreadTimeOut(true);
+            this.executor = new InstrumentedExecutorService(threadPool, metricRegistry, name(InputWorkerPool.class, "executor-service"));
+        } else {
+            this.executor = null;
+        }
+    }
+
+    public static InputWorkerPool disabled() {
+        return new InputWorkerPool(0, new MetricRegistry());
+    }
+
+    public boolean isEnabled() {
+        return executor != null;
+    }
+
+    /**
+     * Returns the shared executor. Must only be called if the pool {@link #isEnabled() is enabled}.
+     */
+    public ExecutorService executor() {
+        if (executor == null) {
+            throw new IllegalStateException("Shared input workers are disabled");
+        }
+        return executor;
+    }
+}
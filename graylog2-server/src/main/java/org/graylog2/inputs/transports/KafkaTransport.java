@@ -134,8 +134,9 @@ public class KafkaTransport extends ThrottleableTransport {
                           NodeId nodeId,
                           EventBus serverEventBus,
                           ServerStatus serverStatus,
-                          @Named("daemonScheduler") ScheduledExecutorService scheduler) {
-        super(serverEventBus, configuration);
+                          @Named("daemonScheduler") ScheduledExecutorService scheduler,
+                          IngestRateLimiter ingestRateLimiter) {
+        super(serverEventBus, configuration, ingestRateLimiter);
         this.configuration = configuration;
         this.localRegistry = localRegistry;
         this.nodeId = nodeId;
@@ -275,6 +276,7 @@ public class KafkaTransport extends ThrottleableTransport {
                 if (isThrottled()) {
                     blockUntilUnthrottled();
                 }
+                acquireCredits(1);
 
                 // process the message, this will immediately mark the message as having been processed. this gets tricky
                 // if we get an exception about processing it down below.
@@ -395,6 +397,7 @@ public class KafkaTransport extends ThrottleableTransport {
                                 if (isThrottled()) {
                                     blockUntilUnthrottled();
                                 }
+                                acquireCredits(1);
 
                                 // process the message, this will immediately mark the message as having been processed. this gets tricky
                                 // if we get an exception about processing it down below.
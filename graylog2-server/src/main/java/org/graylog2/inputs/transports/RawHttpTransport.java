@@ -41,9 +41,10 @@ public class RawHttpTransport extends AbstractHttpTransport {
                             NettyTransportConfiguration nettyTransportConfiguration,
                             ThroughputCounter throughputCounter,
                             LocalMetricRegistry localRegistry,
-                            TLSProtocolsConfiguration tlsConfiguration) {
+                            TLSProtocolsConfiguration tlsConfiguration,
+                            IngestRateLimiter ingestRateLimiter) {
         super(configuration, eventLoopGroup, eventLoopGroupFactory, nettyTransportConfiguration,
-                throughputCounter, localRegistry, tlsConfiguration, PATH);
+                throughputCounter, localRegistry, tlsConfiguration, PATH, ingestRateLimiter);
 
     }
 
@@ -42,14 +42,16 @@ public class SyslogTcpTransport extends TcpTransport {
                               NettyTransportConfiguration nettyTransportConfiguration,
                               ThroughputCounter throughputCounter,
                               LocalMetricRegistry localRegistry,
-                              TLSProtocolsConfiguration tlsConfiguration) {
+                              TLSProtocolsConfiguration tlsConfiguration,
+                              IngestRateLimiter ingestRateLimiter) {
         super(configuration,
                 eventLoopGroup,
                 eventLoopGroupFactory,
                 nettyTransportConfiguration,
                 throughputCounter,
                 localRegistry,
-                tlsConfiguration);
+                tlsConfiguration,
+                ingestRateLimiter);
     }
 
     @Override
@@ -28,34 +28,95 @@ import org.graylog2.inputs.transports.NettyTransportConfiguration;
 import org.graylog2.plugin.LocalMetricRegistry;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Named;
 
+import javax.annotation.Nullable;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 
 public class EventLoopGroupFactory {
+    private static final String SHARED_WORKERS_NAME = "netty-transport-shared-workers";
+
     private final NettyTransportConfiguration configuration;
+    private final int sharedWorkerThreads;
+    private final MetricRegistry metricRegistry;
+    @Nullable
+    private EventLoopGroup sharedWorkerGroup;
+    private int sharedWorkerGroupUsers = 0;
 
-    @Inject
     public EventLoopGroupFactory(NettyTransportConfiguration configuration) {
+        this(configuration, 0, new MetricRegistry());
+    }
+
+    @Inject
+    public EventLoopGroupFactory(NettyTransportConfiguration configuration,
+                                 @Named("input_shared_worker_threads") int sharedWorkerThreads,
+                                 MetricRegistry metricRegistry) {
         this.configuration = configuration;
+        this.sharedWorkerThreads = sharedWorkerThreads;
+        this.metricRegistry = metricRegistry;
+    }
+
+    /**
+     * Returns the event loop group for the channels of an input. If shared input workers are enabled, all inputs use
+     * the same event loop group, so the number of threads doesn't grow with the number of inputs. Otherwise, a new
+     * event loop group with the given number of threads is created.
+     * <p>
+     * Groups returned by this method must be released with {@link #release(EventLoopGroup)}. The shared group is shut
+     * down once the last input released it, e.g. on server shutdown, and created again for the next input.
+     */
+    public EventLoopGroup createWorkerGroup(int numThreads, MetricRegistry localRegistry, String metricPrefix) {
+        if (sharedWorkerThreads <= 0) {
+            return create(numThreads, localRegistry, metricPrefix);
+        }
+        synchronized (this) {
+            if (sharedWorkerGroup == null) {
+                sharedWorkerGroup = create(sharedWorkerThreads, metricRegistry, SHARED_WORKERS_NAME);
+            }
+            sharedWorkerGroupUsers++;
+            return sharedWorkerGroup;
+        }
+    }
+
+    /**
+     * Shuts down the given event loop group unless it's shared with inputs which haven't released it yet.
+     */
+    public void release(EventLoopGroup eventLoopGroup) {
+        synchronized (this) {
+            if (eventLoopGroup == sharedWorkerGroup) {
+                if (--sharedWorkerGroupUsers > 0) {
+                    return;
+                }
+                sharedWorkerGroup = null;
+            }
+        }
+        eventLoopGroup.shutdownGracefully();
     }
 
     public EventLoopGroup create(int numThreads, MetricRegistry metricRegistry, String metricPrefix) {
         final ThreadFactory threadFactory = threadFactory(metricPrefix, metricRegistry);
-        final Executor executor = executor(metricPrefix, numThreads, threadFactory, metricRegistry);
+        final ExecutorService executor = executor(metricPrefix, numThreads, threadFactory, metricRegistry);
 
+        final EventLoopGroup eventLoopGroup;
         switch (configuration.getType()) {
             case EPOLL:
-                return epollEventLoopGroup(numThreads, executor);
+                eventLoopGroup = epollEventLoopGroup(numThreads, executor);
+                break;
             case KQUEUE:
-                return kqueueEventLoopGroup(numThreads, executor);
+                eventLoopGroup = kqueueEventLoopGroup(numThreads, executor);
+                break;
             case NIO:
-                return nioEventLoopGroup(numThreads, executor);
+                eventLoopGroup = nioEventLoopGroup(numThreads, executor);
+                break;
             default:
+                executor.shutdown();
                 throw new RuntimeException("Invalid or unknown netty transport type " + configuration.getType());
         }
+        // Netty doesn't shut down executors it didn't create, their non-daemon threads would outlive the event loops
+        eventLoopGroup.terminationFuture().addListener(future -> executor.shutdown());
+        return eventLoopGroup;
     }
 
     private ThreadFactory threadFactory(String name, MetricRegistry metricRegistry) {
@@ -65,7 +126,7 @@ public class EventLoopGroupFactory {
 
     }
 
-    private Executor executor(final String name, int numThreads, final ThreadFactory threadFactory, final MetricRegistry metricRegistry) {
+    private ExecutorService executor(final String name, int numThreads, final ThreadFactory threadFactory, final MetricRegistry metricRegistry) {
         final String executorMetricName = LocalMetricRegistry.name(name, "executor-service");
         final ExecutorService cachedThreadPool = Executors.newFixedThreadPool(numThreads, threadFactory);
         return new InstrumentedExecutorService(cachedThreadPool, metricRegistry, executorMetricName);
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.inputs.transports.netty;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import org.graylog2.inputs.transports.IngestRateLimiter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Draws one credit from the node-wide {@link IngestRateLimiter} for every message and stops reading from the channel
+ * while the limiter is in debt. Messages which have already been read are always passed on.
+ */
+public class IngestRateLimitHandler extends ChannelInboundHandlerAdapter {
+    private final IngestRateLimiter rateLimiter;
+
+    // Only accessed from the event loop of the channel
+    private boolean paused = false;
+
+    public IngestRateLimitHandler(IngestRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        final long pauseNanos = rateLimiter.reserve(1);
+        if (pauseNanos > 0 && !paused) {
+            paused = true;
+            ctx.channel().config().setAutoRead(false);
+            ctx.executor().schedule(() -> resume(ctx), pauseNanos, TimeUnit.NANOSECONDS);
+        }
+        super.channelRead(ctx, msg);
+    }
+
+    private void resume(ChannelHandlerContext ctx) {
+        paused = false;
+        ctx.channel().config().setAutoRead(true);
+    }
+}
@@ -45,7 +45,10 @@ import org.joda.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+
 import jakarta.inject.Inject;
+import jakarta.inject.Named;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
@@ -58,6 +61,7 @@ import java.net.Inet4Address;
 import java.net.Inet6Address;
 import java.net.InetAddress;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -65,6 +69,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static org.graylog2.shared.utilities.StringUtils.f;
@@ -84,9 +89,12 @@ public class CSVFileDataAdapter extends LookupDataAdapter {
     public static final String ALLOWED_PATH_ERROR =
             "The specified CSV file either does not exist or is not in an allowed path.";
 
+    private static final String OFF_HEAP_STORE_DIR = "lookup-tables";
+
     private final Config config;
     private final AllowedAuxiliaryPathChecker pathChecker;
-    private final AtomicReference<Map<String, String>> lookupRef = new AtomicReference<>(ImmutableMap.of());
+    private final Path dataDir;
+    private final AtomicReference<LookupData> lookupRef = new AtomicReference<>(LookupData.EMPTY);
     private final String name;
 
     private FileInfo fileInfo = FileInfo.empty();
@@ -96,11 +104,13 @@ public class CSVFileDataAdapter extends LookupDataAdapter {
                               @Assisted("name") String name,
                               @Assisted LookupDataAdapterConfiguration config,
                               MetricRegistry metricRegistry,
-                              AllowedAuxiliaryPathChecker pathChecker) {
+                              AllowedAuxiliaryPathChecker pathChecker,
+                              @Named("data_dir") Path dataDir) {
         super(id, name, config, metricRegistry);
         this.name = name;
         this.config = (Config) config;
         this.pathChecker = pathChecker;
+        this.dataDir = dataDir;
     }
 
     @Override
@@ -116,9 +126,13 @@ public class CSVFileDataAdapter extends LookupDataAdapter {
             throw new IllegalStateException("Check interval setting cannot be smaller than 1");
         }
 
+        if (config.isOffHeapStorage()) {
+            deleteOffHeapStores();
+        }
+
         // Set file info before parsing the data for the first time
         fileInfo = getNewFileInfo();
-        lookupRef.set(parseCSVFile());
+        swapLookupData(parseCSVFile());
     }
 
     @Override
@@ -152,7 +166,7 @@ public class CSVFileDataAdapter extends LookupDataAdapter {
             }
 
             LOG.debug("CSV file {} has changed, updating data", config.path());
-            lookupRef.set(parseCSVFile());
+            swapLookupData(parseCSVFile());
             cachePurge.purgeAll();
             // If the file has been moved, then moved back, the fileInfo might have been disconnected.
             // In this case, create a new fileInfo.
@@ -164,10 +178,50 @@ public class CSVFileDataAdapter extends LookupDataAdapter {
         }
     }
 
-    private Map<String, String> parseCSVFile() throws IOException {
+    private void swapLookupData(LookupData lookupData) {
+        lookupRef.getAndSet(lookupData).release();
+    }
+
+    private LookupData parseCSVFile() throws IOException {
+        // CIDR lookups iterate over all entries, which would decode every entry of an off-heap store for each lookup.
+        // The validation rejects the combination, this covers adapters which have been configured before.
+        if (!config.isOffHeapStorage() || config.isCidrLookup()) {
+            final ImmutableMap.Builder<String, String> newLookupBuilder = ImmutableMap.builder();
+            parseCSVFile(newLookupBuilder::put);
+            return LookupData.onHeap(newLookupBuilder.build());
+        }
+
+        final Path storeDir = dataDir.resolve(OFF_HEAP_STORE_DIR);
+        Files.createDirectories(storeDir);
+        final Path storeFile = Files.createTempFile(storeDir, offHeapStorePrefix(), ".lut");
+        try (final OffHeapLookupStore.Builder builder = OffHeapLookupStore.builder(storeFile)) {
+            parseCSVFile(builder::put);
+            final OffHeapLookupStore store = builder.build();
+            LOG.debug("Stored {} entries of CSV file {} in off-heap lookup store {}", store.size(), config.path(), storeFile);
+            return LookupData.offHeap(store);
+        }
+    }
+
+    private String offHeapStorePrefix() {
+        return NAME + "-" + id() + "-";
+    }
+
+    // Removes the stores of previous runs, e.g. if the server hasn't been shut down properly
+    private void deleteOffHeapStores() throws IOException {
+        final Path storeDir = dataDir.resolve(OFF_HEAP_STORE_DIR);
+        if (!Files.isDirectory(storeDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> stores = Files.newDirectoryStream(storeDir, offHeapStorePrefix() + "*")) {
+            for (Path store : stores) {
+                Files.deleteIfExists(store);
+            }
+        }
+    }
+
+    private void parseCSVFile(EntryConsumer newLookupBuilder) throws IOException {
         final InputStream inputStream = Files.newInputStream(Paths.get(config.path()));
         final InputStreamReader fileReader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
-        final ImmutableMap.Builder<String, String> newLookupBuilder = ImmutableMap.builder();
 
         try (final CSVReader csvReader = new CSVReader(fileReader, config.separatorAsChar(), config.quotecharAsChar())) {
             int line = 0;
@@ -242,8 +296,6 @@ public class CSVFileDataAdapter extends LookupDataAdapter {
             setError(e);
             throw new IllegalStateException(e);
         }
-
-        return newLookupBuilder.build();
     }
 
     private String ipAddressToCIDR(String ip) {
@@ -268,6 +320,7 @@ public class CSVFileDataAdapter extends LookupDataAdapter {
     @Override
     public void doStop() throws Exception {
         LOG.debug("Stopping CSV data adapter for file: {}", config.path());
+        swapLookupData(LookupData.EMPTY);
     }
 
     @Override
@@ -290,20 +343,21 @@ public class CSVFileDataAdapter extends LookupDataAdapter {
         try {
             // Convert directly to InetAddress to avoid long timeouts using name service lookups
             InetAddress address = InetAddresses.forString(String.valueOf(ip));
-            int longestMatch = 0;
-            for (Map.Entry<String, String> entry : lookupRef.get().entrySet()) {
-                String range = entry.getKey();
+            final int[] longestMatch = {0};
+            final LookupResult[] match = {result};
+            lookupRef.get().forEach((range, value) -> {
                 Optional<IpSubnet> optSubnet = ReservedIpChecker.stringToSubnet(range);
                 if (optSubnet.isEmpty()) {
-                    LOG.debug("CIDR range '{}' in data adapter '{}' is not a valid subnet, skipping this key in lookup.", entry, name);
+                    LOG.debug("CIDR range '{}' in data adapter '{}' is not a valid subnet, skipping this key in lookup.", range, name);
                 } else {
                     IpSubnet subnet = optSubnet.get();
-                    if (subnet.contains(address) && (result.isEmpty() || longestMatch < subnet.getPrefixLength())) {
-                        longestMatch = subnet.getPrefixLength();
-                        result = LookupResult.single(entry.getValue());
+                    if (subnet.contains(address) && (match[0].isEmpty() || longestMatch[0] < subnet.getPrefixLength())) {
+                        longestMatch[0] = subnet.getPrefixLength();
+                        match[0] = LookupResult.single(value);
                     }
                 }
-            }
+            });
+            result = match[0];
         } catch (IllegalArgumentException e) {
             LOG.debug("Attempted to do a CIDR range lookup on invalid IP '{}'", ip);
             return getErrorResult();
@@ -317,6 +371,59 @@ public class CSVFileDataAdapter extends LookupDataAdapter {
 
     }
 
+    @FunctionalInterface
+    private interface EntryConsumer {
+        void put(String key, String value) throws IOException;
+    }
+
+    /**
+     * The parsed CSV data, either kept on heap or in an {@link OffHeapLookupStore}.
+     */
+    private interface LookupData {
+        LookupData EMPTY = onHeap(ImmutableMap.of());
+
+        @Nullable
+        String get(String key);
+
+        void forEach(BiConsumer<String, String> consumer);
+
+        default void release() {
+        }
+
+        static LookupData onHeap(Map<String, String> map) {
+            return new LookupData() {
+                @Override
+                public String get(String key) {
+                    return map.get(key);
+                }
+
+                @Override
+                public void forEach(BiConsumer<String, String> consumer) {
+                    map.forEach(consumer);
+                }
+            };
+        }
+
+        static LookupData offHeap(OffHeapLookupStore store) {
+            return new LookupData() {
+                @Override
+                public String get(String key) {
+                    return store.get(key);
+                }
+
+                @Override
+                public void forEach(BiConsumer<String, String> consumer) {
+                    store.forEach(consumer);
+                }
+
+                @Override
+                public void release() {
+                    store.delete();
+                }
+            };
+        }
+    }
+
     public interface Factory extends LookupDataAdapter.Factory<CSVFileDataAdapter> {
         @Override
         CSVFileDataAdapter create(@Assisted("id") String id,
@@ -344,6 +451,7 @@ public class CSVFileDataAdapter extends LookupDataAdapter {
                     .checkInterval(60)
                     .caseInsensitiveLookup(false)
                     .cidrLookup(false)
+                    .offHeapStorage(false)
                     .build();
         }
     }
@@ -406,6 +514,9 @@ public class CSVFileDataAdapter extends LookupDataAdapter {
         @JsonProperty("cidr_lookup")
         public abstract Optional<Boolean> cidrLookup();
 
+        @JsonProperty("off_heap_storage")
+        public abstract Optional<Boolean> offHeapStorage();
+
         public boolean isCaseInsensitiveLookup() {
             return caseInsensitiveLookup().isPresent() && caseInsensitiveLookup().get();
         }
@@ -414,6 +525,10 @@ public class CSVFileDataAdapter extends LookupDataAdapter {
             return cidrLookup().isPresent() && cidrLookup().get();
         }
 
+        public boolean isOffHeapStorage() {
+            return offHeapStorage().isPresent() && offHeapStorage().get();
+        }
+
         public static Builder builder() {
             return new AutoValue_CSVFileDataAdapter_Config.Builder();
         }
@@ -422,6 +537,10 @@ public class CSVFileDataAdapter extends LookupDataAdapter {
         public Optional<Multimap<String, String>> validate(LookupDataAdapterValidationContext context) {
             final ArrayListMultimap<String, String> errors = ArrayListMultimap.create();
 
+            if (isOffHeapStorage() && isCidrLookup()) {
+                errors.put("off_heap_storage", "Off-heap storage cannot be used for CIDR lookups.");
+            }
+
             final Path path = Paths.get(path());
             if (!context.getPathChecker().fileIsInAllowedPath(path)) {
                 errors.put("path", ALLOWED_PATH_ERROR);
@@ -474,6 +593,9 @@ public class CSVFileDataAdapter extends LookupDataAdapter {
             @JsonProperty("cidr_lookup")
             public abstract Builder cidrLookup(Boolean cidrLookup);
 
+            @JsonProperty("off_heap_storage")
+            public abstract Builder offHeapStorage(Boolean offHeapStorage);
+
             public abstract Config build();
         }
     }
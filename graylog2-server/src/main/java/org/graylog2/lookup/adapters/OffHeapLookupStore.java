@@ -0,0 +1,367 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.lookup.adapters;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+
+import static org.graylog2.shared.utilities.StringUtils.f;
+
+/**
+ * Immutable string to string lookup store which keeps its data in a memory-mapped file instead of the Java heap.
+ * <p>
+ * The file consists of a header, a blob of 4-byte aligned {@code <key length><key><value length><value>} records and an
+ * open-addressing hash index. Every index slot holds the offset of a record and a few bits of the key hash, which
+ * avoids most key comparisons for colliding slots. The data is served from the page cache of the operating system,
+ * lookups only allocate the resulting value.
+ * <p>
+ * The file is mapped in segments of {@value #SEGMENT_SIZE} bytes because a single {@link MappedByteBuffer} cannot
+ * exceed 2 GB. Records never cross segment boundaries.
+ * <p>
+ * Stores are built with a {@link Builder} and are safe to use from multiple threads. {@link #delete() Deleting} a
+ * store removes the backing file while the mapping stays valid for concurrent readers until it is garbage collected.
+ */
+public final class OffHeapLookupStore {
+    private static final Logger LOG = LoggerFactory.getLogger(OffHeapLookupStore.class);
+
+    private static final int MAGIC = 0x474c4c54; // "GLLT"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+
+    private static final int SEGMENT_SHIFT = 30;
+    static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private static final double LOAD_FACTOR = 0.7;
+    private static final int OFFSET_BITS = 40;
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+
+    private final Path file;
+    private final MappedByteBuffer[] segments;
+    private final long size;
+    private final long tableOffset;
+    private final long slotMask;
+
+    private OffHeapLookupStore(Path file, MappedByteBuffer[] segments, long size, long tableOffset, long capacity) {
+        this.file = file;
+        this.segments = segments;
+        this.size = size;
+        this.tableOffset = tableOffset;
+        this.slotMask = capacity - 1;
+    }
+
+    /**
+     * Creates a builder which writes the store into the given file. Existing files are overwritten.
+     */
+    public static Builder builder(Path file) throws IOException {
+        return new Builder(file);
+    }
+
+    /**
+     * Returns the number of entries in the store.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the value for the given key or {@code null} if the store doesn't contain the key.
+     */
+    @Nullable
+    public String get(String key) {
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        final long hash = hash(keyBytes);
+        final long tag = tag(hash);
+
+        long slot = hash & slotMask;
+        for (long probes = 0; probes <= slotMask; probes++) {
+            final long entry = readLong(segments, tableOffset + slot * Long.BYTES);
+            if (entry == 0) {
+                return null;
+            }
+            if ((entry >>> OFFSET_BITS) == tag) {
+                final long offset = (entry & OFFSET_MASK) - 1;
+                final ByteBuffer segment = segments[(int) (offset >>> SEGMENT_SHIFT)];
+                final int index = (int) (offset & SEGMENT_MASK);
+                if (keyEquals(segment, index, keyBytes)) {
+                    final int valueIndex = index + Integer.BYTES + keyBytes.length;
+                    return readString(segment, valueIndex + Integer.BYTES, segment.getInt(valueIndex));
+                }
+            }
+            slot = (slot + 1) & slotMask;
+        }
+        return null;
+    }
+
+    /**
+     * Calls the given consumer for every entry of the store. The iteration order is the insertion order.
+     */
+    public void forEach(BiConsumer<String, String> consumer) {
+        long offset = HEADER_SIZE;
+        for (long i = 0; i < size; i++) {
+            ByteBuffer segment = segments[(int) (offset >>> SEGMENT_SHIFT)];
+            int index = (int) (offset & SEGMENT_MASK);
+            int keyLength = segment.getInt(index);
+            if (keyLength < 0) {
+                // Padding until the end of the segment
+                offset = (offset | SEGMENT_MASK) + 1;
+                segment = segments[(int) (offset >>> SEGMENT_SHIFT)];
+                index = 0;
+                keyLength = segment.getInt(index);
+            }
+            final int valueIndex = index + Integer.BYTES + keyLength;
+            final int valueLength = segment.getInt(valueIndex);
+            consumer.accept(readString(segment, index + Integer.BYTES, keyLength),
+                    readString(segment, valueIndex + Integer.BYTES, valueLength));
+            offset += recordSize(keyLength, valueLength);
+        }
+    }
+
+    /**
+     * Deletes the backing file of the store. Lookups keep working until the store isn't referenced anymore.
+     */
+    public void delete() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warn("Couldn't delete lookup store file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static boolean keyEquals(ByteBuffer segment, int index, byte[] key) {
+        if (segment.getInt(index) != key.length) {
+            return false;
+        }
+        final int start = index + Integer.BYTES;
+        for (int i = 0; i < key.length; i++) {
+            if (segment.get(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String readString(ByteBuffer segment, int index, int length) {
+        final byte[] bytes = new byte[length];
+        segment.get(index, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long readLong(ByteBuffer[] segments, long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].getLong((int) (position & SEGMENT_MASK));
+    }
+
+    // Records are aligned to 4 bytes, so the padding marker at the end of a segment always fits
+    private static long recordSize(int keyLength, int valueLength) {
+        return (2L * Integer.BYTES + keyLength + valueLength + 3) & -4L;
+    }
+
+    // 64-bit FNV-1a with the MurmurHash3 finalizer to spread the bits used for slot and tag
+    private static long hash(byte[] bytes) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long tag(long hash) {
+        return hash >>> OFFSET_BITS;
+    }
+
+    private static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, long fileSize) throws IOException {
+        final int count = (int) ((fileSize + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+        final MappedByteBuffer[] segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            final long position = (long) i << SEGMENT_SHIFT;
+            segments[i] = channel.map(mode, position, Math.min(SEGMENT_SIZE, fileSize - position));
+        }
+        return segments;
+    }
+
+    /**
+     * Writes the records of a new store. Keys must be unique. Closing a builder which hasn't been
+     * {@link #build() built} deletes the partially written file.
+     */
+    public static final class Builder implements Closeable {
+        private final Path file;
+        private final Path hashesFile;
+        private final FileChannel channel;
+        private final DataOutputStream data;
+        private final DataOutputStream hashes;
+        private long position = HEADER_SIZE;
+        private long size = 0;
+        private boolean built = false;
+
+        private Builder(Path file) throws IOException {
+            this.file = file;
+            this.hashesFile = file.resolveSibling(file.getFileName() + ".hashes");
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.channel.position(HEADER_SIZE);
+            this.data = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+            this.hashes = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(hashesFile), 64 * 1024));
+        }
+
+        public void put(String key, String value) throws IOException {
+            final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            final byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+            final long recordSize = recordSize(keyBytes.length, valueBytes.length);
+            if (recordSize > SEGMENT_SIZE) {
+                throw new IllegalArgumentException(f("Entry for key <%s> is too large (%d bytes)", key, recordSize));
+            }
+            // Records must not cross segment boundaries, pad the remainder of the current segment
+            final long remaining = SEGMENT_SIZE - (position & SEGMENT_MASK);
+            if (recordSize > remaining) {
+                data.writeInt(-1);
+                for (long i = Integer.BYTES; i < remaining; i++) {
+                    data.write(0);
+                }
+                position += remaining;
+            }
+            if (position > OFFSET_MASK - recordSize) {
+                throw new IllegalStateException("Lookup store exceeds the maximum size");
+            }
+
+            hashes.writeLong(hash(keyBytes));
+            hashes.writeLong(position);
+
+            data.writeInt(keyBytes.length);
+            data.write(keyBytes);
+            data.writeInt(valueBytes.length);
+            data.write(valueBytes);
+            final long padding = recordSize - (2L * Integer.BYTES + keyBytes.length + valueBytes.length);
+            for (long i = 0; i < padding; i++) {
+                data.write(0);
+            }
+            position += recordSize;
+            size++;
+        }
+
+        /**
+         * Writes the hash index and returns the memory-mapped store.
+         *
+         * @throws IllegalArgumentException if the same key has been added more than once
+         */
+        public OffHeapLookupStore build() throws IOException {
+            data.flush();
+            hashes.close();
+
+            final long tableOffset = (position + Long.BYTES - 1) & -Long.BYTES;
+            final long capacity = Math.max(16, Long.highestOneBit((long) Math.ceil(size / LOAD_FACTOR)) << 1);
+            final long fileSize = tableOffset + capacity * Long.BYTES;
+
+            final MappedByteBuffer[] segments = map(channel, FileChannel.MapMode.READ_WRITE, fileSize);
+            final long slotMask = capacity - 1;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(hashesFile), 64 * 1024))) {
+                for (long i = 0; i < size; i++) {
+                    final long hash = in.readLong();
+                    final long offset = in.readLong();
+                    insert(segments, tableOffset, slotMask, hash, offset);
+                }
+            }
+
+            final ByteBuffer header = segments[0];
+            header.putInt(0, MAGIC);
+            header.putInt(Integer.BYTES, VERSION);
+            header.putLong(8, size);
+            header.putLong(16, tableOffset);
+            header.putLong(24, capacity);
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+
+            built = true;
+            close();
+            return new OffHeapLookupStore(file, segments, size, tableOffset, capacity);
+        }
+
+        private static void insert(ByteBuffer[] segments, long tableOffset, long slotMask, long hash, long offset) {
+            final long tag = tag(hash);
+            long slot = hash & slotMask;
+            while (true) {
+                final long slotPosition = tableOffset + slot * Long.BYTES;
+                final long entry = readLong(segments, slotPosition);
+                if (entry == 0) {
+                    segments[(int) (slotPosition >>> SEGMENT_SHIFT)].putLong((int) (slotPosition & SEGMENT_MASK), (tag << OFFSET_BITS) | (offset + 1));
+                    return;
+                }
+                if ((entry >>> OFFSET_BITS) == tag && recordKeyEquals(segments, (entry & OFFSET_MASK) - 1, offset)) {
+                    final ByteBuffer segment = segments[(int) (offset >>> SEGMENT_SHIFT)];
+                    final int index = (int) (offset & SEGMENT_MASK);
+                    throw new IllegalArgumentException("Multiple entries with same key: "
+                            + readString(segment, index + Integer.BYTES, segment.getInt(index)));
+                }
+                slot = (slot + 1) & slotMask;
+            }
+        }
+
+        private static boolean recordKeyEquals(ByteBuffer[] segments, long offset1, long offset2) {
+            final ByteBuffer segment1 = segments[(int) (offset1 >>> SEGMENT_SHIFT)];
+            final ByteBuffer segment2 = segments[(int) (offset2 >>> SEGMENT_SHIFT)];
+            final int index1 = (int) (offset1 & SEGMENT_MASK);
+            final int index2 = (int) (offset2 & SEGMENT_MASK);
+            final int length = segment1.getInt(index1);
+            if (length != segment2.getInt(index2)) {
+                return false;
+            }
+            for (int i = Integer.BYTES; i < Integer.BYTES + length; i++) {
+                if (segment1.get(index1 + i) != segment2.get(index2 + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                hashes.close();
+                // The mapped segments stay valid after closing the channel
+                channel.close();
+            } finally {
+                Files.deleteIfExists(hashesFile);
+                if (!built) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+}
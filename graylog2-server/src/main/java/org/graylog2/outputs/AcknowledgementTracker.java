@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.outputs;
+
+import org.graylog2.shared.messageq.Acknowledgeable;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Keeps track of the journal offsets of messages which have been handed to the output but haven't been written yet.
+ * <p>
+ * The journal commits the highest offset it is given. With several buffer shards, a batch with high offsets can be
+ * written while another shard still holds messages with lower offsets. This tracker only releases the offsets of
+ * written batches which are below the lowest offset that is still pending, so a crash can't lose messages which the
+ * journal already counts as committed.
+ * <p>
+ * Message queue IDs which aren't journal offsets are ignored.
+ */
+final class AcknowledgementTracker {
+    // Guarded by "this"
+    // Pending offsets and the number of messages with that offset
+    private final TreeMap<Long, Integer> pending = new TreeMap<>();
+    // Highest offsets of the written batches which haven't been released yet
+    private final TreeSet<Long> completed = new TreeSet<>();
+    private long highestReleased = -1L;
+
+    /**
+     * Registers a message before it is appended to the output buffer.
+     */
+    synchronized void track(Acknowledgeable message) {
+        if (message.getMessageQueueId() instanceof Long offset) {
+            pending.merge(offset, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Marks the given batch of messages as written.
+     *
+     * @return the highest offset which can be committed now, or {@code null} if there is nothing new to commit
+     */
+    @Nullable
+    synchronized Long complete(Collection<? extends Acknowledgeable> messages) {
+        long batchOffset = -1L;
+        for (Acknowledgeable message : messages) {
+            if (message.getMessageQueueId() instanceof Long offset) {
+                pending.computeIfPresent(offset, (o, count) -> count > 1 ? count - 1 : null);
+                batchOffset = Math.max(batchOffset, offset);
+            }
+        }
+        if (batchOffset > highestReleased) {
+            completed.add(batchOffset);
+        }
+
+        final Long committable = pending.isEmpty() ? completed.pollLast() : completed.lower(pending.firstKey());
+        if (committable == null) {
+            return null;
+        }
+        completed.headSet(committable, true).clear();
+        highestReleased = committable;
+        return committable;
+    }
+}
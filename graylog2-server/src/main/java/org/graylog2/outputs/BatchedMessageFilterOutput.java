@@ -26,6 +26,7 @@ import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 import org.graylog2.indexer.cluster.Cluster;
+import org.graylog2.indexer.messages.ImmutableMessage;
 import org.graylog2.outputs.filter.FilteredMessage;
 import org.graylog2.outputs.filter.OutputFilter;
 import org.graylog2.plugin.Message;
@@ -76,6 +77,7 @@ public class BatchedMessageFilterOutput implements MessageOutput, GracefulShutdo
     private final Timer processTime;
     private final GracefulShutdownService gracefulShutdownService;
     private final IndexSetAwareMessageOutputBuffer buffer;
+    private final AcknowledgementTracker acknowledgementTracker = new AcknowledgementTracker();
     private ScheduledFuture<?> flushTask;
 
     @Inject
@@ -151,6 +153,7 @@ public class BatchedMessageFilterOutput implements MessageOutput, GracefulShutdo
                     activeFlushThreads.get());
         }
 
+        final List<ImmutableMessage> messages = filteredMessages.stream().map(FilteredMessage::message).toList();
         try (var ignored = processTime.time()) {
             for (final var output : outputs.values()) {
                 try {
@@ -165,12 +168,17 @@ public class BatchedMessageFilterOutput implements MessageOutput, GracefulShutdo
             }
 
             bufferFlushes.mark();
-            // We only acknowledge messages once all outputs are done writing messages.
-            acknowledger.acknowledge(filteredMessages.stream().map(FilteredMessage::message).toList());
         } catch (Exception e) {
             LOG.error("Error while flushing messages", e);
             bufferFlushFailures.mark();
         }
+        // We only acknowledge messages once all outputs are done writing messages, and only up to the lowest journal
+        // offset which is still waiting in another buffer shard.
+        try {
+            acknowledger.acknowledge(acknowledgementTracker.complete(messages), messages.size());
+        } catch (Exception e) {
+            LOG.error("Error while acknowledging messages", e);
+        }
 
         activeFlushThreads.decrementAndGet();
         if (LOG.isTraceEnabled()) {
@@ -203,6 +211,7 @@ public class BatchedMessageFilterOutput implements MessageOutput, GracefulShutdo
         if (LOG.isTraceEnabled()) {
             LOG.trace("Appending filtered message <{}> to buffer", filteredMessage);
         }
+        acknowledgementTracker.track(message);
         buffer.appendAndFlush(filteredMessage, this::flush);
     }
 
@@ -32,9 +32,13 @@ import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * A thread-safe and index set aware output buffer implementation.
  * <p>
@@ -45,29 +49,50 @@ import java.util.function.Consumer;
  * <p>
  * To avoid bulk requests that get too big, we reserve one buffer slot per message and index set.
  * The trade-off is that outputs which don't create one message per index set will write smaller batches.
+ * <p>
+ * The buffer can be split into multiple independent shards (see {@code output_buffer_shards}). Every writing thread
+ * is assigned to one shard, so output threads don't contend on a single lock and can run bulk requests for their
+ * shards concurrently. Each shard is flushed once it reaches the configured batch size.
  */
 public class IndexSetAwareMessageOutputBuffer {
     private final int maxBufferSizeCount;
     private final long maxBufferSizeBytes;
     private final ObjectMapper objectMapper;
 
-    private volatile List<FilteredMessage> buffer;
-    private volatile int bufferLength = 0;
-    private volatile long bufferSizeBytes = 0L;
+    private final Shard[] shards;
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private final ThreadLocal<Shard> threadShard;
     private final AtomicLong lastFlushTime = new AtomicLong();
 
     /**
-     * Creates a new buffer with the given size.
+     * Creates a new buffer with the given size and a single shard.
      *
      * @param maxBufferSize the maximum buffer size
      */
+    public IndexSetAwareMessageOutputBuffer(BatchSizeConfig maxBufferSize, ObjectMapper objectMapper) {
+        this(maxBufferSize, 1, objectMapper);
+    }
+
+    /**
+     * Creates a new buffer with the given size per shard.
+     *
+     * @param maxBufferSize the maximum buffer size of each shard
+     * @param shardCount    the number of independent buffer shards
+     */
     @Inject
     public IndexSetAwareMessageOutputBuffer(@Named("output_batch_size") BatchSizeConfig maxBufferSize,
+                                            @Named("output_buffer_shards") int shardCount,
                                             ObjectMapper objectMapper) {
+        checkArgument(shardCount > 0, "The number of buffer shards must be positive");
 
         this.maxBufferSizeCount = maxBufferSize.getAsCount().orElse(0);
         this.maxBufferSizeBytes = maxBufferSize.getAsBytes().map(Size::toBytes).orElse(0L);
-        this.buffer = new ArrayList<>(maxBufferSize.getAsCount().orElse(500));
+        final int initialCapacity = maxBufferSize.getAsCount().orElse(500);
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(initialCapacity);
+        }
+        this.threadShard = ThreadLocal.withInitial(() -> shards[Math.floorMod(nextShard.getAndIncrement(), shards.length)]);
 
         this.objectMapper = objectMapper;
     }
@@ -87,9 +112,9 @@ public class IndexSetAwareMessageOutputBuffer {
     }
 
     /**
-     * Appends the given message to the buffer. If the buffer length has reached the configured max buffer size,
-     * the given flush consumer is called with the contents of the buffer and the buffer is reset.
-     * The consumer is responsible for handling the buffer content.
+     * Appends the given message to the buffer shard of the current thread. If the shard length has reached the
+     * configured max buffer size, the given flush consumer is called with the contents of the shard and the shard
+     * is reset. The consumer is responsible for handling the buffer content.
      * <p>
      * This method is thread-safe.
      *
@@ -97,22 +122,22 @@ public class IndexSetAwareMessageOutputBuffer {
      * @param flusher         the buffer flush consumer
      */
     public void appendAndFlush(FilteredMessage filteredMessage, Consumer<List<FilteredMessage>> flusher) {
+        // See class the class documentation for the reasoning behind the slot calculation.
+        final int slots = Math.max(filteredMessage.message().getIndexSets().size(), 1);
+        // for optimization, only calculate batch size in bytes, if we are actually restricting by size in bytes.
+        // The estimation serializes the message, so don't do it while holding the lock.
+        final long sizeBytes = maxBufferSizeBytes != 0L ? estimateOsBulkRequestSize(filteredMessage.message(), objectMapper) : 0L;
+
+        final Shard shard = threadShard.get();
         List<FilteredMessage> flushBatch = null;
-        synchronized (this) {
-            // See class the class documentation for the reasoning behind the bufferLength calculation.
-            buffer.add(filteredMessage);
-            bufferLength += Math.max(filteredMessage.message().getIndexSets().size(), 1);
-            // for optimization, only calculate batch size in bytes, if we are actually restricting by size in bytes
-            if (maxBufferSizeBytes != 0L) {
-                bufferSizeBytes += estimateOsBulkRequestSize(filteredMessage.message(), objectMapper);
-            }
+        synchronized (shard) {
+            shard.buffer.add(filteredMessage);
+            shard.bufferLength += slots;
+            shard.bufferSizeBytes += sizeBytes;
 
-            if ((maxBufferSizeBytes != 0L && bufferSizeBytes >= maxBufferSizeBytes) ||
-                    maxBufferSizeCount != 0 && bufferLength >= maxBufferSizeCount) {
-                flushBatch = buffer;
-                buffer = new ArrayList<>(bufferLength);
-                bufferLength = 0;
-                bufferSizeBytes = 0L;
+            if ((maxBufferSizeBytes != 0L && shard.bufferSizeBytes >= maxBufferSizeBytes) ||
+                    maxBufferSizeCount != 0 && shard.bufferLength >= maxBufferSizeCount) {
+                flushBatch = shard.drain();
             }
         }
         // if the current thread found it had to flush any messages, it does so but blocks.
@@ -125,22 +150,19 @@ public class IndexSetAwareMessageOutputBuffer {
     }
 
     /**
-     * Calls the given flush consumer with the contents of the buffer and the buffer is reset. The consumer is
-     * responsible for handling the buffer content.
+     * Calls the given flush consumer with the contents of every buffer shard and the shards are reset. The consumer
+     * is responsible for handling the buffer content.
      * <p>
      * This method is thread-safe.
      *
      * @param flusher the buffer flush consumer
      */
     public void flush(Consumer<List<FilteredMessage>> flusher) {
-        final List<FilteredMessage> flushBatch;
-        synchronized (this) {
-            flushBatch = buffer;
-            buffer = new ArrayList<>(bufferLength);
-            bufferLength = 0;
-            bufferSizeBytes = 0L;
-        }
-        if (flushBatch != null) {
+        for (final Shard shard : shards) {
+            final List<FilteredMessage> flushBatch;
+            synchronized (shard) {
+                flushBatch = shard.drain();
+            }
             lastFlushTime.set(System.nanoTime());
             flusher.accept(flushBatch);
         }
@@ -164,11 +186,31 @@ public class IndexSetAwareMessageOutputBuffer {
         // An instruction will look like this:
         // {"index":{"_index":"graylog_deflector","_id":"70db7111-48fd-11ef-b7e8-5ae4251f926d"}}
         // Take that into account as well.
-        final long indexInstructionsSize = message.getIndexSets().stream()
+        final Set<IndexSet> indexSets = message.getIndexSets();
+        final long indexInstructionsSize = indexSets.stream()
                 .map(IndexSet::getWriteIndexAlias)
                 .mapToLong(index -> 32L + MoreObjects.firstNonNull(index, "").length() + 36L + 1) // instruction size plus newline
                 .sum();
 
-        return indexInstructionsSize + msgSize * Math.max(message.getIndexSets().size(), 1);
+        return indexInstructionsSize + msgSize * Math.max(indexSets.size(), 1);
+    }
+
+    private static final class Shard {
+        private List<FilteredMessage> buffer;
+        private int bufferLength = 0;
+        private long bufferSizeBytes = 0L;
+
+        private Shard(int initialCapacity) {
+            this.buffer = new ArrayList<>(initialCapacity);
+        }
+
+        // Must be called while holding the shard lock
+        private List<FilteredMessage> drain() {
+            final List<FilteredMessage> batch = buffer;
+            buffer = new ArrayList<>(bufferLength);
+            bufferLength = 0;
+            bufferSizeBytes = 0L;
+            return batch;
+        }
     }
 }
@@ -56,6 +56,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Singleton
@@ -73,6 +74,7 @@ public class OutputRegistry {
     private final StreamService streamService;
     private final long faultCountThreshold;
     private final long faultPenaltySeconds;
+    private final AtomicLong generation = new AtomicLong();
 
     @Inject
     public OutputRegistry(@DefaultMessageOutput MessageOutput defaultMessageOutput,
@@ -140,6 +142,7 @@ public class OutputRegistry {
             faultCount = this.faultCounters.get(id);
         } catch (ExecutionException e) {
             LOG.error("Unable to retrieve output fault counter", e);
+            generation.incrementAndGet();
             return null;
         }
 
@@ -179,9 +182,20 @@ public class OutputRegistry {
                 }
             }
         }
+        // Make sure callers which cache resolved outputs retry the lookup
+        generation.incrementAndGet();
         return null;
     }
 
+    /**
+     * Returns a counter which changes whenever an output has been removed from the registry or couldn't be
+     * resolved. Results of {@link #getOutputForIdAndStream(String, Stream)} can be cached as long as the
+     * generation doesn't change.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
     public Callable<MessageOutput> loadForIdAndStream(final String id, final Stream stream) {
         return new Callable<>() {
             @Override
@@ -231,6 +245,7 @@ public class OutputRegistry {
     }
 
     private void removeOutput(String outputId) {
+        generation.incrementAndGet();
         final MessageOutput messageOutput = runningMessageOutputs.getIfPresent(outputId);
         if (messageOutput != null) {
             messageOutput.stop();
@@ -16,10 +16,15 @@
  */
 package org.graylog2.outputs;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
 import org.graylog2.plugin.Message;
 import org.graylog2.plugin.outputs.MessageOutput;
 import org.graylog2.plugin.streams.Output;
 import org.graylog2.plugin.streams.Stream;
+import org.graylog2.plugin.streams.StreamRoutingKey;
+import org.graylog2.streams.StreamRoutingKeyInterner;
 
 import jakarta.inject.Inject;
 
@@ -27,14 +32,24 @@ import java.util.HashSet;
 import java.util.Set;
 
 public class OutputRouter {
+    private static final long MAX_CACHED_ROUTING_KEYS = 10_000;
+
     private final MessageOutput defaultMessageOutput;
     private final OutputRegistry outputRegistry;
+    private final StreamRoutingKeyInterner routingKeyInterner;
+    // Routing keys are interned, weak keys use identity comparison and drop entries of expired keys
+    private final Cache<StreamRoutingKey, RoutedOutputs> outputsByRoutingKey = CacheBuilder.newBuilder()
+            .weakKeys()
+            .maximumSize(MAX_CACHED_ROUTING_KEYS)
+            .build();
 
     @Inject
     public OutputRouter(@DefaultMessageOutput MessageOutput defaultMessageOutput,
-                        OutputRegistry outputRegistry) {
+                        OutputRegistry outputRegistry,
+                        StreamRoutingKeyInterner routingKeyInterner) {
         this.defaultMessageOutput = defaultMessageOutput;
         this.outputRegistry = outputRegistry;
+        this.routingKeyInterner = routingKeyInterner;
     }
 
     protected Set<MessageOutput> getMessageOutputsForStream(Stream stream) {
@@ -50,19 +65,35 @@ public class OutputRouter {
     }
 
     public Set<MessageOutput> getOutputsForMessage(final Message msg) {
-        final Set<MessageOutput> result = getStreamOutputsForMessage(msg);
+        final Set<MessageOutput> result = new HashSet<>(getStreamOutputsForMessage(msg));
         result.add(defaultMessageOutput);
 
         return result;
     }
 
+    /**
+     * Returns the stream outputs for the given message. The outputs are resolved once per distinct set of streams
+     * and re-used until the {@link OutputRegistry#getGeneration() output registry} changes.
+     */
     public Set<MessageOutput> getStreamOutputsForMessage(final Message msg) {
-        final Set<MessageOutput> result = new HashSet<>();
+        final StreamRoutingKey routingKey = routingKeyInterner.routingKeyFor(msg);
+        // Read the generation before resolving the outputs, changes during the lookup invalidate the result
+        final long generation = outputRegistry.getGeneration();
+
+        final RoutedOutputs cached = outputsByRoutingKey.getIfPresent(routingKey);
+        if (cached != null && cached.generation() == generation) {
+            return cached.outputs();
+        }
 
-        for (Stream stream : msg.getStreams()) {
+        final Set<MessageOutput> result = new HashSet<>();
+        for (Stream stream : routingKey.streams()) {
             result.addAll(getMessageOutputsForStream(stream));
         }
 
-        return result;
+        final ImmutableSet<MessageOutput> outputs = ImmutableSet.copyOf(result);
+        outputsByRoutingKey.put(routingKey, new RoutedOutputs(generation, outputs));
+        return outputs;
     }
+
+    private record RoutedOutputs(long generation, ImmutableSet<MessageOutput> outputs) {}
 }
@@ -108,6 +108,9 @@ public abstract class BaseConfiguration extends PathConfiguration {
     @Parameter(value = "proxied_requests_default_call_timeout", required = true, validator = PositiveDurationValidator.class)
     private Duration proxiedRequestsDefaultCallTimeout = Duration.seconds(5);
 
+    @Parameter(value = "proxied_requests_cache_ttl")
+    private Duration proxiedRequestsCacheTtl = Duration.seconds(0);
+
     public int getProcessBufferProcessors() {
         return processBufferProcessors;
     }
@@ -18,6 +18,7 @@ package org.graylog2.plugin;
 
 import com.github.joschi.jadconfig.Parameter;
 import com.github.joschi.jadconfig.util.Size;
+import com.github.joschi.jadconfig.validators.PositiveIntegerValidator;
 import org.graylog2.bindings.NamedBindingOverride;
 import org.graylog2.configuration.PathConfiguration;
 import org.joda.time.Duration;
@@ -53,6 +54,12 @@ public class KafkaJournalConfiguration extends PathConfiguration {
     @Parameter("message_journal_flush_age")
     private Duration messageJournalFlushAge = Duration.standardMinutes(1L);
 
+    @Parameter("message_journal_read_ahead_batches")
+    private int messageJournalReadAheadBatches = 0;
+
+    @Parameter(value = "message_journal_read_ahead_batch_size", validators = PositiveIntegerValidator.class)
+    private int messageJournalReadAheadBatchSize = 4096;
+
     @NamedBindingOverride(value = MESSAGE_JOURNAL_DIR)
     public Path getMessageJournalDir() {
         return Optional.ofNullable(messageJournalDir).orElse(getDataDir().resolve("journal"));
@@ -81,4 +88,12 @@ public class KafkaJournalConfiguration extends PathConfiguration {
     public Duration getMessageJournalFlushAge() {
         return messageJournalFlushAge;
     }
+
+    public int getMessageJournalReadAheadBatches() {
+        return messageJournalReadAheadBatches;
+    }
+
+    public int getMessageJournalReadAheadBatchSize() {
+        return messageJournalReadAheadBatchSize;
+    }
 }
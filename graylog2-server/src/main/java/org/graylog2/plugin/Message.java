@@ -39,6 +39,8 @@ import org.graylog.failure.ProcessingFailureCause;
 import org.graylog2.indexer.IndexSet;
 import org.graylog2.indexer.messages.Indexable;
 import org.graylog2.plugin.streams.Stream;
+import org.graylog2.plugin.streams.StreamOrdinals;
+import org.graylog2.plugin.streams.StreamRoutingKey;
 import org.graylog2.plugin.utilities.date.DateTimeConverter;
 import org.graylog2.plugin.utilities.ratelimitedlog.RateLimitedLogFactory;
 import org.graylog2.shared.messageq.Acknowledgeable;
@@ -54,6 +56,7 @@ import java.net.InetAddress;
 import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -306,9 +309,20 @@ public class Message implements Messages, Indexable, Acknowledgeable {
     @Deprecated
     public static final Function<Message, String> ID_FUNCTION = new MessageIdFunction();
 
-    private final Map<String, Object> fields = Maps.newHashMap();
-    private Set<Stream> streams = Sets.newHashSet();
+    private final MessageFieldMap fields;
+    /**
+     * The assigned streams in insertion order. Membership is tracked in {@link #streamOrdinals}, streams without an
+     * ID (not persisted yet) are compared by identity.
+     */
+    private final List<Stream> streams = new ArrayList<>(2);
+    private final BitSet streamOrdinals = new BitSet();
+    private int streamOrdinalsEpoch = StreamOrdinals.epoch();
     private Set<IndexSet> indexSets = Sets.newHashSet();
+    /**
+     * The interned routing key for the current set of streams. Reset whenever the streams of the message change.
+     */
+    @Nullable
+    private StreamRoutingKey routingKey;
     private String sourceInputId;
 
     // Used for drools to filter out messages.
@@ -332,7 +346,10 @@ public class Message implements Messages, Indexable, Acknowledgeable {
      */
     private Map<String, Object> metadata;
 
-    private com.codahale.metrics.Counter sizeCounter = new com.codahale.metrics.Counter();
+    /**
+     * The estimated size of the message fields and streams in bytes, see {@link #getSize()}.
+     */
+    private long size = 0;
 
     private List<ProcessingError> processingErrors;
 
@@ -370,6 +387,7 @@ public class Message implements Messages, Indexable, Acknowledgeable {
 
     // Intentionally package-private to enforce MessageFactory usage.
     Message(final String message, final String source, final DateTime timestamp) {
+        fields = new MessageFieldMap();
         fields.put(FIELD_ID, new UUID().toString());
         addRequiredField(FIELD_MESSAGE, message);
         addRequiredField(FIELD_SOURCE, source);
@@ -384,6 +402,7 @@ public class Message implements Messages, Indexable, Acknowledgeable {
     // Intentionally package-private to enforce MessageFactory usage.
     Message(String id, Map<String, Object> newFields) {
         Preconditions.checkArgument(id != null, "message id cannot be null");
+        fields = new MessageFieldMap(newFields == null ? 1 : newFields.size() + 1);
         fields.put(FIELD_ID, id);
         addFields(newFields);
     }
@@ -422,13 +441,12 @@ public class Message implements Messages, Indexable, Acknowledgeable {
     public Map<String, Object> toElasticSearchObject(ObjectMapper objectMapper, @Nonnull final Meter invalidTimestampMeter) {
         final Map<String, Object> obj = Maps.newHashMapWithExpectedSize(REQUIRED_FIELDS.size() + fields.size());
 
-        for (Map.Entry<String, Object> entry : fields.entrySet()) {
-            final String key = entry.getKey();
+        // forEach walks the field map without allocating an entry per field
+        fields.forEach((key, value) -> {
             if (key.equals(FIELD_ID)) {
-                continue;
+                return;
             }
 
-            final Object value = entry.getValue();
             // Elasticsearch does not allow "." characters in keys since version 2.0.
             // See: https://www.elastic.co/guide/en/elasticsearch/reference/2.0/breaking_20_mapping_changes.html#_field_names_may_not_contain_dots
             if (key.contains(".")) {
@@ -455,7 +473,7 @@ public class Message implements Messages, Indexable, Acknowledgeable {
                 }
                 obj.put(key, value);
             }
-        }
+        });
 
         obj.put(FIELD_MESSAGE, getMessage());
         obj.put(FIELD_SOURCE, getSource());
@@ -613,24 +631,24 @@ public class Message implements Messages, Indexable, Acknowledgeable {
         }
         long newValueSize = 0;
         long oldValueSize = 0;
-        final long oldSize = sizeCounter.getCount();
+        final long oldSize = size;
         final int keyLength = fieldName.length();
         // if the field is being removed, also subtract the name's length
         if (newValue == null) {
-            sizeCounter.dec(keyLength);
+            size -= keyLength;
         } else {
             newValueSize = sizeForValue(newValue);
-            sizeCounter.inc(newValueSize);
+            size += newValueSize;
         }
         // if the field is new, also count its name's length
         if (previousValue == null) {
-            sizeCounter.inc(keyLength);
+            size += keyLength;
         } else {
             oldValueSize = sizeForValue(previousValue);
-            sizeCounter.dec(oldValueSize);
+            size -= oldValueSize;
         }
         if (LOG.isTraceEnabled()) {
-            final long newSize = sizeCounter.getCount();
+            final long newSize = size;
             LOG.trace("[Message size update][{}] key {}/{}, new/old/change: {}/{}/{} total: {}",
                     getId(), fieldName, keyLength, newValueSize, oldValueSize, newSize - oldSize, newSize);
         }
@@ -649,7 +667,7 @@ public class Message implements Messages, Indexable, Acknowledgeable {
 
     @Override
     public long getSize() {
-        return sizeCounter.getCount();
+        return size;
     }
 
     public static boolean validKey(final String key) {
@@ -665,9 +683,7 @@ public class Message implements Messages, Indexable, Acknowledgeable {
             return;
         }
 
-        for (Map.Entry<String, Object> field : fields.entrySet()) {
-            addField(field.getKey(), field.getValue());
-        }
+        fields.forEach(this::addField);
     }
 
     public void removeField(final String key) {
@@ -689,6 +705,10 @@ public class Message implements Messages, Indexable, Acknowledgeable {
         return ImmutableMap.copyOf(fields);
     }
 
+    /**
+     * Returns a live view of the fields. Adding or removing fields while iterating throws a
+     * {@link java.util.ConcurrentModificationException}, copy the entries first to change the message in a loop.
+     */
     public Iterable<Map.Entry<String, Object>> getFieldsEntries() {
         return Iterables.unmodifiableIterable(fields.entrySet());
     }
@@ -701,13 +721,22 @@ public class Message implements Messages, Indexable, Acknowledgeable {
         return fields.containsKey(field);
     }
 
+    /**
+     * Returns a live view of the field names. Adding or removing fields while iterating throws a
+     * {@link java.util.ConcurrentModificationException}, copy the names first to change the message in a loop.
+     */
     public Set<String> getFieldNames() {
         return Collections.unmodifiableSet(fields.keySet());
     }
 
     @Deprecated
     public void setStreams(final List<Stream> streams) {
-        this.streams = Sets.newHashSet(streams);
+        this.streams.clear();
+        this.streamOrdinals.clear();
+        for (Stream stream : streams) {
+            addStreamMembership(stream);
+        }
+        this.routingKey = null;
     }
 
     /**
@@ -716,6 +745,10 @@ public class Message implements Messages, Indexable, Acknowledgeable {
      * @return an immutable copy of the current set of assigned streams, empty if no streams have been assigned
      */
     public Set<Stream> getStreams() {
+        final StreamRoutingKey key = this.routingKey;
+        if (key != null) {
+            return key.streams();
+        }
         return ImmutableSet.copyOf(this.streams);
     }
 
@@ -726,10 +759,11 @@ public class Message implements Messages, Indexable, Acknowledgeable {
      */
     public void addStream(Stream stream) {
         indexSets.add(stream.getIndexSet());
-        if (streams.add(stream)) {
-            sizeCounter.inc(8);
+        if (addStreamMembership(stream)) {
+            routingKey = null;
+            size += 8;
             if (LOG.isTraceEnabled()) {
-                LOG.trace("[Message size update][{}] stream added: {}", getId(), sizeCounter.getCount());
+                LOG.trace("[Message size update][{}] stream added: {}", getId(), size);
             }
         }
     }
@@ -752,31 +786,135 @@ public class Message implements Messages, Indexable, Acknowledgeable {
      * @return <tt>true</tt> if this message was assigned to the stream
      */
     public boolean removeStream(Stream stream) {
-        final boolean removed = streams.remove(stream);
+        final boolean removed = removeStreamMembership(stream);
 
         if (removed) {
+            routingKey = null;
             indexSets.clear();
             for (Stream s : streams) {
                 indexSets.add(s.getIndexSet());
             }
-            sizeCounter.dec(8);
+            size -= 8;
             if (LOG.isTraceEnabled()) {
-                LOG.trace("[Message size update][{}] stream removed: {}", getId(), sizeCounter.getCount());
+                LOG.trace("[Message size update][{}] stream removed: {}", getId(), size);
             }
         }
 
         return removed;
     }
 
+    /**
+     * Check whether this message is assigned to the given stream.
+     *
+     * @param stream the stream to check
+     * @return <tt>true</tt> if this message is assigned to the stream
+     */
+    public boolean hasStream(Stream stream) {
+        final int ordinal = StreamOrdinals.ordinal(stream);
+        return ordinal != StreamOrdinals.NO_ORDINAL ? streamOrdinals().get(ordinal) : containsInstance(stream);
+    }
+
+    /**
+     * Return the {@link StreamOrdinals ordinals} of the streams this message is currently routed to.
+     *
+     * @return a copy of the stream membership bitmap
+     */
+    public BitSet getStreamOrdinals() {
+        return (BitSet) streamOrdinals().clone();
+    }
+
+    // The ordinals of released streams can be re-used, so the bitmap is rebuilt if that happened since it was filled.
+    // Ordinals have to be looked up before calling this, to not miss a release which happened in between.
+    private BitSet streamOrdinals() {
+        final int epoch = StreamOrdinals.epoch();
+        if (epoch != streamOrdinalsEpoch) {
+            streamOrdinalsEpoch = epoch;
+            streamOrdinals.clear();
+            for (Stream stream : streams) {
+                final int ordinal = StreamOrdinals.ordinal(stream);
+                if (ordinal != StreamOrdinals.NO_ORDINAL) {
+                    streamOrdinals.set(ordinal);
+                }
+            }
+        }
+        return streamOrdinals;
+    }
+
+    private boolean addStreamMembership(Stream stream) {
+        final int ordinal = StreamOrdinals.ordinal(stream);
+        if (ordinal == StreamOrdinals.NO_ORDINAL) {
+            if (containsInstance(stream)) {
+                return false;
+            }
+        } else {
+            final BitSet ordinals = streamOrdinals();
+            if (ordinals.get(ordinal)) {
+                return false;
+            }
+            ordinals.set(ordinal);
+        }
+        streams.add(stream);
+        return true;
+    }
+
+    private boolean removeStreamMembership(Stream stream) {
+        final int ordinal = StreamOrdinals.ordinal(stream);
+        if (ordinal == StreamOrdinals.NO_ORDINAL) {
+            return streams.removeIf(s -> s == stream);
+        }
+        final BitSet ordinals = streamOrdinals();
+        if (!ordinals.get(ordinal)) {
+            return false;
+        }
+        ordinals.clear(ordinal);
+        final String streamId = stream.getId();
+        return streams.removeIf(s -> streamId.equals(s.getId()));
+    }
+
+    private boolean containsInstance(Stream stream) {
+        for (Stream s : streams) {
+            if (s == stream) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Return the index sets for this message based on the assigned streams.
      *
      * @return index sets
      */
     public Set<IndexSet> getIndexSets() {
+        final StreamRoutingKey key = this.routingKey;
+        if (key != null) {
+            return key.indexSets();
+        }
         return ImmutableSet.copyOf(this.indexSets);
     }
 
+    /**
+     * Return the routing key for the current streams of this message.
+     *
+     * @return the routing key or {@code null} if none has been assigned since the streams last changed
+     */
+    @Nullable
+    public StreamRoutingKey getRoutingKey() {
+        return routingKey;
+    }
+
+    /**
+     * Assign the routing key for the current streams of this message. The key is reset as soon as a stream gets
+     * added or removed.
+     *
+     * @param routingKey the routing key, must represent the current streams of this message
+     */
+    public void setRoutingKey(StreamRoutingKey routingKey) {
+        Preconditions.checkArgument(routingKey.streams().size() == streams.size(),
+                "Routing key doesn't match the streams of message <%s>", getId());
+        this.routingKey = routingKey;
+    }
+
     @SuppressWarnings("unchecked")
     public Set<String> getStreamIds() {
         Collection<String> streamField;
@@ -895,12 +1033,23 @@ public class Message implements Messages, Indexable, Acknowledgeable {
      */
     public void setProcessingTime(DateTime processingTime) {
         if (processingTime != null) {
-            this.processingTime = processingTime;
-            addField(FIELD_GL2_PROCESSING_TIMESTAMP, buildElasticSearchTimeFormat(processingTime.withZone(UTC)));
-            if (getReceiveTime() != null) {
-                final long duration = processingTime.getMillis() - getReceiveTime().getMillis();
-                addField(FIELD_GL2_PROCESSING_DURATION_MS, Ints.saturatedCast(duration));
-            }
+            setProcessingTime(processingTime, buildElasticSearchTimeFormat(processingTime.withZone(UTC)));
+        }
+    }
+
+    /**
+     * Sets the Message processing time, see {@link #setProcessingTime(DateTime)}.
+     * Allows callers to share one formatted processing timestamp between all messages processed at the same time.
+     *
+     * @param processingTime          the new processing timestamp
+     * @param formattedProcessingTime the processing timestamp in {@link Tools#buildElasticSearchTimeFormat(DateTime) Elasticsearch format}
+     */
+    public void setProcessingTime(@Nonnull DateTime processingTime, @Nonnull String formattedProcessingTime) {
+        this.processingTime = processingTime;
+        addField(FIELD_GL2_PROCESSING_TIMESTAMP, formattedProcessingTime);
+        if (getReceiveTime() != null) {
+            final long duration = processingTime.getMillis() - getReceiveTime().getMillis();
+            addField(FIELD_GL2_PROCESSING_DURATION_MS, Ints.saturatedCast(duration));
         }
     }
 
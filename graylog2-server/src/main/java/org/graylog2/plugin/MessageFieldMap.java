@@ -0,0 +1,309 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.plugin;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Compact storage for the fields of a {@link Message}.
+ * <p>
+ * Keys and values are kept in two arrays using open addressing with linear probing, so no entry objects are allocated
+ * per field. Field names are interned in a node-wide symbol table when a field is added, so the names of in-flight
+ * messages share one instance per distinct name instead of keeping the copies created by the codecs alive.
+ * <p>
+ * The map is not thread-safe and iteration order is undefined. Entries can't be removed through the iterators of
+ * the collection views, use {@link #remove(Object)} instead. Like {@link java.util.HashMap}, the iterators are
+ * fail-fast: adding or removing a field while iterating throws a {@link ConcurrentModificationException}, so callers
+ * have to copy the fields before changing the map in a loop. Replacing the value of an existing field is allowed.
+ */
+final class MessageFieldMap extends AbstractMap<String, Object> {
+    // Weak, so names which are no longer used by any message (e.g. high-cardinality keys) can be garbage collected
+    private static final Interner<String> FIELD_NAMES = Interners.newWeakInterner();
+
+    private static final int MIN_CAPACITY = 8;
+    // Enough for the fields of typical messages without resizing
+    private static final int DEFAULT_EXPECTED_SIZE = 24;
+
+    private String[] keys;
+    private Object[] values;
+    private int size = 0;
+    // Number of insertions and removals, used to detect modifications during iteration
+    private int modCount = 0;
+
+    MessageFieldMap() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    MessageFieldMap(int expectedSize) {
+        final int capacity = capacityFor(expectedSize);
+        this.keys = new String[capacity];
+        this.values = new Object[capacity];
+    }
+
+    static String internFieldName(String name) {
+        return FIELD_NAMES.intern(name);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String name && slotOf(name) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String name)) {
+            return null;
+        }
+        final int slot = slotOf(name);
+        return slot < 0 ? null : values[slot];
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("Message fields must not have null keys or values");
+        }
+        final int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        String existing;
+        while ((existing = keys[slot]) != null) {
+            if (existing == key || existing.equals(key)) {
+                final Object previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = internFieldName(key);
+        values[slot] = value;
+        modCount++;
+        if (++size > maxSize(keys.length)) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (!(key instanceof String name)) {
+            return null;
+        }
+        final int slot = slotOf(name);
+        if (slot < 0) {
+            return null;
+        }
+        final Object previous = values[slot];
+        removeSlot(slot);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        final String[] k = keys;
+        final Object[] v = values;
+        final int expectedModCount = modCount;
+        for (int i = 0; i < k.length && modCount == expectedModCount; i++) {
+            if (k[i] != null) {
+                action.accept(k[i], v[i]);
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    Entry<String, Object> element(int slot) {
+                        return new SimpleImmutableEntry<>(keys[slot], values[slot]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    String element(int slot) {
+                        return keys[slot];
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int slotOf(String key) {
+        final String[] k = keys;
+        final int mask = k.length - 1;
+        int slot = hash(key) & mask;
+        String existing;
+        while ((existing = k[slot]) != null) {
+            if (existing == key || existing.equals(key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Backward shift deletion, keeps probe sequences intact without tombstones
+    private void removeSlot(int slot) {
+        final int mask = keys.length - 1;
+        int free = slot;
+        int current = slot;
+        while (true) {
+            current = (current + 1) & mask;
+            final String key = keys[current];
+            if (key == null) {
+                break;
+            }
+            final int ideal = hash(key) & mask;
+            // Move the entry into the free slot unless its ideal slot lies cyclically in (free, current]
+            final boolean inRange = free <= current
+                    ? free < ideal && ideal <= current
+                    : free < ideal || ideal <= current;
+            if (!inRange) {
+                keys[free] = key;
+                values[free] = values[current];
+                free = current;
+            }
+        }
+        keys[free] = null;
+        values[free] = null;
+        size--;
+        modCount++;
+    }
+
+    private void resize(int newCapacity) {
+        final String[] oldKeys = keys;
+        final Object[] oldValues = values;
+        keys = new String[newCapacity];
+        values = new Object[newCapacity];
+        final int mask = newCapacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            final String key = oldKeys[i];
+            if (key != null) {
+                int slot = hash(key) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(String key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    // Load factor of 0.75
+    private static int maxSize(int capacity) {
+        return capacity - (capacity >>> 2);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (maxSize(capacity) < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private abstract class SlotIterator<T> implements Iterator<T> {
+        private final int expectedModCount = modCount;
+        private int next = advance(0);
+
+        private int advance(int from) {
+            int slot = from;
+            while (slot < keys.length && keys[slot] == null) {
+                slot++;
+            }
+            return slot;
+        }
+
+        abstract T element(int slot);
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final T element = element(next);
+            next = advance(next + 1);
+            return element;
+        }
+    }
+}
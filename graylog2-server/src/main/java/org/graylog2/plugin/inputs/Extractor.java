@@ -26,6 +26,7 @@ import org.graylog.failure.ProcessingFailureCause;
 import org.graylog2.inputs.extractors.ExtractorException;
 import org.graylog2.plugin.Message;
 import org.graylog2.plugin.database.EmbeddedPersistable;
+import org.graylog2.shared.metrics.SampledTimer;
 import org.graylog2.shared.utilities.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +38,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -45,6 +47,8 @@ import static com.codahale.metrics.MetricRegistry.name;
 
 public abstract class Extractor implements EmbeddedPersistable {
     private static final Logger LOG = LoggerFactory.getLogger(Extractor.class);
+    // Only the duration of every nth run is measured, measuring all runs is expensive for inputs with many extractors
+    private static final int METRICS_SAMPLE_INTERVAL = 32;
 
     public static final String FIELD_ID = "id";
     public static final String FIELD_TITLE = "title";
@@ -97,6 +101,15 @@ public abstract class Extractor implements EmbeddedPersistable {
         REGEX
     }
 
+    /**
+     * Evaluates extractor conditions. The extractor chain of an input uses this to share the results of identical
+     * conditions between its extractors.
+     */
+    @FunctionalInterface
+    public interface ConditionEvaluator {
+        boolean matches(Extractor extractor, String value);
+    }
+
     protected final AtomicLong exceptions;
     protected final AtomicLong converterExceptions;
 
@@ -118,10 +131,10 @@ public abstract class Extractor implements EmbeddedPersistable {
 
     private final Counter conditionHitsCounter;
     private final Counter conditionMissesCounter;
-    private final Timer conditionTimer;
-    private final Timer executionTimer;
-    private final Timer converterTimer;
-    private final Timer completeTimer;
+    private final SampledTimer conditionTimer;
+    private final SampledTimer executionTimer;
+    private final SampledTimer converterTimer;
+    private final SampledTimer completeTimer;
     private final String conditionHitsCounterName;
     private final String conditionMissesCounterName;
     private final String conditionTimerName;
@@ -184,43 +197,53 @@ public abstract class Extractor implements EmbeddedPersistable {
         this.completeTimerName = name(metricsPrefix, "completeExecutionTime");
         this.conditionHitsCounter = metricRegistry.counter(conditionHitsCounterName);
         this.conditionMissesCounter = metricRegistry.counter(conditionMissesCounterName);
-        this.conditionTimer = metricRegistry.timer(conditionTimerName);
-        this.executionTimer = metricRegistry.timer(executionTimerName);
-        this.converterTimer = metricRegistry.timer(converterTimerName);
-        this.completeTimer = metricRegistry.timer(completeTimerName);
+        this.conditionTimer = sampledTimer(metricRegistry, conditionTimerName);
+        this.executionTimer = sampledTimer(metricRegistry, executionTimerName);
+        this.converterTimer = sampledTimer(metricRegistry, converterTimerName);
+        this.completeTimer = sampledTimer(metricRegistry, completeTimerName);
+    }
+
+    private static SampledTimer sampledTimer(MetricRegistry metricRegistry, String name) {
+        final Timer timer = metricRegistry.timer(name, () -> new SampledTimer(METRICS_SAMPLE_INTERVAL));
+        if (timer instanceof SampledTimer sampledTimer) {
+            return sampledTimer;
+        }
+        throw new IllegalStateException("Metric <" + name + "> is already registered as a different timer type");
     }
 
     public void runExtractor(Message msg) {
-        try(final Timer.Context ignored = completeTimer.time()) {
+        runExtractor(msg, Extractor::conditionMatches);
+    }
+
+    public void runExtractor(Message msg, ConditionEvaluator conditionEvaluator) {
+        final boolean sampled = completeTimer.sample();
+        final long startTime = sampled ? System.nanoTime() : 0L;
+        try {
             final String field;
-            try (final Timer.Context ignored2 = conditionTimer.time()) {
+            try {
                 // We can only work on Strings.
-                if (!(msg.getField(sourceField) instanceof String)) {
+                if (!(msg.getField(sourceField) instanceof String value)) {
                     conditionMissesCounter.inc();
                     return;
                 }
 
-                field = (String) msg.getField(sourceField);
+                field = value;
 
                 // Decide if to extract at all.
-                if (conditionType.equals(ConditionType.STRING)) {
-                    if (field.contains(conditionValue)) {
-                        conditionHitsCounter.inc();
-                    } else {
-                        conditionMissesCounter.inc();
-                        return;
-                    }
-                } else if (conditionType.equals(ConditionType.REGEX)) {
-                    if (regexConditionPattern.matcher(field).find()) {
+                if (!conditionType.equals(ConditionType.NONE)) {
+                    if (conditionEvaluator.matches(this, field)) {
                         conditionHitsCounter.inc();
                     } else {
                         conditionMissesCounter.inc();
                         return;
                     }
                 }
+            } finally {
+                record(conditionTimer, sampled, startTime);
             }
 
-            try (final Timer.Context ignored2 = executionTimer.time()) {
+            final long executionStartTime = sampled ? System.nanoTime() : 0L;
+            try {
                 Result[] results;
                 try {
                     results = run(field);
@@ -263,13 +286,37 @@ public abstract class Extractor implements EmbeddedPersistable {
                     msg.addField(sourceField, finalResult);
                 }
 
-                runConverters(msg);
+                runConverters(msg, sampled);
+            } finally {
+                record(executionTimer, sampled, executionStartTime);
             }
+        } finally {
+            record(completeTimer, sampled, startTime);
+        }
+    }
+
+    /**
+     * Returns whether the condition of this extractor matches the given source field value.
+     */
+    public boolean conditionMatches(String value) {
+        return switch (conditionType) {
+            case NONE -> true;
+            case STRING -> value.contains(conditionValue);
+            case REGEX -> regexConditionPattern.matcher(value).find();
+        };
+    }
+
+    private static void record(SampledTimer timer, boolean sampled, long startTime) {
+        if (sampled) {
+            timer.update(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        } else {
+            timer.mark();
         }
     }
 
-    private void runConverters(Message msg) {
-        try(final Timer.Context ignored = converterTimer.time()) {
+    private void runConverters(Message msg, boolean sampled) {
+        final long startTime = sampled ? System.nanoTime() : 0L;
+        try {
             for (Converter converter : converters) {
                 try {
                     if (!(msg.getField(targetField) instanceof String)) {
@@ -313,6 +360,8 @@ public abstract class Extractor implements EmbeddedPersistable {
                             error, ExceptionUtils.getRootCauseMessage(e)));
                 }
             }
+        } finally {
+            record(converterTimer, sampled, startTime);
         }
     }
 
@@ -25,6 +25,15 @@ import org.graylog2.plugin.journal.RawMessage;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+/**
+ * Decodes {@link RawMessage raw messages} into {@link Message messages}.
+ * <p>
+ * <b>Thread-safety:</b> codec instances are created once per input and codec configuration and are re-used to decode
+ * all messages of that input. An instance is only used by one decoding thread at a time, but it must not assume
+ * that it has been created for a single message, e.g. by keeping per-message state in fields. Implementations
+ * should do expensive setup (e.g. creating object mappers or parsers) in the constructor or the
+ * {@link Factory#create(Configuration) factory}, not per message.
+ */
 public interface Codec {
     @Nullable
     Message decode(@Nonnull RawMessage rawMessage);
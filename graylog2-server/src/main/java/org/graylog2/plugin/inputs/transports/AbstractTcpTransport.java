@@ -43,11 +43,13 @@ import io.netty.util.concurrent.GlobalEventExecutor;
 import org.bouncycastle.operator.OperatorCreationException;
 import org.bouncycastle.pkcs.PKCSException;
 import org.graylog2.configuration.TLSProtocolsConfiguration;
+import org.graylog2.inputs.transports.IngestRateLimiter;
 import org.graylog2.inputs.transports.NettyTransportConfiguration;
 import org.graylog2.inputs.transports.netty.ByteBufMessageAggregationHandler;
 import org.graylog2.inputs.transports.netty.ChannelRegistrationHandler;
 import org.graylog2.inputs.transports.netty.EventLoopGroupFactory;
 import org.graylog2.inputs.transports.netty.ExceptionLoggingChannelHandler;
+import org.graylog2.inputs.transports.netty.IngestRateLimitHandler;
 import org.graylog2.inputs.transports.netty.RawMessageHandler;
 import org.graylog2.inputs.transports.netty.ServerSocketChannelFactory;
 import org.graylog2.plugin.LocalMetricRegistry;
@@ -132,6 +134,7 @@ public abstract class AbstractTcpTransport extends NettyTransport {
     private final File tlsClientAuthCertFile;
     private final String tlsClientAuth;
     private final boolean tcpKeepalive;
+    private final IngestRateLimiter ingestRateLimiter;
 
     private ChannelGroup childChannels;
     protected EventLoopGroup childEventLoopGroup;
@@ -158,6 +161,19 @@ public abstract class AbstractTcpTransport extends NettyTransport {
             EventLoopGroupFactory eventLoopGroupFactory,
             NettyTransportConfiguration nettyTransportConfiguration,
             TLSProtocolsConfiguration tlsConfiguration) {
+        this(configuration, throughputCounter, localRegistry, parentEventLoopGroup, eventLoopGroupFactory,
+                nettyTransportConfiguration, tlsConfiguration, IngestRateLimiter.disabled());
+    }
+
+    public AbstractTcpTransport(
+            Configuration configuration,
+            ThroughputCounter throughputCounter,
+            LocalMetricRegistry localRegistry,
+            EventLoopGroup parentEventLoopGroup,
+            EventLoopGroupFactory eventLoopGroupFactory,
+            NettyTransportConfiguration nettyTransportConfiguration,
+            TLSProtocolsConfiguration tlsConfiguration,
+            IngestRateLimiter ingestRateLimiter) {
         super(configuration, eventLoopGroupFactory, throughputCounter, localRegistry);
         this.configuration = configuration;
         this.parentEventLoopGroup = parentEventLoopGroup;
@@ -174,6 +190,7 @@ public abstract class AbstractTcpTransport extends NettyTransport {
         this.tlsClientAuthCertFile = getTlsFile(configuration, CK_TLS_CLIENT_AUTH_TRUSTED_CERT_FILE);
 
         this.tcpKeepalive = configuration.getBoolean(CK_TCP_KEEPALIVE);
+        this.ingestRateLimiter = ingestRateLimiter;
 
         this.connections = new AtomicInteger();
         this.totalConnections = new AtomicLong();
@@ -200,7 +217,7 @@ public abstract class AbstractTcpTransport extends NettyTransport {
         final LinkedHashMap<String, Callable<? extends ChannelHandler>> parentHandlers = getChannelHandlers(input);
         final LinkedHashMap<String, Callable<? extends ChannelHandler>> childHandlers = getChildChannelHandlers(input);
 
-        childEventLoopGroup = eventLoopGroupFactory.create(workerThreads, localRegistry, "workers");
+        childEventLoopGroup = eventLoopGroupFactory.createWorkerGroup(workerThreads, localRegistry, "workers");
 
         return new ServerBootstrap()
                 .group(parentEventLoopGroup, childEventLoopGroup)
@@ -248,7 +265,7 @@ public abstract class AbstractTcpTransport extends NettyTransport {
         childChannels.close().syncUninterruptibly();
 
         if (childEventLoopGroup != null) {
-            childEventLoopGroup.shutdownGracefully();
+            eventLoopGroupFactory.release(childEventLoopGroup);
         }
         bootstrap = null;
     }
@@ -270,6 +287,9 @@ public abstract class AbstractTcpTransport extends NettyTransport {
             LOG.debug("Adding codec aggregator {} to channel pipeline", aggregator);
             handlers.put("codec-aggregator", () -> new ByteBufMessageAggregationHandler(aggregator, localRegistry));
         }
+        if (ingestRateLimiter.isEnabled()) {
+            handlers.put("ingest-rate-limiter", () -> new IngestRateLimitHandler(ingestRateLimiter));
+        }
         handlers.put("rawmessage-handler", () -> new RawMessageHandler(input));
         handlers.put("exception-logger", () -> new ExceptionLoggingChannelHandler(input, LOG, this.tcpKeepalive));
 
@@ -18,6 +18,7 @@ package org.graylog2.plugin.inputs.transports;
 
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
+import org.graylog2.inputs.transports.IngestRateLimiter;
 import org.graylog2.plugin.ThrottleState;
 import org.graylog2.plugin.configuration.Configuration;
 import org.graylog2.plugin.configuration.ConfigurationRequest;
@@ -46,6 +47,7 @@ public abstract class ThrottleableTransport implements Transport {
     protected final boolean throttlingAllowed;
     private final AtomicBoolean currentlyThrottled = new AtomicBoolean(false);
     protected final EventBus eventBus;
+    private final IngestRateLimiter ingestRateLimiter;
     private volatile CountDownLatch blockLatch = null;
     private long lastUncommitted;
 
@@ -68,8 +70,13 @@ public abstract class ThrottleableTransport implements Transport {
     }
 
     public ThrottleableTransport(EventBus eventBus, Configuration configuration) {
+        this(eventBus, configuration, IngestRateLimiter.disabled());
+    }
+
+    public ThrottleableTransport(EventBus eventBus, Configuration configuration, IngestRateLimiter ingestRateLimiter) {
         this.eventBus = eventBus;
         this.throttlingAllowed = configuration.getBoolean(CK_THROTTLING_ALLOWED);
+        this.ingestRateLimiter = ingestRateLimiter;
     }
 
     @Override
@@ -214,6 +221,18 @@ public abstract class ThrottleableTransport implements Transport {
         return false;
     }
 
+    /**
+     * Draws credits for the given number of messages from the node-wide {@link IngestRateLimiter} and blocks while the
+     * node is out of credits. Does nothing unless throttling is allowed for this transport.
+     *
+     * @param messages the number of messages which are about to be read
+     */
+    public void acquireCredits(int messages) {
+        if (throttlingAllowed) {
+            ingestRateLimiter.acquire(messages);
+        }
+    }
+
     /**
      * Blocks until the blockLatch is released.
      */
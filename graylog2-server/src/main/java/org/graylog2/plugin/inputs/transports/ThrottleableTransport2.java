@@ -17,6 +17,7 @@
 package org.graylog2.plugin.inputs.transports;
 
 import com.google.common.eventbus.EventBus;
+import org.graylog2.inputs.transports.IngestRateLimiter;
 import org.graylog2.plugin.InputFailureRecorder;
 import org.graylog2.plugin.configuration.Configuration;
 import org.graylog2.plugin.inputs.MessageInput;
@@ -32,6 +33,10 @@ public abstract class ThrottleableTransport2 extends ThrottleableTransport {
         super(eventBus, configuration);
     }
 
+    public ThrottleableTransport2(EventBus eventBus, Configuration configuration, IngestRateLimiter ingestRateLimiter) {
+        super(eventBus, configuration, ingestRateLimiter);
+    }
+
     @Override
     public void launch(MessageInput input, InputFailureRecorder inputFailureRecorder) throws MisfireException {
         // Call this before registering on the event bus. There might be stuff in doLaunch() that needs to run first.
@@ -69,6 +69,7 @@ public class RawMessage implements Serializable {
     private Object messageQueueId;
     private int sequenceNr;
     private Configuration codecConfig;
+    private transient String codecConfigJson;
 
     public RawMessage(@Nonnull byte[] payload) {
         this(payload, (ResolvableInetSocketAddress) null);
@@ -126,7 +127,8 @@ public class RawMessage implements Serializable {
         sequenceNr = journalMessage.getSequenceNr();
         id = new UUID(journalMessage.getUuidTime(), journalMessage.getUuidClockseq());
         msgBuilder = JournalMessage.newBuilder(journalMessage);
-        codecConfig = Configuration.deserializeFromJson(journalMessage.getCodec().getConfig());
+        // The codec configuration is only deserialized on demand, decoders usually re-use a cached codec instance
+        codecConfigJson = journalMessage.getCodec().getConfig();
     }
 
     @Nullable
@@ -166,8 +168,8 @@ public class RawMessage implements Serializable {
             final JournalMessages.CodecInfo codec = msgBuilder.getCodec();
             final JournalMessages.CodecInfo.Builder builder = JournalMessages.CodecInfo.newBuilder(codec);
 
-            final String codecConfigJson = codecConfig.serializeToJson();
-            if (codecConfigJson != null) {
+            final String codecConfigJson = getCodecConfigJson();
+            if (!isNullOrEmpty(codecConfigJson)) {
                 builder.setConfig(codecConfigJson);
             }
             msgBuilder.setCodec(builder.build());
@@ -249,11 +251,29 @@ public class RawMessage implements Serializable {
     }
 
     public Configuration getCodecConfig() {
+        if (codecConfig == null && codecConfigJson != null) {
+            codecConfig = Configuration.deserializeFromJson(codecConfigJson);
+        }
         return codecConfig;
     }
 
     public void setCodecConfig(Configuration codecConfig) {
         this.codecConfig = codecConfig;
+        this.codecConfigJson = null;
+    }
+
+    /**
+     * Returns the serialized codec configuration. Messages which have been created with the same codec configuration
+     * return equal values, so it can be used to cache codec instances.
+     *
+     * @return the serialized codec configuration or {@code null} if the message doesn't have a codec configuration
+     */
+    @Nullable
+    public String getCodecConfigJson() {
+        if (codecConfigJson == null && codecConfig != null) {
+            codecConfigJson = codecConfig.serializeToJson();
+        }
+        return codecConfigJson;
     }
 
     public List<SourceNode> getSourceNodes() {
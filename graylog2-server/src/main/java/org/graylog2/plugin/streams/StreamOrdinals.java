@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.plugin.streams;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Process-wide registry of dense stream ordinals.
+ * <p>
+ * Every stream ID gets a small integer which is used as bit index in the stream membership bitmaps of
+ * {@link org.graylog2.plugin.Message messages}, the stream router and the pipeline interpreter. The router engine
+ * registers all streams of every new generation, so ordinals are usually assigned before the first message is
+ * routed.
+ * <p>
+ * Streams which are missing from the current router engine generation, e.g. because they have been deleted or paused,
+ * give up their ordinals once the next generation is {@link #retain(Collection) retained}. The ordinals are re-used
+ * for new streams after that, so the registry and the membership bitmaps are bounded by the streams of the last two
+ * generations plus the streams which have been assigned outside of the router since then. Every release increments
+ * the {@link #epoch() epoch}, holders of ordinals have to look them up again if the epoch changed in the meantime.
+ */
+public final class StreamOrdinals {
+    public static final int NO_ORDINAL = -1;
+
+    private static final Map<String, Integer> ORDINALS = new ConcurrentHashMap<>();
+    private static volatile String[] streamIds = new String[64];
+    private static volatile int epoch = 0;
+    private static int size = 0;
+    private static final BitSet FREE = new BitSet();
+    // stream ID -> ordinal of the streams which were missing from the last retained generation
+    private static Map<String, Integer> retired = Map.of();
+
+    private StreamOrdinals() {
+    }
+
+    /**
+     * Registers the given streams, e.g. the streams of a new router engine generation.
+     */
+    public static void register(Collection<Stream> streams) {
+        for (Stream stream : streams) {
+            ordinal(stream);
+        }
+    }
+
+    /**
+     * Retains the ordinals of the given streams, which are the streams of the current router engine generation.
+     * <p>
+     * Ordinals of streams which have been missing from the previously retained generation and are still missing are
+     * released. The delay of one generation keeps the ordinals stable while messages routed by the previous
+     * generation are processed.
+     */
+    public static synchronized void retain(Collection<Stream> streams) {
+        final Set<String> streamIdsToRetain = streams.stream()
+                .map(Stream::getId)
+                .collect(Collectors.toSet());
+
+        final String[] ids = streamIds;
+        boolean released = false;
+        for (Map.Entry<String, Integer> entry : retired.entrySet()) {
+            final String streamId = entry.getKey();
+            final int ordinal = entry.getValue();
+            if (!streamIdsToRetain.contains(streamId) && ORDINALS.remove(streamId, ordinal)) {
+                ids[ordinal] = null;
+                FREE.set(ordinal);
+                released = true;
+            }
+        }
+        if (released) {
+            // Publish the released slots and make holders of ordinals look them up again before they are re-used
+            streamIds = ids;
+            epoch++;
+        }
+
+        final Map<String, Integer> missing = new HashMap<>();
+        ORDINALS.forEach((streamId, ordinal) -> {
+            if (!streamIdsToRetain.contains(streamId)) {
+                missing.put(streamId, ordinal);
+            }
+        });
+        retired = missing;
+    }
+
+    /**
+     * Returns the current epoch, which changes whenever ordinals have been released and might be re-used for other
+     * streams.
+     */
+    public static int epoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns the ordinal of the given stream or {@link #NO_ORDINAL} if the stream doesn't have an ID yet.
+     */
+    public static int ordinal(Stream stream) {
+        final String streamId = stream.getId();
+        return streamId == null ? NO_ORDINAL : ordinal(streamId);
+    }
+
+    /**
+     * Returns the ordinal of the given stream ID, assigning a new one if the ID hasn't been seen before.
+     */
+    public static int ordinal(String streamId) {
+        final Integer ordinal = ORDINALS.get(streamId);
+        return ordinal != null ? ordinal : assign(streamId);
+    }
+
+    /**
+     * Returns the stream ID of the given ordinal or {@code null} if the ordinal isn't assigned.
+     */
+    @Nullable
+    public static String streamId(int ordinal) {
+        final String[] ids = streamIds;
+        return ordinal >= 0 && ordinal < ids.length ? ids[ordinal] : null;
+    }
+
+    private static synchronized int assign(String streamId) {
+        final Integer existing = ORDINALS.get(streamId);
+        if (existing != null) {
+            return existing;
+        }
+        final int free = FREE.nextSetBit(0);
+        final int ordinal;
+        if (free >= 0) {
+            FREE.clear(free);
+            ordinal = free;
+        } else {
+            ordinal = size++;
+        }
+        String[] ids = streamIds;
+        if (ordinal >= ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[ordinal] = streamId;
+        // Publish the ID before the ordinal, so that streamId() always resolves handed out ordinals
+        streamIds = ids;
+        ORDINALS.put(streamId, ordinal);
+        return ordinal;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.plugin.streams;
+
+import com.google.common.collect.ImmutableSet;
+import org.graylog2.indexer.IndexSet;
+
+import java.util.Collection;
+
+/**
+ * The routing target of a message: an immutable set of streams together with the index sets of these streams.
+ * <p>
+ * Routing keys are interned (see {@code org.graylog2.streams.StreamRoutingKeyInterner}), so all messages which have
+ * been routed into the same streams share the same instance. Consumers can use the instance as an identity key to
+ * cache routing decisions, e.g. the stream outputs of a message.
+ */
+public final class StreamRoutingKey {
+    private final ImmutableSet<Stream> streams;
+    private final ImmutableSet<IndexSet> indexSets;
+
+    private StreamRoutingKey(ImmutableSet<Stream> streams, ImmutableSet<IndexSet> indexSets) {
+        this.streams = streams;
+        this.indexSets = indexSets;
+    }
+
+    public static StreamRoutingKey of(Collection<Stream> streams) {
+        final ImmutableSet<Stream> streamSet = ImmutableSet.copyOf(streams);
+        final ImmutableSet.Builder<IndexSet> indexSets = ImmutableSet.builderWithExpectedSize(streamSet.size());
+        for (Stream stream : streamSet) {
+            final IndexSet indexSet = stream.getIndexSet();
+            if (indexSet != null) {
+                indexSets.add(indexSet);
+            }
+        }
+        return new StreamRoutingKey(streamSet, indexSets.build());
+    }
+
+    public ImmutableSet<Stream> streams() {
+        return streams;
+    }
+
+    public ImmutableSet<IndexSet> indexSets() {
+        return indexSets;
+    }
+
+    @Override
+    public String toString() {
+        return "StreamRoutingKey{streams=" + streams.stream().map(Stream::getId).toList() + "}";
+    }
+}
@@ -19,6 +19,7 @@ package org.graylog2.rest;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.net.HttpHeaders;
 import com.google.common.net.MediaType;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import org.glassfish.jersey.client.filter.CsrfProtectionFilter;
@@ -29,27 +30,37 @@ import retrofit2.converter.jackson.JacksonConverterFactory;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
+import jakarta.inject.Singleton;
 
 import java.time.Duration;
 
+@Singleton
 public class RemoteInterfaceProvider {
     private final ObjectMapper objectMapper;
     private final OkHttpClient okHttpClient;
     private final Duration defaultProxyTimeout;
+    private final Dispatcher dispatcher;
 
     @Inject
     public RemoteInterfaceProvider(ObjectMapper objectMapper,
                                    OkHttpClient okHttpClient,
                                    @Named("proxied_requests_default_call_timeout")
-                                   com.github.joschi.jadconfig.util.Duration defaultProxyTimeout
+                                   com.github.joschi.jadconfig.util.Duration defaultProxyTimeout,
+                                   @Named("proxied_requests_thread_pool_size") int proxiedRequestsMaxThreads
     ) {
         this.objectMapper = objectMapper;
         this.okHttpClient = okHttpClient;
         this.defaultProxyTimeout = Duration.ofMillis(defaultProxyTimeout.toMilliseconds());
+        // Asynchronous calls get their deadline when they are enqueued. OkHttp's default limit of 5 concurrent calls
+        // per host would keep calls waiting in the dispatcher queue until they time out without being sent.
+        this.dispatcher = new Dispatcher();
+        this.dispatcher.setMaxRequests(proxiedRequestsMaxThreads);
+        this.dispatcher.setMaxRequestsPerHost(proxiedRequestsMaxThreads);
     }
 
     public <T> T get(Node node, final String authorizationToken, Class<T> interfaceClass, Duration timeout) {
         final OkHttpClient okHttpClient = this.okHttpClient.newBuilder()
+                .dispatcher(dispatcher)
                 .writeTimeout(timeout)
                 .readTimeout(timeout)
                 .callTimeout(timeout)
@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.rest.models.system.indexer.responses;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.annotation.Nullable;
+
+/**
+ * The state of the adaptive bulk request controller of a node. Limits are {@code null} if they are not restricted.
+ */
+public record BulkIndexingState(@JsonProperty("adaptive") boolean adaptive,
+                                @JsonProperty("chunk_size_limit") @Nullable Integer chunkSizeLimit,
+                                @JsonProperty("concurrency_limit") @Nullable Integer concurrencyLimit,
+                                @JsonProperty("in_flight") int inFlight,
+                                @JsonProperty("target_latency_ms") long targetLatencyMs) {
+}
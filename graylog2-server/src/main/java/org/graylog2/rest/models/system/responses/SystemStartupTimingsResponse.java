@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.rest.models.system.responses;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.auto.value.AutoValue;
+import org.graylog.autovalue.WithBeanGetter;
+
+import java.util.Map;
+
+@AutoValue
+@WithBeanGetter
+@JsonAutoDetect
+public abstract class SystemStartupTimingsResponse {
+    @JsonProperty("total_ms")
+    public abstract long totalMs();
+
+    @JsonProperty("phases")
+    public abstract Map<String, Long> phases();
+
+    @JsonProperty("slowest_migrations")
+    public abstract Map<String, Long> slowestMigrations();
+
+    @JsonCreator
+    public static SystemStartupTimingsResponse create(@JsonProperty("total_ms") long totalMs,
+                                                      @JsonProperty("phases") Map<String, Long> phases,
+                                                      @JsonProperty("slowest_migrations") Map<String, Long> slowestMigrations) {
+        return new AutoValue_SystemStartupTimingsResponse(totalMs, phases, slowestMigrations);
+    }
+}
@@ -89,6 +89,7 @@ import org.graylog2.rest.resources.system.indexer.IndexSetTemplateResource;
 import org.graylog2.rest.resources.system.indexer.IndexSetsMappingResource;
 import org.graylog2.rest.resources.system.indexer.IndexSetsResource;
 import org.graylog2.rest.resources.system.indexer.IndexTemplatesResource;
+import org.graylog2.rest.resources.system.indexer.IndexerBulkResource;
 import org.graylog2.rest.resources.system.indexer.IndexerClusterResource;
 import org.graylog2.rest.resources.system.indexer.IndexerOverviewResource;
 import org.graylog2.rest.resources.system.indexer.IndicesResource;
@@ -210,6 +211,7 @@ public class RestResourcesModule extends Graylog2Module {
     private void addIndexingResources() {
         addSystemRestResource(DeflectorResource.class);
         addSystemRestResource(FailuresResource.class);
+        addSystemRestResource(IndexerBulkResource.class);
         addSystemRestResource(IndexerClusterResource.class);
         addSystemRestResource(IndexerOverviewResource.class);
         addSystemRestResource(IndexFieldTypeProfileResource.class);
@@ -26,6 +26,7 @@ import org.apache.shiro.authc.AuthenticationToken;
 import org.apache.shiro.authz.AuthorizationInfo;
 import org.apache.shiro.authz.Permission;
 import org.apache.shiro.authz.SimpleAuthorizationInfo;
+import org.apache.shiro.authz.permission.RolePermissionResolver;
 import org.apache.shiro.authz.permission.WildcardPermissionResolver;
 import org.apache.shiro.realm.AuthorizingRealm;
 import org.apache.shiro.subject.PrincipalCollection;
@@ -33,6 +34,7 @@ import org.graylog.grn.GRN;
 import org.graylog.grn.GRNRegistry;
 import org.graylog.grn.GRNTypes;
 import org.graylog.security.PermissionAndRoleResolver;
+import org.graylog.security.permissions.PermissionIndex;
 import org.graylog2.plugin.database.users.User;
 import org.graylog2.security.MongoDbAuthorizationCacheManager;
 import org.graylog2.shared.security.ShiroRequestHeadersBinder;
@@ -45,6 +47,7 @@ import jakarta.inject.Inject;
 
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.graylog2.shared.rest.RequestIdFilter.X_REQUEST_ID;
@@ -116,7 +119,7 @@ public class MongoDbAuthorizationRealm extends AuthorizingRealm {
             }
         }
 
-        final SimpleAuthorizationInfo info = new SimpleAuthorizationInfo();
+        final IndexedAuthorizationInfo info = new IndexedAuthorizationInfo();
         info.setObjectPermissions(permissionsBuilder.build());
         info.setRoles(rolesBuilder.build());
 
@@ -128,6 +131,26 @@ public class MongoDbAuthorizationRealm extends AuthorizingRealm {
         return info;
     }
 
+    @Override
+    protected boolean isPermitted(Permission permission, AuthorizationInfo info) {
+        if (info instanceof IndexedAuthorizationInfo indexedInfo) {
+            return indexedInfo.getPermissionIndex(this::resolveRolePermissions).implies(permission);
+        }
+        return super.isPermitted(permission, info);
+    }
+
+    private Set<Permission> resolveRolePermissions(Set<String> roles) {
+        final RolePermissionResolver resolver = getRolePermissionResolver();
+        if (resolver == null || roles == null) {
+            return Set.of();
+        }
+        final ImmutableSet.Builder<Permission> permissions = ImmutableSet.builder();
+        for (String role : roles) {
+            permissions.addAll(resolver.resolvePermissionsInRole(role));
+        }
+        return permissions.build();
+    }
+
     private Optional<GRN> getUserPrincipal(PrincipalCollection principals) {
         final String userId = Iterables.getFirst(principals.byType(String.class), null);
         if (isBlank(userId)) {
@@ -160,4 +183,26 @@ public class MongoDbAuthorizationRealm extends AuthorizingRealm {
     public void handleUserSave(UserChangedEvent event) {
         getAuthorizationCache().clear();
     }
+
+    /**
+     * Authorization info which compiles its permissions, including the ones resolved from roles, into a
+     * {@link PermissionIndex} on the first permission check. The info is cached by the realm for the lifetime of a
+     * request, so all permission checks of a request share the index.
+     */
+    private static class IndexedAuthorizationInfo extends SimpleAuthorizationInfo {
+        private volatile PermissionIndex permissionIndex;
+
+        PermissionIndex getPermissionIndex(Function<Set<String>, Set<Permission>> rolePermissionResolver) {
+            PermissionIndex index = permissionIndex;
+            if (index == null) {
+                final ImmutableSet.Builder<Permission> permissions = ImmutableSet.builder();
+                if (getObjectPermissions() != null) {
+                    permissions.addAll(getObjectPermissions());
+                }
+                permissions.addAll(rolePermissionResolver.apply(getRoles()));
+                permissionIndex = index = PermissionIndex.of(permissions.build());
+            }
+            return index;
+        }
+    }
 }
@@ -40,6 +40,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import java.util.List;
 import java.util.concurrent.ThreadFactory;
 
 import static com.codahale.metrics.MetricRegistry.name;
@@ -116,6 +117,25 @@ public class ProcessBuffer extends Buffer {
         afterInsert(1);
     }
 
+    /**
+     * Inserts all messages, claiming ring buffer slots for as many messages at once as the ring buffer can hold.
+     * Blocks until all messages have been inserted.
+     */
+    public void insertBlocking(@Nonnull List<RawMessage> rawMessages) {
+        int offset = 0;
+        while (offset < rawMessages.size()) {
+            final int length = Math.min(rawMessages.size() - offset, ringBufferSize);
+            final long hi = ringBuffer.next(length);
+            final long lo = hi - (length - 1);
+            for (long sequence = lo; sequence <= hi; sequence++) {
+                ringBuffer.get(sequence).setRaw(rawMessages.get(offset + (int) (sequence - lo)));
+            }
+            ringBuffer.publish(lo, hi);
+            afterInsert(length);
+            offset += length;
+        }
+    }
+
     @Override
     protected void afterInsert(int n) {
         incomingMessages.mark(n);
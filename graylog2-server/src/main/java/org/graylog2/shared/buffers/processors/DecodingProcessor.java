@@ -17,11 +17,16 @@
 package org.graylog2.shared.buffers.processors;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
 import com.google.common.net.InetAddresses;
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
@@ -31,9 +36,12 @@ import org.graylog2.plugin.Message;
 import org.graylog2.plugin.ResolvableInetSocketAddress;
 import org.graylog2.plugin.ServerStatus;
 import org.graylog2.plugin.buffers.MessageEvent;
+import org.graylog2.plugin.configuration.Configuration;
 import org.graylog2.plugin.inputs.codecs.Codec;
 import org.graylog2.plugin.inputs.codecs.MultiMessageCodec;
 import org.graylog2.plugin.journal.RawMessage;
+import org.graylog2.rest.models.system.inputs.responses.InputDeleted;
+import org.graylog2.rest.models.system.inputs.responses.InputUpdated;
 import org.graylog2.shared.journal.Journal;
 import org.graylog2.shared.messageq.MessageQueueAcknowledger;
 import org.graylog2.shared.utilities.ExceptionUtils;
@@ -52,6 +60,7 @@ import static com.codahale.metrics.MetricRegistry.name;
 
 public class DecodingProcessor implements EventHandler<MessageEvent> {
     private static final Logger LOG = LoggerFactory.getLogger(DecodingProcessor.class);
+    private static final long MAX_CACHED_CODECS = 1000;
 
     private final Timer decodeTime;
     private final Counter decodedTrafficCounter;
@@ -66,6 +75,11 @@ public class DecodingProcessor implements EventHandler<MessageEvent> {
     private final Journal journal;
     private final MessageQueueAcknowledger acknowledger;
     private final Timer parseTime;
+    // Every processor runs on its own thread, so the cached codec instances are never used concurrently.
+    private final Cache<CodecKey, InputCodec> codecs = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_CODECS)
+            .expireAfterAccess(1, TimeUnit.HOURS)
+            .build();
 
     @AssistedInject
     public DecodingProcessor(Map<String, Codec.Factory<? extends Codec>> codecFactory,
@@ -73,6 +87,7 @@ public class DecodingProcessor implements EventHandler<MessageEvent> {
                              final MetricRegistry metricRegistry,
                              final Journal journal,
                              MessageQueueAcknowledger acknowledger,
+                             EventBus serverEventBus,
                              @Assisted("decodeTime") Timer decodeTime,
                              @Assisted("parseTime") Timer parseTime) {
         this.codecFactory = codecFactory;
@@ -85,6 +100,24 @@ public class DecodingProcessor implements EventHandler<MessageEvent> {
         this.parseTime = parseTime;
         this.decodeTime = decodeTime;
         decodedTrafficCounter = metricRegistry.counter(GlobalMetricNames.DECODED_TRAFFIC);
+
+        serverEventBus.register(this);
+    }
+
+    @Subscribe
+    @SuppressWarnings("unused")
+    public void handleInputUpdate(InputUpdated event) {
+        invalidateCodecs(event.id());
+    }
+
+    @Subscribe
+    @SuppressWarnings("unused")
+    public void handleInputDelete(InputDeleted event) {
+        invalidateCodecs(event.id());
+    }
+
+    private void invalidateCodecs(String inputId) {
+        codecs.asMap().keySet().removeIf(key -> inputId.equals(key.inputId()));
     }
 
     @Override
@@ -132,15 +165,13 @@ public class DecodingProcessor implements EventHandler<MessageEvent> {
             inputIdOnCurrentNode = null;
         }
 
-        final Codec.Factory<? extends Codec> factory = codecFactory.get(raw.getCodecName());
-        if (factory == null) {
+        final InputCodec inputCodec = getCodec(raw, inputIdOnCurrentNode);
+        if (inputCodec == null) {
             LOG.warn("Couldn't find factory for codec <{}>, skipping message {} on input <{}>.",
                     raw.getCodecName(), raw, inputIdOnCurrentNode);
             return;
         }
-
-        final Codec codec = factory.create(raw.getCodecConfig());
-        final String baseMetricName = name(codec.getClass(), inputIdOnCurrentNode);
+        final Codec codec = inputCodec.codec();
 
         Message message = null;
         Collection<Message> messages = null;
@@ -157,19 +188,19 @@ public class DecodingProcessor implements EventHandler<MessageEvent> {
             }
         } catch (RuntimeException e) {
             LOG.error("Unable to decode raw message {} on input <{}>.", raw, inputIdOnCurrentNode);
-            metricRegistry.meter(name(baseMetricName, "failures")).mark();
+            inputCodec.failures().mark();
             throw e;
         } finally {
             decodeTime = decodeTimeCtx.stop();
         }
 
         if (message != null) {
-            event.setMessage(postProcessMessage(raw, codec, inputIdOnCurrentNode, baseMetricName, message, decodeTime));
+            event.setMessage(postProcessMessage(raw, inputCodec, inputIdOnCurrentNode, message, decodeTime));
         } else if (messages != null && !messages.isEmpty()) {
             final List<Message> processedMessages = Lists.newArrayListWithCapacity(messages.size());
 
             for (final Message msg : messages) {
-                final Message processedMessage = postProcessMessage(raw, codec, inputIdOnCurrentNode, baseMetricName, msg, decodeTime);
+                final Message processedMessage = postProcessMessage(raw, inputCodec, inputIdOnCurrentNode, msg, decodeTime);
 
                 if (processedMessage != null) {
                     processedMessages.add(processedMessage);
@@ -181,13 +212,38 @@ public class DecodingProcessor implements EventHandler<MessageEvent> {
     }
 
     @Nullable
-    private Message postProcessMessage(RawMessage raw, Codec codec, String inputIdOnCurrentNode, String baseMetricName, Message message, long decodeTime) {
+    private InputCodec getCodec(RawMessage raw, @Nullable String inputId) throws ExecutionException {
+        final Codec.Factory<? extends Codec> factory = codecFactory.get(raw.getCodecName());
+        if (factory == null) {
+            return null;
+        }
+        final CodecKey key = new CodecKey(inputId, raw.getCodecName(), raw.getCodecConfigJson());
+        return codecs.get(key, () -> createCodec(factory, raw, inputId));
+    }
+
+    private InputCodec createCodec(Codec.Factory<? extends Codec> factory, RawMessage raw, @Nullable String inputId) {
+        final Codec codec = factory.create(raw.getCodecConfig());
+        final String baseMetricName = name(codec.getClass(), inputId);
+        final Configuration configuration = codec.getConfiguration();
+        final String overrideSource = configuration != null && configuration.stringIsSet(Codec.Config.CK_OVERRIDE_SOURCE)
+                ? configuration.getString(Codec.Config.CK_OVERRIDE_SOURCE) : null;
+
+        return new InputCodec(codec,
+                overrideSource,
+                metricRegistry.meter(name(baseMetricName, "failures")),
+                metricRegistry.meter(name(baseMetricName, "incomplete")),
+                metricRegistry.meter(name(baseMetricName, "processedMessages")),
+                metricRegistry.timer(name(baseMetricName, "parseTime")));
+    }
+
+    @Nullable
+    private Message postProcessMessage(RawMessage raw, InputCodec inputCodec, String inputIdOnCurrentNode, Message message, long decodeTime) {
         if (message == null) {
-            metricRegistry.meter(name(baseMetricName, "failures")).mark();
+            inputCodec.failures().mark();
             return null;
         }
         if (!message.isComplete()) {
-            metricRegistry.meter(name(baseMetricName, "incomplete")).mark();
+            inputCodec.incomplete().mark();
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Dropping incomplete message {} on input <{}>. Parsed fields: [{}]",
                         raw, inputIdOnCurrentNode, message.getFields());
@@ -201,7 +257,7 @@ public class DecodingProcessor implements EventHandler<MessageEvent> {
             message.setSequenceNr(raw.getSequenceNr());
         }
         message.recordTiming(serverStatus, "parse", decodeTime);
-        metricRegistry.timer(name(baseMetricName, "parseTime")).update(decodeTime, TimeUnit.NANOSECONDS);
+        inputCodec.parseTime().update(decodeTime, TimeUnit.NANOSECONDS);
 
         for (final RawMessage.SourceNode node : raw.getSourceNodes()) {
             switch (node.type) {
@@ -250,8 +306,8 @@ public class DecodingProcessor implements EventHandler<MessageEvent> {
             }
         }
 
-        if (codec.getConfiguration() != null && codec.getConfiguration().stringIsSet(Codec.Config.CK_OVERRIDE_SOURCE)) {
-            message.setSource(codec.getConfiguration().getString(Codec.Config.CK_OVERRIDE_SOURCE));
+        if (inputCodec.overrideSource() != null) {
+            message.setSource(inputCodec.overrideSource());
         }
 
         // Make sure that there is a value for the source field.
@@ -266,8 +322,20 @@ public class DecodingProcessor implements EventHandler<MessageEvent> {
             message.setReceiveTime(raw.getTimestamp());
         }
 
-        metricRegistry.meter(name(baseMetricName, "processedMessages")).mark();
+        inputCodec.processedMessages().mark();
         decodedTrafficCounter.inc(message.getSize());
         return message;
     }
+
+    private record CodecKey(@Nullable String inputId, String codecName, @Nullable String codecConfig) {}
+
+    /**
+     * A codec instance together with the pre-resolved metrics of its input.
+     */
+    private record InputCodec(Codec codec,
+                              @Nullable String overrideSource,
+                              Meter failures,
+                              Meter incomplete,
+                              Meter processedMessages,
+                              Timer parseTime) {}
 }
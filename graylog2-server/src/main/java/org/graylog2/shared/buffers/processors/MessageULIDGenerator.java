@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
+import java.nio.ByteBuffer;
 import java.security.SecureRandom;
 
 // Fill the first 32 bits of the ULIDs random section with
@@ -62,21 +63,22 @@ import java.security.SecureRandom;
 public class MessageULIDGenerator {
     private static final Logger LOG = LoggerFactory.getLogger(MessageULIDGenerator.class);
     private final ULID ulid;
-    private final SecureRandom random;
+    // A shared SecureRandom is synchronized, so every processing thread gets its own and draws random bits in bulk
+    private final ThreadLocal<RandomBuffer> random = ThreadLocal.withInitial(RandomBuffer::new);
 
     @Inject
     public MessageULIDGenerator(ULID ulid) {
         this.ulid = ulid;
-        random = new SecureRandom();
     }
 
     public String createULID(Message message) {
-        checkTimestamp(message.getTimestamp().getMillis());
+        final long timestamp = message.getTimestamp().getMillis();
+        checkTimestamp(timestamp);
         try {
-            return createULID(message.getTimestamp().getMillis(), message.getSequenceNr());
+            return createULID(timestamp, message.getSequenceNr());
         } catch (Exception e) {
             LOG.error("Exception while creating ULID.", e);
-            return ulid.nextULID(message.getTimestamp().getMillis());
+            return ulid.nextULID(timestamp);
         }
     }
 
@@ -87,7 +89,7 @@ public class MessageULIDGenerator {
 
         final long msbWithoutRandom = timestamp << 16;
         final long lsbWithoutRandom = lsbSeq << 48;
-        final long nextRandom = random.nextLong();
+        final long nextRandom = random.get().nextLong();
 
         final ULID.Value sequencedULID = new ULID.Value(msbWithoutRandom | msbSeq, lsbWithoutRandom | (nextRandom >>> 16));
         return sequencedULID.toString();
@@ -100,4 +102,24 @@ public class MessageULIDGenerator {
             throw new IllegalArgumentException("ULID does not support timestamps after +10889-08-02T05:31:50.655Z!");
         }
     }
+
+    private static final class RandomBuffer {
+        private static final int SIZE = 64;
+
+        private final SecureRandom secureRandom = new SecureRandom();
+        private final byte[] bytes = new byte[SIZE * Long.BYTES];
+        private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        private RandomBuffer() {
+            buffer.position(buffer.limit());
+        }
+
+        private long nextLong() {
+            if (!buffer.hasRemaining()) {
+                secureRandom.nextBytes(bytes);
+                buffer.clear();
+            }
+            return buffer.getLong();
+        }
+    }
 }
@@ -27,7 +27,6 @@ import org.graylog2.buffers.OutputBuffer;
 import org.graylog2.messageprocessors.OrderedMessageProcessors;
 import org.graylog2.plugin.Message;
 import org.graylog2.plugin.Messages;
-import org.graylog2.plugin.Tools;
 import org.graylog2.plugin.buffers.MessageEvent;
 import org.graylog2.plugin.messageprocessors.MessageProcessor;
 import org.graylog2.plugin.streams.DefaultStream;
@@ -35,6 +34,7 @@ import org.graylog2.plugin.streams.Stream;
 import org.graylog2.shared.buffers.WorkHandler;
 import org.graylog2.streams.StreamMetrics;
 import org.graylog2.system.processing.ProcessingStatusRecorder;
+import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -66,6 +66,7 @@ public class ProcessBufferProcessor implements WorkHandler<MessageEvent> {
     private final DecodingProcessor decodingProcessor;
     private final Provider<Stream> defaultStreamProvider;
     private final FailureSubmissionService failureSubmissionService;
+    private final ProcessingClock processingClock = new ProcessingClock();
     private volatile Message currentMessage;
 
     @AssistedInject
@@ -167,6 +168,11 @@ public class ProcessBufferProcessor implements WorkHandler<MessageEvent> {
             messages = messageProcessor.process(messages);
         }
 
+        // The processing time should only be set once all message processors have finished. It's the same for all
+        // messages of the batch, so the clock is only read once.
+        processingClock.tick();
+        DateTime latestReceiveTime = null;
+
         for (Message message : messages) {
 
             message.getStreams().forEach(s -> streamMetrics.markIncomingMeter(s.getId()));
@@ -179,14 +185,19 @@ public class ProcessBufferProcessor implements WorkHandler<MessageEvent> {
                 message.addField(Message.FIELD_GL2_MESSAGE_ID, messageULIDGenerator.createULID(message));
             }
 
-            // The processing time should only be set once all message processors have finished
-            message.setProcessingTime(Tools.nowUTC());
-            processingStatusRecorder.updatePostProcessingReceiveTime(message.getReceiveTime());
+            message.setProcessingTime(processingClock.dateTime(), processingClock.formatted());
+            final DateTime receiveTime = message.getReceiveTime();
+            if (receiveTime != null && (latestReceiveTime == null || receiveTime.isAfter(latestReceiveTime))) {
+                latestReceiveTime = receiveTime;
+            }
 
             if (failureSubmissionService.submitProcessingErrors(message)) {
                 outputBuffer.insertBlocking(message);
             }
         }
+
+        // Update the shared processing status once per batch instead of once per message
+        processingStatusRecorder.updatePostProcessingReceiveTime(latestReceiveTime);
     }
 
     public interface Factory {
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.shared.buffers.processors;
+
+import org.graylog2.plugin.Tools;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeUtils;
+import org.joda.time.DateTimeZone;
+
+/**
+ * Provides the processing time for the messages of a single process buffer processor.
+ * <p>
+ * Reading the clock is cheap, but creating a {@link DateTime} and formatting it for the
+ * {@link org.graylog2.plugin.Message#FIELD_GL2_PROCESSING_TIMESTAMP processing timestamp field} for every message is
+ * not. At high message rates many messages are processed within the same millisecond, so the time is only converted
+ * once per millisecond. Instances are not thread-safe.
+ */
+class ProcessingClock {
+    private long currentMillis = Long.MIN_VALUE;
+    private DateTime current;
+    private String currentFormatted;
+
+    /**
+     * Reads the clock. The result is available via {@link #dateTime()} and {@link #formatted()}.
+     */
+    void tick() {
+        final long now = DateTimeUtils.currentTimeMillis();
+        if (now != currentMillis) {
+            currentMillis = now;
+            current = new DateTime(now, DateTimeZone.UTC);
+            currentFormatted = Tools.buildElasticSearchTimeFormat(current);
+        }
+    }
+
+    DateTime dateTime() {
+        return current;
+    }
+
+    String formatted() {
+        return currentFormatted;
+    }
+}
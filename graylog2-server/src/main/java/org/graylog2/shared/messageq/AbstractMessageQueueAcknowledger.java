@@ -51,6 +51,15 @@ public abstract class AbstractMessageQueueAcknowledger<T> implements MessageQueu
         messages.forEach(message -> acknowledge(message.getMessageQueueId()));
     }
 
+    @Override
+    public void acknowledge(Object queueId, int messageCount) {
+        if (isValidMessageQueueId(queueId)) {
+            //noinspection unchecked
+            doAcknowledge((T) queueId);
+        }
+        metrics.acknowledgedMessages().mark(messageCount);
+    }
+
     protected abstract void doAcknowledge(T queueId);
 
     protected boolean isValidMessageQueueId(Object object) {
@@ -34,6 +34,14 @@ public interface MessageQueueAcknowledger {
 
     void acknowledge(List<? extends Acknowledgeable> messages);
 
+    /**
+     * Acknowledges all messages up to and including the given message queue ID.
+     *
+     * @param messageQueueId the message queue ID to acknowledge, or {@code null} to only count the messages
+     * @param messageCount   the number of messages which have been processed
+     */
+    void acknowledge(@Nullable Object messageQueueId, int messageCount);
+
     @AutoValue
     abstract class Metrics {
         public static class Provider implements jakarta.inject.Provider<MessageQueueAcknowledger.Metrics> {
@@ -17,10 +17,12 @@
 package org.graylog2.shared.messageq.localkafka;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.common.util.concurrent.Uninterruptibles;
 import org.graylog2.plugin.journal.RawMessage;
 import org.graylog2.shared.buffers.ProcessBuffer;
@@ -28,6 +30,7 @@ import org.graylog2.shared.journal.Journal;
 import org.graylog2.shared.messageq.AbstractMessageQueueReader;
 import org.graylog2.shared.messageq.MessageQueueReader;
 import org.graylog2.shared.metrics.HdrHistogram;
+import org.graylog2.shared.metrics.MetricUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,12 +38,26 @@ import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Semaphore;
 
 import static com.codahale.metrics.MetricRegistry.name;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
+/**
+ * Reads messages from the local Kafka journal and inserts them into the {@link ProcessBuffer}.
+ * <p>
+ * By default the reader requests as many messages from the journal as the process buffer has free slots. When
+ * {@code message_journal_read_ahead_batches} is set, a separate read-ahead thread reads and decodes fixed size batches
+ * of {@code message_journal_read_ahead_batch_size} messages into a bounded staging queue, while the reader thread
+ * inserts complete batches into the process buffer. This keeps the journal reads sequential and large while draining
+ * a backlog, instead of reading as many messages as there happen to be free process buffer slots.
+ * <p>
+ * Staged messages are not committed in the journal yet, so they are read again after a restart.
+ */
 @Singleton
 public class LocalKafkaMessageQueueReader extends AbstractMessageQueueReader {
     private static final Logger log = LoggerFactory.getLogger(LocalKafkaMessageQueueReader.class);
@@ -50,9 +67,12 @@ public class LocalKafkaMessageQueueReader extends AbstractMessageQueueReader {
     private final MetricRegistry metricRegistry;
     private final Meter readMessages;
     private final Metrics readerMetrics;
+    private final int readAheadBatchSize;
+    private final BlockingQueue<List<RawMessage>> stagedBatches;
     private Histogram requestedReadCount;
     private final Counter readBlocked;
     private Thread executionThread;
+    private volatile Thread readAheadThread;
 
     @Inject
     public LocalKafkaMessageQueueReader(Journal journal,
@@ -60,7 +80,9 @@ public class LocalKafkaMessageQueueReader extends AbstractMessageQueueReader {
                                         @Named("JournalSignal") Semaphore journalFilled,
                                         MetricRegistry metricRegistry,
                                         EventBus eventBus,
-                                        MessageQueueReader.Metrics readerMetrics) {
+                                        MessageQueueReader.Metrics readerMetrics,
+                                        @Named("message_journal_read_ahead_batches") int readAheadBatches,
+                                        @Named("message_journal_read_ahead_batch_size") int readAheadBatchSize) {
 
         super(eventBus);
 
@@ -71,6 +93,11 @@ public class LocalKafkaMessageQueueReader extends AbstractMessageQueueReader {
         readBlocked = metricRegistry.counter(name(this.getClass(), "readBlocked"));
         readMessages = metricRegistry.meter(name(this.getClass(), "readMessages"));
         this.readerMetrics = readerMetrics;
+        this.readAheadBatchSize = readAheadBatchSize;
+        this.stagedBatches = readAheadBatches > 0 ? new ArrayBlockingQueue<>(readAheadBatches) : null;
+        if (stagedBatches != null) {
+            MetricUtils.safelyRegister(metricRegistry, name(this.getClass(), "stagedBatches"), (Gauge<Integer>) stagedBatches::size);
+        }
     }
 
     @Override
@@ -87,6 +114,9 @@ public class LocalKafkaMessageQueueReader extends AbstractMessageQueueReader {
     @Override
     protected void triggerShutdown() {
         executionThread.interrupt();
+        if (readAheadThread != null) {
+            readAheadThread.interrupt();
+        }
     }
 
     @Override
@@ -98,6 +128,15 @@ public class LocalKafkaMessageQueueReader extends AbstractMessageQueueReader {
             throw e;
         }
 
+        if (stagedBatches != null) {
+            runWithReadAhead();
+        } else {
+            runDirect();
+        }
+        log.info("Stopping.");
+    }
+
+    private void runDirect() {
         while (isRunning()) {
             // TODO interfere with reading if we are not 100% certain we should be reading, see #listenForLifecycleChanges
             if (!shouldBeReading()) {
@@ -110,38 +149,101 @@ public class LocalKafkaMessageQueueReader extends AbstractMessageQueueReader {
             requestedReadCount.update(remainingCapacity);
             final List<Journal.JournalReadEntry> encodedRawMessages = journal.read(remainingCapacity);
             if (encodedRawMessages.isEmpty()) {
-                log.debug("No messages to read from Journal, waiting until the writer adds more messages.");
-                // block until something is written to the journal again
-                try {
-                    readBlocked.inc();
-                    journalFilled.acquire();
-                } catch (InterruptedException ignored) {
-                    // this can happen when we are blocked but the system wants to shut down. We don't have to do anything in that case.
-                    continue;
-                }
-                log.debug("Messages have been written to Journal, continuing to read.");
-                // we don't care how many messages were inserted in the meantime, we'll read all of them eventually
-                journalFilled.drainPermits();
+                awaitJournalFilled();
             } else {
-                readMessages.mark(encodedRawMessages.size());
-                readerMetrics.readMessages().mark(encodedRawMessages.size());
-                log.debug("Processing {} messages from journal.", encodedRawMessages.size());
-                for (final Journal.JournalReadEntry encodedRawMessage : encodedRawMessages) {
-                    final RawMessage rawMessage = RawMessage.decode(encodedRawMessage.getPayload(),
-                            encodedRawMessage.getOffset());
-                    readerMetrics.readBytes().mark(encodedRawMessage.getPayload().length);
-                    if (rawMessage == null) {
-                        // never insert null objects into the ringbuffer, as that is useless
-                        log.error("Found null raw message!");
-                        journal.markJournalOffsetCommitted(encodedRawMessage.getOffset());
-                        continue;
-                    }
+                for (final RawMessage rawMessage : decode(encodedRawMessages)) {
                     processBuffer.insertBlocking(rawMessage);
                 }
             }
         }
-        log.info("Stopping.");
     }
 
+    private void runWithReadAhead() {
+        readAheadThread = new ThreadFactoryBuilder()
+                .setNameFormat("journal-read-ahead-%d")
+                .setDaemon(true)
+                .build()
+                .newThread(this::readAhead);
+        readAheadThread.start();
+
+        while (isRunning()) {
+            if (!shouldBeReading()) {
+                Uninterruptibles.sleepUninterruptibly(100, MILLISECONDS);
+                continue;
+            }
+            final List<RawMessage> batch;
+            try {
+                batch = stagedBatches.poll(100, MILLISECONDS);
+            } catch (InterruptedException ignored) {
+                // the system wants to shut down, isRunning() will tell us
+                continue;
+            }
+            if (batch != null) {
+                processBuffer.insertBlocking(batch);
+            }
+        }
+    }
+
+    private void readAhead() {
+        log.debug("Starting journal read-ahead with batch size {}", readAheadBatchSize);
+        while (isRunning()) {
+            if (!shouldBeReading()) {
+                Uninterruptibles.sleepUninterruptibly(100, MILLISECONDS);
+                continue;
+            }
+            requestedReadCount.update(readAheadBatchSize);
+            final List<Journal.JournalReadEntry> encodedRawMessages = journal.read(readAheadBatchSize);
+            if (encodedRawMessages.isEmpty()) {
+                awaitJournalFilled();
+                continue;
+            }
+            final List<RawMessage> batch = decode(encodedRawMessages);
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                // blocks while the staging queue is full
+                stagedBatches.put(batch);
+            } catch (InterruptedException e) {
+                // shutting down, the staged messages haven't been committed and will be read again after a restart
+                break;
+            }
+        }
+        log.debug("Stopping journal read-ahead.");
+    }
+
+    private void awaitJournalFilled() {
+        log.debug("No messages to read from Journal, waiting until the writer adds more messages.");
+        // block until something is written to the journal again
+        try {
+            readBlocked.inc();
+            journalFilled.acquire();
+        } catch (InterruptedException ignored) {
+            // this can happen when we are blocked but the system wants to shut down. We don't have to do anything in that case.
+            return;
+        }
+        log.debug("Messages have been written to Journal, continuing to read.");
+        // we don't care how many messages were inserted in the meantime, we'll read all of them eventually
+        journalFilled.drainPermits();
+    }
 
+    private List<RawMessage> decode(List<Journal.JournalReadEntry> encodedRawMessages) {
+        readMessages.mark(encodedRawMessages.size());
+        readerMetrics.readMessages().mark(encodedRawMessages.size());
+        log.debug("Processing {} messages from journal.", encodedRawMessages.size());
+        final List<RawMessage> rawMessages = new ArrayList<>(encodedRawMessages.size());
+        for (final Journal.JournalReadEntry encodedRawMessage : encodedRawMessages) {
+            final RawMessage rawMessage = RawMessage.decode(encodedRawMessage.getPayload(),
+                    encodedRawMessage.getOffset());
+            readerMetrics.readBytes().mark(encodedRawMessage.getPayload().length);
+            if (rawMessage == null) {
+                // never insert null objects into the ringbuffer, as that is useless
+                log.error("Found null raw message!");
+                journal.markJournalOffsetCommitted(encodedRawMessage.getOffset());
+                continue;
+            }
+            rawMessages.add(rawMessage);
+        }
+        return rawMessages;
+    }
 }
@@ -36,4 +36,8 @@ public class NoopMessageQueueAcknowledger implements MessageQueueAcknowledger {
     @Override
     public void acknowledge(List<? extends Acknowledgeable> messages) {
     }
+
+    @Override
+    public void acknowledge(Object messageId, int messageCount) {
+    }
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.shared.metrics;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A {@link Timer} which only records the duration of a random sample of the timed events.
+ * <p>
+ * Callers decide with {@link #sample()} whether to measure an event and call {@link #mark()} for events which
+ * haven't been measured. The count and the rates of the timer include all events, the snapshot only contains the
+ * sampled durations.
+ */
+public class SampledTimer extends Timer {
+    private final Meter meter;
+    private final int sampleInterval;
+
+    /**
+     * @param sampleInterval the duration of every {@code sampleInterval}th event is recorded on average
+     */
+    public SampledTimer(int sampleInterval) {
+        this(new Meter(), sampleInterval);
+    }
+
+    private SampledTimer(Meter meter, int sampleInterval) {
+        super(meter, new Histogram(new ExponentiallyDecayingReservoir()), Clock.defaultClock());
+        this.meter = meter;
+        this.sampleInterval = sampleInterval;
+    }
+
+    /**
+     * Returns whether the duration of the next event should be recorded.
+     */
+    public boolean sample() {
+        return sampleInterval <= 1 || ThreadLocalRandom.current().nextInt(sampleInterval) == 0;
+    }
+
+    /**
+     * Records an event without measuring its duration.
+     */
+    public void mark() {
+        meter.mark();
+    }
+
+    @Override
+    public long getCount() {
+        return meter.getCount();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.shared.rest.bulkheads;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.DynamicFeature;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.FeatureContext;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.glassfish.jersey.server.ChunkedOutput;
+import org.graylog2.shared.rest.resources.ProxiedResource;
+
+import java.lang.reflect.Method;
+
+/**
+ * Registers a {@link RestBulkheadFilter} for every resource method whose {@link RestBulkheadGroup group} is limited.
+ * <p>
+ * Resources are assigned to a group by the {@link RestBulkhead} annotation. Resources without annotation are assigned
+ * by their type: {@link ProxiedResource proxied resources} belong to {@link RestBulkheadGroup#CLUSTER_PROXY},
+ * methods returning a streamed response to {@link RestBulkheadGroup#EXPORT}, and system resources to
+ * {@link RestBulkheadGroup#SYSTEM}.
+ */
+public class RestBulkheadFeature implements DynamicFeature {
+    private static final String SYSTEM_RESOURCES_PACKAGE = "org.graylog2.rest.resources.system";
+    private static final String SHARED_SYSTEM_RESOURCES_PACKAGE = "org.graylog2.shared.rest.resources.system";
+
+    private final RestBulkheads bulkheads;
+
+    @Inject
+    public RestBulkheadFeature(RestBulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        bulkheads.forGroup(groupOf(resourceInfo.getResourceClass(), resourceInfo.getResourceMethod()))
+                .ifPresent(bulkhead -> context.register(new RestBulkheadFilter(bulkhead, bulkheads.maxWaitMillis())));
+    }
+
+    static RestBulkheadGroup groupOf(Class<?> resourceClass, Method resourceMethod) {
+        if (resourceMethod.isAnnotationPresent(RestBulkhead.class)) {
+            return resourceMethod.getAnnotation(RestBulkhead.class).value();
+        }
+        if (resourceClass.isAnnotationPresent(RestBulkhead.class)) {
+            return resourceClass.getAnnotation(RestBulkhead.class).value();
+        }
+        if (ProxiedResource.class.isAssignableFrom(resourceClass)) {
+            return RestBulkheadGroup.CLUSTER_PROXY;
+        }
+        final Class<?> returnType = resourceMethod.getReturnType();
+        if (ChunkedOutput.class.isAssignableFrom(returnType) || StreamingOutput.class.isAssignableFrom(returnType)) {
+            return RestBulkheadGroup.EXPORT;
+        }
+        final String packageName = resourceClass.getPackageName();
+        if (packageName.startsWith(SYSTEM_RESOURCES_PACKAGE) || packageName.startsWith(SHARED_SYSTEM_RESOURCES_PACKAGE)) {
+            return RestBulkheadGroup.SYSTEM;
+        }
+        return RestBulkheadGroup.UNRESTRICTED;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.shared.rest.bulkheads;
+
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+import org.glassfish.jersey.server.ChunkedOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds a permit of a {@link RestBulkheads.Bulkhead} while a request is processed and rejects requests with
+ * "503 Service Unavailable" if no permit is available in time.
+ * <p>
+ * The permit is released once the response has been created. Streamed responses are written on the HTTP worker
+ * thread, so their permit is held until the response has been written. {@link ChunkedOutput Chunked responses} are
+ * written by the resource in the background, their permit is held until the chunked output has been closed.
+ * <p>
+ * The filter runs after authentication and authorization, so unauthenticated or unauthorized requests can't use up
+ * the permits of a group.
+ */
+@Priority(Priorities.USER)
+public class RestBulkheadFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+    private static final Logger LOG = LoggerFactory.getLogger(RestBulkheadFilter.class);
+    private static final String PERMIT_PROPERTY = RestBulkheadFilter.class.getName() + ".permit";
+
+    private final RestBulkheads.Bulkhead bulkhead;
+    private final long retryAfterSeconds;
+
+    public RestBulkheadFilter(RestBulkheads.Bulkhead bulkhead, long maxWaitMillis) {
+        this.bulkhead = bulkhead;
+        this.retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(maxWaitMillis));
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        if (!bulkhead.tryAcquire()) {
+            LOG.debug("Rejected request to <{}>, too many concurrent requests in group <{}>",
+                    requestContext.getUriInfo().getPath(), bulkhead.group());
+            throw new ServiceUnavailableException("Too many concurrent requests, please try again later.", retryAfterSeconds);
+        }
+        requestContext.setProperty(PERMIT_PROPERTY, new Permit(bulkhead));
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        final Object permit = requestContext.getProperty(PERMIT_PROPERTY);
+        if (!(permit instanceof Permit p) || HttpMethod.HEAD.equals(requestContext.getMethod())) {
+            release(permit);
+        } else if (responseContext.getEntity() instanceof ChunkedOutput<?>) {
+            // Every chunk is written through aroundWriteTo(), so only release the permit once the chunked output
+            // closes the response entity stream
+            p.releaseOnClose = true;
+            responseContext.setEntityStream(new ReleasingOutputStream(responseContext.getEntityStream(), p));
+        } else if (!(responseContext.getEntity() instanceof StreamingOutput)) {
+            // Streamed responses are released after they have been written, see aroundWriteTo()
+            p.release();
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        try {
+            context.proceed();
+        } finally {
+            if (context.getProperty(PERMIT_PROPERTY) instanceof Permit p && !p.releaseOnClose) {
+                p.release();
+            }
+        }
+    }
+
+    private static void release(Object permit) {
+        if (permit instanceof Permit p) {
+            p.release();
+        }
+    }
+
+    private static final class Permit {
+        private final RestBulkheads.Bulkhead bulkhead;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+        private volatile boolean releaseOnClose = false;
+
+        private Permit(RestBulkheads.Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    private static final class ReleasingOutputStream extends FilterOutputStream {
+        private final Permit permit;
+
+        private ReleasingOutputStream(OutputStream out, Permit permit) {
+            super(out);
+            this.permit = permit;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                permit.release();
+            }
+        }
+    }
+}
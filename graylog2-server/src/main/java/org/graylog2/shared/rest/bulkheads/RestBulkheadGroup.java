@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.shared.rest.bulkheads;
+
+import java.util.Locale;
+
+/**
+ * Groups of REST resources sharing one {@link RestBulkheads bulkhead}.
+ */
+public enum RestBulkheadGroup {
+    /**
+     * Search and query execution.
+     */
+    SEARCH,
+    /**
+     * Resources which proxy requests to other nodes of the cluster.
+     */
+    CLUSTER_PROXY,
+    /**
+     * Resources streaming large responses, like message exports.
+     */
+    EXPORT,
+    /**
+     * System and administration resources.
+     */
+    SYSTEM,
+    /**
+     * Resources which must never be limited, like the load balancer status.
+     */
+    UNRESTRICTED;
+
+    public String metricName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.shared.rest.bulkheads;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.github.joschi.jadconfig.util.Duration;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.graylog2.shared.metrics.MetricUtils;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Limits the number of concurrent requests per {@link RestBulkheadGroup}, so slow resources can't occupy all HTTP
+ * worker threads and block cheap requests like health checks.
+ * <p>
+ * Requests exceeding the limit of their group wait up to {@code http_bulkhead_max_wait} for a permit and are
+ * rejected afterwards. A limit of {@code 0} disables the bulkhead of a group.
+ */
+@Singleton
+public class RestBulkheads {
+    private final Map<RestBulkheadGroup, Bulkhead> bulkheads = new EnumMap<>(RestBulkheadGroup.class);
+    private final long maxWaitNanos;
+
+    @Inject
+    public RestBulkheads(@Named("http_bulkhead_search_max_concurrent") int searchMaxConcurrent,
+                         @Named("http_bulkhead_cluster_proxy_max_concurrent") int clusterProxyMaxConcurrent,
+                         @Named("http_bulkhead_export_max_concurrent") int exportMaxConcurrent,
+                         @Named("http_bulkhead_system_max_concurrent") int systemMaxConcurrent,
+                         @Named("http_bulkhead_max_wait") Duration maxWait,
+                         MetricRegistry metricRegistry) {
+        this.maxWaitNanos = maxWait.toNanoseconds();
+        register(RestBulkheadGroup.SEARCH, searchMaxConcurrent, metricRegistry);
+        register(RestBulkheadGroup.CLUSTER_PROXY, clusterProxyMaxConcurrent, metricRegistry);
+        register(RestBulkheadGroup.EXPORT, exportMaxConcurrent, metricRegistry);
+        register(RestBulkheadGroup.SYSTEM, systemMaxConcurrent, metricRegistry);
+    }
+
+    private void register(RestBulkheadGroup group, int maxConcurrent, MetricRegistry metricRegistry) {
+        if (maxConcurrent > 0) {
+            bulkheads.put(group, new Bulkhead(group, maxConcurrent, metricRegistry));
+        }
+    }
+
+    /**
+     * Returns the bulkhead of the given group, or an empty optional if requests of the group aren't limited.
+     */
+    public Optional<Bulkhead> forGroup(RestBulkheadGroup group) {
+        return Optional.ofNullable(bulkheads.get(group));
+    }
+
+    public long maxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos);
+    }
+
+    public class Bulkhead {
+        private final RestBulkheadGroup group;
+        private final int maxConcurrent;
+        private final Semaphore permits;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final Timer waitTimer;
+        private final Meter rejected;
+
+        private Bulkhead(RestBulkheadGroup group, int maxConcurrent, MetricRegistry metricRegistry) {
+            this.group = group;
+            this.maxConcurrent = maxConcurrent;
+            this.permits = new Semaphore(maxConcurrent, true);
+            final String prefix = name(RestBulkheads.class, group.metricName());
+            this.waitTimer = metricRegistry.timer(name(prefix, "wait"));
+            this.rejected = metricRegistry.meter(name(prefix, "rejected"));
+            MetricUtils.safelyRegister(metricRegistry, name(prefix, "active"), (Gauge<Integer>) this::active);
+            MetricUtils.safelyRegister(metricRegistry, name(prefix, "waiting"), (Gauge<Integer>) waiting::get);
+        }
+
+        public RestBulkheadGroup group() {
+            return group;
+        }
+
+        /**
+         * Waits up to the configured maximum wait time for a permit. Every successful call must be followed by
+         * {@link #release()}.
+         *
+         * @return {@code true} if a permit has been acquired, {@code false} if the request has been rejected
+         */
+        public boolean tryAcquire() {
+            if (permits.tryAcquire()) {
+                waitTimer.update(0, TimeUnit.NANOSECONDS);
+                return true;
+            }
+            waiting.incrementAndGet();
+            try (Timer.Context ignored = waitTimer.time()) {
+                if (maxWaitNanos > 0 && permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                waiting.decrementAndGet();
+            }
+            rejected.mark();
+            return false;
+        }
+
+        public void release() {
+            permits.release();
+        }
+
+        public int active() {
+            return maxConcurrent - permits.availablePermits();
+        }
+    }
+}
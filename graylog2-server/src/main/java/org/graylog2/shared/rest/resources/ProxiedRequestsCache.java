@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.shared.rest.resources;
+
+import com.codahale.metrics.MetricRegistry;
+import com.github.joschi.jadconfig.util.Duration;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import okhttp3.ResponseBody;
+import org.graylog2.metrics.CacheStatsSet;
+import org.graylog2.shared.metrics.MetricUtils;
+import retrofit2.Call;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Short-lived cache for the per-node responses of {@link ProxiedResource cluster requests}.
+ * <p>
+ * The web interface polls several cluster resources (e.g. metrics, journal or system status) from every open tab.
+ * Caching successful GET responses for {@code proxied_requests_cache_ttl} absorbs these duplicate polls instead of
+ * fanning out to every node again. Entries are keyed by node, URL and authentication token, so responses are never
+ * shared between users.
+ */
+@Singleton
+public class ProxiedRequestsCache {
+    private static final long MAX_ENTRIES = 1_000;
+
+    @Nullable
+    private final Cache<Key, ProxiedResource.NodeResponse<?>> responses;
+
+    @Inject
+    public ProxiedRequestsCache(@Named("proxied_requests_cache_ttl") Duration ttl, MetricRegistry metricRegistry) {
+        if (ttl.toMilliseconds() > 0) {
+            this.responses = CacheBuilder.newBuilder()
+                    .maximumSize(MAX_ENTRIES)
+                    .expireAfterWrite(ttl.toMilliseconds(), TimeUnit.MILLISECONDS)
+                    .recordStats()
+                    .build();
+            MetricUtils.safelyRegisterAll(metricRegistry, new CacheStatsSet(name(ProxiedRequestsCache.class, "cache"), responses));
+        } else {
+            this.responses = null;
+        }
+    }
+
+    /**
+     * Creates a cache which doesn't cache anything.
+     */
+    public static ProxiedRequestsCache disabled() {
+        return new ProxiedRequestsCache(Duration.seconds(0), new MetricRegistry());
+    }
+
+    public boolean isEnabled() {
+        return responses != null;
+    }
+
+    /**
+     * Returns the cache key for the given call or {@code null} if the call must not be cached.
+     */
+    @Nullable
+    Key keyFor(String nodeId, Call<?> call, @Nullable String authenticationToken) {
+        if (responses == null || !"GET".equals(call.request().method())) {
+            return null;
+        }
+        return new Key(nodeId, call.request().url().toString(), authenticationToken);
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    <T> ProxiedResource.NodeResponse<T> get(@Nullable Key key) {
+        if (responses == null || key == null) {
+            return null;
+        }
+        return (ProxiedResource.NodeResponse<T>) responses.getIfPresent(key);
+    }
+
+    /**
+     * Caches the given response if it's successful. Raw {@link ResponseBody response bodies} can only be read once
+     * and are never cached.
+     */
+    void put(@Nullable Key key, ProxiedResource.NodeResponse<?> response) {
+        if (responses != null && key != null && response.isSuccess()
+                && !(response.entity().orElse(null) instanceof ResponseBody)) {
+            responses.put(key, response);
+        }
+    }
+
+    record Key(String nodeId, String url, @Nullable String authenticationToken) {
+    }
+}
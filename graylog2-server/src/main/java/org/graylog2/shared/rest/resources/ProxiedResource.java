@@ -35,6 +35,7 @@ import org.graylog2.shared.utilities.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import retrofit2.Call;
+import retrofit2.Callback;
 import retrofit2.Response;
 
 import javax.annotation.Nonnull;
@@ -49,11 +50,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -73,6 +71,9 @@ public abstract class ProxiedResource extends RestResource {
     @Named("proxied_requests_default_call_timeout")
     private com.github.joschi.jadconfig.util.Duration defaultProxyCallTimeout;
 
+    @Inject
+    private ProxiedRequestsCache proxiedRequestsCache;
+
     protected ProxiedResource(@Context HttpHeaders httpHeaders,
                               NodeService nodeService,
                               RemoteInterfaceProvider remoteInterfaceProvider,
@@ -190,51 +191,29 @@ public abstract class ProxiedResource extends RestResource {
             Duration timeout) {
         final long callTimeoutMs = Duration.ZERO.equals(timeout) ? getDefaultProxyCallTimeout().toMillis() : timeout.toMillis();
 
-        final Map<String, Future<Optional<FinalResponseType>>> futures = this.nodeService.allActive().keySet().stream()
-                .collect(Collectors.toMap(Function.identity(), node -> interfaceProvider.apply(node)
-                        .map(r -> executor.submit(() -> {
-                            final Call<RemoteCallResponseType> call = fn.apply(r);
-                            final Stopwatch sw = Stopwatch.createUnstarted();
-                            try {
-                                call.timeout().timeout(callTimeoutMs, TimeUnit.MILLISECONDS);
-                                sw.start();
-                                final Response<RemoteCallResponseType> response = call.execute();
-                                if (response.isSuccessful()) {
-                                    return Optional.of(transformer.apply(response.body()));
-                                } else {
-                                    LOG.warn("Unable to call {} on node <{}>, result: {} (duration: {} ms)",
-                                            call.request().url(), node, response.message(), sw.stop().elapsed().toMillis());
-                                    return Optional.<FinalResponseType>empty();
-                                }
-                            } catch (IOException e) {
-                                final long elapsedMs = sw.stop().elapsed().toMillis();
-                                if (LOG.isDebugEnabled()) {
-                                    LOG.warn("Unable to call {} on node <{}> (duration: {} ms)", call.request().url(), node, elapsedMs, e);
-                                } else {
-                                    LOG.warn("Unable to call {} on node <{}>: {} (duration: {} ms)", call.request().url(), node, e.getMessage(), elapsedMs);
-                                }
-                                return Optional.<FinalResponseType>empty();
-                            }
-                        }))
-                        .orElse(CompletableFuture.completedFuture(Optional.empty()))
-                ));
-
-        return futures
-                .entrySet()
-                .stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
+        final Map<String, CompletableFuture<CallResult<FinalResponseType>>> futures = this.nodeService.allActive().keySet().stream()
+                .collect(Collectors.toMap(Function.identity(), node -> {
                     try {
-                        // Never block without timeout to avoid saturating the thread pool with waiting futures.
-                        // We double the timeout that we use for the HTTP call here to ensure that the HTTP
-                        // requests times out before we hit the timeout on this Future#get call.
-                        return entry.getValue().get(callTimeoutMs * 2, TimeUnit.MILLISECONDS);
-                    } catch (InterruptedException | ExecutionException e) {
-                        LOG.debug("Couldn't retrieve future", e);
+                        return interfaceProvider.apply(node)
+                                .map(r -> enqueueNodeApiCall(node, fn.apply(r), body -> body == null ? null : transformer.apply(body), callTimeoutMs))
+                                .orElseGet(() -> CompletableFuture.completedFuture(CallResult.error("Node " + node + " not found")));
+                    } catch (Exception e) {
+                        LOG.warn("Unable to call node <{}>: {}", node, e.getMessage());
+                        return CompletableFuture.completedFuture(CallResult.error(String.valueOf(e.getMessage())));
+                    }
+                }));
+
+        return awaitAll(futures).entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
+                    final NodeResponse<FinalResponseType> response = entry.getValue().response();
+                    if (response == null) {
                         return Optional.empty();
-                    } catch (TimeoutException e) {
-                        LOG.debug("Upstream timeout for node <{}>", entry.getKey());
+                    }
+                    if (!response.isSuccess()) {
+                        LOG.warn("Unable to call node <{}>, status code: {}", entry.getKey(), response.code());
                         return Optional.empty();
                     }
+                    return response.entity();
                 }));
     }
 
@@ -275,6 +254,10 @@ public abstract class ProxiedResource extends RestResource {
 
     /**
      * This method concurrently performs an API call on all active nodes.
+     * <p>
+     * The calls are executed asynchronously, every node has its own deadline of {@code timeout}. Nodes which don't
+     * answer in time are reported as {@link CallResult#upstreamTimeout(String) upstream timeout} while the results
+     * of all other nodes are returned as soon as they are available.
      *
      * @param interfaceClass              The class of the Retrotfit interface for this call
      * @param remoteInterfaceCallProvider provides an invocation of a Retrofit method for the intended API call.
@@ -291,41 +274,108 @@ public abstract class ProxiedResource extends RestResource {
             @Nullable Duration timeout
     ) {
         final long callTimeoutMs = (timeout == null) ? getDefaultProxyCallTimeout().toMillis() : timeout.toMillis();
+        final Function<String, Optional<RemoteInterfaceType>> remoteInterface = createRemoteInterface(interfaceClass, timeout);
 
-        final Map<String, Future<CallResult<FinalResponseType>>> futures = this.nodeService.allActive().keySet().stream()
-                .collect(Collectors.toMap(Function.identity(), nodeId -> executor.submit(() -> {
-                            final Stopwatch sw = Stopwatch.createStarted();
-                            try {
-                                return CallResult.success(doNodeApiCall(nodeId, interfaceClass, remoteInterfaceCallProvider, responseTransformer, timeout));
-                            } catch (Exception e) {
-                                final long elapsedMs = sw.stop().elapsed().toMillis();
-                                if (LOG.isDebugEnabled()) {
-                                    LOG.warn("Failed to call API on node <{}>, cause: {} (duration: {} ms)", nodeId, e.getMessage(), elapsedMs, e);
-                                } else {
-                                    LOG.warn("Failed to call API on node <{}>, cause: {} (duration: {} ms)", nodeId, e.getMessage(), elapsedMs);
-                                }
-                                return CallResult.error(e.getMessage());
-                            }
-                        })
-                ));
-
-        return futures
-                .entrySet()
-                .stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
+        final Map<String, CompletableFuture<CallResult<FinalResponseType>>> futures = this.nodeService.allActive().keySet().stream()
+                .collect(Collectors.toMap(Function.identity(), nodeId -> {
                     try {
-                        // Never block without timeout to avoid saturating the thread pool with waiting futures.
-                        // We double the timeout that we use for the HTTP call here to ensure that the HTTP
-                        // requests times out before we hit the timeout on this Future#get call.
-                        return entry.getValue().get(callTimeoutMs * 2, TimeUnit.MILLISECONDS);
-                    } catch (InterruptedException | ExecutionException e) {
-                        LOG.debug("Couldn't retrieve future", e);
-                        throw new RuntimeException(e);
-                    } catch (TimeoutException e) {
-                        LOG.debug("Upstream timeout for node <{}>", entry.getKey());
-                        return CallResult.upstreamTimeout(entry.getKey());
+                        final RemoteInterfaceType remoteInterfaceType = remoteInterface.apply(nodeId)
+                                .orElseThrow(() -> new IllegalStateException("Node " + nodeId + " not found"));
+                        return enqueueNodeApiCall(nodeId, remoteInterfaceCallProvider.apply(remoteInterfaceType), responseTransformer, callTimeoutMs);
+                    } catch (Exception e) {
+                        LOG.warn("Failed to call API on node <{}>, cause: {}", nodeId, e.getMessage());
+                        return CompletableFuture.completedFuture(CallResult.error(String.valueOf(e.getMessage())));
                     }
                 }));
+
+        return awaitAll(futures);
+    }
+
+    /**
+     * Enqueues the given call without blocking the calling thread. The returned future completes with the result of
+     * the call or with an {@link CallResult#upstreamTimeout(String) upstream timeout} once the deadline of
+     * {@code callTimeoutMs} has passed, whatever happens first. Calls which miss the deadline are cancelled.
+     */
+    private <RemoteCallResponseType, FinalResponseType> CompletableFuture<CallResult<FinalResponseType>> enqueueNodeApiCall(
+            String nodeId,
+            Call<RemoteCallResponseType> call,
+            Function<RemoteCallResponseType, FinalResponseType> transformer,
+            long callTimeoutMs
+    ) {
+        final ProxiedRequestsCache.Key cacheKey = proxiedRequestsCache == null ? null : proxiedRequestsCache.keyFor(nodeId, call, getAuthenticationToken());
+        final NodeResponse<RemoteCallResponseType> cached = cacheKey == null ? null : proxiedRequestsCache.get(cacheKey);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(CallResult.success(transform(cached, transformer)));
+        }
+
+        final CompletableFuture<CallResult<FinalResponseType>> future = new CompletableFuture<>();
+        final CallResult<FinalResponseType> timeoutResult = CallResult.upstreamTimeout(nodeId);
+        final Stopwatch sw = Stopwatch.createStarted();
+
+        call.timeout().timeout(callTimeoutMs, TimeUnit.MILLISECONDS);
+        call.enqueue(new Callback<>() {
+            @Override
+            public void onResponse(@Nonnull Call<RemoteCallResponseType> c, @Nonnull Response<RemoteCallResponseType> response) {
+                try (final ResponseBody errorBody = response.errorBody()) {
+                    final NodeResponse<RemoteCallResponseType> nodeResponse = NodeResponse.create(
+                            response.isSuccessful(),
+                            response.code(),
+                            response.body(),
+                            errorBody == null ? null : errorBody.bytes()
+                    );
+                    if (cacheKey != null) {
+                        proxiedRequestsCache.put(cacheKey, nodeResponse);
+                    }
+                    future.complete(CallResult.success(transform(nodeResponse, transformer)));
+                } catch (Exception e) {
+                    onFailure(c, e);
+                }
+            }
+
+            @Override
+            public void onFailure(@Nonnull Call<RemoteCallResponseType> c, @Nonnull Throwable t) {
+                final long elapsedMs = sw.elapsed(TimeUnit.MILLISECONDS);
+                if (future.isDone()) {
+                    LOG.debug("Cancelled call on node <{}> after deadline (duration: {} ms)", nodeId, elapsedMs);
+                } else if (LOG.isDebugEnabled()) {
+                    LOG.warn("Failed to call API on node <{}>, cause: {} (duration: {} ms)", nodeId, t.getMessage(), elapsedMs, t);
+                } else {
+                    LOG.warn("Failed to call API on node <{}>, cause: {} (duration: {} ms)", nodeId, t.getMessage(), elapsedMs);
+                }
+                future.complete(CallResult.error(String.valueOf(t.getMessage())));
+            }
+        });
+
+        return future.completeOnTimeout(timeoutResult, callTimeoutMs, TimeUnit.MILLISECONDS)
+                .thenApply(result -> {
+                    if (result == timeoutResult) {
+                        LOG.debug("Upstream timeout for node <{}>", nodeId);
+                        call.cancel();
+                    }
+                    return result;
+                });
+    }
+
+    private static <RemoteCallResponseType, FinalResponseType> NodeResponse<FinalResponseType> transform(
+            NodeResponse<RemoteCallResponseType> response,
+            Function<RemoteCallResponseType, FinalResponseType> transformer
+    ) {
+        return NodeResponse.create(
+                response.isSuccess(),
+                response.code(),
+                transformer.apply(response.entity().orElse(null)),
+                response.error().orElse(null)
+        );
+    }
+
+    /**
+     * Waits until every node has either answered or reached its deadline. The futures are bounded by their own
+     * deadlines, so this never blocks longer than the slowest per-node timeout.
+     */
+    private static <T> Map<String, CallResult<T>> awaitAll(Map<String, CompletableFuture<CallResult<T>>> futures) {
+        CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).join();
+        return futures.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().join()));
     }
 
     /**
@@ -27,6 +27,8 @@ import org.graylog2.audit.jersey.AuditEvent;
 import org.graylog2.plugin.ServerStatus;
 import org.graylog2.plugin.lifecycles.LoadBalancerStatus;
 import org.graylog2.rest.TooManyRequestsStatus;
+import org.graylog2.shared.rest.bulkheads.RestBulkhead;
+import org.graylog2.shared.rest.bulkheads.RestBulkheadGroup;
 import org.graylog2.shared.rest.resources.RestResource;
 import org.graylog2.shared.security.RestPermissions;
 
@@ -45,6 +47,7 @@ import java.util.Locale;
 
 @Api(value = "System/LoadBalancers", description = "Status propagation for load balancers")
 @Path("/system/lbstatus")
+@RestBulkhead(RestBulkheadGroup.UNRESTRICTED)
 public class LoadBalancerStatusResource extends RestResource {
 
     /*
@@ -24,6 +24,7 @@ import com.google.common.collect.ImmutableMap;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import org.apache.shiro.authz.annotation.RequiresAuthentication;
+import org.graylog2.bootstrap.StartupTimings;
 import org.graylog2.cluster.leader.LeaderElectionService;
 import org.graylog2.plugin.ServerStatus;
 import org.graylog2.plugin.Tools;
@@ -33,6 +34,7 @@ import org.graylog2.rest.models.system.responses.LocalesResponse;
 import org.graylog2.rest.models.system.responses.SystemJVMResponse;
 import org.graylog2.rest.models.system.responses.SystemOverviewResponse;
 import org.graylog2.rest.models.system.responses.SystemProcessBufferDumpResponse;
+import org.graylog2.rest.models.system.responses.SystemStartupTimingsResponse;
 import org.graylog2.rest.models.system.responses.SystemThreadDumpResponse;
 import org.graylog2.shared.ServerVersion;
 import org.graylog2.shared.buffers.ProcessBuffer;
@@ -62,13 +64,16 @@ public class SystemResource extends RestResource {
     private final ClusterId clusterId;
     private final ProcessBuffer processBuffer;
     private final LeaderElectionService leaderElectionService;
+    private final StartupTimings startupTimings;
 
     @Inject
-    public SystemResource(ServerStatus serverStatus, ClusterConfigService clusterConfigService, ProcessBuffer processBuffer, LeaderElectionService leaderElectionService) {
+    public SystemResource(ServerStatus serverStatus, ClusterConfigService clusterConfigService, ProcessBuffer processBuffer,
+                          LeaderElectionService leaderElectionService, StartupTimings startupTimings) {
         this.serverStatus = serverStatus;
         this.clusterId = clusterConfigService.getOrDefault(ClusterId.class, ClusterId.create(UUID.nilUUID().toString()));
         this.processBuffer = processBuffer;
         this.leaderElectionService = leaderElectionService;
+        this.startupTimings = startupTimings;
     }
 
     @GET
@@ -135,6 +140,15 @@ public class SystemResource extends RestResource {
         return SystemProcessBufferDumpResponse.create(processBuffer.getDump());
     }
 
+    @GET
+    @Path("/startup")
+    @Timed
+    @ApiOperation(value = "Get the durations of the startup phases of this node")
+    public SystemStartupTimingsResponse startupTimings() {
+        checkPermission(RestPermissions.SYSTEM_READ, serverStatus.getNodeId().toString());
+        return SystemStartupTimingsResponse.create(startupTimings.totalMs(), startupTimings.phases(), startupTimings.slowestMigrations());
+    }
+
     @GET
     @Path("/threaddump")
     @Produces(MediaType.TEXT_PLAIN)
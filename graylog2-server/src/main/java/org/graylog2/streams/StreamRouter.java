@@ -24,6 +24,7 @@ import org.graylog2.indexer.indexset.events.IndexSetDeletedEvent;
 import org.graylog2.plugin.Message;
 import org.graylog2.plugin.ServerStatus;
 import org.graylog2.plugin.streams.Stream;
+import org.graylog2.plugin.streams.StreamOrdinals;
 import org.graylog2.streams.events.StreamsChangedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -131,6 +132,7 @@ public class StreamRouter {
                     LOG.debug("Updating to new stream router engine. (old-fingerprint={} new-fingerprint={}",
                             routerEngine.get().getFingerprint(), engine.getFingerprint());
                     routerEngine.set(engine);
+                    StreamOrdinals.retain(engine.getStreams());
                 }
             } catch (Exception e) {
                 LOG.error("Stream router engine update failed!", e);
@@ -22,7 +22,6 @@ import com.codahale.metrics.Timer;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.SimpleTimeLimiter;
 import com.google.common.util.concurrent.TimeLimiter;
 import com.google.common.util.concurrent.UncheckedTimeoutException;
@@ -33,6 +32,7 @@ import org.graylog.failure.ProcessingFailureCause;
 import org.graylog2.plugin.Message;
 import org.graylog2.plugin.streams.DefaultStream;
 import org.graylog2.plugin.streams.Stream;
+import org.graylog2.plugin.streams.StreamOrdinals;
 import org.graylog2.plugin.streams.StreamRule;
 import org.graylog2.plugin.streams.StreamRuleType;
 import org.graylog2.shared.utilities.ExceptionUtils;
@@ -41,10 +41,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
+import java.util.BitSet;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -102,11 +102,15 @@ public class StreamRouterEngine {
         final List<Rule> containsRules = Lists.newArrayList();
         final List<Rule> matchInputRules = Lists.newArrayList();
 
-        for (Stream stream : streams) {
+        // Every generation registers its streams, so messages get their stream ordinals without contention
+        StreamOrdinals.register(streams);
+
+        for (int streamIndex = 0; streamIndex < streams.size(); streamIndex++) {
+            final Stream stream = streams.get(streamIndex);
             for (StreamRule streamRule : stream.getStreamRules()) {
                 final Rule rule;
                 try {
-                    rule = new Rule(stream, streamRule, stream.getMatchingType());
+                    rule = new Rule(stream, streamIndex, streamRule, stream.getMatchingType());
                 } catch (InvalidStreamRuleTypeException e) {
                     LOG.warn("Invalid stream rule type. Skipping matching for this rule. " + e.getMessage(), e);
                     continue;
@@ -177,11 +181,12 @@ public class StreamRouterEngine {
      * @return the list of matching streams
      */
     public List<Stream> match(Message message) {
-        final Set<Stream> result = Sets.newHashSet();
-        final Set<String> blackList = Sets.newHashSet();
+        // Both sets are indexed by the position of the stream in this engine
+        final BitSet result = new BitSet(streams.size());
+        final BitSet blackList = new BitSet(streams.size());
 
         for (final Rule rule : rulesList) {
-            if (blackList.contains(rule.getStreamId())) {
+            if (blackList.get(rule.getStreamIndex())) {
                 continue;
             }
 
@@ -191,9 +196,9 @@ public class StreamRouterEngine {
             if (!ruleTypesNotNeedingFieldPresence.contains(streamRuleType)
                     && !message.hasField(streamRule.getField())) {
                 if (matchingType == Stream.MatchingType.AND) {
-                    result.remove(rule.getStream());
+                    result.clear(rule.getStreamIndex());
                     // blacklist stream because it can't match anymore
-                    blackList.add(rule.getStreamId());
+                    blackList.set(rule.getStreamIndex());
                 }
 
                 continue;
@@ -208,22 +213,28 @@ public class StreamRouterEngine {
 
             if (stream == null) {
                 if (matchingType == Stream.MatchingType.AND) {
-                    result.remove(rule.getStream());
+                    result.clear(rule.getStreamIndex());
                     // blacklist stream because it can't match anymore
-                    blackList.add(rule.getStreamId());
+                    blackList.set(rule.getStreamIndex());
                 }
             } else {
-                result.add(stream);
+                result.set(rule.getStreamIndex());
                 if (matchingType == Stream.MatchingType.OR) {
                     // blacklist stream because it is already matched
-                    blackList.add(rule.getStreamId());
+                    blackList.set(rule.getStreamIndex());
                 }
             }
         }
 
+        final ImmutableList.Builder<Stream> matches = ImmutableList.builderWithExpectedSize(result.cardinality());
+        for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+            matches.add(streams.get(i));
+        }
+        final ImmutableList<Stream> matchedStreams = matches.build();
+
         final Stream defaultStream = defaultStreamProvider.get();
         boolean alreadyRemovedDefaultStream = false;
-        for (Stream stream : result) {
+        for (Stream stream : matchedStreams) {
             if (stream.getRemoveMatchesFromDefaultStream()) {
                 if (alreadyRemovedDefaultStream || message.removeStream(defaultStream)) {
                     alreadyRemovedDefaultStream = true;
@@ -243,7 +254,7 @@ public class StreamRouterEngine {
             }
         }
 
-        return ImmutableList.copyOf(result);
+        return matchedStreams;
     }
 
     /**
@@ -255,12 +266,13 @@ public class StreamRouterEngine {
     public List<StreamTestMatch> testMatch(Message message) {
         final List<StreamTestMatch> matches = Lists.newArrayList();
 
-        for (final Stream stream : streams) {
+        for (int streamIndex = 0; streamIndex < streams.size(); streamIndex++) {
+            final Stream stream = streams.get(streamIndex);
             final StreamTestMatch match = new StreamTestMatch(stream);
 
             for (final StreamRule streamRule : stream.getStreamRules()) {
                 try {
-                    final Rule rule = new Rule(stream, streamRule, stream.getMatchingType());
+                    final Rule rule = new Rule(stream, streamIndex, streamRule, stream.getMatchingType());
                     match.addRule(rule);
                 } catch (InvalidStreamRuleTypeException e) {
                     LOG.warn("Invalid stream rule type. Skipping matching for this rule. " + e.getMessage(), e);
@@ -277,14 +289,16 @@ public class StreamRouterEngine {
 
     private class Rule {
         private final Stream stream;
+        private final int streamIndex;
         private final StreamRule rule;
         private final String streamId;
         private final String streamRuleId;
         private final StreamRuleMatcher matcher;
         private final Stream.MatchingType matchingType;
 
-        public Rule(Stream stream, StreamRule rule, Stream.MatchingType matchingType) throws InvalidStreamRuleTypeException {
+        public Rule(Stream stream, int streamIndex, StreamRule rule, Stream.MatchingType matchingType) throws InvalidStreamRuleTypeException {
             this.stream = stream;
+            this.streamIndex = streamIndex;
             this.rule = rule;
             this.streamId = stream.getId();
             this.streamRuleId = rule.getId();
@@ -351,6 +365,10 @@ public class StreamRouterEngine {
             return stream;
         }
 
+        public int getStreamIndex() {
+            return streamIndex;
+        }
+
         public String getStreamId() {
             return streamId;
         }
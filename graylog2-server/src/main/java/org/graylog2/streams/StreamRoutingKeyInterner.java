@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.streams;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.graylog2.metrics.CacheStatsSet;
+import org.graylog2.plugin.Message;
+import org.graylog2.plugin.streams.Stream;
+import org.graylog2.plugin.streams.StreamRoutingKey;
+import org.graylog2.shared.metrics.MetricUtils;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Interns {@link StreamRoutingKey routing keys} so that every distinct set of streams maps to one shared instance.
+ * <p>
+ * Streams are compared by identity instead of {@link Stream#equals(Object)}, which hashes all stream fields. Every
+ * {@link StreamRouterEngine} generation loads new stream instances, so routing keys are implicitly re-computed
+ * after streams or index sets have been changed and the keys of older generations expire from the cache.
+ */
+@Singleton
+public class StreamRoutingKeyInterner {
+    private static final long MAX_ROUTING_KEYS = 10_000;
+
+    private final Cache<StreamSet, StreamRoutingKey> routingKeys;
+
+    @Inject
+    public StreamRoutingKeyInterner(MetricRegistry metricRegistry) {
+        this.routingKeys = CacheBuilder.newBuilder()
+                .maximumSize(MAX_ROUTING_KEYS)
+                .expireAfterAccess(10, TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+        MetricUtils.safelyRegisterAll(metricRegistry, new CacheStatsSet(name(StreamRoutingKeyInterner.class, "cache"), routingKeys));
+    }
+
+    /**
+     * Returns the routing key for the current streams of the given message and attaches it to the message.
+     * The key is re-used until the streams of the message change.
+     */
+    public StreamRoutingKey routingKeyFor(Message message) {
+        final StreamRoutingKey existing = message.getRoutingKey();
+        if (existing != null) {
+            return existing;
+        }
+        final StreamRoutingKey routingKey = intern(message.getStreams());
+        message.setRoutingKey(routingKey);
+        return routingKey;
+    }
+
+    public StreamRoutingKey intern(Collection<Stream> streams) {
+        final StreamSet streamSet = new StreamSet(streams.toArray(new Stream[0]));
+        try {
+            return routingKeys.get(streamSet, () -> StreamRoutingKey.of(streams));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Couldn't create routing key for streams " + streams, e.getCause());
+        }
+    }
+
+    private static final class StreamSet {
+        private final Stream[] streams;
+        private final int hashCode;
+
+        private StreamSet(Stream[] streams) {
+            this.streams = streams;
+            // Order-independent, the iteration order of the message streams is not stable
+            int hash = 0;
+            for (Stream stream : streams) {
+                hash += System.identityHashCode(stream);
+            }
+            this.hashCode = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof StreamSet other) || hashCode != other.hashCode || streams.length != other.streams.length) {
+                return false;
+            }
+            // Messages are usually routed into a handful of streams, a nested loop is cheaper than a hash set here
+            for (Stream stream : streams) {
+                if (!other.containsInstance(stream)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean containsInstance(Stream stream) {
+            for (Stream candidate : streams) {
+                if (candidate == stream) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
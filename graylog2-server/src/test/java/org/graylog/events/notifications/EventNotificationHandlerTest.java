@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog.events.notifications;
+
+import com.google.common.collect.ImmutableList;
+import org.bson.conversions.Bson;
+import org.graylog.events.JobSchedulerTestClock;
+import org.graylog.events.event.Event;
+import org.graylog.events.event.EventDto;
+import org.graylog.events.event.EventWithContext;
+import org.graylog.events.processor.EventDefinition;
+import org.graylog.scheduler.DBJobDefinitionService;
+import org.graylog.scheduler.DBJobTriggerService;
+import org.graylog.scheduler.JobDefinitionDto;
+import org.graylog.scheduler.JobTriggerDto;
+import org.graylog.scheduler.schedule.OnceJobSchedule;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EventNotificationHandlerTest {
+    private static final String NOTIFICATION_ID = "notification-1";
+    private static final String JOB_DEFINITION_ID = "job-definition-1";
+
+    @Mock
+    private DBJobDefinitionService jobDefinitionService;
+    @Mock
+    private DBJobTriggerService jobTriggerService;
+    @Mock
+    private DBNotificationService notificationService;
+    @Mock
+    private NotificationGracePeriodService notificationGracePeriodService;
+    @Mock
+    private EventDefinition definition;
+    @Mock
+    private EventNotificationConfig notificationConfig;
+    @Captor
+    private ArgumentCaptor<List<JobTriggerDto>> triggersCaptor;
+
+    private final JobSchedulerTestClock clock = new JobSchedulerTestClock(DateTime.now(DateTimeZone.UTC));
+    private EventNotificationHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        final JobDefinitionDto jobDefinition = mock(JobDefinitionDto.class);
+        when(jobDefinition.id()).thenReturn(JOB_DEFINITION_ID);
+        when(jobDefinitionService.getByConfigField(anyString(), eq(NOTIFICATION_ID))).thenReturn(Optional.of(jobDefinition));
+
+        when(notificationConfig.supportsDigest()).thenReturn(true);
+        when(notificationConfig.toJobTriggerData(any())).thenAnswer(invocation ->
+                EventNotificationExecutionJob.Data.builder().eventDto(invocation.getArgument(0)).build());
+        final NotificationDto notification = mock(NotificationDto.class);
+        when(notification.config()).thenReturn(notificationConfig);
+        when(notificationService.get(NOTIFICATION_ID)).thenReturn(Optional.of(notification));
+
+        when(definition.id()).thenReturn("definition-1");
+        when(definition.notifications()).thenReturn(ImmutableList.of(EventNotificationHandler.Config.builder().notificationId(NOTIFICATION_ID).build()));
+        when(jobTriggerService.createAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        handler = new EventNotificationHandler(jobDefinitionService, jobTriggerService, notificationService,
+                notificationGracePeriodService, clock);
+    }
+
+    @Test
+    void createsAllTriggersWithOneBulkInsert() {
+        withDigestWindow(0);
+        final List<EventWithContext> events = events(3);
+        when(notificationGracePeriodService.inGracePeriod(definition, NOTIFICATION_ID, events.get(1).event())).thenReturn(true);
+
+        handler.handleEvents(definition, events);
+
+        verify(jobTriggerService).createAll(triggersCaptor.capture());
+        verify(jobTriggerService, never()).create(any());
+        assertThat(triggersCaptor.getValue())
+                .map(trigger -> ((EventNotificationExecutionJob.Data) trigger.data().orElseThrow()).eventDto())
+                .containsExactly(events.get(0).event().toDto(), events.get(2).event().toDto());
+        assertThat(triggersCaptor.getValue()).allSatisfy(trigger -> {
+            assertThat(trigger.jobDefinitionId()).isEqualTo(JOB_DEFINITION_ID);
+            assertThat(trigger.nextTime()).isEqualTo(clock.nowUTC());
+        });
+    }
+
+    @Test
+    void createsDigestTriggers() {
+        withDigestWindow(60_000);
+        final List<EventWithContext> events = events(EventNotificationHandler.MAX_DIGEST_EVENTS + 1);
+
+        handler.handleEvents(definition, events);
+
+        verify(jobTriggerService).createAll(triggersCaptor.capture());
+        final List<JobTriggerDto> triggers = triggersCaptor.getValue();
+        assertThat(triggers).hasSize(2).allSatisfy(trigger ->
+                assertThat(trigger.nextTime()).isEqualTo(clock.nowUTC().plusMinutes(1)));
+
+        final EventNotificationExecutionJob.Data first = (EventNotificationExecutionJob.Data) triggers.get(0).data().orElseThrow();
+        assertThat(first.eventDto()).isEqualTo(events.get(0).event().toDto());
+        assertThat(first.digestEvents()).hasSize(EventNotificationHandler.MAX_DIGEST_EVENTS);
+        assertThat(((EventNotificationExecutionJob.Data) triggers.get(1).data().orElseThrow()).digestEvents())
+                .containsExactly(events.get(EventNotificationHandler.MAX_DIGEST_EVENTS).event().toDto());
+    }
+
+    @Test
+    void ignoresDigestWindowForNotificationsWithoutDigestSupport() {
+        withDigestWindow(60_000);
+        when(notificationConfig.supportsDigest()).thenReturn(false);
+        final List<EventWithContext> events = events(2);
+
+        handler.handleEvents(definition, events);
+
+        verify(jobTriggerService, never()).getPendingTrigger(anyString(), any(Bson.class));
+        verify(jobTriggerService).createAll(triggersCaptor.capture());
+        assertThat(triggersCaptor.getValue()).allSatisfy(trigger -> {
+            final EventNotificationExecutionJob.Data data = (EventNotificationExecutionJob.Data) trigger.data().orElseThrow();
+            assertThat(data.digestEvents()).isEmpty();
+            assertThat(trigger.nextTime()).isEqualTo(clock.nowUTC());
+        }).map(trigger -> ((EventNotificationExecutionJob.Data) trigger.data().orElseThrow()).eventDto())
+                .containsExactly(events.get(0).event().toDto(), events.get(1).event().toDto());
+    }
+
+    @Test
+    void addsEventsToPendingDigest() {
+        withDigestWindow(60_000);
+        final List<EventWithContext> events = events(2);
+        final EventDto pendingEvent = mock(EventDto.class);
+        final JobTriggerDto pendingTrigger = JobTriggerDto.builderWithClock(clock)
+                .id("pending-trigger")
+                .jobDefinitionId(JOB_DEFINITION_ID)
+                .jobDefinitionType(EventNotificationExecutionJob.TYPE_NAME)
+                .schedule(OnceJobSchedule.create())
+                .data(EventNotificationExecutionJob.Data.builder().eventDto(pendingEvent).digestEvents(List.of(pendingEvent)).build())
+                .build();
+        when(jobTriggerService.getPendingTrigger(eq(JOB_DEFINITION_ID), any(Bson.class))).thenReturn(Optional.of(pendingTrigger));
+        when(jobTriggerService.updatePendingTriggerData(eq(pendingTrigger), any())).thenReturn(true);
+
+        handler.handleEvents(definition, events);
+
+        final ArgumentCaptor<EventNotificationExecutionJob.Data> dataCaptor = ArgumentCaptor.forClass(EventNotificationExecutionJob.Data.class);
+        verify(jobTriggerService).updatePendingTriggerData(eq(pendingTrigger), dataCaptor.capture());
+        assertThat(dataCaptor.getValue().eventDto()).isEqualTo(pendingEvent);
+        assertThat(dataCaptor.getValue().digestEvents())
+                .containsExactly(pendingEvent, events.get(0).event().toDto(), events.get(1).event().toDto());
+
+        verify(jobTriggerService).createAll(triggersCaptor.capture());
+        assertThat(triggersCaptor.getValue()).isEmpty();
+    }
+
+    private void withDigestWindow(long digestWindowMs) {
+        when(definition.notificationSettings()).thenReturn(EventNotificationSettings.builder()
+                .gracePeriodMs(0)
+                .digestWindowMs(digestWindowMs)
+                .build());
+    }
+
+    private static List<EventWithContext> events(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            final EventDto eventDto = mock(EventDto.class);
+            final Event event = mock(Event.class);
+            when(event.toDto()).thenReturn(eventDto);
+            return EventWithContext.create(event);
+        }).toList();
+    }
+}
@@ -18,6 +18,7 @@ package org.graylog.plugins.beats;
 
 import io.netty.channel.nio.NioEventLoopGroup;
 import org.graylog2.configuration.TLSProtocolsConfiguration;
+import org.graylog2.inputs.transports.IngestRateLimiter;
 import org.graylog2.inputs.transports.NettyTransportConfiguration;
 import org.graylog2.inputs.transports.netty.EventLoopGroupFactory;
 import org.graylog2.plugin.LocalMetricRegistry;
@@ -65,7 +66,8 @@ public class BeatsTransportTest {
                 nettyTransportConfiguration,
                 new ThroughputCounter(eventLoopGroup),
                 new LocalMetricRegistry(),
-                tlsConfiguration
+                tlsConfiguration,
+                IngestRateLimiter.disabled()
         );
 
         final MessageInput input = mock(MessageInput.class);
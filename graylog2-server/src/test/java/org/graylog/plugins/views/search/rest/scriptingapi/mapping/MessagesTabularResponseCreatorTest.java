@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog.plugins.views.search.rest.scriptingapi.mapping;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.graylog.plugins.views.search.export.ExportMessagesCommand;
+import org.graylog.plugins.views.search.export.MessagesExporter;
+import org.graylog.plugins.views.search.export.SimpleMessage;
+import org.graylog.plugins.views.search.export.SimpleMessageChunk;
+import org.graylog.plugins.views.search.permissions.SearchUser;
+import org.graylog.plugins.views.search.rest.TestSearchUser;
+import org.graylog.plugins.views.search.rest.scriptingapi.request.MessagesRequestSpec;
+import org.graylog2.indexer.fieldtypes.MappedFieldTypesService;
+import org.graylog2.shared.bindings.providers.ObjectMapperProvider;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MessagesTabularResponseCreatorTest {
+    private static final String STREAM_ID = "stream-1";
+
+    private final ObjectMapper objectMapper = new ObjectMapperProvider().get();
+    private final SearchUser searchUser = TestSearchUser.builder().allowStream(STREAM_ID).build();
+    private final MessagesTabularResponseCreator creator;
+
+    MessagesTabularResponseCreatorTest() {
+        final MappedFieldTypesService mappedFieldTypesService = mock(MappedFieldTypesService.class);
+        when(mappedFieldTypesService.fieldTypesByStreamIds(any(), any())).thenReturn(Set.of());
+        creator = new MessagesTabularResponseCreator(mappedFieldTypesService, Set.of(), objectMapper);
+    }
+
+    @Test
+    void skipsMessagesBeforeFrom() throws Exception {
+        final List<JsonNode> lines = writeColumnar(request(3), exporter(chunk(0, 2), chunk(2, 4), chunk(4, 6)));
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(1).path("columns").get(0)).map(JsonNode::asText).containsExactly("source-3");
+        assertThat(lines.get(2).path("columns").get(0)).map(JsonNode::asText).containsExactly("source-4", "source-5");
+    }
+
+    @Test
+    void writesGenericErrorIfExportFails() throws Exception {
+        final MessagesExporter exporter = (command, chunkForwarder) -> {
+            chunkForwarder.accept(chunk(0, 1));
+            throw new IllegalStateException("Index <graylog_42> is closed");
+        };
+
+        final List<JsonNode> lines = writeColumnar(request(0), exporter);
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(2).path("error").asText())
+                .isEqualTo(MessagesTabularResponseCreator.STREAMING_FAILED_MESSAGE)
+                .doesNotContain("graylog_42");
+    }
+
+    private List<JsonNode> writeColumnar(MessagesRequestSpec request, MessagesExporter exporter) throws Exception {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        creator.writeColumnar(request, ExportMessagesCommand.withDefaults(), exporter, searchUser, outputStream);
+
+        final List<JsonNode> lines = new ArrayList<>();
+        for (String line : outputStream.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private static MessagesRequestSpec request(int from) {
+        return new MessagesRequestSpec(null, Set.of(STREAM_ID), null, null, null, null, from, 10, List.of("source"));
+    }
+
+    private static MessagesExporter exporter(SimpleMessageChunk... chunks) {
+        return (command, chunkForwarder) -> Arrays.stream(chunks).forEach(chunkForwarder);
+    }
+
+    private static SimpleMessageChunk chunk(int fromInclusive, int toExclusive) {
+        final LinkedHashSet<SimpleMessage> messages = new LinkedHashSet<>();
+        IntStream.range(fromInclusive, toExclusive).forEach(i -> {
+            final LinkedHashMap<String, Object> fields = new LinkedHashMap<>();
+            fields.put("source", "source-" + i);
+            messages.add(SimpleMessage.from("graylog_0", fields));
+        });
+        return SimpleMessageChunk.from(new LinkedHashSet<>(List.of("source")), messages);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog.plugins.views.search.rest.scriptingapi.response.writers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.graylog.plugins.views.search.rest.scriptingapi.response.Metadata;
+import org.graylog.plugins.views.search.rest.scriptingapi.response.ResponseEntryDataType;
+import org.graylog.plugins.views.search.rest.scriptingapi.response.ResponseSchemaEntry;
+import org.graylog2.plugin.indexer.searches.timeranges.AbsoluteRange;
+import org.graylog2.shared.bindings.providers.ObjectMapperProvider;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ColumnarResponseWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapperProvider().get();
+
+    private final List<ResponseSchemaEntry> schema = List.of(
+            ResponseSchemaEntry.field("source", ResponseEntryDataType.STRING),
+            ResponseSchemaEntry.field("took_ms", ResponseEntryDataType.NUMERIC),
+            ResponseSchemaEntry.field("success", ResponseEntryDataType.BOOLEAN)
+    );
+
+    @Test
+    void writesSchemaAndTypedBatchesAsLines() throws Exception {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (final ColumnarResponseWriter writer = new ColumnarResponseWriter(objectMapper, outputStream, schema)) {
+            writer.writeHeader(new Metadata(AbsoluteRange.create("2024-01-01T00:00:00.000Z", "2024-01-02T00:00:00.000Z")));
+            writer.writeBatch(List.of(
+                    List.of("server-1", "server-2"),
+                    Arrays.asList("42", 1.5),
+                    Arrays.asList("true", null)
+            ));
+            writer.writeBatch(List.of(List.of(), List.of(), List.of()));
+            writer.writeBatch(List.of(List.of("server-3"), List.of("n/a"), List.of(false)));
+        }
+
+        final String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+
+        assertThat(objectMapper.readTree(lines[0]).get("schema")).hasSize(3);
+        assertThat(objectMapper.readTree(lines[0]).at("/schema/1/type").asText()).isEqualTo("numeric");
+        assertThat(objectMapper.readTree(lines[0]).at("/metadata/effective_timerange/from").asText()).isEqualTo("2024-01-01T00:00:00.000Z");
+
+        assertThat(lines[1]).isEqualTo("{\"rows\":2,\"columns\":[[\"server-1\",\"server-2\"],[42,1.5],[true,null]]}");
+        assertThat(lines[2]).isEqualTo("{\"rows\":1,\"columns\":[[\"server-3\"],[null],[false]]}");
+    }
+
+    @Test
+    void rejectsBatchesNotMatchingTheSchema() throws Exception {
+        try (final ColumnarResponseWriter writer = new ColumnarResponseWriter(objectMapper, new ByteArrayOutputStream(), schema)) {
+            assertThatThrownBy(() -> writer.writeBatch(List.of(List.of("server-1"))))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void keepsCollectionsAndStringifiesOtherValues() {
+        assertThat(ColumnarResponseWriter.convert(ResponseEntryDataType.STREAM, List.of("a", "b"))).isEqualTo(List.of("a", "b"));
+        assertThat(ColumnarResponseWriter.convert(ResponseEntryDataType.DATE, "2024-01-01T00:00:00.000Z")).isEqualTo("2024-01-01T00:00:00.000Z");
+        assertThat(ColumnarResponseWriter.convert(ResponseEntryDataType.UNKNOWN, 3)).isEqualTo(3);
+        assertThat(ColumnarResponseWriter.convert(ResponseEntryDataType.NUMERIC, "9223372036854775807")).isEqualTo(Long.MAX_VALUE);
+    }
+}
@@ -54,6 +54,7 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import static com.mongodb.client.model.Filters.exists;
 import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNull;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -338,6 +339,57 @@ public class DBJobTriggerServiceTest {
                 .hasMessageContaining("must not have an ID");
     }
 
+    @Test
+    public void createAllTriggers() {
+        final List<JobTriggerDto> triggers = dbJobTriggerService.createAll(List.of(
+                onceTrigger(TestJobTriggerData.create(Map.of("event", "1"))),
+                onceTrigger(TestJobTriggerData.create(Map.of("event", "2")))));
+
+        assertThat(triggers).hasSize(2).allSatisfy(trigger -> assertThat(trigger.id()).isNotBlank());
+        assertThat(triggers.get(0).id()).isNotEqualTo(triggers.get(1).id());
+        assertThat(dbJobTriggerService.get(triggers.get(1).id()))
+                .hasValueSatisfying(trigger -> assertThat(trigger.data())
+                        .hasValue(TestJobTriggerData.create(Map.of("event", "2"))));
+
+        assertThat(dbJobTriggerService.createAll(List.of())).isEmpty();
+        assertThatThrownBy(() -> dbJobTriggerService.createAll(List.of(triggers.get(0))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must not have an ID");
+    }
+
+    @Test
+    public void updatePendingTriggerData() {
+        final JobTriggerDto trigger = dbJobTriggerService.create(onceTrigger(TestJobTriggerData.create(Map.of("events", 1)))
+                .toBuilder()
+                .nextTime(clock.nowUTC().plusMinutes(1))
+                .build());
+
+        final JobTriggerDto pending = dbJobTriggerService.getPendingTrigger("abc-123", exists("data.map.events")).orElseThrow();
+        assertThat(pending.id()).isEqualTo(trigger.id());
+        assertThat(dbJobTriggerService.getPendingTrigger("abc-123", exists("data.map.other"))).isEmpty();
+
+        clock.plus(1, TimeUnit.SECONDS);
+        assertThat(dbJobTriggerService.updatePendingTriggerData(pending, TestJobTriggerData.create(Map.of("events", 2)))).isTrue();
+        assertThat(dbJobTriggerService.get(trigger.id()))
+                .hasValueSatisfying(t -> assertThat(t.data()).hasValue(TestJobTriggerData.create(Map.of("events", 2))));
+
+        // The trigger has been modified since it has been loaded
+        assertThat(dbJobTriggerService.updatePendingTriggerData(pending, TestJobTriggerData.create(Map.of("events", 3)))).isFalse();
+
+        // Triggers which are due are not pending anymore
+        clock.plus(1, TimeUnit.MINUTES);
+        assertThat(dbJobTriggerService.getPendingTrigger("abc-123", exists("data.map.events"))).isEmpty();
+    }
+
+    private JobTriggerDto onceTrigger(JobTriggerData data) {
+        return JobTriggerDto.Builder.create(clock)
+                .jobDefinitionId("abc-123")
+                .jobDefinitionType("notification-execution-v1")
+                .schedule(OnceJobSchedule.create())
+                .data(data)
+                .build();
+    }
+
     @Test
     public void updateTrigger() {
         final JobTriggerDto originalTrigger = dbJobTriggerService.create(JobTriggerDto.Builder.create(clock)
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog.security.permissions;
+
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.authz.permission.AllPermission;
+import org.apache.shiro.authz.permission.WildcardPermission;
+import org.graylog.grn.GRNRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PermissionIndexTest {
+    private final GRNRegistry grnRegistry = GRNRegistry.createWithBuiltinTypes();
+
+    @Test
+    void simplePermissions() {
+        final PermissionIndex index = PermissionIndex.of(List.of(
+                new CaseSensitiveWildcardPermission("streams:read:stream-1"),
+                new CaseSensitiveWildcardPermission("dashboards:edit")
+        ));
+
+        assertThat(index.implies(new CaseSensitiveWildcardPermission("streams:read:stream-1"))).isTrue();
+        assertThat(index.implies(new CaseSensitiveWildcardPermission("streams:read:stream-2"))).isFalse();
+        assertThat(index.implies(new CaseSensitiveWildcardPermission("streams:read:STREAM-1"))).isFalse();
+        assertThat(index.implies(new CaseSensitiveWildcardPermission("streams:read"))).isFalse();
+        assertThat(index.implies(new CaseSensitiveWildcardPermission("dashboards:edit:dashboard-1"))).isTrue();
+        assertThat(index.implies(new CaseSensitiveWildcardPermission("dashboards:read:dashboard-1"))).isFalse();
+    }
+
+    @Test
+    void wildcardPermissions() {
+        final PermissionIndex index = PermissionIndex.of(List.of(
+                new CaseSensitiveWildcardPermission("streams:*:stream-1"),
+                new CaseSensitiveWildcardPermission("dashboards:read,edit"),
+                new CaseSensitiveWildcardPermission("*:read:shared")
+        ));
+
+        assertThat(index.implies(new CaseSensitiveWildcardPermission("streams:edit:stream-1"))).isTrue();
+        assertThat(index.implies(new CaseSensitiveWildcardPermission("streams:edit:stream-2"))).isFalse();
+        assertThat(index.implies(new CaseSensitiveWildcardPermission("dashboards:edit:dashboard-1"))).isTrue();
+        assertThat(index.implies(new CaseSensitiveWildcardPermission("dashboards:delete:dashboard-1"))).isFalse();
+        assertThat(index.implies(new CaseSensitiveWildcardPermission("searches:read:shared"))).isTrue();
+        assertThat(index.implies(new CaseSensitiveWildcardPermission("streams:read,edit:stream-1"))).isTrue();
+        assertThat(index.implies(new CaseSensitiveWildcardPermission("streams:read,edit:stream-2"))).isFalse();
+    }
+
+    @Test
+    void grnAndOtherPermissions() {
+        final GRNPermission ownStream = GRNPermission.create("entity:own", grnRegistry.newGRN("stream", "stream-1"));
+        final PermissionIndex index = PermissionIndex.of(List.of(ownStream));
+
+        assertThat(index.implies(GRNPermission.create("entity:own", grnRegistry.newGRN("stream", "stream-1")))).isTrue();
+        assertThat(index.implies(GRNPermission.create("entity:own", grnRegistry.newGRN("stream", "stream-2")))).isFalse();
+        assertThat(index.implies(new CaseSensitiveWildcardPermission("entity:own:stream-1"))).isFalse();
+
+        final PermissionIndex allIndex = PermissionIndex.of(List.of(new AllPermission()));
+        assertThat(allIndex.implies(ownStream)).isTrue();
+        assertThat(allIndex.implies(new CaseSensitiveWildcardPermission("streams:read:stream-1"))).isTrue();
+    }
+
+    @Test
+    void matchesLinearScan() {
+        final List<Permission> permissions = IntStream.range(0, 100)
+                .mapToObj(i -> (Permission) new CaseSensitiveWildcardPermission("streams:read,edit:stream-" + i))
+                .toList();
+        final List<Permission> mixed = new ArrayList<>(permissions);
+        mixed.add(new WildcardPermission("Users:Edit"));
+        mixed.add(new CaseSensitiveWildcardPermission("streams:read:stream-500"));
+        final PermissionIndex index = PermissionIndex.of(mixed);
+
+        for (String check : List.of("streams:read:stream-1", "streams:edit:stream-99", "streams:read:stream-100",
+                "streams:read:stream-500", "streams:edit:stream-500", "users:edit:jane", "Users:Edit:jane", "streams")) {
+            final Permission permission = new CaseSensitiveWildcardPermission(check);
+            assertThat(index.implies(permission))
+                    .as(check)
+                    .isEqualTo(mixed.stream().anyMatch(p -> p.implies(permission)));
+        }
+    }
+}
@@ -16,7 +16,11 @@
  */
 package org.graylog2.cluster;
 
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.joschi.jadconfig.util.Duration;
+import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import com.mongodb.BasicDBObjectBuilder;
 import com.mongodb.DB;
@@ -370,6 +374,90 @@ public class ClusterConfigServiceImplTest {
         assertThat(collection.count()).isEqualTo(0L);
     }
 
+    @Test
+    public void cachedGetDoesNotHitDatabaseAgain() throws Exception {
+        final ClusterConfigService cachedService = createCachedService(new EventBus());
+        @SuppressWarnings("deprecation")
+        final DBCollection collection = mongoConnection.getDatabase().getCollection(COLLECTION_NAME);
+        collection.save(customConfigObject("TEST"));
+
+        assertThat(cachedService.get(CustomConfig.class).text).isEqualTo("TEST");
+
+        collection.remove(new BasicDBObjectBuilder().get());
+        assertThat(cachedService.get(CustomConfig.class).text).isEqualTo("TEST");
+    }
+
+    @Test
+    public void cachedGetIsInvalidatedByWriteAndRemove() throws Exception {
+        final ClusterConfigService cachedService = createCachedService(new EventBus());
+        assertThat(cachedService.get(CustomConfig.class)).isNull();
+
+        final CustomConfig customConfig = new CustomConfig();
+        customConfig.text = "TEST";
+        cachedService.write(customConfig);
+        assertThat(cachedService.get(CustomConfig.class).text).isEqualTo("TEST");
+
+        cachedService.remove(CustomConfig.class);
+        assertThat(cachedService.get(CustomConfig.class)).isNull();
+    }
+
+    @Test
+    public void cachedGetIsInvalidatedByClusterConfigChangedEvent() throws Exception {
+        final EventBus serverEventBus = new EventBus();
+        final ClusterConfigService cachedService = createCachedService(serverEventBus);
+        @SuppressWarnings("deprecation")
+        final DBCollection collection = mongoConnection.getDatabase().getCollection(COLLECTION_NAME);
+        collection.save(customConfigObject("TEST"));
+
+        assertThat(cachedService.get(CustomConfig.class).text).isEqualTo("TEST");
+
+        collection.update(new BasicDBObjectBuilder().add("type", CustomConfig.class.getCanonicalName()).get(),
+                customConfigObject("CHANGED"));
+        assertThat(cachedService.get(CustomConfig.class).text).isEqualTo("TEST");
+
+        serverEventBus.post(ClusterConfigChangedEvent.create(TIME, "other-node", CustomConfig.class.getCanonicalName()));
+        assertThat(cachedService.get(CustomConfig.class).text).isEqualTo("CHANGED");
+    }
+
+    @Test
+    public void cachedGetDoesNotCacheConfigChangedDuringLoad() throws Exception {
+        final EventBus serverEventBus = new EventBus();
+        final ClusterConfigService cachedService = createCachedService(serverEventBus);
+        @SuppressWarnings("deprecation")
+        final DBCollection collection = mongoConnection.getDatabase().getCollection(COLLECTION_NAME);
+        collection.save(customConfigObject("TEST"));
+        final String key = CustomConfig.class.getCanonicalName();
+
+        // Another node changes the config after it has been read from the database, but before it is cached
+        RacingConfig.onLoad = () -> {
+            RacingConfig.onLoad = null;
+            collection.update(new BasicDBObjectBuilder().add("type", key).get(), customConfigObject("CHANGED"));
+            serverEventBus.post(ClusterConfigChangedEvent.create(TIME, "other-node", key));
+        };
+        try {
+            assertThat(cachedService.get(key, RacingConfig.class).text).isEqualTo("TEST");
+            assertThat(cachedService.get(key, RacingConfig.class).text).isEqualTo("CHANGED");
+        } finally {
+            RacingConfig.onLoad = null;
+        }
+    }
+
+    @Test
+    public void removePostsClusterConfigChangedEvent() throws Exception {
+        @SuppressWarnings("deprecation")
+        final DBCollection collection = mongoConnection.getDatabase().getCollection(COLLECTION_NAME);
+        collection.save(customConfigObject("TEST"));
+
+        final ClusterConfigChangedEventHandler eventHandler = new ClusterConfigChangedEventHandler();
+        clusterEventBus.registerClusterEventSubscriber(eventHandler);
+
+        assertThat(clusterConfigService.remove(CustomConfig.class)).isEqualTo(1);
+        assertThat(eventHandler.event).isNotNull();
+        assertThat(eventHandler.event.type()).isEqualTo(CustomConfig.class.getCanonicalName());
+
+        clusterEventBus.unregister(eventHandler);
+    }
+
     @Test
     public void listReturnsAllClasses() throws Exception {
         @SuppressWarnings("deprecation")
@@ -431,6 +519,44 @@ public class ClusterConfigServiceImplTest {
         assertThat(clusterConfigService.list()).hasSize(0);
     }
 
+    private ClusterConfigService createCachedService(EventBus serverEventBus) {
+        return new ClusterConfigServiceImpl(
+                new MongoJackObjectMapperProvider(objectMapper),
+                mongodb.mongoConnection(),
+                nodeId,
+                new RestrictedChainingClassLoader(new ChainingClassLoader(getClass().getClassLoader()),
+                        SafeClasses.allGraylogInternal()),
+                clusterEventBus,
+                serverEventBus,
+                new MetricRegistry(),
+                Duration.minutes(1L)
+        );
+    }
+
+    private DBObject customConfigObject(String text) {
+        return new BasicDBObjectBuilder()
+                .add("type", CustomConfig.class.getCanonicalName())
+                .add("payload", Collections.singletonMap("text", text))
+                .add("last_updated", TIME.toString())
+                .add("last_updated_by", "ID")
+                .get();
+    }
+
+    public static class RacingConfig {
+        static Runnable onLoad;
+
+        public String text;
+
+        @JsonProperty("text")
+        public void setText(String text) {
+            this.text = text;
+            final Runnable runnable = onLoad;
+            if (runnable != null) {
+                runnable.run();
+            }
+        }
+    }
+
     public static class ClusterConfigChangedEventHandler {
         public volatile ClusterConfigChangedEvent event;
 
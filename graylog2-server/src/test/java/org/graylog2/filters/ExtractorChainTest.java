@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.filters;
+
+import org.graylog2.plugin.inputs.Extractor;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExtractorChainTest {
+    @Test
+    void sortsExtractorsByOrder() {
+        final Extractor first = extractor(1, "message", Extractor.ConditionType.NONE, "");
+        final Extractor second = extractor(2, "message", Extractor.ConditionType.NONE, "");
+
+        assertThat(ExtractorChain.of(List.of(second, first)).extractors()).containsExactly(first, second);
+    }
+
+    @Test
+    void evaluatesIdenticalConditionsOncePerValue() {
+        final Extractor first = extractor(1, "message", Extractor.ConditionType.REGEX, "^foo");
+        final Extractor second = extractor(2, "message", Extractor.ConditionType.REGEX, "^foo");
+        when(first.conditionMatches("foo bar")).thenReturn(true);
+
+        final ExtractorChain chain = ExtractorChain.of(List.of(first, second));
+        final Extractor.ConditionEvaluator evaluator = chain.conditionEvaluator();
+
+        final String value = "foo bar";
+        assertThat(evaluator.matches(first, value)).isTrue();
+        assertThat(evaluator.matches(second, value)).isTrue();
+
+        verify(first, times(1)).conditionMatches(value);
+        verify(second, times(0)).conditionMatches(value);
+    }
+
+    @Test
+    void reEvaluatesSharedConditionAfterSourceFieldChanged() {
+        final Extractor first = extractor(1, "message", Extractor.ConditionType.STRING, "foo");
+        final Extractor second = extractor(2, "message", Extractor.ConditionType.STRING, "foo");
+        when(first.conditionMatches("foo bar")).thenReturn(true);
+        when(second.conditionMatches(" bar")).thenReturn(false);
+
+        final Extractor.ConditionEvaluator evaluator = ExtractorChain.of(List.of(first, second)).conditionEvaluator();
+
+        assertThat(evaluator.matches(first, "foo bar")).isTrue();
+        // The first extractor has cut "foo" from the source field
+        assertThat(evaluator.matches(second, " bar")).isFalse();
+
+        verify(second, times(1)).conditionMatches(" bar");
+    }
+
+    @Test
+    void doesNotShareConditionsOfDifferentSourceFields() {
+        final Extractor first = extractor(1, "message", Extractor.ConditionType.STRING, "foo");
+        final Extractor second = extractor(2, "full_message", Extractor.ConditionType.STRING, "foo");
+        when(first.conditionMatches("foo")).thenReturn(true);
+        when(second.conditionMatches("foo")).thenReturn(false);
+
+        final Extractor.ConditionEvaluator evaluator = ExtractorChain.of(List.of(first, second)).conditionEvaluator();
+
+        final String value = "foo";
+        assertThat(evaluator.matches(first, value)).isTrue();
+        assertThat(evaluator.matches(second, value)).isFalse();
+    }
+
+    private static Extractor extractor(long order, String sourceField, Extractor.ConditionType conditionType, String conditionValue) {
+        final Extractor extractor = mock(Extractor.class);
+        when(extractor.getOrder()).thenReturn(order);
+        when(extractor.getSourceField()).thenReturn(sourceField);
+        when(extractor.getConditionType()).thenReturn(conditionType);
+        when(extractor.getConditionValue()).thenReturn(conditionValue);
+        return extractor;
+    }
+}
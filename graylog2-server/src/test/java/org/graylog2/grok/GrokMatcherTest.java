@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.grok;
+
+import io.krakens.grok.api.Grok;
+import io.krakens.grok.api.GrokCompiler;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GrokMatcherTest {
+    @Test
+    void extractsRequiredLiteralsOfSequence() {
+        assertThat(GrokLiterals.requiredLiterals("\\w+ - - \\[\\d+\\] \"GET "))
+                .containsExactly(List.of("] \"GET ", " - - ["));
+    }
+
+    @Test
+    void skipsOptionalParts() {
+        assertThat(GrokLiterals.requiredLiterals("foo?bar")).containsExactly(List.of("bar", "fo"));
+        assertThat(GrokLiterals.requiredLiterals("(?:abc)?def(?:ghi)+")).containsExactly(List.of("def", "ghi"));
+        assertThat(GrokLiterals.requiredLiterals("ab{0,3}cd")).containsExactly(List.of("cd"));
+    }
+
+    @Test
+    void skipsNestedAlternativesAndLookarounds() {
+        assertThat(GrokLiterals.requiredLiterals("xyz(?:foo|bar)uvw(?=abc)")).containsExactly(List.of("xyz", "uvw"));
+    }
+
+    @Test
+    void returnsLiteralsOfTopLevelAlternatives() {
+        assertThat(GrokLiterals.requiredLiterals("foo\\d+|bar\\s")).containsExactly(List.of("foo"), List.of("bar"));
+    }
+
+    @Test
+    void returnsNothingForUnsupportedExpressions() {
+        assertThat(GrokLiterals.requiredLiterals("(?i)foo")).isEmpty();
+        assertThat(GrokLiterals.requiredLiterals("\\Qfoo\\E")).isEmpty();
+        assertThat(GrokLiterals.requiredLiterals("(foo)bar\\1")).isEmpty();
+        // An alternative without literals may match everything
+        assertThat(GrokLiterals.requiredLiterals("foo|\\d+")).isEmpty();
+    }
+
+    @Test
+    void characterClassesAreNotLiterals() {
+        assertThat(GrokLiterals.requiredLiterals("ab[]cd]ef[^x]gh")).containsExactly(List.of("ab", "ef", "gh"));
+    }
+
+    @Test
+    void rejectsValuesWithoutRequiredLiterals() {
+        final GrokMatcher matcher = matcher("%{WORD:verb} /%{NOTSPACE:path} HTTP/%{NUMBER:version}");
+
+        assertThat(matcher.mayMatch("GET /index.html HTTP/1.1")).isTrue();
+        assertThat(matcher.mayMatch("GET /index.html")).isFalse();
+        assertThat(matcher.match("GET /index.html").captureFlattened()).isEmpty();
+    }
+
+    @Test
+    void matchesLikeGrok() {
+        final List<String> patterns = List.of(
+                "%{WORD:verb} /%{NOTSPACE:path} HTTP/%{NUMBER:version}",
+                "user=%{WORD:user}|uid=%{NUMBER:uid}",
+                "\\[%{NUMBER:pid}\\]: %{GREEDYDATA:text}",
+                "%{NUMBER:a}(?: ms)?");
+        final List<String> values = List.of(
+                "GET /index.html HTTP/1.1",
+                "POST / HTTP/2",
+                "login user=alice",
+                "login uid=1000",
+                "login uid=alice",
+                "sshd[123]: Accepted",
+                "sshd[abc]: Accepted",
+                "took 12 ms",
+                "",
+                "nothing to see here");
+
+        for (String pattern : patterns) {
+            final GrokMatcher matcher = matcher(pattern);
+            for (String value : values) {
+                assertThat(matcher.match(value).captureFlattened())
+                        .as("pattern <%s>, value <%s>", pattern, value)
+                        .isEqualTo(matcher.grok().match(value).captureFlattened());
+            }
+        }
+    }
+
+    private static GrokMatcher matcher(String pattern) {
+        final GrokCompiler grokCompiler = GrokCompiler.newInstance();
+        grokCompiler.register("WORD", "\\b\\w+\\b");
+        grokCompiler.register("NOTSPACE", "\\S+");
+        grokCompiler.register("NUMBER", "(?:[+-]?(?:(?:[0-9]+(?:\\.[0-9]+)?)|(?:\\.[0-9]+)))");
+        grokCompiler.register("GREEDYDATA", ".*");
+        final Grok grok = grokCompiler.compile(pattern, false);
+        return GrokMatcher.create(grok);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.indexer.fieldtypes;
+
+import com.github.joschi.jadconfig.util.Duration;
+import org.graylog2.indexer.messages.ImmutableMessage;
+import org.graylog2.indexer.messages.IndexingSuccess;
+import org.graylog2.plugin.Message;
+import org.graylog2.plugin.MessageFactory;
+import org.graylog2.plugin.TestMessageFactory;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndexFieldNameTrackerTest {
+    private final MessageFactory messageFactory = new TestMessageFactory();
+    private final IndexFieldNameTracker tracker = new IndexFieldNameTracker(Duration.minutes(1));
+
+    @Test
+    void reportsIndicesWithUnseenFieldsOnce() {
+        tracker.track(List.of(
+                IndexingSuccess.create(message(Map.of("foo", "bar")), "graylog_0"),
+                IndexingSuccess.create(ImmutableMessage.wrap(message(Map.of("foo", "bar"))), "events_0")
+        ));
+        assertThat(tracker.drainPendingIndices()).containsExactlyInAnyOrder("graylog_0", "events_0");
+        assertThat(tracker.drainPendingIndices()).isEmpty();
+
+        tracker.track(List.of(IndexingSuccess.create(message(Map.of("foo", "baz")), "graylog_0")));
+        assertThat(tracker.drainPendingIndices()).isEmpty();
+
+        tracker.track(List.of(
+                IndexingSuccess.create(message(Map.of("foo", "baz", "new_field", 42)), "graylog_0"),
+                // Same fields, but a new index after rotation
+                IndexingSuccess.create(message(Map.of("foo", "baz")), "graylog_1")
+        ));
+        assertThat(tracker.drainPendingIndices()).containsExactlyInAnyOrder("graylog_0", "graylog_1");
+    }
+
+    @Test
+    void disabledTrackerDoesNotTrackFields() {
+        final IndexFieldNameTracker disabled = IndexFieldNameTracker.disabled();
+
+        disabled.track(List.of(IndexingSuccess.create(message(Map.of("foo", "bar")), "graylog_0")));
+
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.drainPendingIndices()).isEmpty();
+    }
+
+    private Message message(Map<String, Object> fields) {
+        final Message message = messageFactory.createMessage("message", "source", new DateTime(2024, 1, 1, 0, 0, DateTimeZone.UTC));
+        message.addFields(fields);
+        return message;
+    }
+}
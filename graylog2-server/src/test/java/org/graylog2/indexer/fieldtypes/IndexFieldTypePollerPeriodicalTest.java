@@ -19,8 +19,10 @@ package org.graylog2.indexer.fieldtypes;
 import com.github.joschi.jadconfig.util.Duration;
 import com.google.common.eventbus.EventBus;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.graylog2.cluster.leader.LeaderElectionService;
 import org.graylog2.indexer.MongoIndexSet;
 import org.graylog2.indexer.cluster.Cluster;
+import org.graylog2.indexer.fieldtypes.events.IndexFieldsDiscoveredEvent;
 import org.graylog2.indexer.indexset.IndexSetConfig;
 import org.graylog2.indexer.indexset.IndexSetService;
 import org.graylog2.indexer.indices.Indices;
@@ -35,14 +37,18 @@ import org.mockito.stubbing.Answer;
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -63,9 +69,18 @@ class IndexFieldTypePollerPeriodicalTest {
             new ThreadFactoryBuilder().setNameFormat("index-field-type-poller-periodical-test-%d").build()
     );
 
+    private final LeaderElectionService leaderElectionService = mock(LeaderElectionService.class);
+
     @BeforeEach
     void setUp() {
-        this.periodical = new IndexFieldTypePollerPeriodical(indexFieldTypePoller,
+        this.periodical = createPeriodical(Duration.seconds(0));
+        when(serverStatus.getLifecycle()).thenReturn(Lifecycle.RUNNING);
+        when(cluster.isConnected()).thenReturn(true);
+        when(leaderElectionService.isLeader()).thenReturn(true);
+    }
+
+    private IndexFieldTypePollerPeriodical createPeriodical(Duration discoveryFallbackInterval) {
+        return new IndexFieldTypePollerPeriodical(indexFieldTypePoller,
                 indexFieldTypesService,
                 indexSetService,
                 indices,
@@ -74,9 +89,9 @@ class IndexFieldTypePollerPeriodicalTest {
                 eventBus,
                 serverStatus,
                 Duration.seconds(0),
+                discoveryFallbackInterval,
+                leaderElectionService,
                 scheduler);
-        when(serverStatus.getLifecycle()).thenReturn(Lifecycle.RUNNING);
-        when(cluster.isConnected()).thenReturn(true);
     }
 
     @Test
@@ -88,6 +103,83 @@ class IndexFieldTypePollerPeriodicalTest {
         verifyNoInteractions(cluster);
     }
 
+    @Test
+    void discoveredIndicesArePolledWithoutWaitingForFallbackInterval() throws InterruptedException {
+        final IndexFieldTypePollerPeriodical discoveringPeriodical = createPeriodical(Duration.minutes(1));
+        final IndexSetConfig indexSet = indexSetConfig();
+        when(indexSetService.findAll()).thenReturn(List.of(indexSet));
+
+        final MongoIndexSet mongoIndexSet = mock(MongoIndexSet.class);
+        when(mongoIndexSet.getActiveWriteIndex()).thenReturn("test_0");
+        when(mongoIndexSet.isManagedIndex("test_0")).thenReturn(true);
+        when(mongoIndexSetFactory.create(eq(indexSet))).thenReturn(mongoIndexSet);
+        when(indexFieldTypePoller.pollIndex(anyString(), anyString())).thenReturn(Optional.empty());
+
+        discoveringPeriodical.doRun();
+        await().atMost(1, TimeUnit.MINUTES).until(() -> scheduler.getCompletedTaskCount() == 1);
+
+        // The refresh interval of the index set has passed, but the fallback interval hasn't
+        Thread.sleep(1100);
+        discoveringPeriodical.doRun();
+        assertThat(scheduler.getTaskCount()).isEqualTo(1);
+
+        discoveringPeriodical.handleIndexFieldsDiscovered(IndexFieldsDiscoveredEvent.create(Set.of("test_0", "unknown_0")));
+        discoveringPeriodical.doRun();
+        await().atMost(1, TimeUnit.MINUTES).until(() -> scheduler.getCompletedTaskCount() == 2);
+
+        verify(indexFieldTypePoller, times(2)).pollIndex("test_0", "indexSet1");
+        verify(indexFieldTypePoller, never()).pollIndex(eq("unknown_0"), anyString());
+    }
+
+    @Test
+    void storesOnlyChangedFieldTypes() {
+        final IndexFieldTypePollerPeriodical discoveringPeriodical = createPeriodical(Duration.minutes(1));
+        final IndexSetConfig indexSet = indexSetConfig();
+        when(indexSetService.findAll()).thenReturn(List.of(indexSet));
+
+        final MongoIndexSet mongoIndexSet = mock(MongoIndexSet.class);
+        when(mongoIndexSet.getActiveWriteIndex()).thenReturn("test_0");
+        when(mongoIndexSet.isManagedIndex("test_0")).thenReturn(true);
+        when(mongoIndexSetFactory.create(eq(indexSet))).thenReturn(mongoIndexSet);
+
+        final IndexFieldTypesDTO stored = IndexFieldTypesDTO.create("indexSet1", "test_0", Set.of(FieldTypeDTO.create("message", "text")));
+        when(indexFieldTypesService.findOneByIndexName("test_0")).thenReturn(stored);
+        when(indexFieldTypePoller.pollIndex("test_0", "indexSet1")).thenReturn(Optional.of(
+                IndexFieldTypesDTO.create("indexSet1", "test_0", Set.of(FieldTypeDTO.create("message", "text")))));
+
+        discoveringPeriodical.doRun();
+        await().atMost(1, TimeUnit.MINUTES).until(() -> scheduler.getCompletedTaskCount() == 1);
+
+        verify(indexFieldTypesService, never()).upsert(any());
+
+        when(indexFieldTypePoller.pollIndex("test_0", "indexSet1")).thenReturn(Optional.of(
+                IndexFieldTypesDTO.create("indexSet1", "test_0", Set.of(FieldTypeDTO.create("message", "text"), FieldTypeDTO.create("source", "keyword")))));
+
+        discoveringPeriodical.handleIndexFieldsDiscovered(IndexFieldsDiscoveredEvent.create(Set.of("test_0")));
+        discoveringPeriodical.doRun();
+        await().atMost(1, TimeUnit.MINUTES).until(() -> scheduler.getCompletedTaskCount() == 2);
+
+        verify(indexFieldTypesService, times(1)).upsert(any());
+    }
+
+    private IndexSetConfig indexSetConfig() {
+        return IndexSetConfig.builder()
+                .id("indexSet1")
+                .title("Test Index Set")
+                .indexPrefix("test")
+                .shards(2)
+                .creationDate(ZonedDateTime.now())
+                .indexAnalyzer("standard")
+                .indexTemplateName("test")
+                .indexOptimizationMaxNumSegments(2048)
+                .indexOptimizationDisabled(false)
+                .fieldTypeRefreshInterval(org.joda.time.Duration.standardSeconds(1))
+                .retentionStrategyConfig(NoopRetentionStrategyConfig.createDefault())
+                .rotationStrategyConfig(MessageCountRotationStrategyConfig.createDefault())
+                .replicas(1)
+                .build();
+    }
+
     @Test
     void noConcurrentPollingForFieldTypes() throws InterruptedException {
         final IndexSetConfig indexSet = IndexSetConfig.builder()
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.indexer.fieldtypes;
+
+import com.codahale.metrics.MetricRegistry;
+import com.github.joschi.jadconfig.util.Duration;
+import com.google.common.eventbus.EventBus;
+import org.graylog2.indexer.fieldtypes.events.IndexFieldTypesUpdatedEvent;
+import org.graylog2.streams.events.StreamDeletedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IndexFieldTypesCatalogTest {
+    private final IndexFieldTypesService indexFieldTypesService = mock(IndexFieldTypesService.class);
+    private IndexFieldTypesCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new IndexFieldTypesCatalog(indexFieldTypesService, Duration.minutes(1), new MetricRegistry(), new EventBus());
+        when(indexFieldTypesService.findAll()).thenReturn(List.of(
+                IndexFieldTypesDTO.create("set1", "index_0", Set.of(
+                        fieldType("message", "text", "stream1"),
+                        fieldType("source", "keyword", "stream1", "stream2"))),
+                IndexFieldTypesDTO.create("set1", "index_1", Set.of(
+                        fieldType("message", "text", "stream2"),
+                        fieldType("took_ms", "long", "stream2")))
+        ));
+    }
+
+    @Test
+    void filtersByIndicesAndIndexSets() {
+        assertThat(catalog.fieldTypes(Set.of("set1"), Set.of("index_0"), null))
+                .containsExactlyInAnyOrder(FieldTypeDTO.create("message", "text"), FieldTypeDTO.create("source", "keyword"));
+        assertThat(catalog.fieldTypes(Set.of("set1"), Set.of("index_0", "index_1", "unknown"), null))
+                .extracting(FieldTypeDTO::fieldName)
+                .containsExactlyInAnyOrder("message", "source", "took_ms");
+        assertThat(catalog.fieldTypes(Set.of("set2"), Set.of("index_0", "index_1"), null)).isEmpty();
+
+        verify(indexFieldTypesService, times(1)).findAll();
+    }
+
+    @Test
+    void filtersByStreamsWithinQueriedIndices() {
+        assertThat(catalog.fieldTypes(Set.of("set1"), Set.of("index_0", "index_1"), Set.of("stream1")))
+                .extracting(FieldTypeDTO::fieldName)
+                .containsExactlyInAnyOrder("message", "source");
+        // "message" contains data of stream2 only in index_1
+        assertThat(catalog.fieldTypes(Set.of("set1"), Set.of("index_0"), Set.of("stream2")))
+                .extracting(FieldTypeDTO::fieldName)
+                .containsExactly("source");
+        assertThat(catalog.fieldTypes(Set.of("set1"), Set.of("index_0"), Set.of("unknown"))).isEmpty();
+    }
+
+    @Test
+    void reloadsOnlyUpdatedIndices() {
+        catalog.fieldTypes(Set.of("set1"), Set.of("index_0"), null);
+
+        when(indexFieldTypesService.findByIndexNames(Set.of("index_1"))).thenReturn(List.of(
+                IndexFieldTypesDTO.create("set1", "index_1", Set.of(fieldType("took_ms", "double", "stream2")))));
+        catalog.handleIndexFieldTypesUpdated(IndexFieldTypesUpdatedEvent.create(Set.of("index_1")));
+        assertThat(catalog.fieldTypes(Set.of("set1"), Set.of("index_1"), null))
+                .containsExactly(FieldTypeDTO.create("took_ms", "double"));
+
+        // index_0 has been deleted, index_2 is new
+        when(indexFieldTypesService.findByIndexNames(Set.of("index_0", "index_2"))).thenReturn(List.of(
+                IndexFieldTypesDTO.create("set1", "index_2", Set.of(fieldType("level", "long", "stream1")))));
+        catalog.handleIndexFieldTypesUpdated(IndexFieldTypesUpdatedEvent.create(Set.of("index_0", "index_2")));
+        assertThat(catalog.fieldTypes(Set.of("set1"), Set.of("index_0", "index_1", "index_2"), null))
+                .extracting(FieldTypeDTO::fieldName)
+                .containsExactlyInAnyOrder("took_ms", "level");
+        assertThat(catalog.fieldTypes(Set.of("set1"), Set.of("index_0", "index_1", "index_2"), Set.of("stream1")))
+                .extracting(FieldTypeDTO::fieldName)
+                .containsExactly("level");
+
+        verify(indexFieldTypesService, times(1)).findAll();
+    }
+
+    @Test
+    void ignoresUpdatesBeforeFirstLoad() {
+        catalog.handleIndexFieldTypesUpdated(IndexFieldTypesUpdatedEvent.create(Set.of("index_1")));
+
+        verify(indexFieldTypesService, never()).findByIndexNames(any());
+        assertThat(catalog.fieldTypes(Set.of("set1"), Set.of("index_1"), null))
+                .extracting(FieldTypeDTO::fieldName)
+                .containsExactlyInAnyOrder("message", "took_ms");
+    }
+
+    @Test
+    void releasesOrdinalsOfDeletedStreams() {
+        assertThat(catalog.fieldTypes(Set.of("set1"), Set.of("index_0", "index_1"), Set.of("stream2")))
+                .extracting(FieldTypeDTO::fieldName)
+                .containsExactlyInAnyOrder("message", "source", "took_ms");
+
+        catalog.handleStreamDeleted(StreamDeletedEvent.create("stream1"));
+        assertThat(catalog.fieldTypes(Set.of("set1"), Set.of("index_0", "index_1"), Set.of("stream1"))).isEmpty();
+
+        // The new stream gets the released ordinal and must not inherit the data of the deleted stream
+        when(indexFieldTypesService.findByIndexNames(Set.of("index_2"))).thenReturn(List.of(
+                IndexFieldTypesDTO.create("set1", "index_2", Set.of(fieldType("level", "long", "stream3")))));
+        catalog.handleIndexFieldTypesUpdated(IndexFieldTypesUpdatedEvent.create(Set.of("index_2")));
+        assertThat(catalog.fieldTypes(Set.of("set1"), Set.of("index_0", "index_1", "index_2"), Set.of("stream3")))
+                .containsExactly(FieldTypeDTO.create("level", "long"));
+        assertThat(catalog.fieldTypes(Set.of("set1"), Set.of("index_0", "index_1"), Set.of("stream2")))
+                .extracting(FieldTypeDTO::fieldName)
+                .containsExactlyInAnyOrder("message", "source", "took_ms");
+    }
+
+    @Test
+    void disabledCatalogIgnoresEvents() {
+        final EventBus eventBus = mock(EventBus.class);
+        final IndexFieldTypesCatalog disabled = new IndexFieldTypesCatalog(indexFieldTypesService, Duration.seconds(0), new MetricRegistry(), eventBus);
+
+        assertThat(disabled.isEnabled()).isFalse();
+        verify(eventBus, never()).register(any());
+    }
+
+    private static FieldTypeDTO fieldType(String name, String physicalType, String... streams) {
+        return FieldTypeDTO.builder().fieldName(name).physicalType(physicalType).streams(Set.of(streams)).build();
+    }
+}
@@ -19,6 +19,8 @@ package org.graylog2.indexer.fieldtypes;
 import com.google.common.collect.ImmutableSet;
 import org.graylog.testing.mongodb.MongoDBInstance;
 import org.graylog2.bindings.providers.MongoJackObjectMapperProvider;
+import org.graylog2.events.ClusterEventBus;
+import org.graylog2.indexer.fieldtypes.events.IndexFieldTypesUpdatedEvent;
 import org.graylog2.shared.bindings.providers.ObjectMapperProvider;
 import org.junit.After;
 import org.junit.Before;
@@ -31,17 +33,21 @@ import java.util.Set;
 
 import static com.google.common.collect.ImmutableSet.of;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class IndexFieldTypesServiceTest {
     @Rule
     public final MongoDBInstance mongodb = MongoDBInstance.createForClass();
 
+    private final ClusterEventBus clusterEventBus = mock(ClusterEventBus.class);
     private IndexFieldTypesService dbService;
 
     @Before
     public void setUp() throws Exception {
         final MongoJackObjectMapperProvider objectMapperProvider = new MongoJackObjectMapperProvider(new ObjectMapperProvider().get());
-        this.dbService = new IndexFieldTypesService(mongodb.mongoConnection(), objectMapperProvider);
+        this.dbService = new IndexFieldTypesService(mongodb.mongoConnection(), objectMapperProvider, clusterEventBus);
     }
 
     @After
@@ -106,6 +112,17 @@ public class IndexFieldTypesServiceTest {
         assertThat(typeHistory).isEqualTo(List.of());
     }
 
+    @Test
+    public void postsUpdatedEventForEveryWrite() {
+        final IndexFieldTypesDTO saved = dbService.save(createDto("graylog_0", Collections.emptySet()));
+        dbService.upsert(createDto("graylog_1", Collections.emptySet()));
+        dbService.delete(saved.id());
+        dbService.delete("graylog_1");
+
+        verify(clusterEventBus, times(2)).post(IndexFieldTypesUpdatedEvent.create(Set.of("graylog_0")));
+        verify(clusterEventBus, times(2)).post(IndexFieldTypesUpdatedEvent.create(Set.of("graylog_1")));
+    }
+
     @Test
     public void saveGetDeleteStream() {
         final IndexFieldTypesDTO newDto1 = createDto("graylog_0", Collections.emptySet());
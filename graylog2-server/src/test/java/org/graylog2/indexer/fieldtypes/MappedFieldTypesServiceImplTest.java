@@ -16,12 +16,16 @@
  */
 package org.graylog2.indexer.fieldtypes;
 
+import com.codahale.metrics.MetricRegistry;
+import com.github.joschi.jadconfig.util.Duration;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.eventbus.EventBus;
 import org.graylog.plugins.formatting.units.fields.FieldUnitObtainer;
 import org.graylog.plugins.views.search.elasticsearch.IndexLookup;
 import org.graylog.plugins.views.search.rest.MappedFieldTypeDTO;
 import org.graylog2.Configuration;
+import org.graylog2.indexer.fieldtypes.events.IndexFieldTypesUpdatedEvent;
 import org.graylog2.plugin.indexer.searches.timeranges.AbsoluteRange;
 import org.graylog2.plugin.indexer.searches.timeranges.RelativeRange;
 import org.graylog2.plugin.indexer.searches.timeranges.TimeRange;
@@ -41,7 +45,9 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -187,6 +193,52 @@ public class MappedFieldTypesServiceImplTest {
         );
     }
 
+    @Test
+    public void catalogReturnsSameFieldTypesAsDatabaseLookup() {
+        final Configuration withStreamAwarenessOn = spy(new Configuration());
+        doReturn(true).when(withStreamAwarenessOn).maintainsStreamAwareFieldTypes();
+        final IndexFieldTypesCatalog catalog = new IndexFieldTypesCatalog(indexFieldTypesService, Duration.minutes(1), new MetricRegistry(), new EventBus());
+        final MappedFieldTypesService catalogService = new MappedFieldTypesServiceImpl(withStreamAwarenessOn, streamService, indexFieldTypesService, new FieldTypeMapper(), indexLookup, fieldUnitObtainer, catalog);
+
+        when(indexFieldTypesService.findAll()).thenReturn(ImmutableList.of(
+                createIndexTypes(
+                        "indexSetId",
+                        "testIndex",
+                        FieldTypeDTO.builder().fieldName("field1").physicalType("long").streams(Set.of("stream1")).build(),
+                        FieldTypeDTO.builder().fieldName("field3").physicalType("keyword").streams(Set.of("stream1")).build()
+                ),
+                createIndexTypes(
+                        "indexSetId",
+                        "testIndex2",
+                        FieldTypeDTO.builder().fieldName("field1").physicalType("text").streams(Set.of("stream1", "stream2")).build(),
+                        FieldTypeDTO.builder().fieldName("field2").physicalType("keyword").streams(Set.of("stream2")).build()
+                ),
+                createIndexTypes(
+                        "otherIndexSetId",
+                        "otherIndex",
+                        FieldTypeDTO.builder().fieldName("field4").physicalType("keyword").streams(Set.of("stream1")).build()
+                )
+        ));
+        when(indexLookup.indexNamesForStreamsInTimeRange(Collections.singleton("stream1"), RelativeRange.allTime())).thenReturn(ImmutableSet.of("testIndex", "testIndex2", "otherIndex"));
+        when(indexLookup.indexNamesForStreamsInTimeRange(Collections.singleton("stream2"), RelativeRange.allTime())).thenReturn(ImmutableSet.of("testIndex2"));
+
+        assertThat(catalogService.fieldTypesByStreamIds(Collections.singleton("stream1"), RelativeRange.allTime())).containsExactlyInAnyOrder(
+                MappedFieldTypeDTO.create("field1", FieldTypes.Type.createType("compound(long,string)", ImmutableSet.of("compound"))),
+                MappedFieldTypeDTO.create("field3", FieldTypes.Type.createType("string", ImmutableSet.of("enumerable")))
+        );
+        assertThat(catalogService.fieldTypesByStreamIds(Collections.singleton("stream2"), RelativeRange.allTime())).containsExactlyInAnyOrder(
+                MappedFieldTypeDTO.create("field1", FieldTypes.Type.createType("string", ImmutableSet.of("full-text-search"))),
+                MappedFieldTypeDTO.create("field2", FieldTypes.Type.createType("string", ImmutableSet.of("enumerable")))
+        );
+
+        when(indexFieldTypesService.findByIndexNames(Set.of("testIndex2"))).thenReturn(List.of());
+        catalog.handleIndexFieldTypesUpdated(IndexFieldTypesUpdatedEvent.create(Set.of("testIndex2")));
+        assertThat(catalogService.fieldTypesByStreamIds(Collections.singleton("stream2"), RelativeRange.allTime())).isEmpty();
+
+        verify(indexFieldTypesService, times(1)).findAll();
+        verify(indexFieldTypesService, never()).findForIndexSets(anyCollection());
+    }
+
     @Test
     public void requestsFieldTypesForRequestedTimeRange() throws Exception {
         this.mappedFieldTypesService.fieldTypesByStreamIds(Collections.singleton("stream1"), AbsoluteRange.create("2010-05-17T23:28:14.000+02:00", "2021-05-05T12:09:23.213+02:00"));
@@ -19,6 +19,7 @@ package org.graylog2.indexer.fieldtypes;
 import com.google.common.collect.ImmutableSet;
 import org.graylog.testing.mongodb.MongoDBInstance;
 import org.graylog2.bindings.providers.MongoJackObjectMapperProvider;
+import org.graylog2.events.ClusterEventBus;
 import org.graylog2.shared.bindings.providers.ObjectMapperProvider;
 import org.junit.After;
 import org.junit.Before;
@@ -31,6 +32,7 @@ import java.util.Set;
 
 import static com.google.common.collect.ImmutableSet.of;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 public class MongoFieldTypeLookupTest {
     @Rule
@@ -42,7 +44,7 @@ public class MongoFieldTypeLookupTest {
     @Before
     public void setUp() throws Exception {
         final MongoJackObjectMapperProvider objectMapperProvider = new MongoJackObjectMapperProvider(new ObjectMapperProvider().get());
-        this.dbService = new IndexFieldTypesService(mongodb.mongoConnection(), objectMapperProvider);
+        this.dbService = new IndexFieldTypesService(mongodb.mongoConnection(), objectMapperProvider, mock(ClusterEventBus.class));
         this.lookup = new MongoFieldTypeLookup(dbService, new FieldTypeMapper());
     }
 
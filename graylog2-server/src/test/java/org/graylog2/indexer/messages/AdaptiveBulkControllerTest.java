@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.indexer.messages;
+
+import com.codahale.metrics.MetricRegistry;
+import com.github.joschi.jadconfig.util.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.graylog2.indexer.messages.AdaptiveBulkController.UNLIMITED;
+
+class AdaptiveBulkControllerTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(5);
+
+    private AdaptiveBulkController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new AdaptiveBulkController(true, Duration.seconds(1), new MetricRegistry());
+    }
+
+    @Test
+    void disabledControllerDoesNotLimit() {
+        final AdaptiveBulkController disabled = AdaptiveBulkController.disabled();
+
+        disabled.acquire();
+        disabled.onTooManyRequests(1000);
+        disabled.release();
+
+        assertThat(disabled.chunkSize(1000)).isEqualTo(1000);
+        assertThat(disabled.concurrencyLimit()).isEqualTo(UNLIMITED);
+    }
+
+    @Test
+    void tooManyRequestsDecreasesMultiplicativelyAndRecoversAdditively() {
+        assertThat(controller.chunkSize(1000)).isEqualTo(1000);
+
+        controller.acquire();
+        controller.acquire();
+        controller.onTooManyRequests(1000);
+        controller.release();
+        controller.release();
+
+        assertThat(controller.chunkSize(1000)).isEqualTo(500);
+        assertThat(controller.concurrencyLimit()).isEqualTo(1);
+
+        controller.onSuccess(500, FAST);
+        assertThat(controller.chunkSize(1000)).isEqualTo(550);
+        assertThat(controller.concurrencyLimit()).isEqualTo(2);
+
+        // Limits are lifted once they reach the largest observed values
+        for (int i = 0; i < 10; i++) {
+            controller.onSuccess(controller.chunkSize(1000), FAST);
+        }
+        assertThat(controller.chunkSizeLimit()).isEqualTo(UNLIMITED);
+        assertThat(controller.concurrencyLimit()).isEqualTo(UNLIMITED);
+    }
+
+    @Test
+    void slowRequestsDecreaseChunkSize() {
+        controller.chunkSize(1000);
+        controller.onSuccess(1000, SLOW);
+
+        assertThat(controller.chunkSize(1000)).isEqualTo(750);
+        assertThat(controller.concurrencyLimit()).isEqualTo(UNLIMITED);
+    }
+
+    @Test
+    void entityTooLargeOnlyDecreasesChunkSize() {
+        controller.chunkSize(1000);
+        controller.acquire();
+        controller.onEntityTooLarge(1000);
+        controller.release();
+
+        assertThat(controller.chunkSize(1000)).isEqualTo(500);
+        assertThat(controller.concurrencyLimit()).isEqualTo(UNLIMITED);
+    }
+}
@@ -45,6 +45,8 @@ import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 
@@ -172,6 +174,20 @@ public class MongoIndexRangeServiceTest {
         Assertions.assertThat(indexRange.calculatedAt()).isEqualToIgnoringHours(DateTime.now(DateTimeZone.UTC));
     }
 
+    @Test
+    public void calculateRangesOmitsIndicesWithoutStats() throws Exception {
+        final DateTime min = new DateTime(2015, 1, 1, 1, 0, DateTimeZone.UTC);
+        final DateTime max = new DateTime(2015, 1, 1, 5, 0, DateTimeZone.UTC);
+        when(indices.indexRangeStatsOfIndices(List.of("graylog_1", "graylog_2")))
+                .thenReturn(Map.of("graylog_1", IndexRangeStats.create(min, max)));
+
+        final Map<String, IndexRange> indexRanges = indexRangeService.calculateRanges(List.of("graylog_1", "graylog_2"));
+
+        assertThat(indexRanges).containsOnlyKeys("graylog_1");
+        assertThat(indexRanges.get("graylog_1").begin()).isEqualTo(min);
+        assertThat(indexRanges.get("graylog_1").end()).isEqualTo(max);
+    }
+
     @Test(expected = ElasticsearchException.class)
     public void calculateRangeFailsIfIndexIsNotHealthy() throws Exception {
         final String index = "graylog";
@@ -222,6 +238,22 @@ public class MongoIndexRangeServiceTest {
         assertThat(result.calculationDuration()).isEqualTo(42);
     }
 
+    @Test
+    public void saveAllOverwritesExistingIndexRanges() throws Exception {
+        final DateTime begin = new DateTime(2015, 1, 1, 0, 0, DateTimeZone.UTC);
+        final DateTime end = new DateTime(2015, 1, 2, 0, 0, DateTimeZone.UTC);
+        final DateTime now = DateTime.now(DateTimeZone.UTC);
+        indexRangeService.save(MongoIndexRange.create("graylog_1", begin, end, now, 1));
+
+        indexRangeService.saveAll(List.of(
+                MongoIndexRange.create("graylog_1", begin, end, now, 2),
+                MongoIndexRange.create("graylog_2", begin, end, now, 3)));
+
+        assertThat(indexRangeService.findAll()).hasSize(2);
+        assertThat(indexRangeService.get("graylog_1").calculationDuration()).isEqualTo(2);
+        assertThat(indexRangeService.get("graylog_2").calculationDuration()).isEqualTo(3);
+    }
+
     @Test
     public void saveOverwritesExistingIndexRange() throws Exception {
         final String indexName = "graylog";
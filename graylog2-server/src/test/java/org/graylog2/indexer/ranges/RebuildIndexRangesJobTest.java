@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.indexer.ranges;
+
+import org.graylog2.indexer.IndexSet;
+import org.graylog2.indexer.cluster.Cluster;
+import org.graylog2.indexer.cluster.health.NodeDiskUsageStats;
+import org.graylog2.indexer.indexset.IndexSetConfig;
+import org.graylog2.indexer.retention.strategies.NoopRetentionStrategyConfig;
+import org.graylog2.indexer.rotation.strategies.MessageCountRotationStrategyConfig;
+import org.graylog2.shared.system.activities.ActivityWriter;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RebuildIndexRangesJobTest {
+    private static final DateTime NOW = DateTime.now(DateTimeZone.UTC);
+
+    private final IndexSet indexSet = mock(IndexSet.class);
+    private final IndexRangeService indexRangeService = mock(IndexRangeService.class);
+    private final Cluster cluster = mock(Cluster.class);
+    private final String[] indices = IntStream.range(0, 50).mapToObj(i -> "graylog_" + i).toArray(String[]::new);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(indexSet.getConfig()).thenReturn(IndexSetConfig.builder()
+                .id("index-set-1")
+                .title("Test Index Set")
+                .indexPrefix("graylog")
+                .shards(1)
+                .replicas(0)
+                .creationDate(ZonedDateTime.now(ZoneOffset.UTC))
+                .indexAnalyzer("standard")
+                .indexTemplateName("graylog-internal")
+                .indexOptimizationMaxNumSegments(1)
+                .indexOptimizationDisabled(false)
+                .retentionStrategyConfig(NoopRetentionStrategyConfig.createDefault())
+                .rotationStrategyConfig(MessageCountRotationStrategyConfig.createDefault())
+                .build());
+        when(indexSet.getManagedIndices()).thenReturn(indices);
+        when(indexSet.getActiveWriteIndex()).thenReturn("graylog_49");
+        when(indexRangeService.createUnknownRange("graylog_49")).thenReturn(range("graylog_49"));
+        when(indexRangeService.get("graylog_49")).thenReturn(range("graylog_49"));
+        when(indexRangeService.calculateRange(anyString())).thenAnswer(invocation -> range(invocation.getArgument(0)));
+    }
+
+    @Test
+    void calculatesIndexRangesInBatches() {
+        // Every batch fails to calculate one index, e.g. because not all of its shards are available
+        when(indexRangeService.calculateRanges(anyCollection())).thenAnswer(invocation -> {
+            final Collection<String> batch = invocation.getArgument(0);
+            return batch.stream()
+                    .skip(1)
+                    .collect(Collectors.toMap(Function.identity(), RebuildIndexRangesJobTest::range));
+        });
+        final RebuildIndexRangesJob job = job(4);
+
+        job.execute();
+
+        assertThat(job.getProgress()).isEqualTo(100);
+        assertThat(job.getInfo()).startsWith("Calculated 50 of 50 index ranges");
+        @SuppressWarnings("unchecked")
+        final ArgumentCaptor<Collection<IndexRange>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(indexRangeService, atLeastOnce()).saveAll(saved.capture());
+        assertThat(saved.getAllValues().stream().mapToInt(Collection::size).sum()).isEqualTo(49 - 3);
+        // The first index of each of the 3 batches is calculated on its own
+        verify(indexRangeService, times(3)).calculateRange(anyString());
+        verify(indexRangeService, never()).calculateRange("graylog_49");
+    }
+
+    @Test
+    void usesOneWorkerPerDataNodeByDefault() {
+        when(cluster.getDiskUsageStats()).thenReturn(Set.of(
+                NodeDiskUsageStats.create("node1", "dim", "10.0.0.1", null, "1gb", "10gb", 10.0),
+                NodeDiskUsageStats.create("node2", "m", "10.0.0.2", null, "1gb", "10gb", 10.0)));
+        final RebuildIndexRangesJob job = job(0);
+
+        job.execute();
+
+        // A single data node, the index ranges are calculated one by one
+        verify(indexRangeService, never()).calculateRanges(anyCollection());
+        verify(indexRangeService, times(49)).calculateRange(anyString());
+        assertThat(job.getProgress()).isEqualTo(100);
+    }
+
+    private RebuildIndexRangesJob job(int concurrency) {
+        return new RebuildIndexRangesJob(Set.of(indexSet), mock(ActivityWriter.class), indexRangeService, cluster, concurrency);
+    }
+
+    private static IndexRange range(String index) {
+        return MongoIndexRange.create(index, NOW, NOW, NOW, 0);
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.inputs;
+
+import com.codahale.metrics.MetricRegistry;
+import com.github.joschi.jadconfig.util.Duration;
+import com.google.common.net.InetAddresses;
+import com.google.common.testing.FakeTicker;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.graylog2.lookup.adapters.dnslookup.PtrDnsAnswer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReverseDnsResolverTest {
+    private static final InetAddress ADDRESS = InetAddresses.forString("192.168.1.10");
+
+    private final FakeTicker ticker = new FakeTicker();
+    private final AtomicInteger lookups = new AtomicInteger();
+    private PtrDnsAnswer answer;
+    private RuntimeException failure;
+    private String nameServiceHostName;
+
+    @BeforeEach
+    void setUp() {
+        answer = ptr("host.example.org.", 300);
+        failure = null;
+        nameServiceHostName = null;
+    }
+
+    @Test
+    void cachesHostNamesAccordingToTheirTtl() {
+        final ReverseDnsResolver resolver = resolver(MoreExecutors.directExecutor());
+
+        assertThat(resolver.lookup(ADDRESS)).contains("host.example.org");
+        assertThat(resolver.lookup(ADDRESS)).contains("host.example.org");
+        assertThat(lookups).hasValue(1);
+
+        ticker.advance(301, TimeUnit.SECONDS);
+        answer = ptr("other.example.org.", 300);
+
+        assertThat(resolver.lookup(ADDRESS)).contains("host.example.org");
+        assertThat(lookups).hasValue(2);
+        assertThat(resolver.lookup(ADDRESS)).contains("other.example.org");
+    }
+
+    @Test
+    void limitsTtlOfHostNames() {
+        final ReverseDnsResolver resolver = resolver(MoreExecutors.directExecutor());
+        answer = ptr("host.example.org.", 86400);
+
+        resolver.lookup(ADDRESS);
+        ticker.advance(61, TimeUnit.MINUTES);
+        resolver.lookup(ADDRESS);
+
+        assertThat(lookups).hasValue(2);
+    }
+
+    @Test
+    void cachesMissingHostNames() {
+        final ReverseDnsResolver resolver = resolver(MoreExecutors.directExecutor());
+        answer = null;
+
+        assertThat(resolver.lookup(ADDRESS)).isEmpty();
+        assertThat(resolver.lookupOrAddress(ADDRESS)).isEqualTo("192.168.1.10");
+        assertThat(lookups).hasValue(1);
+
+        ticker.advance(61, TimeUnit.SECONDS);
+        resolver.lookup(ADDRESS);
+
+        assertThat(lookups).hasValue(2);
+    }
+
+    @Test
+    void cachesFailedLookups() {
+        final ReverseDnsResolver resolver = resolver(MoreExecutors.directExecutor());
+        failure = new IllegalStateException("timeout");
+
+        assertThat(resolver.lookup(ADDRESS)).isEmpty();
+        assertThat(resolver.lookup(ADDRESS)).isEmpty();
+        assertThat(lookups).hasValue(1);
+    }
+
+    @Test
+    void keepsHostNameWhenRefreshFails() {
+        final ReverseDnsResolver resolver = resolver(MoreExecutors.directExecutor());
+
+        assertThat(resolver.lookup(ADDRESS)).contains("host.example.org");
+
+        ticker.advance(301, TimeUnit.SECONDS);
+        failure = new IllegalStateException("timeout");
+
+        assertThat(resolver.lookup(ADDRESS)).contains("host.example.org");
+        assertThat(resolver.lookup(ADDRESS)).contains("host.example.org");
+        assertThat(lookups).hasValue(2);
+
+        // The failed refresh is retried after the negative TTL
+        ticker.advance(61, TimeUnit.SECONDS);
+        failure = null;
+        answer = ptr("other.example.org.", 300);
+
+        assertThat(resolver.lookup(ADDRESS)).contains("host.example.org");
+        assertThat(resolver.lookup(ADDRESS)).contains("other.example.org");
+        assertThat(lookups).hasValue(3);
+    }
+
+    @Test
+    void replacesHostNameWhenPtrRecordIsGone() {
+        final ReverseDnsResolver resolver = resolver(MoreExecutors.directExecutor());
+
+        assertThat(resolver.lookup(ADDRESS)).contains("host.example.org");
+
+        ticker.advance(301, TimeUnit.SECONDS);
+        answer = null;
+        resolver.lookup(ADDRESS);
+
+        assertThat(resolver.lookup(ADDRESS)).isEmpty();
+    }
+
+    @Test
+    void fallsBackToNameServiceWithoutPtrRecord() {
+        final ReverseDnsResolver resolver = resolver(MoreExecutors.directExecutor());
+        answer = null;
+        nameServiceHostName = "host.from.etc.hosts";
+
+        assertThat(resolver.lookup(ADDRESS)).contains("host.from.etc.hosts");
+
+        // Cached like other host names
+        ticker.advance(59, TimeUnit.MINUTES);
+        assertThat(resolver.lookup(ADDRESS)).contains("host.from.etc.hosts");
+        assertThat(lookups).hasValue(1);
+    }
+
+    @Test
+    void fallsBackToNameServiceWhenLookupFails() {
+        final ReverseDnsResolver resolver = resolver(MoreExecutors.directExecutor());
+        failure = new IllegalStateException("timeout");
+        nameServiceHostName = "host.from.etc.hosts";
+
+        assertThat(resolver.lookup(ADDRESS)).contains("host.from.etc.hosts");
+    }
+
+    @Test
+    void waitsForLookupByDefault() {
+        final ReverseDnsResolver resolver = resolver(task -> new Thread(() -> {
+            Uninterruptibles.sleepUninterruptibly(50, TimeUnit.MILLISECONDS);
+            task.run();
+        }, "rdns-lookup-test").start());
+
+        assertThat(resolver.lookupOrAddress(ADDRESS)).isEqualTo("host.example.org");
+    }
+
+    @Test
+    void fallsBackToAddressWhileLookupIsRunning() {
+        final List<Runnable> tasks = new ArrayList<>();
+        final ReverseDnsResolver resolver = resolver(tasks::add, Duration.milliseconds(1));
+
+        assertThat(resolver.lookupOrAddress(ADDRESS)).isEqualTo("192.168.1.10");
+        assertThat(resolver.lookupOrAddress(ADDRESS)).isEqualTo("192.168.1.10");
+        // Both requests share the same lookup
+        assertThat(tasks).hasSize(1);
+
+        tasks.get(0).run();
+
+        assertThat(resolver.lookupOrAddress(ADDRESS)).isEqualTo("host.example.org");
+        assertThat(lookups).hasValue(1);
+    }
+
+    private ReverseDnsResolver resolver(Executor executor) {
+        return resolver(executor, Duration.milliseconds(0));
+    }
+
+    private ReverseDnsResolver resolver(Executor executor, Duration maxWait) {
+        final ReverseDnsResolver.Lookup lookup = new ReverseDnsResolver.Lookup() {
+            @Override
+            public PtrDnsAnswer reverseLookup(String ipAddress) {
+                lookups.incrementAndGet();
+                if (failure != null) {
+                    throw failure;
+                }
+                return answer;
+            }
+
+            @Override
+            public String nameServiceLookup(InetAddress address) {
+                return nameServiceHostName;
+            }
+        };
+        return new ReverseDnsResolver(lookup, executor, ticker, 100, Duration.hours(1), Duration.minutes(1), maxWait, new MetricRegistry());
+    }
+
+    private static PtrDnsAnswer ptr(String hostName, long ttl) {
+        return PtrDnsAnswer.builder().fullDomain(hostName).domain("example.org").dnsTTL(ttl).build();
+    }
+}
@@ -19,6 +19,7 @@ package org.graylog2.inputs.codecs;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import com.google.common.collect.ImmutableMap;
+import org.graylog2.inputs.ReverseDnsResolver;
 import org.graylog2.plugin.MessageFactory;
 import org.graylog2.plugin.TestMessageFactory;
 import org.graylog2.plugin.configuration.Configuration;
@@ -64,6 +65,8 @@ public class StructuredSyslogTest {
     @Mock
     private MetricRegistry metricRegistry;
     @Mock
+    private ReverseDnsResolver reverseDnsResolver;
+    @Mock
     private Timer mockedTimer;
 
     private final MessageFactory messageFactory = new TestMessageFactory();
@@ -71,7 +74,7 @@ public class StructuredSyslogTest {
     @Before
     public void setUp() {
         when(metricRegistry.timer(any(String.class))).thenReturn(mockedTimer);
-        syslogCodec = new SyslogCodec(configuration, metricRegistry, messageFactory);
+        syslogCodec = new SyslogCodec(configuration, metricRegistry, messageFactory, reverseDnsResolver);
     }
 
     private StructuredSyslogServerEvent newEvent(String message) {
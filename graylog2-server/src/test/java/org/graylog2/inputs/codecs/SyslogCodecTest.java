@@ -19,6 +19,7 @@ package org.graylog2.inputs.codecs;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import com.google.common.collect.ImmutableMap;
+import org.graylog2.inputs.ReverseDnsResolver;
 import org.graylog2.plugin.Message;
 import org.graylog2.plugin.MessageFactory;
 import org.graylog2.plugin.TestMessageFactory;
@@ -36,6 +37,7 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
@@ -67,6 +69,8 @@ public class SyslogCodecTest {
     @Mock
     private MetricRegistry metricRegistry;
     @Mock
+    private ReverseDnsResolver reverseDnsResolver;
+    @Mock
     private Timer mockedTimer;
 
     private SyslogCodec codec;
@@ -77,7 +81,7 @@ public class SyslogCodecTest {
         when(metricRegistry.timer(any(String.class))).thenReturn(mockedTimer);
         when(mockedTimer.time()).thenReturn(mock(Timer.Context.class));
 
-        codec = new SyslogCodec(configuration, metricRegistry, messageFactory);
+        codec = new SyslogCodec(configuration, metricRegistry, messageFactory, reverseDnsResolver);
     }
 
     @Test
@@ -120,7 +124,7 @@ public class SyslogCodecTest {
     public void testDecodeStructuredIssue845WithExpandStructuredData() throws Exception {
         when(configuration.getBoolean(SyslogCodec.CK_EXPAND_STRUCTURED_DATA)).thenReturn(true);
 
-        final SyslogCodec codec = new SyslogCodec(configuration, metricRegistry, messageFactory);
+        final SyslogCodec codec = new SyslogCodec(configuration, metricRegistry, messageFactory, reverseDnsResolver);
         final Message message = codec.decode(buildRawMessage(STRUCTURED_ISSUE_845));
 
         assertNotNull(message);
@@ -227,6 +231,17 @@ public class SyslogCodecTest {
         assertEquals(5, message.getField("facility_num"));
     }
 
+    @Test
+    public void testDecodeWithForcedReverseDnsLookup() throws Exception {
+        when(configuration.getBoolean(SyslogCodec.CK_FORCE_RDNS)).thenReturn(true);
+        when(reverseDnsResolver.lookupOrAddress(any(InetAddress.class))).thenReturn("host.example.org");
+
+        final Message message = codec.decode(buildRawMessage(UNSTRUCTURED));
+
+        assertNotNull(message);
+        assertEquals("host.example.org", message.getField("source"));
+    }
+
     @Test
     public void rfc3164_section5_4_messages() {
         // See https://tools.ietf.org/html/rfc3164#section-5.4
@@ -456,7 +471,7 @@ public class SyslogCodecTest {
     public void testDefaultTimezoneConfig() {
         when(configuration.getString("timezone")).thenReturn("MST");
 
-        SyslogCodec codec = new SyslogCodec(configuration, metricRegistry, messageFactory);
+        SyslogCodec codec = new SyslogCodec(configuration, metricRegistry, messageFactory, reverseDnsResolver);
         final Message msgWithoutTimezone = codec.decode(buildRawMessage(UNSTRUCTURED));
         final Message msgWithUTCTimezone = codec.decode(buildRawMessage(STRUCTURED));
         final Message msgWithTimezoneOffset = codec.decode(buildRawMessage(STRUCTURED_ISSUE_845_EMPTY));
@@ -470,7 +485,7 @@ public class SyslogCodecTest {
     public void testDefaultTimezoneConfigNotConfiguredStillUsesSystemTime() {
         when(configuration.getString("timezone")).thenReturn(DropdownField.NOT_CONFIGURED);
 
-        SyslogCodec codec = new SyslogCodec(configuration, metricRegistry, messageFactory);
+        SyslogCodec codec = new SyslogCodec(configuration, metricRegistry, messageFactory, reverseDnsResolver);
         final Message msgWithoutTimezone = codec.decode(buildRawMessage(UNSTRUCTURED));
         final Message msgWithUTCTimezone = codec.decode(buildRawMessage(STRUCTURED));
         final Message msgWithTimezoneOffset = codec.decode(buildRawMessage(STRUCTURED_ISSUE_845_EMPTY));
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.inputs.codecs;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyslogFormatTest {
+    private static final Pattern STRUCTURED = Pattern.compile("<\\d{1,3}>[0-9]\\d{0,2}\\s.*", Pattern.DOTALL);
+    private static final Pattern CISCO = Pattern.compile("<\\d{1,3}>\\d*:\\s.*", Pattern.DOTALL);
+    private static final Pattern FORTIGATE = Pattern.compile("<\\d{1,3}>date=.*", Pattern.DOTALL);
+
+    @Test
+    void detectsFormats() {
+        assertThat(SyslogFormat.detect("<165>1 2003-10-11T22:14:15.003Z mymachine.example.com evntslog - ID47 - message"))
+                .isEqualTo(SyslogFormat.STRUCTURED);
+        assertThat(SyslogFormat.detect("<45>Oct 21 12:09:37 c4dc57ba1ebb syslog-ng[7208]: syslog-ng starting up"))
+                .isEqualTo(SyslogFormat.UNSTRUCTURED);
+        assertThat(SyslogFormat.detect("<166>2541: Jan 10 14:16:20.133: %SYS-5-CONFIG_I: Configured from console"))
+                .isEqualTo(SyslogFormat.CISCO);
+        assertThat(SyslogFormat.detect("<45>date=2017-03-06 time=12:53:10 devname=DEVICENAME"))
+                .isEqualTo(SyslogFormat.FORTIGATE);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "<",
+            "<>",
+            "<1>",
+            "<12>1",
+            "<12>1 ",
+            "<123>12 message",
+            "<123>123\tmessage",
+            "<123>1234 message",
+            "<1234>1 message",
+            "<a>1 message",
+            "<12>1:",
+            "<12>1: ",
+            "<12>: message",
+            "<12>12345:\nmessage",
+            "<12>12345:message",
+            "<12>1 :message",
+            "<12>date",
+            "<12>date=",
+            "<12>1date=foo",
+            "<12> 1 message",
+            "12>1 message",
+            "<12>1\u000Bmessage",
+            "<12>1\u00A0message",
+            "<12>\u0661 message",
+            "<1>Oct 21 12:09:37 host app: 1: message",
+    })
+    void matchesRegularExpressions(String msg) {
+        assertThat(SyslogFormat.detect(msg)).isEqualTo(detectWithRegex(msg));
+        assertThat(SyslogFormat.detect(msg.getBytes(StandardCharsets.UTF_8))).isEqualTo(detectWithRegex(msg));
+    }
+
+    private static SyslogFormat detectWithRegex(String msg) {
+        if (STRUCTURED.matcher(msg).matches()) {
+            return SyslogFormat.STRUCTURED;
+        } else if (CISCO.matcher(msg).matches()) {
+            return SyslogFormat.CISCO;
+        } else if (FORTIGATE.matcher(msg).matches()) {
+            return SyslogFormat.FORTIGATE;
+        }
+        return SyslogFormat.UNSTRUCTURED;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.inputs.codecs;
+
+import org.graylog2.syslog4j.server.SyslogServerEventIF;
+import org.graylog2.syslog4j.server.impl.event.SyslogServerEvent;
+import org.graylog2.syslog4j.server.impl.event.structured.StructuredSyslogServerEvent;
+import org.joda.time.DateTimeZone;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the payload parser with syslog4j, which the codec uses for everything the payload parser doesn't accept.
+ */
+class SyslogPayloadParserTest {
+    private static final DateTimeZone TIME_ZONE = DateTimeZone.forID("Europe/Berlin");
+
+    private static final List<String> ACCEPTED = List.of(
+            "<165>1 2003-10-11T22:14:15.003Z mymachine.example.com evntslog - ID47 [exampleSDID@32473 iut=\"3\" eventSource=\"Application\" eventID=\"1011\"] BOMAn application event log entry",
+            "<190>1 2015-01-06T20:56:33.287Z app-1 app - - [mdc@18060 ip=\"::ffff:132.123.15.30\" logger=\"{c.corp.Handler}\" session=\"4ot7\"] User page 13 requested",
+            "<128>1 2015-01-11T16:35:21.335797+01:00 s000000.example.com - - - - tralala",
+            "<14>1 2014-05-01T08:26:51.179Z fw01 RT_FLOW - RT_FLOW_SESSION_DENY [junos@2636.1.1.1.2.39 source-address=\"1.2.3.4\" encrypted=\"No\"]",
+            "<34>1 2003-10-11T22:14:15Z mymachine.example.com su - ID47 - 'su root' failed for lonvick on /dev/pts/8",
+            "<34>1 2003-10-11T22:14:15Z mymachine.example.com su - ID47 -",
+            "<34>1 2003-08-24T05:14:15.000003-07:00 192.0.2.1 myproc 8710 - - %% It's time to make the do-nuts.",
+            "<34>1 2003-08-24T05:14:15.123456789-07:30 host app 1 - - message",
+            "<34>1 2020-02-29T23:59:59.9+14:00 host app 1 - - message",
+            "<34>1 1969-12-31T23:59:59.5Z host app 1 - - before the epoch",
+            "<0>1 2003-10-11T22:14:15Z host app proc - - ",
+            "<191>12 2003-10-11T22:14:15Z host app proc ID [a@1] [b@1 x=\"1\"][c@1 x=\"2\" y=\"\"] message  with  spaces ",
+            "<13>1 2003-10-11T22:14:15Z host app proc ID [a@1 x=\"1\" x=\"2\"][a@1 y=\"3\"]",
+            "<13>1 2003-10-11T22:14:15Z host app proc ID [a@1 x=\"1\"] ",
+            "<13>1 2003-10-11T22:14:15Z host app proc ID [a@1 x=\"esc\\\"aped\\\\ \\] \\[x\\]\"] escaped values",
+            "<13>1 2003-10-11T22:14:15Z host app proc ID [a@1 x=\"ünicøde\"] ünicøde 😀 message",
+            "<13>1 2003-10-11T22:14:15Z host app proc - - - message with a leading dash",
+            "<45>Oct 21 12:09:37 c4dc57ba1ebb syslog-ng[7208]: syslog-ng starting up; version='3.5.3'",
+            "<86>Dec 24 17:05:01 foo-bar CRON[10049]: pam_unix(cron:session): session closed for user root",
+            "<45>Oct  1 12:09:37 host message",
+            "<45>Oct 1 12:09:37 host message",
+            "<45>Oct 01 12:09:37 host message",
+            "<45>oct 21 12:09:37 host message",
+            "<45>MAY 21 00:00:00 host message",
+            "<45>Feb 29 23:59:59 host rolled over in non-leap years",
+            "<45>Mar 31 02:30:00 host daylight saving time gap",
+            "<45>Oct 27 02:30:00 host daylight saving time overlap",
+            "<45>Oct 21 12:09:37 hostonly",
+            "<45>Oct 21 12:09:37  leading space",
+            "<45>Oct 21 12:09:37 höst méssage 😀",
+            "<45>Oct 1 12:09:37 üü"
+    );
+
+    private static final List<String> REJECTED = List.of(
+            "<166>2541: Jan 10 14:16:20.133: %SYS-5-CONFIG_I: Configured from console",
+            "<45>date=2017-03-06 time=12:53:10 devname=DEVICENAME",
+            "<34>1 - host app proc - - nil timestamp",
+            "<34>1 2003-10-11 host app proc - - no time",
+            "<34>1 2003-10-11T22:14:15 host app proc - - no offset",
+            "<34>1 2003-10-11T22:14:15+0200 host app proc - - offset without colon",
+            "<34>1 2003-10-11T22:14:15.1234567890Z host app proc - - ten fraction digits",
+            "<34>1 2003-10-11T22:14:60Z host app proc - - leap second",
+            "<34>1 2003-02-29T22:14:15Z host app proc - - invalid day",
+            "<34>1 2003-10-11T22:14:15Z  host app proc - - two spaces",
+            "<34>1 2003-10-11T22:14:15Z host app proc - -",
+            "<34>1 2003-10-11T22:14:15Z host app proc ID [0@0] message",
+            "<34>1 2003-10-11T22:14:15Z host app proc ID [a@1 x=\"]\"] message",
+            "<34>1 2003-10-11T22:14:15Z host app proc ID [a@1 x=\"1\"]message",
+            "<34>1 2003-10-11T22:14:15Z host app proc ID [a@1 x=\"1\" ] message",
+            "<34>1 2003-10-11T22:14:15Z host app proc ID [a@1 x=1] message",
+            "<34>1 2003-10-11T22:14:15Z host app proc ID[a@1] [b@1] message",
+            "<34>1 2003-10-11T22:14:15Z host app proc ID message",
+            "<34>1\t2003-10-11T22:14:15Z host app proc - - tab",
+            "<45>2017-03-06T12:53:10Z host ISO timestamp",
+            "<45>Foo 21 12:09:37 host message",
+            "<45>Oct 32 12:09:37 host message",
+            "<45>Oct 21 24:09:37 host message",
+            "<45>Oct 21 12:09 host message",
+            "<45>Oct 21 12:09:37",
+            "<45>Oct 1 12:09:37 ",
+            "<45>Oct 1 12:09:37 ü",
+            "<45>Oct 21 12:09:37.123 host message",
+            "no PRI",
+            ""
+    );
+
+    @Test
+    void acceptsStrictMessages() {
+        final SyslogPayloadParser parser = new SyslogPayloadParser(TIME_ZONE);
+        for (String msg : ACCEPTED) {
+            assertThat(parser.parse(bytes(msg))).as(msg).isNotNull();
+        }
+    }
+
+    @Test
+    void rejectsEverythingElse() {
+        final SyslogPayloadParser parser = new SyslogPayloadParser(TIME_ZONE);
+        for (String msg : REJECTED) {
+            assertThat(parser.parse(bytes(msg))).as(msg).isNull();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "Europe/Berlin", "America/New_York", "UTC"})
+    void producesTheSameValuesAsSyslog4j(String timeZoneId) {
+        final DateTimeZone timeZone = timeZoneId.isEmpty() ? null : DateTimeZone.forID(timeZoneId);
+        final SyslogPayloadParser parser = new SyslogPayloadParser(timeZone);
+        for (String msg : ACCEPTED) {
+            // Every prefix of the messages covers a lot of malformed messages as well.
+            for (int length = 0; length <= msg.length(); length++) {
+                // Cutting a surrogate pair in half would make the payload differ from the string.
+                if (length == 0 || !Character.isHighSurrogate(msg.charAt(length - 1))) {
+                    assertSameAsSyslog4j(parser, msg.substring(0, length), timeZone);
+                }
+            }
+        }
+        for (String msg : REJECTED) {
+            assertSameAsSyslog4j(parser, msg, timeZone);
+        }
+    }
+
+    private static void assertSameAsSyslog4j(SyslogPayloadParser parser, String msg, DateTimeZone timeZone) {
+        final SyslogPayloadParser.ParsedMessage parsed = parser.parse(bytes(msg));
+        if (parsed != null) {
+            assertThat(parsed).as(msg).isEqualTo(parseWithSyslog4j(msg, timeZone));
+        }
+    }
+
+    // The values SyslogCodec takes from syslog4j events.
+    private static SyslogPayloadParser.ParsedMessage parseWithSyslog4j(String msg, DateTimeZone timeZone) {
+        final SyslogServerEventIF event = SyslogFormat.detect(msg) == SyslogFormat.STRUCTURED
+                ? new StructuredSyslogServerEvent(msg, null, timeZone)
+                : new SyslogServerEvent(msg, null, timeZone);
+
+        if (event instanceof StructuredSyslogServerEvent structuredEvent) {
+            final String structuredMessage = structuredEvent.getStructuredMessage().getMessage();
+            final Map<String, Map<String, String>> structuredData = structuredEvent.getStructuredMessage().getStructuredData();
+            return new SyslogPayloadParser.ParsedMessage(event.getFacility(),
+                    event.getLevel(),
+                    event.getDate().getTime(),
+                    event.getHost(),
+                    isNullOrEmpty(structuredMessage) ? event.getMessage() : structuredMessage,
+                    structuredEvent.getApplicationName(),
+                    structuredEvent.getProcessId(),
+                    structuredData == null ? Map.of() : structuredData);
+        }
+        return new SyslogPayloadParser.ParsedMessage(event.getFacility(),
+                event.getLevel(),
+                event.getDate().getTime(),
+                event.getHost(),
+                event.getMessage(),
+                null,
+                null,
+                null);
+    }
+
+    private static byte[] bytes(String msg) {
+        return msg.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -91,7 +91,7 @@ public class HttpPollTransportTest {
     public void testGetRequestBuilder() throws IOException, NullPointerException {
         Map<String, Object> configVals = Map.of();
         Configuration config = new Configuration(configVals);
-        HttpPollTransport httpPollTransport = new HttpPollTransport(config, serverEventBus, serverStatus, scheduler, httpClient, encryptedValueService);
+        HttpPollTransport httpPollTransport = new HttpPollTransport(config, serverEventBus, serverStatus, scheduler, httpClient, encryptedValueService, InputWorkerPool.disabled());
         Request request = httpPollTransport.getRequestBuilder()
                 .url("https://url.com")
                 .build();
@@ -104,7 +104,7 @@ public class HttpPollTransportTest {
                 CK_HTTP_BODY, "body",
                 CK_CONTENT_TYPE, APPLICATION_JSON);
         config = new Configuration(configVals);
-        httpPollTransport = new HttpPollTransport(config, serverEventBus, serverStatus, scheduler, httpClient, encryptedValueService);
+        httpPollTransport = new HttpPollTransport(config, serverEventBus, serverStatus, scheduler, httpClient, encryptedValueService, InputWorkerPool.disabled());
         request = httpPollTransport.getRequestBuilder()
                 .url("https://url.com")
                 .build();
@@ -117,7 +117,7 @@ public class HttpPollTransportTest {
                 CK_HTTP_BODY, "body",
                 CK_CONTENT_TYPE, APPLICATION_JSON);
         config = new Configuration(configVals);
-        httpPollTransport = new HttpPollTransport(config, serverEventBus, serverStatus, scheduler, httpClient, encryptedValueService);
+        httpPollTransport = new HttpPollTransport(config, serverEventBus, serverStatus, scheduler, httpClient, encryptedValueService, InputWorkerPool.disabled());
         request = httpPollTransport.getRequestBuilder()
                 .url("https://url.com")
                 .build();
@@ -131,7 +131,7 @@ public class HttpPollTransportTest {
                 CK_HTTP_BODY, "body",
                 CK_CONTENT_TYPE, TEXT_PLAIN);
         config = new Configuration(configVals);
-        httpPollTransport = new HttpPollTransport(config, serverEventBus, serverStatus, scheduler, httpClient, encryptedValueService);
+        httpPollTransport = new HttpPollTransport(config, serverEventBus, serverStatus, scheduler, httpClient, encryptedValueService, InputWorkerPool.disabled());
         request = httpPollTransport.getRequestBuilder()
                 .url("https://url.com")
                 .build();
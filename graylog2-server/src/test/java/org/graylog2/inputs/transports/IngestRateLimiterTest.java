@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.inputs.transports;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.testing.FakeTicker;
+import org.graylog2.plugin.ThrottleState;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class IngestRateLimiterTest {
+    private static final int PROCESS_BUFFER_SIZE = 1000;
+
+    private final FakeTicker ticker = new FakeTicker();
+    private final IngestRateLimiter limiter = new IngestRateLimiter(true, PROCESS_BUFFER_SIZE, ticker, new MetricRegistry());
+
+    @Test
+    void doesNotLimitWithoutPressure() {
+        limiter.updateThrottleState(state(0.1, PROCESS_BUFFER_SIZE, 1000));
+
+        assertThat(limiter.rate()).isInfinite();
+        assertThat(limiter.reserve(100_000)).isZero();
+    }
+
+    @Test
+    void limitsRelativeToJournalReadRate() {
+        limiter.updateThrottleState(state(IngestRateLimiter.LOW_PRESSURE, PROCESS_BUFFER_SIZE, 1000));
+        assertThat(limiter.rate()).isCloseTo(1000 * IngestRateLimiter.MAX_RATE_FACTOR, within(0.001));
+
+        final IngestRateLimiter other = new IngestRateLimiter(true, PROCESS_BUFFER_SIZE, ticker, new MetricRegistry());
+        other.updateThrottleState(state(IngestRateLimiter.HIGH_PRESSURE, PROCESS_BUFFER_SIZE, 1000));
+        assertThat(other.rate()).isCloseTo(1000 * IngestRateLimiter.MIN_RATE_FACTOR, within(0.001));
+    }
+
+    @Test
+    void usesProcessBufferUtilization() {
+        limiter.updateThrottleState(state(0, 0, 1000));
+
+        assertThat(limiter.pressure()).isEqualTo(1.0);
+        assertThat(limiter.rate()).isCloseTo(1000 * IngestRateLimiter.MIN_RATE_FACTOR, within(0.001));
+    }
+
+    @Test
+    void changesRateGradually() {
+        limiter.updateThrottleState(state(IngestRateLimiter.LOW_PRESSURE, PROCESS_BUFFER_SIZE, 1000));
+        final double initialRate = limiter.rate();
+
+        limiter.updateThrottleState(state(IngestRateLimiter.HIGH_PRESSURE, PROCESS_BUFFER_SIZE, 1000));
+
+        assertThat(limiter.rate()).isLessThan(initialRate).isGreaterThan(1000 * IngestRateLimiter.MIN_RATE_FACTOR);
+    }
+
+    @Test
+    void liftsLimitOnceThePressureIsGone() {
+        limiter.updateThrottleState(state(IngestRateLimiter.HIGH_PRESSURE, PROCESS_BUFFER_SIZE, 1000));
+        assertThat(limiter.rate()).isFinite();
+
+        for (int i = 0; i < 10 && Double.isFinite(limiter.rate()); i++) {
+            limiter.updateThrottleState(state(0, PROCESS_BUFFER_SIZE, 1000));
+        }
+
+        assertThat(limiter.rate()).isInfinite();
+    }
+
+    @Test
+    void reservesCreditsAtTheCurrentRate() {
+        limiter.updateThrottleState(state(IngestRateLimiter.HIGH_PRESSURE, PROCESS_BUFFER_SIZE, 200));
+        assertThat(limiter.rate()).isCloseTo(100, within(0.001));
+
+        // No credits saved up yet, reading 50 messages requires a pause of half a second
+        assertThat(limiter.reserve(50)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+
+        ticker.advance(1, TimeUnit.SECONDS);
+        assertThat(limiter.reserve(50)).isZero();
+    }
+
+    @Test
+    void supportsFractionalRates() {
+        limiter.updateThrottleState(state(IngestRateLimiter.HIGH_PRESSURE, PROCESS_BUFFER_SIZE, 0));
+        assertThat(limiter.rate()).isEqualTo(IngestRateLimiter.MIN_RATE);
+
+        ticker.advance(150, TimeUnit.MILLISECONDS);
+
+        assertThat(limiter.reserve(1)).isZero();
+        assertThat(limiter.reserve(1)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    void disabledLimiterNeverLimits() {
+        final IngestRateLimiter disabled = IngestRateLimiter.disabled();
+        disabled.updateThrottleState(state(1.0, 0, 0));
+
+        assertThat(disabled.rate()).isInfinite();
+        assertThat(disabled.reserve(1_000_000)).isZero();
+    }
+
+    private static ThrottleState state(double journalUtilization, long processBufferCapacity, long readEventsPerSec) {
+        final ThrottleState state = new ThrottleState();
+        state.journalSizeLimit = 1_000_000;
+        state.journalSize = (long) (journalUtilization * state.journalSizeLimit);
+        state.uncommittedJournalEntries = 10_000;
+        state.processBufferCapacity = processBufferCapacity;
+        state.readEventsPerSec = readEventsPerSec;
+        state.appendEventsPerSec = readEventsPerSec;
+        return state;
+    }
+}
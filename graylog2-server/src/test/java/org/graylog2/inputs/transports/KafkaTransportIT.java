@@ -86,7 +86,8 @@ class KafkaTransportIT {
                 new SimpleNodeId("node-1"),
                 new EventBus(),
                 serverStatus,
-                Executors.newSingleThreadScheduledExecutor()
+                Executors.newSingleThreadScheduledExecutor(),
+                IngestRateLimiter.disabled()
         );
         final var input = mock(MessageInput.class);
         when(input.getId()).thenReturn("TEST");
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.inputs.transports.netty;
+
+import com.codahale.metrics.MetricRegistry;
+import io.netty.channel.EventLoopGroup;
+import org.graylog2.inputs.transports.NettyTransportConfiguration;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventLoopGroupFactoryTest {
+    private final NettyTransportConfiguration nettyTransportConfiguration = new NettyTransportConfiguration("nio", "jdk", 1);
+
+    @Test
+    void createsWorkerGroupPerInputByDefault() {
+        final EventLoopGroupFactory factory = new EventLoopGroupFactory(nettyTransportConfiguration);
+
+        final EventLoopGroup first = factory.createWorkerGroup(1, new MetricRegistry(), "workers");
+        final EventLoopGroup second = factory.createWorkerGroup(1, new MetricRegistry(), "workers");
+        assertThat(first).isNotSameAs(second);
+
+        factory.release(first);
+        factory.release(second);
+        assertThat(first.isShuttingDown()).isTrue();
+        assertThat(second.isShuttingDown()).isTrue();
+    }
+
+    @Test
+    void sharesWorkerGroupBetweenInputs() {
+        final EventLoopGroupFactory factory = new EventLoopGroupFactory(nettyTransportConfiguration, 2, new MetricRegistry());
+
+        final EventLoopGroup first = factory.createWorkerGroup(8, new MetricRegistry(), "workers");
+        final EventLoopGroup second = factory.createWorkerGroup(8, new MetricRegistry(), "workers");
+        assertThat(first).isSameAs(second);
+
+        // Stopping an input must not stop the workers of the other inputs
+        factory.release(first);
+        assertThat(second.isShuttingDown()).isFalse();
+
+        factory.release(second);
+        assertThat(second.isShuttingDown()).isTrue();
+    }
+
+    @Test
+    void shutsDownWorkerThreadsWhenTheLastInputReleasedTheSharedGroup() {
+        final EventLoopGroupFactory factory = new EventLoopGroupFactory(nettyTransportConfiguration, 1, new MetricRegistry());
+        final EventLoopGroup group = factory.createWorkerGroup(8, new MetricRegistry(), "workers");
+        final AtomicReference<Thread> workerThread = new AtomicReference<>();
+        group.submit(() -> workerThread.set(Thread.currentThread())).syncUninterruptibly();
+
+        factory.release(group);
+
+        assertThat(group.terminationFuture().awaitUninterruptibly(10, TimeUnit.SECONDS)).isTrue();
+        Awaitility.await().atMost(10, TimeUnit.SECONDS).until(() -> !workerThread.get().isAlive());
+
+        // The next input gets a new group
+        final EventLoopGroup next = factory.createWorkerGroup(8, new MetricRegistry(), "workers");
+        assertThat(next).isNotSameAs(group);
+        factory.release(next);
+    }
+}
@@ -24,6 +24,7 @@ import org.graylog2.plugin.lookup.LookupCachePurge;
 import org.graylog2.plugin.lookup.LookupResult;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
@@ -49,6 +50,9 @@ public class CSVFileDataAdapterTest {
     @Rule
     public MockitoRule rule = MockitoJUnit.rule();
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private final Path csvFile;
     private final Path cidrLookupFile;
     private CSVFileDataAdapter csvFileDataAdapter;
@@ -75,13 +79,29 @@ public class CSVFileDataAdapterTest {
     @Test
     public void doGet_successfully_returns_values() throws Exception {
         final Config config = baseConfig();
-        csvFileDataAdapter = spy(new CSVFileDataAdapter("id", "name", config, new MetricRegistry(), pathChecker));
+        csvFileDataAdapter = spy(new CSVFileDataAdapter("id", "name", config, new MetricRegistry(), pathChecker, temporaryFolder.getRoot().toPath()));
+        when(pathChecker.fileIsInAllowedPath(isA(Path.class))).thenReturn(true);
+        csvFileDataAdapter.doStart();
+
+        assertThat(csvFileDataAdapter.doGet("foo")).isEqualTo(LookupResult.single("23"));
+        assertThat(csvFileDataAdapter.doGet("bar")).isEqualTo(LookupResult.single("42"));
+        assertThat(csvFileDataAdapter.doGet("quux")).isEqualTo(LookupResult.empty());
+    }
+
+    @Test
+    public void doGet_successfully_returns_values_from_off_heap_store() throws Exception {
+        final Config config = baseConfigBuilder().offHeapStorage(true).build();
+        csvFileDataAdapter = spy(new CSVFileDataAdapter("id", "name", config, new MetricRegistry(), pathChecker, temporaryFolder.getRoot().toPath()));
         when(pathChecker.fileIsInAllowedPath(isA(Path.class))).thenReturn(true);
         csvFileDataAdapter.doStart();
 
         assertThat(csvFileDataAdapter.doGet("foo")).isEqualTo(LookupResult.single("23"));
         assertThat(csvFileDataAdapter.doGet("bar")).isEqualTo(LookupResult.single("42"));
         assertThat(csvFileDataAdapter.doGet("quux")).isEqualTo(LookupResult.empty());
+        assertThat(temporaryFolder.getRoot().toPath().resolve("lookup-tables")).isNotEmptyDirectory();
+
+        csvFileDataAdapter.doStop();
+        assertThat(temporaryFolder.getRoot().toPath().resolve("lookup-tables")).isEmptyDirectory();
     }
 
     @Test
@@ -96,7 +116,7 @@ public class CSVFileDataAdapterTest {
                                     .checkInterval(60)
                                     .caseInsensitiveLookup(false)
                                     .build();
-        csvFileDataAdapter = spy(new CSVFileDataAdapter("id", "name", config, new MetricRegistry(), pathChecker));
+        csvFileDataAdapter = spy(new CSVFileDataAdapter("id", "name", config, new MetricRegistry(), pathChecker, temporaryFolder.getRoot().toPath()));
         when(pathChecker.fileIsInAllowedPath((isA(Path.class)))).thenReturn(true);
         csvFileDataAdapter.doStart();
 
@@ -109,7 +129,7 @@ public class CSVFileDataAdapterTest {
     public void doGet_failure_filePathInvalid() throws Exception {
         final Config config = baseConfig();
         when(pathChecker.fileIsInAllowedPath((isA(Path.class)))).thenReturn(false);
-        csvFileDataAdapter = new CSVFileDataAdapter("id", "name", config, new MetricRegistry(), pathChecker);
+        csvFileDataAdapter = new CSVFileDataAdapter("id", "name", config, new MetricRegistry(), pathChecker, temporaryFolder.getRoot().toPath());
         assertThatThrownBy(() -> csvFileDataAdapter.doStart())
                 .isExactlyInstanceOf(IllegalStateException.class)
                 .hasMessageStartingWith(CSVFileDataAdapter.ALLOWED_PATH_ERROR);
@@ -118,7 +138,7 @@ public class CSVFileDataAdapterTest {
     @Test
     public void refresh_success() throws Exception {
         final Config config = baseConfig();
-        csvFileDataAdapter = spy(new CSVFileDataAdapter("id", "name", config, new MetricRegistry(), pathChecker));
+        csvFileDataAdapter = spy(new CSVFileDataAdapter("id", "name", config, new MetricRegistry(), pathChecker, temporaryFolder.getRoot().toPath()));
         when(pathChecker.fileIsInAllowedPath(isA(Path.class))).thenReturn(true).thenReturn(true);
         csvFileDataAdapter.doStart();
         csvFileDataAdapter.doRefresh(cachePurge);
@@ -128,7 +148,7 @@ public class CSVFileDataAdapterTest {
     @Test
     public void refresh_failure_disallowedFileLocation() throws Exception {
         final Config config = baseConfig();
-        csvFileDataAdapter = spy(new CSVFileDataAdapter("id", "name", config, new MetricRegistry(), pathChecker));
+        csvFileDataAdapter = spy(new CSVFileDataAdapter("id", "name", config, new MetricRegistry(), pathChecker, temporaryFolder.getRoot().toPath()));
         when(pathChecker.fileIsInAllowedPath(isA(Path.class))).thenReturn(true).thenReturn(false);
         csvFileDataAdapter.doStart();
         csvFileDataAdapter.doRefresh(cachePurge);
@@ -141,7 +161,7 @@ public class CSVFileDataAdapterTest {
     @Test
     public void refresh_failure_success() throws Exception {
         final Config config = baseConfig();
-        csvFileDataAdapter = spy(new CSVFileDataAdapter("id", "name", config, new MetricRegistry(), pathChecker));
+        csvFileDataAdapter = spy(new CSVFileDataAdapter("id", "name", config, new MetricRegistry(), pathChecker, temporaryFolder.getRoot().toPath()));
         when(pathChecker.fileIsInAllowedPath(isA(Path.class))).thenReturn(true).thenReturn(false);
         csvFileDataAdapter.doStart();
         csvFileDataAdapter.doRefresh(cachePurge);
@@ -211,7 +231,7 @@ public class CSVFileDataAdapterTest {
     @Test
     public void testCIDRLookups() throws Exception {
         final Config config = cidrLookupConfig();
-        csvFileDataAdapter = spy(new CSVFileDataAdapter("id", "name", config, new MetricRegistry(), pathChecker));
+        csvFileDataAdapter = spy(new CSVFileDataAdapter("id", "name", config, new MetricRegistry(), pathChecker, temporaryFolder.getRoot().toPath()));
         when(pathChecker.fileIsInAllowedPath((isA(Path.class)))).thenReturn(true);
         csvFileDataAdapter.doStart();
 
@@ -231,7 +251,37 @@ public class CSVFileDataAdapterTest {
         assertThat(csvFileDataAdapter.doGet("not.an.ip.address")).isEqualTo(LookupResult.withError());
     }
 
+    @Test
+    public void testCIDRLookupsIgnoreOffHeapStorage() throws Exception {
+        final Config config = cidrLookupConfigBuilder().offHeapStorage(true).build();
+        final Path dataDir = temporaryFolder.newFolder().toPath();
+        csvFileDataAdapter = spy(new CSVFileDataAdapter("id", "name", config, new MetricRegistry(), pathChecker, dataDir));
+        when(pathChecker.fileIsInAllowedPath((isA(Path.class)))).thenReturn(true);
+        csvFileDataAdapter.doStart();
+
+        assertThat(csvFileDataAdapter.doGet("10.10.64.128")).isEqualTo(LookupResult.single("Corporate"));
+        assertThat(csvFileDataAdapter.doGet("192.168.102.8")).isEqualTo(LookupResult.single("HR Subnet 1"));
+        assertThat(csvFileDataAdapter.doGet("192.168.103.16")).isEqualTo(LookupResult.empty());
+        assertThat(dataDir).isEmptyDirectory();
+    }
+
+    @Test
+    public void testConfigValidationOffHeapStorageWithCIDRLookup() {
+        final Config config = cidrLookupConfigBuilder().offHeapStorage(true).build();
+        when(validationContext.getPathChecker()).thenReturn(pathChecker);
+        when(pathChecker.fileIsInAllowedPath(any(Path.class))).thenReturn(true);
+
+        final Optional<Multimap<String, String>> result = config.validate(validationContext);
+
+        assertThat(result).hasValueSatisfying(errors -> assertThat(errors.keySet()).containsExactly("off_heap_storage"));
+        assertThat(cidrLookupConfigBuilder().offHeapStorage(false).build().validate(validationContext)).isEmpty();
+    }
+
     private Config baseConfig() {
+        return baseConfigBuilder().build();
+    }
+
+    private Config.Builder baseConfigBuilder() {
         return Config.builder()
                 .type(NAME)
                 .path(csvFile.toString())
@@ -240,11 +290,14 @@ public class CSVFileDataAdapterTest {
                 .keyColumn("key")
                 .valueColumn("value")
                 .checkInterval(60)
-                .caseInsensitiveLookup(false)
-                .build();
+                .caseInsensitiveLookup(false);
     }
 
     private Config cidrLookupConfig() {
+        return cidrLookupConfigBuilder().build();
+    }
+
+    private Config.Builder cidrLookupConfigBuilder() {
         return Config.builder()
                 .type(NAME)
                 .path(cidrLookupFile.toString())
@@ -254,7 +307,6 @@ public class CSVFileDataAdapterTest {
                 .valueColumn("value")
                 .checkInterval(60)
                 .caseInsensitiveLookup(false)
-                .cidrLookup(true)
-                .build();
+                .cidrLookup(true);
     }
 }
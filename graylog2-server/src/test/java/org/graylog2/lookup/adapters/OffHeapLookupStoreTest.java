@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.lookup.adapters;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OffHeapLookupStoreTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void returnsValuesOfAllEntries() throws Exception {
+        final Path file = tempDir.resolve("store.lut");
+        final OffHeapLookupStore store;
+        try (OffHeapLookupStore.Builder builder = OffHeapLookupStore.builder(file)) {
+            for (int i = 0; i < 10_000; i++) {
+                builder.put("key-" + i, "value-" + i);
+            }
+            builder.put("", "empty key");
+            builder.put("schlüssel", "wert 😀");
+            store = builder.build();
+        }
+
+        assertThat(store.size()).isEqualTo(10_002);
+        assertThat(store.get("key-0")).isEqualTo("value-0");
+        assertThat(store.get("key-9999")).isEqualTo("value-9999");
+        assertThat(store.get("")).isEqualTo("empty key");
+        assertThat(store.get("schlüssel")).isEqualTo("wert 😀");
+        assertThat(store.get("key-10000")).isNull();
+        assertThat(store.get("KEY-0")).isNull();
+        assertThat(tempDir).isDirectoryNotContaining("glob:**.hashes");
+    }
+
+    @Test
+    void iteratesEntriesInInsertionOrder() throws Exception {
+        final OffHeapLookupStore store;
+        try (OffHeapLookupStore.Builder builder = OffHeapLookupStore.builder(tempDir.resolve("store.lut"))) {
+            builder.put("b", "2");
+            builder.put("a", "1");
+            builder.put("c", "");
+            store = builder.build();
+        }
+
+        final Map<String, String> entries = new LinkedHashMap<>();
+        store.forEach(entries::put);
+
+        assertThat(entries).containsExactly(Map.entry("b", "2"), Map.entry("a", "1"), Map.entry("c", ""));
+    }
+
+    @Test
+    void rejectsDuplicateKeys() throws Exception {
+        final Path file = tempDir.resolve("store.lut");
+        try (OffHeapLookupStore.Builder builder = OffHeapLookupStore.builder(file)) {
+            builder.put("foo", "1");
+            builder.put("bar", "2");
+            builder.put("foo", "3");
+
+            assertThatThrownBy(builder::build)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Multiple entries with same key: foo");
+        }
+
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void deleteRemovesFileButKeepsMapping() throws Exception {
+        final Path file = tempDir.resolve("store.lut");
+        final OffHeapLookupStore store;
+        try (OffHeapLookupStore.Builder builder = OffHeapLookupStore.builder(file)) {
+            builder.put("foo", "bar");
+            store = builder.build();
+        }
+
+        store.delete();
+
+        assertThat(Files.exists(file)).isFalse();
+        assertThat(store.get("foo")).isEqualTo("bar");
+    }
+}
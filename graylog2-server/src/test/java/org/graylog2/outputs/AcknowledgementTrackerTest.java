@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.outputs;
+
+import org.graylog2.shared.messageq.Acknowledgeable;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AcknowledgementTrackerTest {
+    private final AcknowledgementTracker tracker = new AcknowledgementTracker();
+
+    @Test
+    void releasesOffsetsOfWrittenBatches() {
+        final List<Acknowledgeable> batch = track(1L, 2L, 3L);
+
+        assertThat(tracker.complete(batch)).isEqualTo(3L);
+        assertThat(tracker.complete(List.of())).isNull();
+    }
+
+    @Test
+    void holdsBackOffsetsAboveLowestPendingOffset() {
+        final List<Acknowledgeable> lowBatch = track(1L);
+        final List<Acknowledgeable> highBatch = track(2L, 3L, 4L);
+        final List<Acknowledgeable> higherBatch = track(5L, 6L);
+
+        assertThat(tracker.complete(highBatch)).isNull();
+        assertThat(tracker.complete(higherBatch)).isNull();
+        assertThat(tracker.complete(lowBatch)).isEqualTo(6L);
+    }
+
+    @Test
+    void releasesBatchesBelowLowestPendingOffset() {
+        final List<Acknowledgeable> lowBatch = track(1L, 2L);
+        final List<Acknowledgeable> pendingBatch = track(3L, 10L);
+        final List<Acknowledgeable> highBatch = track(4L, 5L);
+
+        assertThat(tracker.complete(lowBatch)).isEqualTo(2L);
+        assertThat(tracker.complete(highBatch)).isNull();
+        assertThat(tracker.complete(pendingBatch)).isEqualTo(10L);
+    }
+
+    @Test
+    void ignoresMessagesWithoutJournalOffset() {
+        final List<Acknowledgeable> batch = List.of(() -> null, () -> "not-an-offset");
+        batch.forEach(tracker::track);
+
+        assertThat(tracker.complete(batch)).isNull();
+        assertThat(tracker.complete(track(7L))).isEqualTo(7L);
+    }
+
+    private List<Acknowledgeable> track(Long... offsets) {
+        final List<Acknowledgeable> messages = Arrays.stream(offsets)
+                .<Acknowledgeable>map(offset -> () -> offset)
+                .toList();
+        messages.forEach(tracker::track);
+        return messages;
+    }
+}
@@ -61,6 +61,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -124,7 +125,12 @@ class BatchedMessageFilterOutputTest {
 
     @SuppressForbidden("Using Executors.newSingleThreadExecutor() is okay in tests")
     private @Nonnull BatchedMessageFilterOutput createOutput(BatchSizeConfig maxBatchSize) {
-        final var buffer = new IndexSetAwareMessageOutputBuffer(maxBatchSize, objectMapper);
+        return createOutput(maxBatchSize, 1);
+    }
+
+    @SuppressForbidden("Using Executors.newSingleThreadExecutor() is okay in tests")
+    private @Nonnull BatchedMessageFilterOutput createOutput(BatchSizeConfig maxBatchSize, int shardCount) {
+        final var buffer = new IndexSetAwareMessageOutputBuffer(maxBatchSize, shardCount, objectMapper);
         return new BatchedMessageFilterOutput(
                 Map.of("targetOutput1", targetOutput1),
                 new AllOutputsFilter(Map.of(ElasticSearchOutput.FILTER_KEY, mock(FilteredMessageOutput.class))),
@@ -166,6 +172,36 @@ class BatchedMessageFilterOutputTest {
         return messageList;
     }
 
+    @Test
+    void doesNotAcknowledgePastOffsetsWaitingInOtherShard() throws Exception {
+        output = createOutput(BatchSizeConfig.forCount(MESSAGES_PER_BATCH), 2);
+        final List<Message> messages = buildMessages(MESSAGES_PER_BATCH + 1);
+        for (int i = 0; i < messages.size(); i++) {
+            messages.get(i).setMessageQueueId((long) i);
+        }
+
+        // The first thread is assigned to the first shard, which keeps the lowest offset until the next flush
+        final Thread lowOffsetWriter = new Thread(() -> {
+            try {
+                output.write(messages.get(0));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        lowOffsetWriter.start();
+        lowOffsetWriter.join();
+
+        // The second shard flushes the higher offsets right away
+        output.write(messages.subList(1, messages.size()));
+        verify(targetOutput1, times(1)).writeFiltered(messagesWithOutput(messages.subList(1, messages.size())));
+        verify(acknowledger, times(1)).acknowledge(null, MESSAGES_PER_BATCH);
+
+        output.forceFlush();
+        verify(targetOutput1, times(1)).writeFiltered(messagesWithOutput(messages.subList(0, 1)));
+        verify(acknowledger, times(1)).acknowledge((long) MESSAGES_PER_BATCH, 1);
+        verifyNoMoreInteractions(acknowledger);
+    }
+
     abstract class BaseTest {
         @Test
         public void writeMessages() throws Exception {
@@ -110,6 +110,28 @@ class IndexSetAwareMessageOutputBufferTest {
         verify(flusher, times(2)).accept(List.of());
     }
 
+    @Test
+    void shardsAreFilledAndFlushedIndependently() throws Exception {
+        final var shardedBuffer = new IndexSetAwareMessageOutputBuffer(BatchSizeConfig.forCount(2), 2,
+                new ObjectMapperProvider().get());
+        final var messages = createNMessages(3);
+
+        shardedBuffer.appendAndFlush(messages.get(0), flusher);
+        // The second thread gets assigned to the other shard
+        final Thread thread = new Thread(() -> shardedBuffer.appendAndFlush(messages.get(1), flusher));
+        thread.start();
+        thread.join();
+        verifyNoInteractions(flusher);
+
+        // The shard of the current thread is full now
+        shardedBuffer.appendAndFlush(messages.get(2), flusher);
+        verify(flusher, times(1)).accept(List.of(messages.get(0), messages.get(2)));
+
+        shardedBuffer.flush(flusher);
+        verify(flusher, times(1)).accept(List.of(messages.get(1)));
+        verify(flusher, times(1)).accept(List.of());
+    }
+
     private List<FilteredMessage> createNMessages(int num) {
         return IntStream.range(1, num + 1)
                 .mapToObj(i -> createMessage("" + i, Set.of()))
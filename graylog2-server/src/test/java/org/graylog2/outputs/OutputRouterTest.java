@@ -16,11 +16,13 @@
  */
 package org.graylog2.outputs;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.ImmutableSet;
 import org.graylog2.plugin.Message;
 import org.graylog2.plugin.outputs.MessageOutput;
 import org.graylog2.plugin.streams.Output;
 import org.graylog2.plugin.streams.Stream;
+import org.graylog2.streams.StreamRoutingKeyInterner;
 import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -36,6 +38,8 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class OutputRouterTest {
@@ -47,10 +51,12 @@ public class OutputRouterTest {
     @Mock
     private OutputRegistry outputRegistry;
 
+    private final StreamRoutingKeyInterner routingKeyInterner = new StreamRoutingKeyInterner(new MetricRegistry());
+
     @Test
     public void testAlwaysIncludeDefaultOutput() throws Exception {
         final Message message = mock(Message.class);
-        final OutputRouter outputRouter = new OutputRouter(defaultMessageOutput, outputRegistry);
+        final OutputRouter outputRouter = new OutputRouter(defaultMessageOutput, outputRegistry, routingKeyInterner);
 
         final Collection<MessageOutput> messageOutputs = outputRouter.getOutputsForMessage(message);
 
@@ -61,7 +67,7 @@ public class OutputRouterTest {
     @Test
     public void testGetMessageOutputsForEmptyStream() throws Exception {
         final Stream stream = mock(Stream.class);
-        final OutputRouter outputRouter = new OutputRouter(defaultMessageOutput, outputRegistry);
+        final OutputRouter outputRouter = new OutputRouter(defaultMessageOutput, outputRegistry, routingKeyInterner);
 
         final Collection<MessageOutput> messageOutputs = outputRouter.getMessageOutputsForStream(stream);
 
@@ -78,7 +84,7 @@ public class OutputRouterTest {
         when(stream.getOutputs()).thenReturn(outputSet);
         when(output.getId()).thenReturn(outputId);
         when(outputRegistry.getOutputForIdAndStream(eq(outputId), eq(stream))).thenReturn(messageOutput);
-        final OutputRouter outputRouter = new OutputRouter(defaultMessageOutput, outputRegistry);
+        final OutputRouter outputRouter = new OutputRouter(defaultMessageOutput, outputRegistry, routingKeyInterner);
 
         final Collection<MessageOutput> messageOutputs = outputRouter.getMessageOutputsForStream(stream);
 
@@ -101,7 +107,7 @@ public class OutputRouterTest {
         when(output2.getId()).thenReturn(output2Id);
         when(outputRegistry.getOutputForIdAndStream(eq(output1Id), eq(stream))).thenReturn(messageOutput1);
         when(outputRegistry.getOutputForIdAndStream(eq(output2Id), eq(stream))).thenReturn(messageOutput2);
-        final OutputRouter outputRouter = new OutputRouter(defaultMessageOutput, outputRegistry);
+        final OutputRouter outputRouter = new OutputRouter(defaultMessageOutput, outputRegistry, routingKeyInterner);
 
         final Collection<MessageOutput> messageOutputs = outputRouter.getMessageOutputsForStream(stream);
 
@@ -119,7 +125,7 @@ public class OutputRouterTest {
         final MessageOutput messageOutput = mock(MessageOutput.class);
         final Set<MessageOutput> messageOutputList = ImmutableSet.of(messageOutput);
 
-        final OutputRouter outputRouter = Mockito.spy(new OutputRouter(defaultMessageOutput, outputRegistry));
+        final OutputRouter outputRouter = Mockito.spy(new OutputRouter(defaultMessageOutput, outputRegistry, routingKeyInterner));
         doReturn(messageOutputList).when(outputRouter).getMessageOutputsForStream(eq(stream));
 
         // Call to test
@@ -142,7 +148,7 @@ public class OutputRouterTest {
         final Message message = mock(Message.class);
         when(message.getStreams()).thenReturn(ImmutableSet.of(stream1, stream2));
 
-        OutputRouter outputRouter = Mockito.spy(new OutputRouter(defaultMessageOutput, outputRegistry));
+        OutputRouter outputRouter = Mockito.spy(new OutputRouter(defaultMessageOutput, outputRegistry, routingKeyInterner));
         doReturn(messageOutputSet1).when(outputRouter).getMessageOutputsForStream(eq(stream1));
         doReturn(messageOutputSet2).when(outputRouter).getMessageOutputsForStream(eq(stream2));
 
@@ -163,7 +169,7 @@ public class OutputRouterTest {
         final Message message = mock(Message.class);
         when(message.getStreams()).thenReturn(ImmutableSet.of(stream1, stream2));
 
-        OutputRouter outputRouter = Mockito.spy(new OutputRouter(defaultMessageOutput, outputRegistry));
+        OutputRouter outputRouter = Mockito.spy(new OutputRouter(defaultMessageOutput, outputRegistry, routingKeyInterner));
         doReturn(messageOutputSet).when(outputRouter).getMessageOutputsForStream(eq(stream1));
         doReturn(messageOutputSet).when(outputRouter).getMessageOutputsForStream(eq(stream2));
 
@@ -173,4 +179,26 @@ public class OutputRouterTest {
         assertTrue(result.contains(defaultMessageOutput));
         assertTrue(result.contains(messageOutput));
     }
+
+    @Test
+    public void testStreamOutputsAreCachedUntilRegistryChanges() throws Exception {
+        final Stream stream = mock(Stream.class);
+        final MessageOutput messageOutput = mock(MessageOutput.class);
+        final Message message1 = mock(Message.class);
+        final Message message2 = mock(Message.class);
+        when(message1.getStreams()).thenReturn(ImmutableSet.of(stream));
+        when(message2.getStreams()).thenReturn(ImmutableSet.of(stream));
+
+        final OutputRouter outputRouter = Mockito.spy(new OutputRouter(defaultMessageOutput, outputRegistry, routingKeyInterner));
+        doReturn(ImmutableSet.of(messageOutput)).when(outputRouter).getMessageOutputsForStream(eq(stream));
+
+        assertEquals(ImmutableSet.of(messageOutput), outputRouter.getStreamOutputsForMessage(message1));
+        assertEquals(ImmutableSet.of(messageOutput), outputRouter.getStreamOutputsForMessage(message2));
+        verify(outputRouter, times(1)).getMessageOutputsForStream(eq(stream));
+
+        when(outputRegistry.getGeneration()).thenReturn(1L);
+
+        assertEquals(ImmutableSet.of(messageOutput), outputRouter.getStreamOutputsForMessage(message2));
+        verify(outputRouter, times(2)).getMessageOutputsForStream(eq(stream));
+    }
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.plugin;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MessageFieldMapTest {
+
+    @Test
+    void putGetAndRemove() {
+        final MessageFieldMap map = new MessageFieldMap();
+
+        assertThat(map.put("source", "example.org")).isNull();
+        assertThat(map.put("took_ms", 42)).isNull();
+        assertThat(map.put("source", "example.com")).isEqualTo("example.org");
+
+        assertThat(map).hasSize(2);
+        assertThat(map.get("source")).isEqualTo("example.com");
+        assertThat(map.containsKey("took_ms")).isTrue();
+        assertThat(map.get("missing")).isNull();
+
+        assertThat(map.remove("took_ms")).isEqualTo(42);
+        assertThat(map.remove("took_ms")).isNull();
+        assertThat(map).containsOnlyKeys("source");
+    }
+
+    @Test
+    void internsFieldNames() {
+        final MessageFieldMap first = new MessageFieldMap();
+        final MessageFieldMap second = new MessageFieldMap();
+
+        first.put(new String("http_method"), "GET");
+        second.put(new String("http_method"), "POST");
+
+        assertThat(first.keySet().iterator().next()).isSameAs(second.keySet().iterator().next());
+    }
+
+    @Test
+    void rejectsNullKeysAndValues() {
+        final MessageFieldMap map = new MessageFieldMap();
+
+        assertThatThrownBy(() -> map.put(null, "value")).isInstanceOf(NullPointerException.class);
+        assertThatThrownBy(() -> map.put("key", null)).isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    void iteratorsFailOnAddedOrRemovedFields() {
+        final MessageFieldMap map = new MessageFieldMap();
+        map.put("source", "example.org");
+        map.put("took_ms", 42);
+
+        final Iterator<Map.Entry<String, Object>> entries = map.entrySet().iterator();
+        entries.next();
+        map.put("level", 6);
+        assertThatThrownBy(entries::next).isInstanceOf(ConcurrentModificationException.class);
+
+        final Iterator<String> keys = map.keySet().iterator();
+        keys.next();
+        map.remove("level");
+        assertThatThrownBy(keys::next).isInstanceOf(ConcurrentModificationException.class);
+
+        final Iterator<Object> values = map.values().iterator();
+        values.next();
+        map.clear();
+        assertThatThrownBy(values::next).isInstanceOf(ConcurrentModificationException.class);
+
+        map.put("source", "example.org");
+        map.put("took_ms", 42);
+        assertThatThrownBy(() -> map.forEach((key, value) -> map.remove("took_ms".equals(key) ? "source" : "took_ms")))
+                .isInstanceOf(ConcurrentModificationException.class);
+    }
+
+    @Test
+    void allowsReplacingValuesAndChangingCopiesWhileIterating() {
+        final MessageFieldMap map = new MessageFieldMap();
+        map.put("source", "example.org");
+        map.put("took_ms", 42);
+
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            map.put(entry.getKey(), entry.getValue().toString());
+        }
+        for (String key : List.copyOf(map.keySet())) {
+            map.remove(key);
+            map.put(key + "_copy", "value");
+        }
+
+        assertThat(map).containsOnlyKeys("source_copy", "took_ms_copy");
+    }
+
+    @Test
+    void behavesLikeHashMapForRandomOperations() {
+        final Random random = new Random(4711);
+        final MessageFieldMap map = new MessageFieldMap(1);
+        final Map<String, Object> expected = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            final String key = "field_" + random.nextInt(200);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                assertThat(map.put(key, i)).isEqualTo(expected.put(key, i));
+            }
+            assertThat(map.size()).isEqualTo(expected.size());
+        }
+
+        assertThat(map).isEqualTo(expected);
+        assertThat(map.keySet()).isEqualTo(expected.keySet());
+        expected.forEach((key, value) -> assertThat(map.get(key)).isEqualTo(value));
+
+        final Map<String, Object> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertThat(visited).isEqualTo(expected);
+
+        map.clear();
+        assertThat(map).isEmpty();
+        assertThat(map.entrySet().iterator().hasNext()).isFalse();
+    }
+}
@@ -28,6 +28,7 @@ import org.graylog.failure.FailureCause;
 import org.graylog.failure.ProcessingFailureCause;
 import org.graylog2.indexer.IndexSet;
 import org.graylog2.plugin.streams.Stream;
+import org.graylog2.plugin.streams.StreamOrdinals;
 import org.graylog2.shared.SuppressForbidden;
 import org.graylog2.shared.bindings.providers.ObjectMapperProvider;
 import org.joda.time.DateTime;
@@ -240,6 +241,54 @@ public class MessageTest {
         assertThat(message.getStreams()).containsOnly(stream1, stream3);
     }
 
+    @Test
+    public void testStreamMembershipIsTrackedByStreamId() {
+        final Stream stream = mock(Stream.class);
+        when(stream.getId()).thenReturn("membership-stream-1");
+        final Stream sameStreamOfNewerGeneration = mock(Stream.class);
+        when(sameStreamOfNewerGeneration.getId()).thenReturn("membership-stream-1");
+        final Stream otherStream = mock(Stream.class);
+        when(otherStream.getId()).thenReturn("membership-stream-2");
+
+        message.addStream(stream);
+        message.addStream(sameStreamOfNewerGeneration);
+        assertThat(message.getStreams()).containsOnly(stream);
+        assertThat(message.hasStream(sameStreamOfNewerGeneration)).isTrue();
+        assertThat(message.hasStream(otherStream)).isFalse();
+        assertThat(message.getStreamOrdinals().stream().boxed())
+                .containsOnly(StreamOrdinals.ordinal("membership-stream-1"));
+
+        message.addStream(otherStream);
+        assertThat(message.removeStream(sameStreamOfNewerGeneration)).isTrue();
+        assertThat(message.getStreams()).containsOnly(otherStream);
+        assertThat(message.getStreamOrdinals().stream().boxed())
+                .containsOnly(StreamOrdinals.ordinal("membership-stream-2"));
+    }
+
+    @Test
+    public void testStreamMembershipSurvivesReusedOrdinals() {
+        final Stream deletedStream = mock(Stream.class);
+        when(deletedStream.getId()).thenReturn("membership-deleted-stream");
+        message.addStream(deletedStream);
+        final int deletedOrdinal = StreamOrdinals.ordinal(deletedStream);
+
+        // The stream is missing from two router engine generations, so its ordinal is released and re-used
+        StreamOrdinals.retain(List.of());
+        StreamOrdinals.retain(List.of());
+        assertThat(StreamOrdinals.streamId(deletedOrdinal)).isNull();
+        for (int i = 0; StreamOrdinals.streamId(deletedOrdinal) == null; i++) {
+            StreamOrdinals.ordinal("membership-new-stream-" + i);
+        }
+        final Stream newStream = mock(Stream.class);
+        when(newStream.getId()).thenReturn(StreamOrdinals.streamId(deletedOrdinal));
+
+        assertThat(message.hasStream(newStream)).isFalse();
+        assertThat(message.hasStream(deletedStream)).isTrue();
+        assertThat(message.getStreams()).containsOnly(deletedStream);
+        assertThat(message.getStreamOrdinals().stream().boxed())
+                .containsOnly(StreamOrdinals.ordinal(deletedStream));
+    }
+
     @Test
     public void testStreamMutatorsWithIndexSets() {
         final Stream stream1 = mock(Stream.class);
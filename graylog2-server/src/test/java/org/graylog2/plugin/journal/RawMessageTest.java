@@ -22,6 +22,7 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
@@ -45,4 +46,21 @@ public class RawMessageTest {
         assertEquals("inputid", decodedMsg.getSourceNodes().get(0).inputId);
         assertEquals("5ca1ab1e-0000-4000-a000-000000000000", decodedMsg.getSourceNodes().get(0).nodeId);
     }
+
+    @Test
+    public void codecConfigSurvivesEncodeDecode() throws IOException {
+        final RawMessage rawMessage = new RawMessage("testmessage".getBytes(StandardCharsets.UTF_8));
+        rawMessage.setCodecName("raw");
+        rawMessage.setCodecConfig(new Configuration(Map.of("b", "value", "a", 1)));
+
+        final RawMessage decodedMsg = RawMessage.decode(rawMessage.encode(), 1);
+        final RawMessage otherDecodedMsg = RawMessage.decode(rawMessage.encode(), 2);
+
+        assertNotNull(decodedMsg);
+        assertNotNull(otherDecodedMsg);
+        assertEquals(rawMessage.getCodecConfigJson(), decodedMsg.getCodecConfigJson());
+        assertEquals(decodedMsg.getCodecConfigJson(), otherDecodedMsg.getCodecConfigJson());
+        assertEquals("value", decodedMsg.getCodecConfig().getString("b"));
+        assertEquals(1, decodedMsg.getCodecConfig().getInt("a"));
+    }
 }
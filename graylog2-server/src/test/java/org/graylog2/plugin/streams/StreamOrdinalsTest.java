@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.plugin.streams;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StreamOrdinalsTest {
+    @Test
+    void assignsStableOrdinals() {
+        final int ordinal = StreamOrdinals.ordinal("ordinals-stable");
+
+        assertThat(StreamOrdinals.ordinal("ordinals-stable")).isEqualTo(ordinal);
+        assertThat(StreamOrdinals.ordinal(stream("ordinals-stable"))).isEqualTo(ordinal);
+        assertThat(StreamOrdinals.streamId(ordinal)).isEqualTo("ordinals-stable");
+        assertThat(StreamOrdinals.ordinal(stream(null))).isEqualTo(StreamOrdinals.NO_ORDINAL);
+    }
+
+    @Test
+    void releasesOrdinalsOfStreamsMissingFromTwoGenerations() {
+        final Stream kept = stream("ordinals-kept");
+        final Stream removed = stream("ordinals-removed");
+        StreamOrdinals.register(List.of(kept, removed));
+        final int keptOrdinal = StreamOrdinals.ordinal(kept);
+        final int removedOrdinal = StreamOrdinals.ordinal(removed);
+        final int epoch = StreamOrdinals.epoch();
+
+        StreamOrdinals.retain(List.of(kept));
+        // Messages of the previous generation might still refer to the stream
+        assertThat(StreamOrdinals.streamId(removedOrdinal)).isEqualTo("ordinals-removed");
+
+        StreamOrdinals.retain(List.of(kept));
+        assertThat(StreamOrdinals.streamId(removedOrdinal)).isNull();
+        assertThat(StreamOrdinals.streamId(keptOrdinal)).isEqualTo("ordinals-kept");
+        assertThat(StreamOrdinals.ordinal(kept)).isEqualTo(keptOrdinal);
+        assertThat(StreamOrdinals.epoch()).isNotEqualTo(epoch);
+    }
+
+    @Test
+    void keepsOrdinalsOfStreamsWhichCameBack() {
+        final Stream paused = stream("ordinals-paused");
+        final int ordinal = StreamOrdinals.ordinal(paused);
+
+        StreamOrdinals.retain(List.of());
+        StreamOrdinals.retain(List.of(paused));
+        StreamOrdinals.retain(List.of(paused));
+
+        assertThat(StreamOrdinals.ordinal(paused)).isEqualTo(ordinal);
+        assertThat(StreamOrdinals.streamId(ordinal)).isEqualTo("ordinals-paused");
+    }
+
+    @Test
+    void reusesReleasedOrdinals() {
+        final int released = StreamOrdinals.ordinal("ordinals-released");
+        StreamOrdinals.retain(List.of());
+        StreamOrdinals.retain(List.of());
+
+        // Released ordinals are handed out lowest first, before new ones are assigned
+        int ordinal;
+        int i = 0;
+        do {
+            ordinal = StreamOrdinals.ordinal("ordinals-new-" + i++);
+        } while (ordinal < released);
+
+        assertThat(ordinal).isEqualTo(released);
+    }
+
+    private static Stream stream(String id) {
+        final Stream stream = mock(Stream.class);
+        when(stream.getId()).thenReturn(id);
+        return stream;
+    }
+}
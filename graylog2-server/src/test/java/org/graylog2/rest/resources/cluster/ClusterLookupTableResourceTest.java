@@ -34,11 +34,11 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import retrofit2.Call;
+import retrofit2.Callback;
 import retrofit2.Response;
 
 import jakarta.ws.rs.core.HttpHeaders;
 
-import java.io.IOException;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -49,6 +49,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -79,6 +80,8 @@ public class ClusterLookupTableResourceTest {
 
     private ClusterLookupTableResource underTest;
 
+    private Duration callTimeout = Duration.ofSeconds(5);
+
     @Before
     public void setup() throws Exception {
 
@@ -102,7 +105,7 @@ public class ClusterLookupTableResourceTest {
                 )) {
             @Override
             protected Duration getDefaultProxyCallTimeout() {
-                return Duration.ofSeconds(5);
+                return callTimeout;
             }
 
             @Override
@@ -207,6 +210,33 @@ public class ClusterLookupTableResourceTest {
         });
     }
 
+    @Test
+    public void performPurge_whenOneNodeMissesTheDeadlineThenPartialResultsAreReturned() {
+        // given
+        callTimeout = Duration.ofMillis(100);
+        when(nodeService.allActive()).thenReturn(nodeMap());
+        mock204Response("testName", "testKey", remoteLookupTableResource1);
+        final Call<Void> hangingCall = callMock();
+        when(remoteLookupTableResource2.performPurge("testName", "testKey")).thenReturn(hangingCall);
+
+        // when
+        final Map<String, ProxiedResource.CallResult<Void>> res = underTest.performPurge("testName", "testKey");
+
+        // then
+        verify(hangingCall).cancel();
+
+        assertThat(res.get("node_1")).satisfies(nodeRes -> {
+            assertThat(nodeRes.isCallExecuted()).isTrue();
+            assertThat(nodeRes.response().code()).isEqualTo(204);
+        });
+
+        assertThat(res.get("node_2")).satisfies(nodeRes -> {
+            assertThat(nodeRes.isCallExecuted()).isTrue();
+            assertThat(nodeRes.serverErrorMessage()).isEqualTo("upstream timeout (node=node_2)");
+            assertThat(nodeRes.response()).isNull();
+        });
+    }
+
     private Call<Void> callMock() {
         final Call<Void> call = mock(Call.class);
         when(call.timeout()).thenReturn(new Timeout());
@@ -214,13 +244,13 @@ public class ClusterLookupTableResourceTest {
     }
 
     private void mock204Response(String tableName, String key,
-                                 RemoteLookupTableResource remoteLookupTableResource) throws IOException {
+                                 RemoteLookupTableResource remoteLookupTableResource) {
         final Call<Void> call = callMock();
 
         when(remoteLookupTableResource.performPurge(tableName, key))
                 .thenReturn(call);
 
-        when(call.execute()).thenReturn(Response.success(null,
+        respondWith(call, Response.success(null,
                 new okhttp3.Response.Builder() //
                         .code(204)
                         .message("No-Content")
@@ -230,13 +260,13 @@ public class ClusterLookupTableResourceTest {
     }
 
     private void mock404Response(String tableName, String key,
-                                 RemoteLookupTableResource remoteLookupTableResource) throws IOException {
+                                 RemoteLookupTableResource remoteLookupTableResource) {
         final Call<Void> call = callMock();
 
         when(remoteLookupTableResource.performPurge(tableName, key))
                 .thenReturn(call);
 
-        when(call.execute()).thenReturn(Response.error(
+        respondWith(call, Response.error(
                         ResponseBody.create(null, "Resource Not Found"),
                         new okhttp3.Response.Builder() //
                                 .code(404)
@@ -248,6 +278,14 @@ public class ClusterLookupTableResourceTest {
         );
     }
 
+    @SuppressWarnings("unchecked")
+    private void respondWith(Call<Void> call, Response<Void> response) {
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Callback.class).onResponse(call, response);
+            return null;
+        }).when(call).enqueue(any());
+    }
+
     private Map<String, Node> nodeMap() {
         final Map<String, Node> nodes = new LinkedHashMap<>();
         nodes.put("node_2", node2);
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.shared.buffers;
+
+import com.codahale.metrics.MetricRegistry;
+import com.eaio.uuid.UUID;
+import org.graylog2.plugin.Tools;
+import org.graylog2.plugin.buffers.MessageEvent;
+import org.graylog2.plugin.journal.RawMessage;
+import org.graylog2.shared.buffers.processors.DecodingProcessor;
+import org.graylog2.shared.buffers.processors.ProcessBufferProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProcessBufferTest {
+    private static final int RING_SIZE = 4;
+
+    // Journal offsets of the processed messages, in processing order
+    private final List<Object> committedOffsets = new CopyOnWriteArrayList<>();
+    private final Semaphore processingPermits = new Semaphore(Integer.MAX_VALUE);
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private ProcessBuffer processBuffer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        final ProcessBufferProcessor processor = mock(ProcessBufferProcessor.class);
+        doAnswer(invocation -> {
+            processingPermits.acquire();
+            final MessageEvent event = invocation.getArgument(0);
+            committedOffsets.add(event.getRaw().getMessageQueueId());
+            return null;
+        }).when(processor).onEvent(any(MessageEvent.class));
+
+        final DecodingProcessor.Factory decodingProcessorFactory = mock(DecodingProcessor.Factory.class);
+        final ProcessBufferProcessor.Factory processorFactory = mock(ProcessBufferProcessor.Factory.class);
+        when(processorFactory.create(any())).thenReturn(processor);
+
+        processBuffer = new ProcessBuffer(metricRegistry, decodingProcessorFactory, processorFactory, 1, RING_SIZE, "blocking");
+    }
+
+    @Test
+    void insertsBatchesAtRingBufferBoundaries() {
+        for (int size : new int[]{0, 1, RING_SIZE - 1, RING_SIZE, RING_SIZE + 1, 3 * RING_SIZE + 2}) {
+            committedOffsets.clear();
+
+            processBuffer.insertBlocking(messages(0, size));
+
+            await().atMost(5, TimeUnit.SECONDS).until(() -> committedOffsets.size() == size);
+            assertThat(committedOffsets).as("batch of %d messages", size).containsExactlyElementsOf(offsets(0, size));
+        }
+        assertThat(metricRegistry.meter(MetricRegistry.name(ProcessBuffer.class, "incomingMessages")).getCount())
+                .isEqualTo(27);
+    }
+
+    @Test
+    void onlyCommitsInsertedMessagesOfPartiallyInsertedBatch() throws Exception {
+        processingPermits.drainPermits();
+        processingPermits.release(RING_SIZE);
+        final int size = 3 * RING_SIZE;
+
+        final Thread inserter = new Thread(() -> processBuffer.insertBlocking(messages(0, size)), "process-buffer-inserter");
+        inserter.start();
+
+        // The first RING_SIZE messages are processed, the next RING_SIZE fill the ring buffer and the rest waits for
+        // free slots. The remaining capacity is negative because the waiting inserter already claimed its sequences.
+        await().atMost(5, TimeUnit.SECONDS).until(() -> committedOffsets.size() == RING_SIZE && processBuffer.getRemainingCapacity() <= 0);
+        inserter.join(100);
+        assertThat(inserter.isAlive()).isTrue();
+        assertThat(committedOffsets).containsExactlyElementsOf(offsets(0, RING_SIZE));
+
+        processingPermits.release(Integer.MAX_VALUE - RING_SIZE);
+        inserter.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertThat(inserter.isAlive()).isFalse();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> committedOffsets.size() == size);
+        assertThat(committedOffsets).containsExactlyElementsOf(offsets(0, size));
+    }
+
+    private static List<RawMessage> messages(long firstOffset, int count) {
+        final List<RawMessage> messages = new ArrayList<>(count);
+        for (long offset = firstOffset; offset < firstOffset + count; offset++) {
+            messages.add(new RawMessage(offset, new UUID(), Tools.nowUTC(), null, ("message " + offset).getBytes(StandardCharsets.UTF_8)));
+        }
+        return messages;
+    }
+
+    private static List<Object> offsets(long firstOffset, int count) {
+        return LongStream.range(firstOffset, firstOffset + count).boxed().map(Object.class::cast).toList();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.shared.buffers.processors;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeUtils;
+import org.joda.time.DateTimeZone;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProcessingClockTest {
+    @AfterEach
+    void resetClock() {
+        DateTimeUtils.setCurrentMillisSystem();
+    }
+
+    @Test
+    void reusesTimestampWithinSameMillisecond() {
+        final ProcessingClock clock = new ProcessingClock();
+
+        DateTimeUtils.setCurrentMillisFixed(1_700_000_000_123L);
+        clock.tick();
+        final DateTime first = clock.dateTime();
+        final String firstFormatted = clock.formatted();
+
+        clock.tick();
+        assertThat(clock.dateTime()).isSameAs(first);
+        assertThat(clock.formatted()).isSameAs(firstFormatted);
+
+        assertThat(first).isEqualTo(new DateTime(1_700_000_000_123L, DateTimeZone.UTC));
+        assertThat(firstFormatted).isEqualTo("2023-11-14 22:13:20.123");
+    }
+
+    @Test
+    void advancesWithTheClock() {
+        final ProcessingClock clock = new ProcessingClock();
+
+        DateTimeUtils.setCurrentMillisFixed(1_700_000_000_123L);
+        clock.tick();
+        DateTimeUtils.setCurrentMillisFixed(1_700_000_000_124L);
+        clock.tick();
+
+        assertThat(clock.dateTime().getMillis()).isEqualTo(1_700_000_000_124L);
+        assertThat(clock.formatted()).isEqualTo("2023-11-14 22:13:20.124");
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.shared.messageq.localkafka;
+
+import com.codahale.metrics.MetricRegistry;
+import com.eaio.uuid.UUID;
+import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.graylog2.plugin.Tools;
+import org.graylog2.plugin.configuration.Configuration;
+import org.graylog2.plugin.journal.RawMessage;
+import org.graylog2.plugin.lifecycles.Lifecycle;
+import org.graylog2.shared.buffers.ProcessBuffer;
+import org.graylog2.shared.journal.Journal;
+import org.graylog2.shared.messageq.MessageQueueReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LocalKafkaMessageQueueReaderTest {
+    private static final int BATCH_SIZE = 3;
+
+    @Mock
+    private Journal journal;
+    @Mock
+    private ProcessBuffer processBuffer;
+
+    private final Semaphore journalFilled = new Semaphore(0);
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private LocalKafkaMessageQueueReader reader;
+
+    @BeforeEach
+    void setUp() {
+        when(processBuffer.getRingBufferSize()).thenReturn(16);
+        reader = new LocalKafkaMessageQueueReader(journal, processBuffer, journalFilled, metricRegistry, new EventBus(),
+                new MessageQueueReader.Metrics.Provider(metricRegistry).get(), 1, BATCH_SIZE);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        reader.stopAsync().awaitTerminated(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void insertsBatchesAsTheyWereRead() {
+        // The second batch contains an entry which can't be decoded
+        final List<Journal.JournalReadEntry> secondBatch = new ArrayList<>(entries(3, 2));
+        secondBatch.add(1, new Journal.JournalReadEntry("invalid".getBytes(StandardCharsets.UTF_8), 42));
+        when(journal.read(BATCH_SIZE)).thenReturn(entries(0, 3), secondBatch, List.of());
+
+        start();
+
+        @SuppressWarnings("unchecked")
+        final ArgumentCaptor<List<RawMessage>> batches = ArgumentCaptor.forClass(List.class);
+        verify(processBuffer, timeout(5000).times(2)).insertBlocking(batches.capture());
+        assertThat(batches.getAllValues())
+                .extracting(LocalKafkaMessageQueueReaderTest::offsets)
+                .containsExactly(List.of(0L, 1L, 2L), List.of(3L, 4L));
+        verify(journal, timeout(5000).times(3)).read(BATCH_SIZE);
+        verify(journal, never()).read(longThat(count -> count != BATCH_SIZE));
+
+        // Only the invalid entry is committed by the reader, everything else is committed once it has been processed
+        verify(journal).markJournalOffsetCommitted(42);
+        verify(journal, times(1)).markJournalOffsetCommitted(anyLong());
+        verify(processBuffer, never()).insertBlocking(any(RawMessage.class));
+    }
+
+    @Test
+    void leavesStagedBatchInJournalOnShutdown() throws Exception {
+        final AtomicLong nextOffset = new AtomicLong();
+        when(journal.read(BATCH_SIZE)).thenAnswer(invocation -> entries(nextOffset.getAndAdd(BATCH_SIZE), BATCH_SIZE));
+        // The process buffer is full, inserting the first batch blocks like the ring buffer does
+        final CountDownLatch processBufferFull = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            Uninterruptibles.awaitUninterruptibly(processBufferFull);
+            return null;
+        }).when(processBuffer).insertBlocking(anyList());
+
+        start();
+
+        // One batch is being inserted, one is staged and the read-ahead thread waits to stage the third one
+        verify(journal, timeout(5000).times(3)).read(BATCH_SIZE);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> metricRegistry.getGauges().get(
+                MetricRegistry.name(LocalKafkaMessageQueueReader.class, "stagedBatches")).getValue().equals(1));
+
+        reader.stopAsync();
+        processBufferFull.countDown();
+        reader.awaitTerminated(5, TimeUnit.SECONDS);
+
+        // The staged batch has neither been inserted nor committed, it is read again after a restart
+        verify(processBuffer, times(1)).insertBlocking(anyList());
+        verify(journal, never()).markJournalOffsetCommitted(anyLong());
+        await().atMost(5, TimeUnit.SECONDS).until(() -> Thread.getAllStackTraces().keySet().stream()
+                .noneMatch(thread -> thread.getName().startsWith("journal-read-ahead-")));
+        verify(journal, atLeast(3)).read(BATCH_SIZE);
+    }
+
+    private void start() {
+        reader.startAsync().awaitRunning();
+        reader.listenForLifecycleChanges(Lifecycle.RUNNING);
+    }
+
+    private static List<Journal.JournalReadEntry> entries(long firstOffset, int count) {
+        final List<Journal.JournalReadEntry> entries = new ArrayList<>(count);
+        for (long offset = firstOffset; offset < firstOffset + count; offset++) {
+            final RawMessage message = new RawMessage(offset, new UUID(), Tools.nowUTC(), null, ("message " + offset).getBytes(StandardCharsets.UTF_8));
+            message.setCodecName("raw");
+            message.setCodecConfig(Configuration.EMPTY_CONFIGURATION);
+            entries.add(new Journal.JournalReadEntry(message.encode(), offset));
+        }
+        return entries;
+    }
+
+    private static List<Object> offsets(List<RawMessage> batch) {
+        return batch.stream().map(RawMessage::getMessageQueueId).toList();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.shared.rest.bulkheads;
+
+import com.codahale.metrics.MetricRegistry;
+import com.github.joschi.jadconfig.util.Duration;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.core.Application;
+import jakarta.ws.rs.core.Response;
+import org.glassfish.jersey.server.ChunkedOutput;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.test.JerseyTest;
+import org.glassfish.jersey.test.TestProperties;
+import org.graylog2.shared.bindings.GuiceInjectorHolder;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+public class RestBulkheadFilterTest extends JerseyTest {
+    private static final CompletableFuture<ChunkedOutput<String>> CHUNKED_OUTPUT = new CompletableFuture<>();
+
+    static {
+        GuiceInjectorHolder.createInjector(Collections.emptyList());
+    }
+
+    private RestBulkheads.Bulkhead bulkhead;
+
+    @Override
+    protected Application configure() {
+        forceSet(TestProperties.CONTAINER_PORT, "0");
+        bulkhead = new RestBulkheads(0, 0, 1, 0, Duration.milliseconds(0), new MetricRegistry())
+                .forGroup(RestBulkheadGroup.EXPORT)
+                .orElseThrow();
+        return new ResourceConfig(ChunkedResource.class)
+                .register(new RestBulkheadFilter(bulkhead, 0));
+    }
+
+    @Test
+    public void holdsPermitOfChunkedResponsesUntilClosed() throws Exception {
+        final Future<Response> response = target("chunked").request().async().get();
+        final ChunkedOutput<String> output = CHUNKED_OUTPUT.get(1, TimeUnit.MINUTES);
+
+        // The resource method has returned and the first chunk has been written, but the output is still open
+        output.write("first");
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertThat(bulkhead.active()).isEqualTo(1);
+        assertThat(target("chunked").request().get().getStatus()).isEqualTo(503);
+
+        output.write("second");
+        output.close();
+
+        assertThat(response.get(1, TimeUnit.MINUTES).readEntity(String.class)).isEqualTo("firstsecond");
+        await().atMost(1, TimeUnit.MINUTES).until(() -> bulkhead.active() == 0);
+    }
+
+    @Path("chunked")
+    public static class ChunkedResource {
+        @GET
+        public ChunkedOutput<String> chunked() {
+            if (CHUNKED_OUTPUT.isDone()) {
+                return new ChunkedOutput<>(String.class);
+            }
+            final ChunkedOutput<String> output = new ChunkedOutput<>(String.class);
+            CHUNKED_OUTPUT.complete(output);
+            return output;
+        }
+    }
+}
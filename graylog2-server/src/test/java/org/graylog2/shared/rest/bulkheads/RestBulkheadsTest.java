@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.shared.rest.bulkheads;
+
+import com.codahale.metrics.MetricRegistry;
+import com.github.joschi.jadconfig.util.Duration;
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ChunkedOutput;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.graylog2.shared.rest.resources.system.LoadBalancerStatusResource;
+import org.graylog2.shared.rest.resources.system.SystemResource;
+import org.graylog2.shared.security.ShiroAuthorizationFilter;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RestBulkheadsTest {
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+
+    @Test
+    void onlyLimitedGroupsHaveBulkheads() {
+        final RestBulkheads bulkheads = bulkheads(2, Duration.milliseconds(0));
+
+        assertThat(bulkheads.forGroup(RestBulkheadGroup.EXPORT)).isPresent();
+        assertThat(bulkheads.forGroup(RestBulkheadGroup.SEARCH)).isEmpty();
+        assertThat(bulkheads.forGroup(RestBulkheadGroup.UNRESTRICTED)).isEmpty();
+    }
+
+    @Test
+    void rejectsRequestsExceedingTheLimit() {
+        final RestBulkheads.Bulkhead bulkhead = bulkheads(2, Duration.milliseconds(10)).forGroup(RestBulkheadGroup.EXPORT).orElseThrow();
+
+        assertThat(bulkhead.tryAcquire()).isTrue();
+        assertThat(bulkhead.tryAcquire()).isTrue();
+        assertThat(bulkhead.tryAcquire()).isFalse();
+        assertThat(bulkhead.active()).isEqualTo(2);
+        assertThat(metricRegistry.meter("org.graylog2.shared.rest.bulkheads.RestBulkheads.export.rejected").getCount()).isEqualTo(1);
+
+        bulkhead.release();
+        assertThat(bulkhead.tryAcquire()).isTrue();
+        assertThat(metricRegistry.timer("org.graylog2.shared.rest.bulkheads.RestBulkheads.export.wait").getCount()).isEqualTo(4);
+    }
+
+    @Test
+    void filterHoldsPermitUntilResponseIsCreated() {
+        final RestBulkheads.Bulkhead bulkhead = bulkheads(1, Duration.milliseconds(0)).forGroup(RestBulkheadGroup.EXPORT).orElseThrow();
+        final RestBulkheadFilter filter = new RestBulkheadFilter(bulkhead, 0);
+
+        final ContainerRequest first = request();
+        filter.filter(first);
+        assertThat(bulkhead.active()).isEqualTo(1);
+
+        assertThatThrownBy(() -> filter.filter(request()))
+                .isInstanceOf(ServiceUnavailableException.class);
+
+        final ContainerResponse response = new ContainerResponse(first, Response.ok().build());
+        filter.filter(first, response);
+        // Releasing twice must not free additional permits
+        filter.filter(first, response);
+        assertThat(bulkhead.active()).isEqualTo(0);
+    }
+
+    @Test
+    void filterHoldsPermitOfStreamedResponsesUntilWritten() {
+        final RestBulkheads.Bulkhead bulkhead = bulkheads(1, Duration.milliseconds(0)).forGroup(RestBulkheadGroup.EXPORT).orElseThrow();
+        final RestBulkheadFilter filter = new RestBulkheadFilter(bulkhead, 0);
+
+        final ContainerRequest request = request();
+        filter.filter(request);
+        final StreamingOutput output = outputStream -> {};
+        filter.filter(request, new ContainerResponse(request, Response.ok(output).build()));
+
+        assertThat(bulkhead.active()).isEqualTo(1);
+    }
+
+    @Test
+    void filterRunsAfterAuthorization() {
+        assertThat(RestBulkheadFilter.class.getAnnotation(Priority.class).value())
+                .isGreaterThan(ShiroAuthorizationFilter.class.getAnnotation(Priority.class).value());
+    }
+
+    @Test
+    void assignsResourcesToGroups() throws Exception {
+        assertThat(RestBulkheadFeature.groupOf(LoadBalancerStatusResource.class, LoadBalancerStatusResource.class.getMethod("status")))
+                .isEqualTo(RestBulkheadGroup.UNRESTRICTED);
+        assertThat(RestBulkheadFeature.groupOf(SystemResource.class, SystemResource.class.getMethod("system")))
+                .isEqualTo(RestBulkheadGroup.SYSTEM);
+        assertThat(RestBulkheadFeature.groupOf(SystemResource.class, SystemResource.class.getMethod("threadDumpAsText")))
+                .isEqualTo(RestBulkheadGroup.EXPORT);
+        assertThat(RestBulkheadFeature.groupOf(TestResource.class, TestResource.class.getMethod("chunked")))
+                .isEqualTo(RestBulkheadGroup.EXPORT);
+        assertThat(RestBulkheadFeature.groupOf(TestResource.class, TestResource.class.getMethod("search")))
+                .isEqualTo(RestBulkheadGroup.SEARCH);
+        assertThat(RestBulkheadFeature.groupOf(TestResource.class, TestResource.class.getMethod("other")))
+                .isEqualTo(RestBulkheadGroup.UNRESTRICTED);
+    }
+
+    private RestBulkheads bulkheads(int exportMaxConcurrent, Duration maxWait) {
+        return new RestBulkheads(0, 0, exportMaxConcurrent, 0, maxWait, metricRegistry);
+    }
+
+    private static ContainerRequest request() {
+        return new ContainerRequest(URI.create("http://localhost"), URI.create("/"), HttpMethod.GET, null, new MapPropertiesDelegate(), null);
+    }
+
+    public static class TestResource {
+        @GET
+        public ChunkedOutput<String> chunked() {
+            return null;
+        }
+
+        @GET
+        @RestBulkhead(RestBulkheadGroup.SEARCH)
+        public String search() {
+            return null;
+        }
+
+        @GET
+        public String other() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.shared.rest.resources;
+
+import com.codahale.metrics.MetricRegistry;
+import com.github.joschi.jadconfig.util.Duration;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.Test;
+import retrofit2.Call;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProxiedRequestsCacheTest {
+    private static final String URL = "http://localhost:9000/api/system/metrics";
+
+    private final ProxiedRequestsCache cache = new ProxiedRequestsCache(Duration.seconds(10), new MetricRegistry());
+
+    @Test
+    void cachesSuccessfulGetResponses() {
+        final ProxiedRequestsCache.Key key = cache.keyFor("node-1", call(get()), "token-1");
+        final ProxiedResource.NodeResponse<String> response = ProxiedResource.NodeResponse.create(true, 200, "metrics", null);
+
+        cache.put(key, response);
+
+        assertThat(cache.<String>get(cache.keyFor("node-1", call(get()), "token-1"))).isEqualTo(response);
+    }
+
+    @Test
+    void keyIncludesNodeAndAuthenticationToken() {
+        final ProxiedRequestsCache.Key key = cache.keyFor("node-1", call(get()), "token-1");
+        cache.put(key, ProxiedResource.NodeResponse.create(true, 200, "metrics", null));
+
+        assertThat(cache.<String>get(cache.keyFor("node-1", call(get()), "token-2"))).isNull();
+        assertThat(cache.<String>get(cache.keyFor("node-1", call(get()), null))).isNull();
+        assertThat(cache.<String>get(cache.keyFor("node-2", call(get()), "token-1"))).isNull();
+    }
+
+    @Test
+    void onlyCachesGetRequests() {
+        final Request post = new Request.Builder()
+                .url(URL)
+                .post(RequestBody.create("{}", MediaType.get("application/json")))
+                .build();
+
+        assertThat(cache.keyFor("node-1", call(post), "token-1")).isNull();
+    }
+
+    @Test
+    void onlyCachesSuccessfulResponses() {
+        final ProxiedRequestsCache.Key key = cache.keyFor("node-1", call(get()), "token-1");
+
+        cache.put(key, ProxiedResource.NodeResponse.create(false, 500, null, "error".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(cache.<String>get(key)).isNull();
+    }
+
+    @Test
+    void doesNotCacheResponseBodies() {
+        final ProxiedRequestsCache.Key key = cache.keyFor("node-1", call(get()), "token-1");
+
+        cache.put(key, ProxiedResource.NodeResponse.create(true, 200, ResponseBody.create("metrics", MediaType.get("text/plain")), null));
+
+        assertThat(cache.<ResponseBody>get(key)).isNull();
+    }
+
+    @Test
+    void disabledCacheDoesNotCreateKeys() {
+        final ProxiedRequestsCache disabled = ProxiedRequestsCache.disabled();
+
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.keyFor("node-1", call(get()), "token-1")).isNull();
+    }
+
+    private static Request get() {
+        return new Request.Builder().url(URL).get().build();
+    }
+
+    private static Call<?> call(Request request) {
+        final Call<?> call = mock(Call.class);
+        when(call.request()).thenReturn(request);
+        return call;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2020 Graylog, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the Server Side Public License, version 1,
+ * as published by MongoDB, Inc.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * Server Side Public License for more details.
+ *
+ * You should have received a copy of the Server Side Public License
+ * along with this program. If not, see
+ * <http://www.mongodb.com/licensing/server-side-public-license>.
+ */
+package org.graylog2.streams;
+
+import com.codahale.metrics.MetricRegistry;
+import org.graylog2.indexer.IndexSet;
+import org.graylog2.plugin.Message;
+import org.graylog2.plugin.Tools;
+import org.graylog2.plugin.streams.Stream;
+import org.graylog2.plugin.streams.StreamRoutingKey;
+import org.graylog2.plugin.TestMessageFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StreamRoutingKeyInternerTest {
+    private final TestMessageFactory messageFactory = new TestMessageFactory();
+
+    private StreamRoutingKeyInterner interner;
+    private Stream stream1;
+    private Stream stream2;
+    private IndexSet indexSet1;
+
+    @BeforeEach
+    void setUp() {
+        interner = new StreamRoutingKeyInterner(new MetricRegistry());
+        indexSet1 = mock(IndexSet.class);
+        stream1 = mock(Stream.class);
+        stream2 = mock(Stream.class);
+        when(stream1.getIndexSet()).thenReturn(indexSet1);
+        when(stream2.getIndexSet()).thenReturn(indexSet1);
+    }
+
+    @Test
+    void internsKeysForEqualStreamSets() {
+        final StreamRoutingKey key = interner.intern(List.of(stream1, stream2));
+
+        assertThat(interner.intern(List.of(stream2, stream1))).isSameAs(key);
+        assertThat(interner.intern(List.of(stream1))).isNotSameAs(key);
+        assertThat(key.streams()).containsExactlyInAnyOrder(stream1, stream2);
+        assertThat(key.indexSets()).containsExactly(indexSet1);
+    }
+
+    @Test
+    void attachesKeyToMessageUntilStreamsChange() {
+        final Message message1 = messageFactory.createMessage("foo", "bar", Tools.nowUTC());
+        final Message message2 = messageFactory.createMessage("foo", "bar", Tools.nowUTC());
+        message1.addStream(stream1);
+        message2.addStream(stream1);
+
+        final StreamRoutingKey key = interner.routingKeyFor(message1);
+
+        assertThat(message1.getRoutingKey()).isSameAs(key);
+        assertThat(interner.routingKeyFor(message2)).isSameAs(key);
+        assertThat(message1.getIndexSets()).isSameAs(key.indexSets());
+
+        message1.addStream(stream1);
+        assertThat(message1.getRoutingKey()).isSameAs(key);
+
+        message1.addStream(stream2);
+        assertThat(message1.getRoutingKey()).isNull();
+        assertThat(interner.routingKeyFor(message1).streams()).containsExactlyInAnyOrder(stream1, stream2);
+
+        message1.removeStream(stream2);
+        assertThat(message1.getRoutingKey()).isNull();
+        assertThat(interner.routingKeyFor(message1)).isSameAs(key);
+    }
+}
@@ -73,6 +73,7 @@ const EventDefinitionFormContainer = ({
       grace_period_ms: 300000,
       // Defaults to system setting for notification backlog size
       backlog_size: null,
+      digest_window_ms: 0,
     },
     notifications: [],
     alert: false,
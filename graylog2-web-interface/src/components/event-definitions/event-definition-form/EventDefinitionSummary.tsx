@@ -191,6 +191,11 @@ const EventDefinitionSummary = ({ eventDefinition, notifications, validation, cu
       ? `Grace Period is set to ${formattedDuration}`
       : 'Grace Period is disabled');
 
+    const formattedDigestWindow = (notificationSettings.digest_window_ms
+      ? `Events within ${moment.duration(notificationSettings.digest_window_ms)
+        .format('d [days] h [hours] m [minutes] s [seconds]', { trim: 'all' })} are sent in a single Notification`
+      : 'Notifications are sent for every Event');
+
     const formattedBacklogSize = (notificationSettings.backlog_size
       ? `Notifications will include ${notificationSettings.backlog_size} messages`
       : 'Notifications will not include any messages.');
@@ -200,6 +205,7 @@ const EventDefinitionSummary = ({ eventDefinition, notifications, validation, cu
         <h4>Settings</h4>
         <dl>
           <dd>{formattedGracePeriod}</dd>
+          <dd>{formattedDigestWindow}</dd>
           <dd>{formattedBacklogSize}</dd>
         </dl>
       </>
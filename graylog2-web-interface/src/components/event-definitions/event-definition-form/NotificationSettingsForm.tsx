@@ -45,15 +45,22 @@ class NotificationSettingsForm extends React.Component<NotificationSettingsFormP
   constructor(props) {
     super(props);
 
-    const { backlog_size: backlogSize, grace_period_ms: gracePeriodMs } = props.eventDefinition.notification_settings;
+    const {
+      backlog_size: backlogSize,
+      grace_period_ms: gracePeriodMs,
+      digest_window_ms: digestWindowMs,
+    } = props.eventDefinition.notification_settings;
 
     const gracePeriod = extractDurationAndUnit(gracePeriodMs, TIME_UNITS);
+    const digestWindow = extractDurationAndUnit(defaultTo(digestWindowMs, 0), TIME_UNITS);
     const defaultBacklogSize = props.defaults.default_backlog_size;
     const effectiveBacklogSize = defaultTo(backlogSize, defaultBacklogSize);
 
     this.state = {
       gracePeriodDuration: gracePeriod.duration,
       gracePeriodUnit: gracePeriod.unit,
+      digestWindowDuration: digestWindow.duration,
+      digestWindowUnit: digestWindow.unit,
       isBacklogSizeEnabled: (backlogSize === null ? false : (effectiveBacklogSize > 0)),
       backlogSize: effectiveBacklogSize,
     };
@@ -74,6 +81,13 @@ class NotificationSettingsForm extends React.Component<NotificationSettingsFormP
     this.setState({ gracePeriodDuration: nextValue, gracePeriodUnit: nextUnit });
   };
 
+  handleDigestWindowChange = (nextValue, nextUnit, enabled) => {
+    const durationInMs = enabled ? moment.duration(max([nextValue, 0]), nextUnit).asMilliseconds() : 0;
+
+    this.propagateChanges('digest_window_ms', durationInMs);
+    this.setState({ digestWindowDuration: nextValue, digestWindowUnit: nextUnit });
+  };
+
   handleBacklogSizeChange = (event) => {
     const { name } = event.target;
     const value = event.target.value === '' ? '' : FormsUtils.getValueFromInput(event.target);
@@ -91,7 +105,14 @@ class NotificationSettingsForm extends React.Component<NotificationSettingsFormP
 
   render() {
     const { eventDefinition } = this.props;
-    const { gracePeriodDuration, gracePeriodUnit, isBacklogSizeEnabled, backlogSize } = this.state;
+    const {
+      gracePeriodDuration,
+      gracePeriodUnit,
+      digestWindowDuration,
+      digestWindowUnit,
+      isBacklogSizeEnabled,
+      backlogSize,
+    } = this.state;
 
     if (eventDefinition.notifications.length === 0) {
       return null;
@@ -114,6 +135,22 @@ class NotificationSettingsForm extends React.Component<NotificationSettingsFormP
           </p>
         </FormGroup>
 
+        <FormGroup controlId="digest-window">
+          <TimeUnitInput label="Digest Window"
+                         update={this.handleDigestWindowChange}
+                         defaultEnabled={digestWindowDuration !== 0}
+                         value={digestWindowDuration}
+                         unit={digestWindowUnit}
+                         units={TIME_UNITS}
+                         clearable />
+          <p>
+            Set a Digest Window to send all Events which occur within the window in a single Notification instead of
+            one Notification per Event. Notification templates can list the Events of a digest with
+            the <code>digest_events</code> field. Only Email and HTTP Notifications support digests, all other
+            Notifications keep being sent once per Event.
+          </p>
+        </FormGroup>
+
         <FormGroup>
           <ControlLabel>Message Backlog</ControlLabel>
           <InputGroup>
@@ -96,6 +96,7 @@ export type EventDefinition = {
   notification_settings: {
     grace_period_ms: number,
     backlog_size: number,
+    digest_window_ms?: number,
   },
   notifications: Array<Notification>,
   remediation_steps?: string,
@@ -44,6 +44,13 @@ Timerange End:        \${event.timerange_end}
 Fields:
 \${foreach event.fields field}  \${field.key}: \${field.value}
 \${end}
+\${if digest_events}
+--- [Digest] -------------------------------------
+Events accounting for this notification:
+\${foreach digest_events digest_event}
+\${digest_event.timestamp}  \${digest_event.message}
+\${end}
+\${end}
 \${if backlog}
 --- [Backlog] ------------------------------------
 Last messages accounting for this alert:
@@ -74,6 +81,14 @@ const DEFAULT_HTML_BODY_TEMPLATE = `<table width="100%" border="0" cellpadding="
 <tr><td>Source Streams</td><td>\${event.source_streams}</td></tr>
 <tr><td>Fields</td><td><ul style="list-style-type:square;">\${foreach event.fields field}<li>\${field.key}:\${field.value}</li>\${end}<ul></td></tr>
 </tbody></table>
+\${if digest_events}
+<br /><table width="100%" border="0" cellpadding="10" cellspacing="0" style="background-color:#f9f9f9;border:none;line-height:1.2"><tbody>
+<tr><th colspan="2" style="background-color:#e6e6e6;line-height:1.5">Digest (Events accounting for this notification)</th></tr>
+\${foreach digest_events digest_event}
+<tr><td width="200px">\${digest_event.timestamp}</td><td>\${digest_event.message}</td></tr>
+\${end}
+</tbody></table>
+\${end}
 \${if backlog}
 <br /><table width="100%" border="0" cellpadding="10" cellspacing="0" style="background-color:#f9f9f9;border:none;line-height:1.2"><tbody>
 <tr><th style="background-color:#e6e6e6;line-height:1.5">Backlog (Last messages accounting for this alert)</th></tr>